@@ -0,0 +1,134 @@
+package com.safetynet.safetynet.benchmark;
+
+import com.safetynet.safetynet.dto.ChildAlertDTO;
+import com.safetynet.safetynet.dto.CommunityEmailDTO;
+import com.safetynet.safetynet.dto.DataDTO;
+import com.safetynet.safetynet.dto.FireDTO;
+import com.safetynet.safetynet.dto.FireStationCoverageDTO;
+import com.safetynet.safetynet.dto.FloodStationsDTO;
+import com.safetynet.safetynet.dto.PersonInfoDTO;
+import com.safetynet.safetynet.dto.PhoneAlertDTO;
+import com.safetynet.safetynet.model.FireStation;
+import com.safetynet.safetynet.model.Person;
+import com.safetynet.safetynet.repository.DataSnapshot;
+import com.safetynet.safetynet.repository.DataSnapshotRepository;
+import com.safetynet.safetynet.repository.generator.SyntheticDataGenerator;
+import com.safetynet.safetynet.service.AgeClock;
+import com.safetynet.safetynet.service.ChildAlertService;
+import com.safetynet.safetynet.service.CommunityEmailService;
+import com.safetynet.safetynet.service.FireAlertService;
+import com.safetynet.safetynet.service.FireStationCoverageService;
+import com.safetynet.safetynet.service.FloodAlertService;
+import com.safetynet.safetynet.service.PersonInfoService;
+import com.safetynet.safetynet.service.PhoneAlertService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * JMH benchmarks of every alert service, parameterized over the number of persons.
+ * <p>
+ * The services are wired by hand around a fixed {@link DataSnapshot} built by
+ * the {@link SyntheticDataGenerator}, so the numbers cover the service and
+ * index code only, without HTTP or Spring. Each invocation queries a
+ * different address, station, last name or city, cycling through the data set.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class AlertServiceBenchmark {
+
+    @Param({"1000", "10000", "100000"})
+    private int persons;
+
+    private String[] addresses;
+    private String[] stations;
+    private String[] lastNames;
+    private String[] cities;
+    private int next;
+
+    private FireStationCoverageService fireStationCoverageService;
+    private PhoneAlertService phoneAlertService;
+    private ChildAlertService childAlertService;
+    private FireAlertService fireAlertService;
+    private FloodAlertService floodAlertService;
+    private PersonInfoService personInfoService;
+    private CommunityEmailService communityEmailService;
+
+    /**
+     * Generates the data set and wires the services around it.
+     */
+    @Setup(Level.Trial)
+    public void setUp() {
+        DataDTO data = new SyntheticDataGenerator(persons, 42L).toDataDTO();
+        DataSnapshot snapshot = DataSnapshot.of(data.getPersons(), data.getFireStations(), data.getMedicalRecords());
+        addresses = data.getPersons().stream().map(Person::getAddress).distinct().toArray(String[]::new);
+        stations = data.getFireStations().stream().map(FireStation::getStation).distinct().toArray(String[]::new);
+        lastNames = data.getPersons().stream().map(Person::getLastName).distinct().toArray(String[]::new);
+        cities = data.getPersons().stream().map(Person::getCity).distinct().toArray(String[]::new);
+
+        DataSnapshotRepository dataSnapshotRepository = () -> snapshot;
+        AgeClock ageClock = new AgeClock();
+        fireStationCoverageService = new FireStationCoverageService(dataSnapshotRepository, ageClock);
+        phoneAlertService = new PhoneAlertService(dataSnapshotRepository);
+        childAlertService = new ChildAlertService(dataSnapshotRepository, ageClock);
+        fireAlertService = new FireAlertService(dataSnapshotRepository, ageClock);
+        floodAlertService = new FloodAlertService(dataSnapshotRepository, ageClock);
+        personInfoService = new PersonInfoService(dataSnapshotRepository, ageClock);
+        communityEmailService = new CommunityEmailService(dataSnapshotRepository);
+    }
+
+    @Benchmark
+    public FireStationCoverageDTO fireStationCoverage() {
+        return fireStationCoverageService.getCoverageByStation(pick(stations));
+    }
+
+    @Benchmark
+    public PhoneAlertDTO phoneAlert() {
+        return phoneAlertService.getPhonesByFireStation(pick(stations));
+    }
+
+    @Benchmark
+    public ChildAlertDTO childAlert() {
+        return childAlertService.getChildrenAtAddress(pick(addresses));
+    }
+
+    @Benchmark
+    public FireDTO fireAlert() {
+        return fireAlertService.getFireAlertByAddress(pick(addresses));
+    }
+
+    @Benchmark
+    public FloodStationsDTO floodAlert() {
+        return floodAlertService.getHouseholdsByStations(List.of(pick(stations), pick(stations)));
+    }
+
+    @Benchmark
+    public List<PersonInfoDTO> personInfo() {
+        return personInfoService.getPersonInfoByLastName(pick(lastNames));
+    }
+
+    @Benchmark
+    public CommunityEmailDTO communityEmail() {
+        return communityEmailService.getEmailsByCity(pick(cities));
+    }
+
+    private String pick(String[] keys) {
+        return keys[Math.floorMod(next++, keys.length)];
+    }
+}
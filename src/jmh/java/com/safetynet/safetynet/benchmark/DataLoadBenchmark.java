@@ -0,0 +1,91 @@
+package com.safetynet.safetynet.benchmark;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import com.safetynet.safetynet.dto.DataDTO;
+import com.safetynet.safetynet.repository.DataSnapshot;
+import com.safetynet.safetynet.repository.generator.SyntheticDataGenerator;
+import com.safetynet.safetynet.repository.persistence.DataSetReader;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * JMH benchmarks of loading a data set file into a {@link DataSnapshot}, parameterized over the number of persons.
+ * <p>
+ * Compares binding the whole document to a {@link DataDTO} before indexing it
+ * with streaming it through a {@link DataSetReader} straight into the snapshot
+ * builder. Each iteration is a single cold load; run with {@code -prof gc} to
+ * compare allocation.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2)
+@Measurement(iterations = 5)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+public class DataLoadBenchmark {
+
+    @Param({"10000", "100000", "1000000"})
+    private int persons;
+
+    private Path file;
+    private ObjectMapper objectMapper;
+    private DataSetReader reader;
+
+    /**
+     * Writes the data set to a temporary file.
+     */
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        file = Files.createTempFile("safetynet-" + persons, ".json");
+        try (OutputStream out = new BufferedOutputStream(Files.newOutputStream(file), 1 << 16)) {
+            new SyntheticDataGenerator(persons, 42L).writeJson(out);
+        }
+        objectMapper = new ObjectMapper().registerModule(new JavaTimeModule());
+        reader = new DataSetReader(objectMapper.getFactory());
+    }
+
+    /**
+     * Deletes the temporary file.
+     */
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        Files.deleteIfExists(file);
+    }
+
+    @Benchmark
+    public DataSnapshot bindDataDTO() throws IOException {
+        try (InputStream in = new BufferedInputStream(Files.newInputStream(file), 1 << 16)) {
+            DataDTO data = objectMapper.readValue(in, DataDTO.class);
+            return DataSnapshot.of(data.getPersons(), data.getFireStations(), data.getMedicalRecords());
+        }
+    }
+
+    @Benchmark
+    public DataSnapshot stream() throws IOException {
+        DataSnapshot.Builder builder = DataSnapshot.empty().toBuilder();
+        reader.read(new BufferedInputStream(Files.newInputStream(file), 1 << 16),
+                builder::addPerson, builder::addFireStation, builder::addMedicalRecord);
+        return builder.build();
+    }
+}
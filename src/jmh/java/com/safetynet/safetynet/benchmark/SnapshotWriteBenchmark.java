@@ -0,0 +1,90 @@
+package com.safetynet.safetynet.benchmark;
+
+import com.safetynet.safetynet.dto.DataDTO;
+import com.safetynet.safetynet.model.Person;
+import com.safetynet.safetynet.repository.DataSnapshot;
+import com.safetynet.safetynet.repository.generator.SyntheticDataGenerator;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * JMH benchmarks of deriving a new {@link DataSnapshot} from a single person
+ * write, parameterized over the number of persons.
+ * <p>
+ * A person write copies only the paths of the persistent collections and
+ * indexes leading to the entries it changes, and rebuilds the households of
+ * the addresses it touches, so the time per write should stay flat as the
+ * data set grows a hundredfold. Every household is joined up front, as on a
+ * server that has answered alerts for a while. Each invocation derives from
+ * the same base snapshot, touching a different person; run with
+ * {@code -prof gc} to see the garbage per write.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+public class SnapshotWriteBenchmark {
+
+    @Param({"10000", "100000", "1000000"})
+    private int persons;
+
+    private DataSnapshot snapshot;
+    private List<Person> people;
+    private int next;
+
+    /**
+     * Generates the data set and joins every household.
+     */
+    @Setup(Level.Trial)
+    public void setUp() {
+        DataDTO data = new SyntheticDataGenerator(persons, 42L).toDataDTO();
+        snapshot = DataSnapshot.of(data.getPersons(), data.getFireStations(), data.getMedicalRecords());
+        people = snapshot.getPersons();
+        people.stream().map(Person::getAddress).distinct().forEach(snapshot::findHousehold);
+    }
+
+    @Benchmark
+    public DataSnapshot addPerson() {
+        Person template = pick();
+        return snapshot.toBuilder()
+                .addPerson(new Person("New", template.getLastName(), template.getAddress(), template.getCity(),
+                        template.getZip(), template.getPhone(), template.getEmail()))
+                .build();
+    }
+
+    @Benchmark
+    public DataSnapshot updatePerson() {
+        Person person = pick();
+        return snapshot.toBuilder()
+                .replacePerson(person, new Person(person.getFirstName(), person.getLastName(), person.getAddress(),
+                        person.getCity(), person.getZip(), "000-000-0000", person.getEmail()))
+                .build();
+    }
+
+    @Benchmark
+    public DataSnapshot deletePerson() {
+        Person person = pick();
+        DataSnapshot.Builder builder = snapshot.toBuilder();
+        builder.removePerson(person);
+        return builder.build();
+    }
+
+    private Person pick() {
+        return people.get(Math.floorMod(next++, people.size()));
+    }
+}
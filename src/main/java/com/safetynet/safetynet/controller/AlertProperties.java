@@ -0,0 +1,18 @@
+package com.safetynet.safetynet.controller;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+/**
+ * Configuration properties of the alert endpoints,
+ * bound from the {@code safetynet.alerts.*} keys.
+ */
+@Data
+@Component
+@ConfigurationProperties(prefix = "safetynet.alerts")
+public class AlertProperties {
+
+    /** Maximum number of addresses or station numbers a single batch request may carry. */
+    private int maxBatchSize = 100;
+}
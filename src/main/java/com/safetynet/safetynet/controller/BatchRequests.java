@@ -0,0 +1,31 @@
+package com.safetynet.safetynet.controller;
+
+import java.util.List;
+
+/**
+ * Checks the keys sent to the batch alert endpoints before they reach a service.
+ */
+final class BatchRequests {
+
+    private BatchRequests() {
+    }
+
+    /**
+     * Looks for a reason to reject the keys of a batch request.
+     *
+     * @param keys         the addresses or station numbers of the request
+     * @param maxBatchSize the maximum number of keys accepted
+     * @return why the request is rejected, or {@code null} if it is valid
+     */
+    static String problem(List<String> keys, int maxBatchSize) {
+        if (keys.size() > maxBatchSize) {
+            return keys.size() + " keys exceed the limit of " + maxBatchSize;
+        }
+        for (String key : keys) {
+            if (key == null || key.isBlank()) {
+                return "a key is null or blank";
+            }
+        }
+        return null;
+    }
+}
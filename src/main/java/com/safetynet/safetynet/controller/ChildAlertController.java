@@ -10,6 +10,9 @@ import lombok.extern.slf4j.Slf4j;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
+import java.util.List;
+import java.util.Map;
+
 /**
  * REST controller for managing child alert data.
  * Provides an endpoint to retrieve information about children and
@@ -22,6 +25,7 @@ import org.springframework.web.bind.annotation.*;
 public class ChildAlertController {
 
     private final ChildAlertService childAlertService;
+    private final AlertProperties alertProperties;
 
     /**
      * Retrieves a list of children and household members for a given address.
@@ -51,4 +55,35 @@ public class ChildAlertController {
         log.info("Child alert data successfully retrieved for address: {}", address);
         return ResponseEntity.ok(childAlert);
     }
+
+    /**
+     * Retrieves children and household members for several addresses in one call.
+     *
+     * @param addresses the addresses to search for children and household members
+     * @return the {@link ChildAlertDTO} of each distinct address, keyed by address
+     */
+    @PostMapping("/batch")
+    @Operation(
+            summary = "Get children and household members for several addresses",
+            description = "Returns, for each given address, the children living there and the other members of "
+                    + "their household. All addresses are resolved against the same version of the data; "
+                    + "an address without children maps to empty lists."
+    )
+    @ApiResponses({
+            @ApiResponse(responseCode = "200", description = "Child alert data retrieved successfully."),
+            @ApiResponse(responseCode = "400", description = "The request body is not a list of addresses, "
+                    + "holds a null or blank address, or holds more addresses than allowed.")
+    })
+    public ResponseEntity<Map<String, ChildAlertDTO>> getChildAlertBatch(@RequestBody List<String> addresses) {
+        log.info("Fetching child alert information for {} addresses", addresses.size());
+        String problem = BatchRequests.problem(addresses, alertProperties.getMaxBatchSize());
+        if (problem != null) {
+            log.warn("Rejected child alert batch: {}", problem);
+            return ResponseEntity.badRequest().build();
+        }
+        Map<String, ChildAlertDTO> childAlerts = childAlertService.getChildrenAtAddresses(addresses);
+
+        log.info("Child alert data successfully retrieved for {} addresses", childAlerts.size());
+        return ResponseEntity.ok(childAlerts);
+    }
 }
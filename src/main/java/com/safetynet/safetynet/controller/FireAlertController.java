@@ -10,6 +10,9 @@ import lombok.extern.slf4j.Slf4j;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
+import java.util.List;
+import java.util.Map;
+
 @Slf4j
 @RestController
 @RequestMapping("/fire")
@@ -17,6 +20,7 @@ import org.springframework.web.bind.annotation.*;
 public class FireAlertController {
 
     private final FireAlertService fireAlertService;
+    private final AlertProperties alertProperties;
 
     /**
      * GET endpoint to retrieve fire station number and residents' info for a given address.
@@ -43,4 +47,33 @@ public class FireAlertController {
         log.info("Fire data successfully retrieved for address: {}", address);
         return ResponseEntity.ok(fireDTO);
     }
+
+    /**
+     * POST endpoint to retrieve fire station numbers and residents' info for several addresses in one call.
+     *
+     * @param addresses the addresses to search
+     * @return the {@link FireDTO} of each distinct address, keyed by address
+     */
+    @PostMapping("/batch")
+    @Operation(summary = "Get firestations and residents for several addresses",
+            description = "Returns, for each given address, the fire station number serving it and its residents. "
+                    + "All addresses are resolved against the same version of the data; "
+                    + "an address nobody lives at maps to an empty resident list.")
+    @ApiResponses({
+            @ApiResponse(responseCode = "200", description = "Fire data retrieved successfully."),
+            @ApiResponse(responseCode = "400", description = "The request body is not a list of addresses, "
+                    + "holds a null or blank address, or holds more addresses than allowed.")
+    })
+    public ResponseEntity<Map<String, FireDTO>> getFireInfoBatch(@RequestBody List<String> addresses) {
+        log.info("Fetching fire info for {} addresses", addresses.size());
+        String problem = BatchRequests.problem(addresses, alertProperties.getMaxBatchSize());
+        if (problem != null) {
+            log.warn("Rejected fire info batch: {}", problem);
+            return ResponseEntity.badRequest().build();
+        }
+        Map<String, FireDTO> fireDTOs = fireAlertService.getFireAlertsByAddresses(addresses);
+
+        log.info("Fire data successfully retrieved for {} addresses", fireDTOs.size());
+        return ResponseEntity.ok(fireDTOs);
+    }
 }
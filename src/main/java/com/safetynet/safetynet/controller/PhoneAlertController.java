@@ -7,8 +7,12 @@ import io.swagger.v3.oas.annotations.responses.ApiResponse;
 import io.swagger.v3.oas.annotations.responses.ApiResponses;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
+import java.util.List;
+import java.util.Map;
+
 /**
  * REST controller that handles the phone alert endpoint.
  * This endpoint allows retrieving the phone numbers of all residents
@@ -21,6 +25,7 @@ import org.springframework.web.bind.annotation.*;
 public class PhoneAlertController {
 
     private final PhoneAlertService phoneAlertService;
+    private final AlertProperties alertProperties;
 
     /**
      * GET endpoint to retrieve phone numbers of residents by fire station number.
@@ -41,4 +46,31 @@ public class PhoneAlertController {
         log.info("Fetching phone alert for fireStation={}", fireStation);
         return phoneAlertService.getPhonesByFireStation(fireStation);
     }
+
+    /**
+     * POST endpoint to retrieve phone numbers of residents for several fire stations in one call.
+     *
+     * @param fireStations the fire station numbers
+     * @return the {@link PhoneAlertDTO} of each distinct station, keyed by station number
+     */
+    @PostMapping("/phoneAlert/batch")
+    @Operation(
+            summary = "Get phone numbers for several fire stations",
+            description = "Returns, for each given fire station, the phone numbers of all residents it covers. "
+                    + "All stations are resolved against the same version of the data."
+    )
+    @ApiResponses({
+            @ApiResponse(responseCode = "200", description = "Phone numbers retrieved successfully."),
+            @ApiResponse(responseCode = "400", description = "The request body is not a list of station numbers, "
+                    + "holds a null or blank station number, or holds more stations than allowed.")
+    })
+    public ResponseEntity<Map<String, PhoneAlertDTO>> getPhoneAlertBatch(@RequestBody List<String> fireStations) {
+        log.info("Fetching phone alerts for {} fire stations", fireStations.size());
+        String problem = BatchRequests.problem(fireStations, alertProperties.getMaxBatchSize());
+        if (problem != null) {
+            log.warn("Rejected phone alert batch: {}", problem);
+            return ResponseEntity.badRequest().build();
+        }
+        return ResponseEntity.ok(phoneAlertService.getPhonesByFireStations(fireStations));
+    }
 }
@@ -4,7 +4,7 @@ import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.NoArgsConstructor;
 
-import java.util.List;
+import java.util.Collection;
 
 /**
  * Data Transfer Object (DTO) representing the result of a "community email" request.
@@ -23,7 +23,10 @@ public class CommunityEmailDTO {
 
     /** The city for which email addresses are collected. */
     private String city;
-    /** List of email addresses of all inhabitants living in the given city. */
-    private List<String> emails;
+    /**
+     * Distinct email addresses of all inhabitants living in the given city.
+     * May be a read-only view of the index it was looked up in.
+     */
+    private Collection<String> emails;
 
 }
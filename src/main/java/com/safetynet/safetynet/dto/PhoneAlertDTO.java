@@ -4,7 +4,7 @@ import lombok.AllArgsConstructor;
 import lombok.Getter;
 
 
-import java.util.List;
+import java.util.Collection;
 
 /**
  * Data Transfer Object (DTO) representing a list of phone numbers
@@ -15,6 +15,11 @@ import java.util.List;
 @Getter
 @AllArgsConstructor
 public class PhoneAlertDTO {
-    /** List of phone numbers to notify. */
-    private List<String> phoneNumbers;
+    /**
+     * Distinct phone numbers to notify, serialized as a JSON array. Residents
+     * without a phone number add nothing. Declared as a {@link Collection}
+     * rather than a list so that the read-only index view can be returned
+     * without copying.
+     */
+    private Collection<String> phoneNumbers;
 }
\ No newline at end of file
@@ -0,0 +1,82 @@
+package com.safetynet.safetynet.repository;
+
+import java.time.LocalDate;
+
+/**
+ * Precomputed age data for one birthdate.
+ * <p>
+ * Besides the birthdate itself, stored as integers, the profile holds the
+ * epoch day on which the person stops being a child, i.e. turns
+ * {@link #CHILD_MAX_AGE} + 1. Classifying someone as a child or an adult is
+ * therefore a single comparison against {@link CalendarDay#epochDay()}, and
+ * the classification flips exactly on that birthday. A person born on
+ * February 29 becomes an adult on March 1 in a common year, as
+ * {@link java.time.Period#between} would have it.
+ */
+public final class AgeProfile {
+
+    /** Highest age, inclusive, at which a person is a child. */
+    public static final int CHILD_MAX_AGE = 18;
+
+    /** Profile of an unknown birthdate: always aged 0, and therefore always a child. */
+    public static final AgeProfile UNKNOWN = new AgeProfile(0, 0, 0, Integer.MAX_VALUE);
+
+    private final int birthEpochDay;
+    private final int birthYear;
+    private final int birthMonthDay;
+    private final int adultFromEpochDay;
+
+    private AgeProfile(int birthEpochDay, int birthYear, int birthMonthDay, int adultFromEpochDay) {
+        this.birthEpochDay = birthEpochDay;
+        this.birthYear = birthYear;
+        this.birthMonthDay = birthMonthDay;
+        this.adultFromEpochDay = adultFromEpochDay;
+    }
+
+    /**
+     * Builds the profile of a birthdate.
+     *
+     * @param birthDate the birthdate, may be {@code null}
+     * @return the profile, or {@link #UNKNOWN} if the birthdate is {@code null}
+     */
+    public static AgeProfile of(LocalDate birthDate) {
+        if (birthDate == null) {
+            return UNKNOWN;
+        }
+        // Counting days from the first of the month rolls February 29 over to March 1 in common years
+        LocalDate adultFrom = LocalDate.of(birthDate.getYear() + CHILD_MAX_AGE + 1, birthDate.getMonth(), 1)
+                .plusDays(birthDate.getDayOfMonth() - 1L);
+        return new AgeProfile(Math.toIntExact(birthDate.toEpochDay()), birthDate.getYear(),
+                CalendarDay.monthDayOf(birthDate), Math.toIntExact(adultFrom.toEpochDay()));
+    }
+
+    /**
+     * Returns the age in whole years on a given day.
+     *
+     * @param today the reference day
+     * @return the age, or 0 for an unknown birthdate
+     */
+    public int ageOn(CalendarDay today) {
+        if (this == UNKNOWN) return 0;
+        return today.yearsBetween(birthEpochDay, birthYear, birthMonthDay);
+    }
+
+    /**
+     * Tells whether the person is a child, aged {@link #CHILD_MAX_AGE} or less, on a given day.
+     *
+     * @param today the reference day
+     * @return {@code true} for a child
+     */
+    public boolean isChildOn(CalendarDay today) {
+        return today.epochDay() < adultFromEpochDay;
+    }
+
+    /**
+     * Returns the first epoch day on which the person is an adult.
+     *
+     * @return the epoch day, or {@link Integer#MAX_VALUE} for an unknown birthdate
+     */
+    public int getAdultFromEpochDay() {
+        return adultFromEpochDay;
+    }
+}
@@ -0,0 +1,54 @@
+package com.safetynet.safetynet.repository;
+
+import java.time.LocalDate;
+
+/**
+ * A calendar date decomposed into the integers age arithmetic needs: the
+ * epoch day, the year, and the month and day packed as {@code month * 100 + day}.
+ * <p>
+ * Ages are computed from these fields with plain integer comparisons, giving
+ * the same whole-year result as {@link java.time.Period#between} without
+ * allocating.
+ *
+ * @param epochDay the day count since 1970-01-01
+ * @param year     the year
+ * @param monthDay the month and day of month, as {@code month * 100 + day}
+ */
+public record CalendarDay(int epochDay, int year, int monthDay) {
+
+    /**
+     * Decomposes a date.
+     *
+     * @param date the date
+     * @return the calendar day
+     */
+    public static CalendarDay of(LocalDate date) {
+        return new CalendarDay(Math.toIntExact(date.toEpochDay()), date.getYear(), monthDayOf(date));
+    }
+
+    /**
+     * Returns the number of whole years between a birthdate and this day.
+     *
+     * @param birthDate the birthdate, may be {@code null}
+     * @return the age in years, negative for a birthdate in the future, or 0 if the birthdate is {@code null}
+     */
+    public int yearsSince(LocalDate birthDate) {
+        if (birthDate == null) return 0;
+        return yearsBetween(Math.toIntExact(birthDate.toEpochDay()), birthDate.getYear(), monthDayOf(birthDate));
+    }
+
+    /**
+     * Returns the number of whole years from a decomposed start date to this day,
+     * truncated towards zero like {@link java.time.Period#getYears()}.
+     */
+    int yearsBetween(int startEpochDay, int startYear, int startMonthDay) {
+        if (startEpochDay <= epochDay) {
+            return year - startYear - (monthDay < startMonthDay ? 1 : 0);
+        }
+        return -(startYear - year - (startMonthDay < monthDay ? 1 : 0));
+    }
+
+    static int monthDayOf(LocalDate date) {
+        return date.getMonthValue() * 100 + date.getDayOfMonth();
+    }
+}
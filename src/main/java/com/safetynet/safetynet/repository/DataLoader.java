@@ -7,125 +7,647 @@ import com.safetynet.safetynet.dto.DataDTO;
 import com.safetynet.safetynet.model.Person;
 import com.safetynet.safetynet.model.FireStation;
 import com.safetynet.safetynet.model.MedicalRecord;
+import com.safetynet.safetynet.repository.persistence.BinarySnapshot;
+import com.safetynet.safetynet.repository.persistence.DataFileWatcher;
+import com.safetynet.safetynet.repository.persistence.DataSetReader;
+import com.safetynet.safetynet.repository.persistence.JournalEntry;
+import com.safetynet.safetynet.repository.persistence.JournalSnapshotStore;
+import com.safetynet.safetynet.repository.persistence.PersistenceProperties;
+import com.safetynet.safetynet.repository.persistence.WriteBehindPersister;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.AccessLevel;
 import lombok.Getter;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Repository;
 
-import java.io.File;
+import java.io.BufferedInputStream;
 import java.io.IOException;
 import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
 
 /**
- * Repository responsible for loading and persisting SafetyNet data
- * from/to the JSON file located in {@code src/main/resources/data.json}.
+ * Repository responsible for loading and persisting SafetyNet data.
  * <p>
- * The {@link DataLoader} reads the JSON file at application startup
- * and stores the content (persons, fire stations, medical records)
- * in memory. Whenever updates occur through setters, the file is
- * rewritten to keep data persistence synchronized.
+ * The {@link DataLoader} keeps persons, fire stations and medical records
+ * in memory as an immutable {@link DataSnapshot}. At startup it loads the newest compacted snapshot from
+ * the configured storage directory (or {@code data.json} from the data directory
+ * when no snapshot exists yet) and replays the mutation journal written since.
+ * The {@code data.json} bundled on the classpath is only a seed, copied to the
+ * data directory the first time it is missing there.
+ * <p>
+ * Repositories report every change through {@link #append(JournalEntry)},
+ * which costs a single sequential write to the journal. A
+ * {@link WriteBehindPersister} coalesces journal syncs and compacts the
+ * journal into a new snapshot once it grows beyond the configured size.
+ * In durable mode the journal is synced before {@code append} returns.
+ * <p>
+ * Readers take the current snapshot through {@link #getSnapshot()} without any
+ * locking. Writers hold the write lock of {@link #getLock()} while they derive
+ * a new version, {@link #append(JournalEntry) journal} the change and
+ * {@link #publish(DataSnapshot) publish} the new version, so writes are
+ * serialized and the journal order matches the publication order. Compaction
+ * captures the current snapshot and rotates the journal under the read lock,
+ * so the captured state always lies between two journal records.
+ * <p>
+ * When {@code data.json} in the data directory is replaced, for instance by a
+ * new export of the upstream registry, {@link #reload(Path)} parses and indexes
+ * it off to the side, then swaps it in as a whole. A file that cannot be parsed
+ * or holds invalid entities is rejected and the data set being served is kept.
+ * A {@code data.json} replaced while the application was down is reloaded at
+ * startup, whether or not it is watched.
  */
 @Slf4j
 @Repository
 @Getter
 public class DataLoader {
 
-    /** Default JSON file path containing application data. */
-    private static final String JSON_FILE_PATH = "src/main/resources/data.json";
+    /** Name of the initial data set, both in the data directory and on the classpath. */
+    private static final String SEED_FILE = "data.json";
+
+    /** Current version of the data set, replaced atomically by writers. */
+    @Getter(AccessLevel.NONE)
+    private final AtomicReference<DataSnapshot> snapshot = new AtomicReference<>(DataSnapshot.empty());
+
+    /** Serializes writers against each other and against compaction. */
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+    /** Mapper shared by snapshot and journal serialization. */
+    @Getter(AccessLevel.NONE)
+    private final ObjectMapper objectMapper;
+
+    /** Streaming reader for snapshots and the seed. */
+    @Getter(AccessLevel.NONE)
+    private final DataSetReader reader;
+
+    /** Snapshot and journal files backing the in-memory data. */
+    @Getter(AccessLevel.NONE)
+    private final JournalSnapshotStore store;
+
+    /** Background persister coalescing journal syncs and compactions, created by {@link #start()}. */
+    @Getter(AccessLevel.NONE)
+    private WriteBehindPersister persister;
+
+    /** Directory holding the initial data set. */
+    @Getter(AccessLevel.NONE)
+    private final Path dataDirectory;
 
-    /** List of all persons managed by the system. */
-    private List<Person> persons;
+    /** Whether every mutation is synced synchronously. */
+    @Getter(AccessLevel.NONE)
+    private final boolean durable;
 
-    /** List of all fire stations and their assigned addresses. */
-    private List<FireStation> fireStations;
+    /** Whether data files are read section by section on separate threads. */
+    @Getter(AccessLevel.NONE)
+    private final boolean parallelLoad;
 
-    /** List of all medical records for the persons. */
-    private List<MedicalRecord> medicalRecords;
+    /** Journal size (bytes) above which a new snapshot is written. */
+    @Getter(AccessLevel.NONE)
+    private final long compactionThresholdBytes;
+
+    /** Registry of the reload duration metrics. */
+    @Getter(AccessLevel.NONE)
+    private final MeterRegistry meterRegistry;
+
+    /** Settings the background threads are started with. */
+    @Getter(AccessLevel.NONE)
+    private final PersistenceProperties properties;
+
+    /** Watcher reloading {@code data.json} when it changes, or {@code null} if disabled or not started. */
+    @Getter(AccessLevel.NONE)
+    private DataFileWatcher watcher;
 
     /**
-     * Initializes the DataLoader by reading the JSON file
-     * and deserializing its contents into in-memory lists.
+     * Initializes the DataLoader by loading the latest snapshot
+     * and replaying the journal written since. The background threads are
+     * only started by {@link #start()}.
+     *
+     * @param properties    the persistence settings (directories, flush delay, batch size, durability,
+     *                      compaction, parallel load, snapshot format, reload)
+     * @param meterRegistry the registry receiving the reload metrics
      */
-
-    public DataLoader() {
+    public DataLoader(PersistenceProperties properties, MeterRegistry meterRegistry) {
+        this.meterRegistry = meterRegistry;
+        this.properties = properties;
+        this.dataDirectory = properties.getDataDirectory();
+        this.durable = properties.isDurable();
+        this.compactionThresholdBytes = properties.getCompactionThresholdBytes();
+        this.parallelLoad = properties.isParallelLoad();
+        this.objectMapper = new ObjectMapper();
+        objectMapper.registerModule(new JavaTimeModule());
+        objectMapper.disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS);
+        this.reader = new DataSetReader(objectMapper.getFactory());
+        this.store = new JournalSnapshotStore(properties.getStorageDirectory(), objectMapper, properties.getSnapshotFormat());
         loadData();
     }
 
     /**
-     * Reads and deserializes data from the JSON file into
-     * {@link DataDTO}, initializing persons, fire stations,
-     * and medical records.
+     * Reloads {@code data.json} if it changed while the application was down,
+     * then starts the background persister and, if enabled, the watcher of
+     * {@code data.json}. Both call back into this loader, so they are started
+     * once it is fully constructed rather than from the constructor.
+     * Must be called before the first {@link #append(JournalEntry)}; does
+     * nothing if already started.
+     *
+     * @throws UncheckedIOException if {@code data.json} cannot be checked
+     */
+    @PostConstruct
+    public void start() {
+        if (persister != null) {
+            return;
+        }
+        reloadChangedSeed();
+        persister = new WriteBehindPersister(this::checkpoint, properties.getMaxDelayMs(), properties.getMaxDirty());
+        watcher = properties.isReloadOnChange() ? watchSeed(properties.getReloadQuietMs()) : null;
+    }
+
+    /**
+     * Loads the newest snapshot (or the seed) and
+     * replays the journal tail on top of it.
+     * <p>
+     * A JSON file is streamed straight into the {@link DataSnapshot.Builder},
+     * which indexes each entity as it arrives; a binary one is memory-mapped and
+     * decoded. In parallel-load mode the three collection files of a snapshot,
+     * or the three sections of the seed, are read concurrently by {@link #readParallel}.
+     *
+     * @throws UncheckedIOException if the data cannot be recovered, so that the
+     *                              application does not start serving an empty data set
      */
     private void loadData() {
-        ObjectMapper objectMapper = new ObjectMapper();
-        objectMapper.registerModule(new JavaTimeModule());
-        objectMapper.disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS);
+        try {
+            long start = System.nanoTime();
+            JournalSnapshotStore.Recovery recovery = store.recover();
+            DataSnapshot.Builder builder;
+            if (recovery.hasSnapshot()) {
+                builder = readSnapshot(recovery);
+            } else {
+                builder = readSeed(seedFile());
+            }
+            recovery.entries().forEach(entry -> replay(builder, entry));
+            snapshot.set(builder.build());
+            log.info("Data successfully loaded in {} ms ({} persons, {} journal entries replayed)",
+                    (System.nanoTime() - start) / 1_000_000, snapshot.get().getPersons().size(),
+                    recovery.entries().size());
+        } catch (IOException e) {
+            store.close();
+            throw new UncheckedIOException("Failed to load data, refusing to start", e);
+        }
+    }
 
+    /**
+     * Compares {@code data.json} in the data directory with the fingerprint
+     * recorded when the stored data was last derived from it, and reloads it
+     * if it differs, for instance when a new export was dropped in while the
+     * application was down or when it stopped before the snapshot of a reload
+     * was written. On first start, the fingerprint is only recorded.
+     */
+    private void reloadChangedSeed() {
+        Path seed = dataDirectory.resolve(SEED_FILE);
         try {
-            // Load JSON from resources folder
-            InputStream jsonStream = getClass().getClassLoader().getResourceAsStream("data.json");
-            if (jsonStream == null) {
-                log.error("data.json not found in resources!");
+            if (!Files.exists(seed)) {
                 return;
             }
+            String current = fingerprint(seed);
+            String recorded = store.seedFingerprint();
+            if (recorded == null) {
+                store.recordSeedFingerprint(current);
+            } else if (!recorded.equals(current)) {
+                log.info("{} changed since it was last loaded, reloading it", seed);
+                reload(seed);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to check " + seed + " for changes", e);
+        }
+    }
 
-            DataDTO dataDTO = objectMapper.readValue(jsonStream, DataDTO.class);
-            persons = dataDTO.getPersons();
-            fireStations = dataDTO.getFireStations();
-            medicalRecords = dataDTO.getMedicalRecords();
-            log.info("Data successfully loaded from data.json");
+    /**
+     * Identifies a version of a data file by its size and modification time,
+     * which is enough to notice a new export without reading it.
+     */
+    private static String fingerprint(Path file) throws IOException {
+        return Files.size(file) + "-" + Files.getLastModifiedTime(file).toMillis();
+    }
+
+    /**
+     * Starts watching {@code data.json} in the data directory.
+     * Returns {@code null}, apart from logging, if the directory cannot be watched.
+     */
+    private DataFileWatcher watchSeed(long quietMillis) {
+        try {
+            Files.createDirectories(dataDirectory);
+            return new DataFileWatcher(dataDirectory.resolve(SEED_FILE), quietMillis, this::reload);
         } catch (IOException e) {
-            log.error("Failed to load data: {}", e.getMessage());
+            log.error("Cannot watch {} for new data: {}", dataDirectory, e.getMessage());
+            return null;
         }
     }
 
     /**
-     * Serializes and writes the current in-memory data to the JSON file.
+     * Replaces the whole data set with the content of a data file.
+     * <p>
+     * The file is parsed and indexed without holding any lock, so readers and
+     * writers carry on meanwhile. If it cannot be parsed or holds an entity
+     * without its key fields, it is rejected and nothing changes. Otherwise,
+     * under the write lock, the journal is rotated and the new data set is
+     * published in one step. The snapshot of the new data set, which keeps a
+     * restart from bringing back the old one, is then written outside the lock,
+     * as compaction does, so neither readers nor writers wait for it. Reloading
+     * {@code data.json} itself records its fingerprint once that snapshot is
+     * written; should the application stop before, {@link #start()} finds the
+     * file changed and reloads it again. Local changes made since the previous
+     * load are discarded along with the data set they applied to.
+     * <p>
+     * The duration is recorded in the {@code safetynet.data.reload} timer,
+     * tagged with the outcome.
+     *
+     * @param file the data file, in the {@code data.json} format
+     * @return {@code true} if the data set was replaced, {@code false} if the file was rejected
      */
-    private void writeDataToFile() {
-        DataDTO dataDTO = new DataDTO(persons, fireStations, medicalRecords);
+    public boolean reload(Path file) {
+        long start = System.nanoTime();
+        DataSnapshot next;
+        String fingerprint;
+        try {
+            fingerprint = isSeed(file) ? fingerprint(file) : null;
+            next = readSeed(file).build();
+            validate(next);
+        } catch (IOException | IllegalArgumentException e) {
+            log.error("Rejected {}, keeping the current data: {}", file, e.getMessage());
+            recordReload("rejected", start);
+            return false;
+        }
+        long generation;
+        Lock writeLock = lock.writeLock();
+        writeLock.lock();
+        try {
+            store.markAllDirty();
+            generation = store.rotate();
+            publish(next);
+        } catch (RuntimeException e) {
+            recordReload("failed", start);
+            throw e;
+        } finally {
+            writeLock.unlock();
+        }
+        try {
+            store.writeSnapshot(generation, new DataDTO(next.getPersons(), next.getFireStations(), next.getMedicalRecords()));
+            if (fingerprint != null) {
+                store.recordSeedFingerprint(fingerprint);
+            }
+        } catch (RuntimeException e) {
+            recordReload("failed", start);
+            throw e;
+        }
+        long millis = recordReload("success", start);
+        log.info("Reloaded {} in {} ms ({} persons, {} fire stations, {} medical records)", file, millis,
+                next.getPersons().size(), next.getFireStations().size(), next.getMedicalRecords().size());
+        return true;
+    }
 
-        ObjectMapper objectMapper = new ObjectMapper();
-        objectMapper.registerModule(new JavaTimeModule());
-        objectMapper.disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS);
+    /**
+     * Tells whether a file is {@code data.json} in the data directory.
+     */
+    private boolean isSeed(Path file) {
+        return file.toAbsolutePath().normalize().equals(dataDirectory.resolve(SEED_FILE).toAbsolutePath().normalize());
+    }
+
+    /**
+     * Checks that a data set is usable: not empty, and with every entity carrying
+     * the fields it is looked up by.
+     *
+     * @throws IllegalArgumentException describing the first problem found
+     */
+    private static void validate(DataSnapshot data) {
+        if (data.getPersons().isEmpty() && data.getFireStations().isEmpty() && data.getMedicalRecords().isEmpty()) {
+            throw new IllegalArgumentException("the data set is empty");
+        }
+        for (Person person : data.getPersons()) {
+            if (isBlank(person.getFirstName()) || isBlank(person.getLastName())) {
+                throw new IllegalArgumentException("a person has no first or last name: " + person);
+            }
+        }
+        for (FireStation fireStation : data.getFireStations()) {
+            if (isBlank(fireStation.getAddress()) || isBlank(fireStation.getStation())) {
+                throw new IllegalArgumentException("a fire station mapping has no address or station: " + fireStation);
+            }
+        }
+        for (MedicalRecord medicalRecord : data.getMedicalRecords()) {
+            if (isBlank(medicalRecord.getFirstName()) || isBlank(medicalRecord.getLastName())) {
+                throw new IllegalArgumentException("a medical record has no first or last name: " + medicalRecord);
+            }
+        }
+    }
 
+    private static boolean isBlank(String value) {
+        return value == null || value.isBlank();
+    }
+
+    /**
+     * Records the duration of a reload attempt.
+     *
+     * @return the duration in milliseconds
+     */
+    private long recordReload(String outcome, long start) {
+        long nanos = System.nanoTime() - start;
+        Timer.builder("safetynet.data.reload")
+                .description("Time taken to load a new version of data.json")
+                .tag("outcome", outcome)
+                .register(meterRegistry)
+                .record(nanos, TimeUnit.NANOSECONDS);
+        return TimeUnit.NANOSECONDS.toMillis(nanos);
+    }
+
+    /**
+     * Reads the collection files of a recovered snapshot, each holding one collection.
+     */
+    private DataSnapshot.Builder readSnapshot(JournalSnapshotStore.Recovery recovery) throws IOException {
+        if (parallelLoad) {
+            return readParallel(
+                    sectionBuilder -> readFile(recovery.persons(), sectionBuilder),
+                    sectionBuilder -> readFile(recovery.fireStations(), sectionBuilder),
+                    sectionBuilder -> readFile(recovery.medicalRecords(), sectionBuilder)).toBuilder();
+        }
+        DataSnapshot.Builder builder = DataSnapshot.empty().toBuilder();
+        readFile(recovery.persons(), builder);
+        readFile(recovery.fireStations(), builder);
+        readFile(recovery.medicalRecords(), builder);
+        return builder;
+    }
+
+    /**
+     * Reads every entity of a JSON or binary data file into the builder.
+     * Medical records of a binary file are mapped, so that their medications
+     * and allergies are only decoded when a query reads them.
+     */
+    private void readFile(Path file, DataSnapshot.Builder builder) throws IOException {
+        if (BinarySnapshot.isBinary(file)) {
+            BinarySnapshot binary = BinarySnapshot.open(file);
+            binary.readPersons(builder::addPerson);
+            binary.readFireStations(builder::addFireStation);
+            binary.mapMedicalRecords(builder::addMedicalRecord);
+        } else {
+            read(Files.newInputStream(file), builder);
+        }
+    }
+
+    /**
+     * Reads the seed, section by section in parallel-load mode.
+     * Returns an empty builder if there is no seed.
+     */
+    private DataSnapshot.Builder readSeed(Path seed) throws IOException {
+        if (seed == null) {
+            return DataSnapshot.empty().toBuilder();
+        }
+        if (parallelLoad) {
+            DataSetReader.Sections sections = reader.locate(seed);
+            return readParallel(
+                    sectionBuilder -> reader.readPersons(seed, sections.persons(), sectionBuilder::addPerson),
+                    sectionBuilder -> reader.readFireStations(seed, sections.fireStations(),
+                            sectionBuilder::addFireStation),
+                    sectionBuilder -> reader.readMedicalRecords(seed, sections.medicalRecords(),
+                            sectionBuilder::addMedicalRecord)).toBuilder();
+        }
+        DataSnapshot.Builder builder = DataSnapshot.empty().toBuilder();
+        read(Files.newInputStream(seed), builder);
+        return builder;
+    }
+
+    /**
+     * Reads the three sections of a data file, each parsed and indexed into
+     * its own builder on a separate thread, then joins them into one snapshot.
+     */
+    private DataSnapshot readParallel(SectionReader persons,
+                                      SectionReader fireStations,
+                                      SectionReader medicalRecords) throws IOException {
+        ExecutorService executor = Executors.newFixedThreadPool(3,
+                Thread.ofPlatform().name("data-loader-", 0).daemon().factory());
         try {
-            objectMapper.writerWithDefaultPrettyPrinter()
-                    .writeValue(new File(JSON_FILE_PATH), dataDTO);
-            log.info("Data successfully written to {}", JSON_FILE_PATH);
-        } catch (IOException e) {
-            log.error("Failed to write data to file: {}", e.getMessage());
-            throw new RuntimeException("Error writing data to file", e);
+            CompletableFuture<DataSnapshot.Builder> personSection = readSection(executor, persons);
+            CompletableFuture<DataSnapshot.Builder> fireStationSection = readSection(executor, fireStations);
+            CompletableFuture<DataSnapshot.Builder> medicalRecordSection = readSection(executor, medicalRecords);
+            return DataSnapshot.join(personSection.join(), fireStationSection.join(), medicalRecordSection.join());
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof UncheckedIOException io) {
+                throw io.getCause();
+            }
+            throw e;
+        } finally {
+            executor.shutdown();
         }
     }
 
     /**
-     * Updates the list of persons and persists the changes to file.
+     * Reads one section into a fresh builder on the executor.
+     */
+    private static CompletableFuture<DataSnapshot.Builder> readSection(Executor executor, SectionReader sectionReader) {
+        return CompletableFuture.supplyAsync(() -> {
+            DataSnapshot.Builder builder = DataSnapshot.empty().toBuilder();
+            try {
+                sectionReader.read(builder);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+            return builder;
+        }, executor);
+    }
+
+    /**
+     * Reads one section of a data file into a builder.
+     */
+    @FunctionalInterface
+    private interface SectionReader {
+        void read(DataSnapshot.Builder builder) throws IOException;
+    }
+
+    /**
+     * Returns the seed in the data directory, copying the one bundled on the
+     * classpath there first if it is missing. Returns {@code null}, apart from
+     * logging, if there is no seed at all.
+     */
+    private Path seedFile() throws IOException {
+        Path seed = dataDirectory.resolve(SEED_FILE);
+        if (Files.exists(seed)) {
+            return seed;
+        }
+        try (InputStream bundled = getClass().getClassLoader().getResourceAsStream(SEED_FILE)) {
+            if (bundled == null) {
+                log.error("data.json found neither in {} nor in resources!", dataDirectory);
+                return null;
+            }
+            Files.createDirectories(dataDirectory);
+            Path temp = dataDirectory.resolve(SEED_FILE + ".tmp");
+            Files.copy(bundled, temp, StandardCopyOption.REPLACE_EXISTING);
+            Files.move(temp, seed, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        }
+        log.info("Copied the bundled data.json to {}", seed);
+        return seed;
+    }
+
+    /**
+     * Streams a document into the builder and closes it.
+     */
+    private void read(InputStream in, DataSnapshot.Builder builder) throws IOException {
+        reader.read(new BufferedInputStream(in, 1 << 16),
+                builder::addPerson, builder::addFireStation, builder::addMedicalRecord);
+    }
+
+    /**
+     * Returns the current version of the data set. Never blocks.
      *
-     * @param persons the updated list of persons
+     * @return the current snapshot
      */
-    public void setPersons(List<Person> persons) {
-        this.persons = persons;
-        writeDataToFile();
+    public DataSnapshot getSnapshot() {
+        return snapshot.get();
     }
 
     /**
-     * Updates the list of fire stations and persists the changes to file.
+     * Makes a new version of the data set visible to readers.
+     * Callers must hold the write lock and have journaled the change first.
      *
-     * @param fireStations the updated list of fire stations
+     * @param next the new snapshot
      */
-    public void setFireStations(List<FireStation> fireStations) {
-        this.fireStations = fireStations;
-        writeDataToFile();
+    public void publish(DataSnapshot next) {
+        snapshot.set(next);
     }
 
     /**
-     * Updates the list of medical records and persists the changes to file.
+     * Records a mutation that is about to be published.
+     * Callers must hold the write lock across this call and the matching
+     * {@link #publish(DataSnapshot)}, so that journal order matches
+     * publication order and a concurrent compaction sees both or neither.
      *
-     * @param medicalRecords the updated list of medical records
+     * @param entry the mutation to record
+     */
+    public void append(JournalEntry entry) {
+        store.append(entry);
+        if (durable) {
+            store.sync();
+        }
+        persister.markDirty();
+    }
+
+    /**
+     * Synchronously syncs every pending journal record to disk.
+     * Intended for callers that need the data to be durable before continuing.
+     */
+    public void flush() {
+        persister.flush();
+    }
+
+    /**
+     * Flushes pending changes and stops the background persister on shutdown.
+     */
+    @PreDestroy
+    public void shutdown() {
+        log.info("Flushing pending data before shutdown");
+        if (watcher != null) {
+            watcher.close();
+        }
+        if (persister != null) {
+            persister.close();
+        }
+        store.close();
+    }
+
+    /**
+     * Syncs the journal and compacts it into a new snapshot when it has
+     * outgrown the configured threshold. Runs on the persister thread.
+     */
+    private void checkpoint() {
+        store.sync();
+        if (store.journalSize() >= compactionThresholdBytes) {
+            compact();
+        }
+    }
+
+    /**
+     * Writes a snapshot of the current data and discards the journal it replaces.
+     * Only the capture is done under the read lock; serialization happens outside it,
+     * which is safe because the captured snapshot is immutable.
+     */
+    private void compact() {
+        DataSnapshot captured;
+        long generation;
+        Lock readLock = lock.readLock();
+        readLock.lock();
+        try {
+            captured = snapshot.get();
+            generation = store.rotate();
+        } finally {
+            readLock.unlock();
+        }
+        store.writeSnapshot(generation, new DataDTO(
+                captured.getPersons(), captured.getFireStations(), captured.getMedicalRecords()));
+    }
+
+    /**
+     * Re-applies a journal entry to the data set being recovered,
+     * using the same matching rules as the repositories.
      */
-    public void setMedicalRecords(List<MedicalRecord> medicalRecords) {
-        this.medicalRecords = medicalRecords;
-        writeDataToFile();
+    private static void replay(DataSnapshot.Builder builder, JournalEntry entry) {
+        List<String> key = entry.getKey();
+        switch (entry.getType()) {
+            case PERSON -> {
+                switch (entry.getOperation()) {
+                    case ADD -> builder.addPerson(entry.getPerson());
+                    case UPDATE -> {
+                        List<Person> named = builder.findPersonsByName(key.get(0), key.get(1));
+                        if (!named.isEmpty()) {
+                            Person current = named.get(0);
+                            Person updated = entry.getPerson();
+                            builder.replacePerson(current, new Person(current.getFirstName(), current.getLastName(),
+                                    updated.getAddress(), updated.getCity(), updated.getZip(),
+                                    updated.getPhone(), updated.getEmail()));
+                        }
+                    }
+                    case DELETE -> builder.findPersonsByName(key.get(0), key.get(1)).forEach(builder::removePerson);
+                }
+            }
+            case FIRE_STATION -> {
+                switch (entry.getOperation()) {
+                    case ADD -> builder.addFireStation(entry.getFireStation());
+                    case UPDATE -> {
+                        List<FireStation> mapped = builder.findFireStationsByAddress(key.get(0));
+                        if (!mapped.isEmpty()) {
+                            FireStation current = mapped.get(0);
+                            builder.replaceFireStation(current,
+                                    new FireStation(current.getAddress(), entry.getFireStation().getStation()));
+                        }
+                    }
+                    case DELETE -> builder.findFireStationsByAddress(key.get(0)).forEach(builder::removeFireStation);
+                }
+            }
+            case MEDICAL_RECORD -> {
+                switch (entry.getOperation()) {
+                    case ADD -> builder.addMedicalRecord(entry.getMedicalRecord());
+                    case UPDATE -> builder.findMedicalRecords(key.get(0), key.get(1)).stream()
+                            .filter(r -> r.getFirstName().equals(key.get(0)) && r.getLastName().equals(key.get(1)))
+                            .findFirst()
+                            .ifPresent(current -> {
+                                MedicalRecord updated = entry.getMedicalRecord();
+                                builder.replaceMedicalRecord(current, new MedicalRecord(current.getFirstName(),
+                                        current.getLastName(), updated.getBirthdate(),
+                                        updated.getMedications(), updated.getAllergies()));
+                            });
+                    case DELETE -> builder.findMedicalRecords(key.get(0), key.get(1))
+                            .forEach(builder::removeMedicalRecord);
+                }
+            }
+        }
     }
 }
@@ -0,0 +1,1166 @@
+package com.safetynet.safetynet.repository;
+
+import com.safetynet.safetynet.model.FireStation;
+import com.safetynet.safetynet.model.MedicalRecord;
+import com.safetynet.safetynet.model.Person;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Predicate;
+
+/**
+ * Immutable version of the whole SafetyNet data set: persons, fire stations
+ * and medical records together with the indexes built over them.
+ * <p>
+ * A snapshot is never modified once built, so any number of threads may read
+ * it without locking, and a request that reads several collections from the
+ * same snapshot always sees them in a mutually consistent state. Writers derive
+ * a new version through {@link #toBuilder()}. Collections and indexes are
+ * {@link PersistentSequence}s and {@link PersistentMap}s, so a new version
+ * shares all of its structure with the previous one except the paths leading
+ * to the entries a write changed, and a write costs {@code O(log n)} in the
+ * size of the data set.
+ * <p>
+ * Each snapshot also answers a {@link Household} per address. Households
+ * are joined from the indexes the first time an address is looked up and
+ * then kept with the snapshot, so loading a data set only builds the
+ * indexes, and households nobody queries are never built. The builder carries
+ * the households already joined over to the next version, and joins the
+ * addresses a write touched up front, so the first alert after a write finds
+ * them ready: a person's old and new address, the addresses of the persons
+ * named by a medical record, or the address of a station mapping. Building
+ * from {@link #empty()}, as loads do, leaves every household to its first
+ * lookup.
+ * <p>
+ * Entities are shared between versions and must not be mutated; an update
+ * replaces the entity instead. Each entity is a distinct instance, so the
+ * builder finds and replaces them by identity.
+ */
+public final class DataSnapshot {
+
+    private static final DataSnapshot EMPTY = new DataSnapshot(PersistentSequence.identity(),
+            PersistentSequence.identity(), PersistentSequence.identity(), PersistentMap.empty(),
+            PersistentMap.empty(), PersistentMap.empty(), new RefCountedIndex<>(), PersistentMap.empty(),
+            new RefCountedIndex<>(), new RefCountedIndex<>(), PersistentMap.empty(), new RefCountedIndex<>(),
+            PersistentMap.empty(), PersistentMap.empty());
+
+    private final PersistentSequence<Person> persons;
+    private final PersistentSequence<FireStation> fireStations;
+    private final PersistentSequence<MedicalRecord> medicalRecords;
+
+    /** Residents by exact address. */
+    private final PersistentMap<String, PersistentSequence<Person>> personsByAddress;
+
+    /** Persons by normalized name, used to find the households a medical record belongs to. */
+    private final PersistentMap<NameKey, PersistentSequence<Person>> personsByName;
+
+    /** Persons by last name, folded with {@link NameKey#normalize} when indexed. */
+    private final PersistentMap<String, PersistentSequence<Person>> personsByLastName;
+
+    /** Distinct non-empty emails by city, folded like names; counted once per person. */
+    private final RefCountedIndex<String, String> emailsByCity;
+
+    /** Records by normalized name, in insertion order; the first record of a given name wins. */
+    private final PersistentMap<NameKey, PersistentSequence<MedicalRecord>> recordsByName;
+
+    /** Addresses by station number. */
+    private final RefCountedIndex<String, String> addressesByStation;
+
+    /** Station numbers by address. */
+    private final RefCountedIndex<String, String> stationsByAddress;
+
+    /** Station mappings by address, folded with {@link NameKey#normalize}. */
+    private final PersistentMap<String, PersistentSequence<FireStation>> fireStationsByAddress;
+
+    /**
+     * Distinct phone numbers of the residents covered by each station, counted
+     * once per resident and covering station of their address.
+     */
+    private final RefCountedIndex<String, String> phonesByStation;
+
+    /** Adults and children covered by each station, counted like {@link #phonesByStation}. */
+    private final PersistentMap<String, StationCensus> censusByStation;
+
+    /**
+     * Households joined so far, by exact address. Only ever grows, with
+     * households derived from this snapshot's immutable indexes; a lookup
+     * publishes the household it joined with a compare-and-set, so one racing
+     * another at worst joins the same household twice.
+     */
+    private final AtomicReference<PersistentMap<String, Household>> households;
+
+    private DataSnapshot(PersistentSequence<Person> persons,
+                         PersistentSequence<FireStation> fireStations,
+                         PersistentSequence<MedicalRecord> medicalRecords,
+                         PersistentMap<String, PersistentSequence<Person>> personsByAddress,
+                         PersistentMap<NameKey, PersistentSequence<Person>> personsByName,
+                         PersistentMap<String, PersistentSequence<Person>> personsByLastName,
+                         RefCountedIndex<String, String> emailsByCity,
+                         PersistentMap<NameKey, PersistentSequence<MedicalRecord>> recordsByName,
+                         RefCountedIndex<String, String> addressesByStation,
+                         RefCountedIndex<String, String> stationsByAddress,
+                         PersistentMap<String, PersistentSequence<FireStation>> fireStationsByAddress,
+                         RefCountedIndex<String, String> phonesByStation,
+                         PersistentMap<String, StationCensus> censusByStation,
+                         PersistentMap<String, Household> households) {
+        this.persons = persons;
+        this.fireStations = fireStations;
+        this.medicalRecords = medicalRecords;
+        this.personsByAddress = personsByAddress;
+        this.personsByName = personsByName;
+        this.personsByLastName = personsByLastName;
+        this.emailsByCity = emailsByCity;
+        this.recordsByName = recordsByName;
+        this.addressesByStation = addressesByStation;
+        this.stationsByAddress = stationsByAddress;
+        this.fireStationsByAddress = fireStationsByAddress;
+        this.phonesByStation = phonesByStation;
+        this.censusByStation = censusByStation;
+        this.households = new AtomicReference<>(households);
+    }
+
+    /**
+     * Returns the snapshot holding no data.
+     *
+     * @return the empty snapshot
+     */
+    public static DataSnapshot empty() {
+        return EMPTY;
+    }
+
+    /**
+     * Builds a snapshot, and its indexes, from the given collections.
+     * The lists are copied; {@code null} is treated as empty.
+     *
+     * @param persons        the persons
+     * @param fireStations   the fire station mappings
+     * @param medicalRecords the medical records
+     * @return the new snapshot
+     * @throws IllegalArgumentException if a list holds the same instance twice
+     */
+    public static DataSnapshot of(List<Person> persons,
+                                  List<FireStation> fireStations,
+                                  List<MedicalRecord> medicalRecords) {
+        Builder builder = EMPTY.toBuilder();
+        if (persons != null) {
+            persons.forEach(builder::addPerson);
+        }
+        if (fireStations != null) {
+            fireStations.forEach(builder::addFireStation);
+        }
+        if (medicalRecords != null) {
+            medicalRecords.forEach(builder::addMedicalRecord);
+        }
+        return builder.build();
+    }
+
+    /**
+     * Joins three independently built sections into a snapshot. Each builder
+     * must start from {@link #empty()} and hold only the collection it is named
+     * after, which lets the sections be read and indexed on separate threads.
+     * The result is the snapshot that {@link #of} would build from the same
+     * collections.
+     *
+     * @param persons        a builder holding only persons
+     * @param fireStations   a builder holding only fire station mappings
+     * @param medicalRecords a builder holding only medical records
+     * @return the new snapshot
+     * @throws IllegalArgumentException if a builder holds another collection or did not start empty
+     */
+    public static DataSnapshot join(Builder persons, Builder fireStations, Builder medicalRecords) {
+        requireSection(persons, persons.fireStations == null && persons.medicalRecords == null, "persons");
+        requireSection(fireStations, fireStations.persons == null && fireStations.medicalRecords == null,
+                "fire stations");
+        requireSection(medicalRecords, medicalRecords.persons == null && medicalRecords.fireStations == null,
+                "medical records");
+
+        PersistentMap<String, PersistentSequence<Person>> residents =
+                persons.personsByAddress != null ? persons.personsByAddress.publish() : EMPTY.personsByAddress;
+        RefCountedIndex<String, String> stations =
+                fireStations.stationsByAddress != null ? fireStations.stationsByAddress : EMPTY.stationsByAddress;
+        PersistentMap<NameKey, PersistentSequence<MedicalRecord>> records = medicalRecords.recordsByName != null
+                ? medicalRecords.recordsByName.publish() : EMPTY.recordsByName;
+        RefCountedIndex<String, String> phones = new RefCountedIndex<>();
+        Censuses census = new Censuses(EMPTY.censusByStation);
+        for (String address : stations.keySet()) {
+            for (Person resident : bucket(residents, address)) {
+                NameKey name = NameKey.of(resident.getFirstName(), resident.getLastName());
+                int adultFrom = adultFromEpochDay(first(records.get(name)));
+                for (String station : stations.get(address)) {
+                    if (resident.getPhone() != null) {
+                        phones.add(station, resident.getPhone());
+                    }
+                    census.add(station, adultFrom);
+                }
+            }
+        }
+
+        return new DataSnapshot(
+                persons.currentPersons(),
+                fireStations.currentFireStations(),
+                medicalRecords.currentMedicalRecords(),
+                residents,
+                persons.personsByName != null ? persons.personsByName.publish() : EMPTY.personsByName,
+                persons.personsByLastName != null ? persons.personsByLastName.publish() : EMPTY.personsByLastName,
+                persons.emailsByCity != null ? persons.emailsByCity : EMPTY.emailsByCity,
+                records,
+                fireStations.addressesByStation != null ? fireStations.addressesByStation : EMPTY.addressesByStation,
+                stations,
+                fireStations.fireStationsByAddress != null
+                        ? fireStations.fireStationsByAddress.publish() : EMPTY.fireStationsByAddress,
+                phones,
+                census.publish(),
+                EMPTY.households.get());
+    }
+
+    private static void requireSection(Builder builder, boolean sectionOnly, String section) {
+        if (builder.base != EMPTY || !sectionOnly) {
+            throw new IllegalArgumentException("Builder for " + section + " must start empty and hold only " + section);
+        }
+    }
+
+    /**
+     * Returns every person, in insertion order.
+     *
+     * @return an unmodifiable list of persons
+     */
+    public List<Person> getPersons() {
+        return persons;
+    }
+
+    /**
+     * Returns every fire station mapping, in insertion order.
+     *
+     * @return an unmodifiable list of fire station mappings
+     */
+    public List<FireStation> getFireStations() {
+        return fireStations;
+    }
+
+    /**
+     * Returns every medical record, in insertion order.
+     *
+     * @return an unmodifiable list of medical records
+     */
+    public List<MedicalRecord> getMedicalRecords() {
+        return medicalRecords;
+    }
+
+    /**
+     * Returns the persons living at an address.
+     *
+     * @param address the exact address
+     * @return an unmodifiable list of residents, empty if nobody lives there
+     */
+    public List<Person> findPersonsByAddress(String address) {
+        return bucket(personsByAddress, address);
+    }
+
+    /**
+     * Returns the persons with a first and last name, ignoring case.
+     *
+     * @param firstName the first name
+     * @param lastName  the last name
+     * @return an unmodifiable list of persons, in insertion order
+     */
+    public List<Person> findPersonsByName(String firstName, String lastName) {
+        return bucket(personsByName, NameKey.of(firstName, lastName));
+    }
+
+    /**
+     * Returns the persons with a last name, ignoring case.
+     *
+     * @param lastName the last name
+     * @return an unmodifiable list of persons, in the order they were indexed
+     */
+    public List<Person> findPersonsByLastName(String lastName) {
+        return bucket(personsByLastName, NameKey.normalize(lastName));
+    }
+
+    /**
+     * Returns the distinct emails of the persons living in a city, ignoring case.
+     * Persons without an email are left out.
+     *
+     * @param city the city
+     * @return an unmodifiable view of the emails, in the order they were first indexed
+     */
+    public Set<String> findEmailsByCity(String city) {
+        return emailsByCity.get(NameKey.normalize(city));
+    }
+
+    /**
+     * Returns the medical record of a person, ignoring case.
+     *
+     * @param firstName the first name
+     * @param lastName  the last name
+     * @return the first matching record, or {@code null} if there is none
+     */
+    public MedicalRecord findMedicalRecord(String firstName, String lastName) {
+        return first(recordsByName.get(NameKey.of(firstName, lastName)));
+    }
+
+    /**
+     * Returns every medical record with a first and last name, ignoring case.
+     *
+     * @param firstName the first name
+     * @param lastName  the last name
+     * @return an unmodifiable list of records, in insertion order
+     */
+    public List<MedicalRecord> findMedicalRecords(String firstName, String lastName) {
+        return bucket(recordsByName, NameKey.of(firstName, lastName));
+    }
+
+    /**
+     * Returns the addresses covered by a station.
+     *
+     * @param station the station number
+     * @return an unmodifiable set of addresses in mapping order, empty if the station is unknown
+     */
+    public Set<String> findAddressesByStation(String station) {
+        return addressesByStation.get(station);
+    }
+
+    /**
+     * Returns the stations covering an address.
+     *
+     * @param address the exact address
+     * @return an unmodifiable set of station numbers in mapping order, empty if the address is not covered
+     */
+    public Set<String> findStationsByAddress(String address) {
+        return stationsByAddress.get(address);
+    }
+
+    /**
+     * Returns the fire station mappings of an address, ignoring case.
+     *
+     * @param address the address
+     * @return an unmodifiable list of mappings, in insertion order
+     */
+    public List<FireStation> findFireStationsByAddress(String address) {
+        return bucket(fireStationsByAddress, NameKey.normalize(address));
+    }
+
+    /**
+     * Returns the distinct phone numbers of the residents covered by a station.
+     *
+     * @param station the station number
+     * @return an unmodifiable view of the phone numbers, empty if the station is unknown
+     */
+    public Set<String> findPhonesByStation(String station) {
+        return phonesByStation.get(station);
+    }
+
+    /**
+     * Returns the running count of adults and children covered by a station.
+     *
+     * @param station the station number
+     * @return the census, counting nobody if the station is unknown
+     */
+    public StationCensus findCensusByStation(String station) {
+        return censusByStation.getOrDefault(station, StationCensus.EMPTY);
+    }
+
+    /**
+     * Returns the household at an address, joining it on first lookup.
+     *
+     * @param address the exact address
+     * @return the household, or {@code null} if nobody lives at the address and no station covers it
+     */
+    public Household findHousehold(String address) {
+        Household household = households.get().get(address);
+        if (household == null) {
+            household = buildHousehold(address, bucket(personsByAddress, address),
+                    recordsByName, stationsByAddress.get(address), null);
+            if (household == null) {
+                return null;
+            }
+            while (true) {
+                PersistentMap<String, Household> joined = households.get();
+                Household raced = joined.get(address);
+                if (raced != null) {
+                    return raced;
+                }
+                if (households.compareAndSet(joined, joined.plus(address, household))) {
+                    return household;
+                }
+            }
+        }
+        return household;
+    }
+
+    /**
+     * Joins the household of an address from the given indexes. Residents
+     * whose person and record are unchanged are carried over from the previous
+     * household, if any, so their cached age survives the rebuild.
+     *
+     * @return the household, or {@code null} if the address has neither residents nor a station
+     */
+    private static Household buildHousehold(String address,
+                                             List<Person> persons,
+                                             Map<NameKey, PersistentSequence<MedicalRecord>> records,
+                                             Set<String> stations,
+                                             Household previous) {
+        if (persons.isEmpty() && stations.isEmpty()) {
+            return null;
+        }
+        Map<Person, Resident> reusable = new IdentityHashMap<>();
+        if (previous != null) {
+            previous.residents().forEach(resident -> reusable.put(resident.getPerson(), resident));
+        }
+        List<Resident> residents = new ArrayList<>(persons.size());
+        for (Person person : persons) {
+            MedicalRecord record = first(records.get(NameKey.of(person.getFirstName(), person.getLastName())));
+            Resident resident = reusable.get(person);
+            residents.add(resident != null && resident.getMedicalRecord() == record
+                    ? resident : new Resident(person, record));
+        }
+        String station = stations.isEmpty() ? null : stations.iterator().next();
+        return new Household(address, station, Collections.unmodifiableList(residents));
+    }
+
+    /**
+     * Returns the epoch day from which the owner of a medical record counts as
+     * an adult; without a record, a person always does.
+     */
+    private static int adultFromEpochDay(MedicalRecord record) {
+        return record != null ? AgeProfile.of(record.getBirthdate()).getAdultFromEpochDay() : Integer.MIN_VALUE;
+    }
+
+    private static <K, E> List<E> bucket(Map<K, PersistentSequence<E>> buckets, K key) {
+        PersistentSequence<E> bucket = buckets.get(key);
+        return bucket != null ? bucket : List.of();
+    }
+
+    /**
+     * Returns the record that wins for a name, given its bucket.
+     */
+    private static MedicalRecord first(List<MedicalRecord> records) {
+        return records == null || records.isEmpty() ? null : records.get(0);
+    }
+
+    /**
+     * Starts a new version derived from this snapshot.
+     *
+     * @return a builder sharing this snapshot's data until it is modified
+     */
+    public Builder toBuilder() {
+        return new Builder(this);
+    }
+
+    /**
+     * Derives a new {@link DataSnapshot} from an existing one.
+     * <p>
+     * A collection and its indexes are shared with the base snapshot until the
+     * first change, and every change then copies only the paths it changes, so
+     * it costs {@code O(log n)} whatever the size of the collection or of the
+     * bucket it touches. Nodes the builder created itself are changed in place,
+     * which is why replay and bulk loads share one builder. The households of
+     * the addresses a change affects are joined once, by {@link #build()},
+     * unless the builder started from {@link #empty()}.
+     * The builder is not thread-safe and must not be used after {@link #build()}.
+     */
+    public static final class Builder {
+
+        private final DataSnapshot base;
+
+        /** Edit token of the entity sequences, replaced whenever one is handed out. */
+        private Object edit = new Object();
+
+        private PersistentSequence<Person> persons;
+        private Buckets<String, Person> personsByAddress;
+        private Buckets<NameKey, Person> personsByName;
+        private Buckets<String, Person> personsByLastName;
+        private RefCountedIndex<String, String> emailsByCity;
+
+        private PersistentSequence<FireStation> fireStations;
+        private RefCountedIndex<String, String> addressesByStation;
+        private RefCountedIndex<String, String> stationsByAddress;
+        private Buckets<String, FireStation> fireStationsByAddress;
+
+        /** Copied when persons or station mappings change, as it depends on both. */
+        private RefCountedIndex<String, String> phonesByStation;
+
+        /** Copied when persons, station mappings or medical records change. */
+        private Censuses censusByStation;
+
+        private PersistentSequence<MedicalRecord> medicalRecords;
+        private Buckets<NameKey, MedicalRecord> recordsByName;
+
+        /** Addresses whose household must be rebuilt. */
+        private final Set<String> dirtyAddresses = new HashSet<>();
+
+        private Builder(DataSnapshot base) {
+            this.base = base;
+        }
+
+        /**
+         * Returns the persons as currently built.
+         *
+         * @return an unmodifiable list of the persons, unaffected by later changes
+         */
+        public List<Person> getPersons() {
+            edit = new Object();
+            return currentPersons();
+        }
+
+        /**
+         * Returns the fire station mappings as currently built.
+         *
+         * @return an unmodifiable list of the mappings, unaffected by later changes
+         */
+        public List<FireStation> getFireStations() {
+            edit = new Object();
+            return currentFireStations();
+        }
+
+        /**
+         * Returns the medical records as currently built.
+         *
+         * @return an unmodifiable list of the records, unaffected by later changes
+         */
+        public List<MedicalRecord> getMedicalRecords() {
+            edit = new Object();
+            return currentMedicalRecords();
+        }
+
+        /**
+         * Returns the persons with a first and last name as currently built, ignoring case.
+         *
+         * @param firstName the first name
+         * @param lastName  the last name
+         * @return an unmodifiable list of persons in insertion order, unaffected by later changes
+         */
+        public List<Person> findPersonsByName(String firstName, String lastName) {
+            NameKey name = NameKey.of(firstName, lastName);
+            return personsByName != null ? personsByName.share(name) : bucket(base.personsByName, name);
+        }
+
+        /**
+         * Returns the fire station mappings of an address as currently built, ignoring case.
+         *
+         * @param address the address
+         * @return an unmodifiable list of mappings in insertion order, unaffected by later changes
+         */
+        public List<FireStation> findFireStationsByAddress(String address) {
+            String key = NameKey.normalize(address);
+            return fireStationsByAddress != null ? fireStationsByAddress.share(key)
+                    : bucket(base.fireStationsByAddress, key);
+        }
+
+        /**
+         * Returns the medical records with a first and last name as currently built, ignoring case.
+         *
+         * @param firstName the first name
+         * @param lastName  the last name
+         * @return an unmodifiable list of records in insertion order, unaffected by later changes
+         */
+        public List<MedicalRecord> findMedicalRecords(String firstName, String lastName) {
+            NameKey name = NameKey.of(firstName, lastName);
+            return recordsByName != null ? recordsByName.share(name) : bucket(base.recordsByName, name);
+        }
+
+        /**
+         * Appends a person.
+         *
+         * @param person the person to add
+         * @return this builder
+         * @throws IllegalArgumentException if the same instance is already present
+         */
+        public Builder addPerson(Person person) {
+            PersistentSequence<Person> next = ownPersons().plus(person, edit);
+            if (next == persons) {
+                throw new IllegalArgumentException("Person is already present: " + person);
+            }
+            persons = next;
+            indexPerson(person);
+            return this;
+        }
+
+        /**
+         * Replaces the person at a position.
+         *
+         * @param index       the position in {@link #getPersons()}
+         * @param replacement the new person
+         * @return this builder
+         */
+        public Builder replacePerson(int index, Person replacement) {
+            return replacePerson(currentPersons().get(index), replacement);
+        }
+
+        /**
+         * Replaces a person, keeping its position.
+         *
+         * @param previous    the person to replace
+         * @param replacement the new person
+         * @return this builder
+         * @throws IllegalArgumentException if {@code previous} is not present, or {@code replacement} already is
+         */
+        public Builder replacePerson(Person previous, Person replacement) {
+            if (!currentPersons().contains(previous)) {
+                throw new IllegalArgumentException("Person is not present: " + previous);
+            }
+            if (previous != replacement) {
+                persons = ownPersons().replace(previous, replacement, edit);
+                personsByAddress.move(previous.getAddress(), replacement.getAddress(), previous, replacement);
+                personsByName.move(nameOf(previous), nameOf(replacement), previous, replacement);
+                personsByLastName.move(NameKey.normalize(previous.getLastName()),
+                        NameKey.normalize(replacement.getLastName()), previous, replacement);
+                uncountPerson(previous);
+                countPerson(replacement);
+            }
+            return this;
+        }
+
+        /**
+         * Removes a person.
+         *
+         * @param person the person to remove
+         * @return {@code true} if the person was present
+         */
+        public boolean removePerson(Person person) {
+            if (!currentPersons().contains(person)) {
+                return false;
+            }
+            persons = ownPersons().minus(person, edit);
+            unindexPerson(person);
+            return true;
+        }
+
+        /**
+         * Removes every person matching a predicate.
+         *
+         * @param filter the persons to remove
+         * @return {@code true} if at least one person was removed
+         */
+        public boolean removePersonsIf(Predicate<? super Person> filter) {
+            List<Person> removed = getPersons().stream().filter(filter).toList();
+            removed.forEach(this::removePerson);
+            return !removed.isEmpty();
+        }
+
+        /**
+         * Appends a fire station mapping.
+         *
+         * @param fireStation the mapping to add
+         * @return this builder
+         * @throws IllegalArgumentException if the same instance is already present
+         */
+        public Builder addFireStation(FireStation fireStation) {
+            PersistentSequence<FireStation> next = ownFireStations().plus(fireStation, edit);
+            if (next == fireStations) {
+                throw new IllegalArgumentException("Fire station mapping is already present: " + fireStation);
+            }
+            fireStations = next;
+            fireStationsByAddress.add(NameKey.normalize(fireStation.getAddress()), fireStation);
+            indexStation(fireStation);
+            return this;
+        }
+
+        /**
+         * Replaces the fire station mapping at a position.
+         *
+         * @param index       the position in {@link #getFireStations()}
+         * @param replacement the new mapping
+         * @return this builder
+         */
+        public Builder replaceFireStation(int index, FireStation replacement) {
+            return replaceFireStation(currentFireStations().get(index), replacement);
+        }
+
+        /**
+         * Replaces a fire station mapping, keeping its position.
+         *
+         * @param previous    the mapping to replace
+         * @param replacement the new mapping
+         * @return this builder
+         * @throws IllegalArgumentException if {@code previous} is not present, or {@code replacement} already is
+         */
+        public Builder replaceFireStation(FireStation previous, FireStation replacement) {
+            if (!currentFireStations().contains(previous)) {
+                throw new IllegalArgumentException("Fire station mapping is not present: " + previous);
+            }
+            if (previous != replacement) {
+                fireStations = ownFireStations().replace(previous, replacement, edit);
+                fireStationsByAddress.move(NameKey.normalize(previous.getAddress()),
+                        NameKey.normalize(replacement.getAddress()), previous, replacement);
+                unindexStation(previous);
+                indexStation(replacement);
+            }
+            return this;
+        }
+
+        /**
+         * Removes a fire station mapping.
+         *
+         * @param fireStation the mapping to remove
+         * @return {@code true} if the mapping was present
+         */
+        public boolean removeFireStation(FireStation fireStation) {
+            if (!currentFireStations().contains(fireStation)) {
+                return false;
+            }
+            fireStations = ownFireStations().minus(fireStation, edit);
+            fireStationsByAddress.remove(NameKey.normalize(fireStation.getAddress()), fireStation);
+            unindexStation(fireStation);
+            return true;
+        }
+
+        /**
+         * Removes every fire station mapping matching a predicate.
+         *
+         * @param filter the mappings to remove
+         * @return {@code true} if at least one mapping was removed
+         */
+        public boolean removeFireStationsIf(Predicate<? super FireStation> filter) {
+            List<FireStation> removed = getFireStations().stream().filter(filter).toList();
+            removed.forEach(this::removeFireStation);
+            return !removed.isEmpty();
+        }
+
+        /**
+         * Appends a medical record. It is only indexed if no record of the same name exists.
+         *
+         * @param record the record to add
+         * @return this builder
+         * @throws IllegalArgumentException if the same instance is already present
+         */
+        public Builder addMedicalRecord(MedicalRecord record) {
+            PersistentSequence<MedicalRecord> next = ownMedicalRecords().plus(record, edit);
+            if (next == medicalRecords) {
+                throw new IllegalArgumentException("Medical record is already present: " + record);
+            }
+            medicalRecords = next;
+            NameKey name = nameOf(record);
+            MedicalRecord indexed = first(recordsByName.get(name));
+            recordsByName.add(name, record);
+            reindexRecord(name, indexed);
+            return this;
+        }
+
+        /**
+         * Replaces the medical record at a position.
+         *
+         * @param index       the position in {@link #getMedicalRecords()}
+         * @param replacement the new record, with the same name
+         * @return this builder
+         */
+        public Builder replaceMedicalRecord(int index, MedicalRecord replacement) {
+            return replaceMedicalRecord(currentMedicalRecords().get(index), replacement);
+        }
+
+        /**
+         * Replaces a medical record, keeping its position.
+         *
+         * @param previous    the record to replace
+         * @param replacement the new record
+         * @return this builder
+         * @throws IllegalArgumentException if {@code previous} is not present, or {@code replacement} already is
+         */
+        public Builder replaceMedicalRecord(MedicalRecord previous, MedicalRecord replacement) {
+            if (!currentMedicalRecords().contains(previous)) {
+                throw new IllegalArgumentException("Medical record is not present: " + previous);
+            }
+            if (previous != replacement) {
+                medicalRecords = ownMedicalRecords().replace(previous, replacement, edit);
+                NameKey from = nameOf(previous);
+                NameKey to = nameOf(replacement);
+                MedicalRecord indexedFrom = first(recordsByName.get(from));
+                MedicalRecord indexedTo = first(recordsByName.get(to));
+                recordsByName.move(from, to, previous, replacement);
+                reindexRecord(from, indexedFrom);
+                if (!to.equals(from)) {
+                    reindexRecord(to, indexedTo);
+                }
+            }
+            return this;
+        }
+
+        /**
+         * Removes a medical record. When it was the indexed record of its name,
+         * the first remaining record of that name, if any, is indexed in its place.
+         *
+         * @param record the record to remove
+         * @return {@code true} if the record was present
+         */
+        public boolean removeMedicalRecord(MedicalRecord record) {
+            if (!currentMedicalRecords().contains(record)) {
+                return false;
+            }
+            medicalRecords = ownMedicalRecords().minus(record, edit);
+            NameKey name = nameOf(record);
+            MedicalRecord indexed = first(recordsByName.get(name));
+            recordsByName.remove(name, record);
+            reindexRecord(name, indexed);
+            return true;
+        }
+
+        /**
+         * Removes every medical record matching a predicate, as {@link #removeMedicalRecord} does.
+         *
+         * @param filter the records to remove
+         * @return {@code true} if at least one record was removed
+         */
+        public boolean removeMedicalRecordsIf(Predicate<? super MedicalRecord> filter) {
+            List<MedicalRecord> removed = getMedicalRecords().stream().filter(filter).toList();
+            removed.forEach(this::removeMedicalRecord);
+            return !removed.isEmpty();
+        }
+
+        /**
+         * Publishes the collections built so far as a new snapshot.
+         *
+         * @return the new snapshot
+         */
+        public DataSnapshot build() {
+            if (persons == null && fireStations == null && medicalRecords == null) {
+                return base;
+            }
+            PersistentMap<String, PersistentSequence<Person>> residents =
+                    personsByAddress != null ? personsByAddress.publish() : base.personsByAddress;
+            PersistentMap<NameKey, PersistentSequence<MedicalRecord>> records =
+                    recordsByName != null ? recordsByName.publish() : base.recordsByName;
+            RefCountedIndex<String, String> stations =
+                    stationsByAddress != null ? stationsByAddress : base.stationsByAddress;
+
+            PersistentMap<String, Household> households = base.households.get();
+            if (!dirtyAddresses.isEmpty()) {
+                PersistentMap.Editor<String, Household> next = households.edit();
+                boolean eager = base != EMPTY;
+                for (String address : dirtyAddresses) {
+                    Household previous = next.get(address);
+                    if (previous == null && !eager) {
+                        continue;
+                    }
+                    Household household = buildHousehold(address, bucket(residents, address), records,
+                            stations.get(address), previous);
+                    if (household != null) {
+                        next.put(address, household);
+                    } else {
+                        next.remove(address);
+                    }
+                }
+                households = next.publish();
+            }
+
+            edit = new Object();
+            return new DataSnapshot(
+                    currentPersons(),
+                    currentFireStations(),
+                    currentMedicalRecords(),
+                    residents,
+                    personsByName != null ? personsByName.publish() : base.personsByName,
+                    personsByLastName != null ? personsByLastName.publish() : base.personsByLastName,
+                    emailsByCity != null ? emailsByCity : base.emailsByCity,
+                    records,
+                    addressesByStation != null ? addressesByStation : base.addressesByStation,
+                    stations,
+                    fireStationsByAddress != null ? fireStationsByAddress.publish() : base.fireStationsByAddress,
+                    phonesByStation != null ? phonesByStation : base.phonesByStation,
+                    censusByStation != null ? censusByStation.publish() : base.censusByStation,
+                    households);
+        }
+
+        private PersistentSequence<Person> currentPersons() {
+            return persons != null ? persons : base.persons;
+        }
+
+        private PersistentSequence<FireStation> currentFireStations() {
+            return fireStations != null ? fireStations : base.fireStations;
+        }
+
+        private PersistentSequence<MedicalRecord> currentMedicalRecords() {
+            return medicalRecords != null ? medicalRecords : base.medicalRecords;
+        }
+
+        private PersistentSequence<Person> ownPersons() {
+            if (persons == null) {
+                persons = base.persons;
+                personsByAddress = new Buckets<>(base.personsByAddress);
+                personsByName = new Buckets<>(base.personsByName);
+                personsByLastName = new Buckets<>(base.personsByLastName);
+                emailsByCity = base.emailsByCity.copy();
+            }
+            return persons;
+        }
+
+        private PersistentSequence<FireStation> ownFireStations() {
+            if (fireStations == null) {
+                fireStations = base.fireStations;
+                addressesByStation = base.addressesByStation.copy();
+                stationsByAddress = base.stationsByAddress.copy();
+                fireStationsByAddress = new Buckets<>(base.fireStationsByAddress);
+            }
+            return fireStations;
+        }
+
+        private PersistentSequence<MedicalRecord> ownMedicalRecords() {
+            if (medicalRecords == null) {
+                medicalRecords = base.medicalRecords;
+                recordsByName = new Buckets<>(base.recordsByName);
+            }
+            return medicalRecords;
+        }
+
+        private void indexPerson(Person person) {
+            personsByAddress.add(person.getAddress(), person);
+            personsByName.add(nameOf(person), person);
+            personsByLastName.add(NameKey.normalize(person.getLastName()), person);
+            countPerson(person);
+        }
+
+        private void unindexPerson(Person person) {
+            personsByAddress.remove(person.getAddress(), person);
+            personsByName.remove(nameOf(person), person);
+            personsByLastName.remove(NameKey.normalize(person.getLastName()), person);
+            uncountPerson(person);
+        }
+
+        /**
+         * Counts a person in the email, phone and census indexes, and marks their household.
+         */
+        private void countPerson(Person person) {
+            if (hasEmail(person)) {
+                emailsByCity.add(NameKey.normalize(person.getCity()), person.getEmail());
+            }
+            int adultFrom = adultFromOf(person);
+            for (String station : currentStations().get(person.getAddress())) {
+                if (person.getPhone() != null) {
+                    ownPhones().add(station, person.getPhone());
+                }
+                ownCensus().add(station, adultFrom);
+            }
+            dirtyAddresses.add(person.getAddress());
+        }
+
+        private void uncountPerson(Person person) {
+            if (hasEmail(person)) {
+                emailsByCity.remove(NameKey.normalize(person.getCity()), person.getEmail());
+            }
+            int adultFrom = adultFromOf(person);
+            for (String station : currentStations().get(person.getAddress())) {
+                if (person.getPhone() != null) {
+                    ownPhones().remove(station, person.getPhone());
+                }
+                ownCensus().remove(station, adultFrom);
+            }
+            dirtyAddresses.add(person.getAddress());
+        }
+
+        /**
+         * Updates the residents of a name after its records changed, if the
+         * record indexed for it is no longer {@code previous}.
+         */
+        private void reindexRecord(NameKey name, MedicalRecord previous) {
+            MedicalRecord current = first(recordsByName.get(name));
+            if (current != previous) {
+                markResidents(name, previous, current);
+            }
+        }
+
+        /**
+         * Marks the households of every person with the given name for rebuilding,
+         * and moves them between adults and children of their stations' censuses
+         * when their record changed from {@code previous} to {@code current}.
+         */
+        private void markResidents(NameKey name, MedicalRecord previous, MedicalRecord current) {
+            List<Person> named = personsByName != null ? personsByName.get(name) : bucket(base.personsByName, name);
+            int before = adultFromEpochDay(previous);
+            int after = adultFromEpochDay(current);
+            for (Person person : named) {
+                dirtyAddresses.add(person.getAddress());
+                if (before != after) {
+                    for (String station : currentStations().get(person.getAddress())) {
+                        ownCensus().remove(station, before);
+                        ownCensus().add(station, after);
+                    }
+                }
+            }
+        }
+
+        private void indexStation(FireStation fireStation) {
+            boolean covered = stationsByAddress.get(fireStation.getAddress()).contains(fireStation.getStation());
+            addressesByStation.add(fireStation.getStation(), fireStation.getAddress());
+            stationsByAddress.add(fireStation.getAddress(), fireStation.getStation());
+            dirtyAddresses.add(fireStation.getAddress());
+            if (!covered) {
+                for (Person resident : currentResidents(fireStation.getAddress())) {
+                    if (resident.getPhone() != null) {
+                        ownPhones().add(fireStation.getStation(), resident.getPhone());
+                    }
+                    ownCensus().add(fireStation.getStation(), adultFromOf(resident));
+                }
+            }
+        }
+
+        private void unindexStation(FireStation fireStation) {
+            addressesByStation.remove(fireStation.getStation(), fireStation.getAddress());
+            stationsByAddress.remove(fireStation.getAddress(), fireStation.getStation());
+            dirtyAddresses.add(fireStation.getAddress());
+            if (!stationsByAddress.get(fireStation.getAddress()).contains(fireStation.getStation())) {
+                for (Person resident : currentResidents(fireStation.getAddress())) {
+                    if (resident.getPhone() != null) {
+                        ownPhones().remove(fireStation.getStation(), resident.getPhone());
+                    }
+                    ownCensus().remove(fireStation.getStation(), adultFromOf(resident));
+                }
+            }
+        }
+
+        private RefCountedIndex<String, String> ownPhones() {
+            if (phonesByStation == null) {
+                phonesByStation = base.phonesByStation.copy();
+            }
+            return phonesByStation;
+        }
+
+        private Censuses ownCensus() {
+            if (censusByStation == null) {
+                censusByStation = new Censuses(base.censusByStation);
+            }
+            return censusByStation;
+        }
+
+        /**
+         * Returns the epoch day from which a person counts as an adult, given their current medical record.
+         */
+        private int adultFromOf(Person person) {
+            NameKey name = nameOf(person);
+            return adultFromEpochDay(first(recordsByName != null ? recordsByName.get(name)
+                    : bucket(base.recordsByName, name)));
+        }
+
+        private RefCountedIndex<String, String> currentStations() {
+            return stationsByAddress != null ? stationsByAddress : base.stationsByAddress;
+        }
+
+        private List<Person> currentResidents(String address) {
+            return personsByAddress != null ? personsByAddress.get(address) : bucket(base.personsByAddress, address);
+        }
+
+        private static boolean hasEmail(Person person) {
+            return person.getEmail() != null && !person.getEmail().isEmpty();
+        }
+
+        private static NameKey nameOf(Person person) {
+            return NameKey.of(person.getFirstName(), person.getLastName());
+        }
+
+        private static NameKey nameOf(MedicalRecord record) {
+            return NameKey.of(record.getFirstName(), record.getLastName());
+        }
+    }
+
+    /**
+     * Writable version of the published censuses of the stations. A census is
+     * copied the first time it is touched.
+     */
+    private static final class Censuses {
+
+        private final PersistentMap.Editor<String, StationCensus> censuses;
+        private final Set<String> owned = new HashSet<>();
+
+        private Censuses(PersistentMap<String, StationCensus> published) {
+            this.censuses = published.edit();
+        }
+
+        private void add(String station, int adultFromEpochDay) {
+            own(station).add(adultFromEpochDay);
+        }
+
+        private void remove(String station, int adultFromEpochDay) {
+            StationCensus census = own(station);
+            census.remove(adultFromEpochDay);
+            if (census.isEmpty()) {
+                censuses.remove(station);
+                owned.remove(station);
+            }
+        }
+
+        private PersistentMap<String, StationCensus> publish() {
+            return censuses.publish();
+        }
+
+        private StationCensus own(String station) {
+            StationCensus census = censuses.get(station);
+            if (owned.add(station)) {
+                census = (census != null ? census : StationCensus.EMPTY).copy();
+                censuses.put(station, census);
+            }
+            return census;
+        }
+    }
+
+    /**
+     * Writable version of a published multimap of entities, each bucket
+     * holding distinct instances in insertion order.
+     */
+    private static final class Buckets<K, E> {
+
+        private final PersistentMap.Editor<K, PersistentSequence<E>> buckets;
+
+        /** Edit token of the buckets, replaced whenever one is handed out. */
+        private Object edit = new Object();
+
+        private Buckets(PersistentMap<K, PersistentSequence<E>> published) {
+            this.buckets = published.edit();
+        }
+
+        private List<E> get(K key) {
+            PersistentSequence<E> bucket = buckets.get(key);
+            return bucket != null ? bucket : List.of();
+        }
+
+        /**
+         * Returns a bucket that later changes leave as it is.
+         */
+        private List<E> share(K key) {
+            edit = new Object();
+            return get(key);
+        }
+
+        private void add(K key, E element) {
+            PersistentSequence<E> bucket = buckets.get(key);
+            buckets.put(key, (bucket != null ? bucket : PersistentSequence.<E>identity()).plus(element, edit));
+        }
+
+        private void remove(K key, E element) {
+            PersistentSequence<E> bucket = buckets.get(key);
+            if (bucket == null) {
+                return;
+            }
+            PersistentSequence<E> next = bucket.minus(element, edit);
+            if (next.isEmpty()) {
+                buckets.remove(key);
+            } else {
+                buckets.put(key, next);
+            }
+        }
+
+        /**
+         * Replaces an element, keeping its position when its key is unchanged.
+         */
+        private void move(K from, K to, E element, E replacement) {
+            if (Objects.equals(from, to)) {
+                PersistentSequence<E> bucket = buckets.get(from);
+                if (bucket != null) {
+                    buckets.put(from, bucket.replace(element, replacement, edit));
+                }
+            } else {
+                remove(from, element);
+                add(to, replacement);
+            }
+        }
+
+        private PersistentMap<K, PersistentSequence<E>> publish() {
+            edit = new Object();
+            return buckets.publish();
+        }
+    }
+}
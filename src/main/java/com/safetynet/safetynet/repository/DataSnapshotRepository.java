@@ -0,0 +1,19 @@
+package com.safetynet.safetynet.repository;
+
+/**
+ * Repository giving read access to the whole data set as one consistent {@link DataSnapshot}.
+ * <p>
+ * Services that join several collections (persons, medical records and fire
+ * stations) within one request should read them all from a single snapshot,
+ * so that a concurrent write cannot be observed half-way through the request.
+ * </p>
+ */
+public interface DataSnapshotRepository {
+
+    /**
+     * Retrieves the current version of the data set.
+     *
+     * @return the current {@link DataSnapshot}; never {@code null}
+     */
+    DataSnapshot current();
+}
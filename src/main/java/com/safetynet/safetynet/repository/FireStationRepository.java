@@ -2,6 +2,7 @@ package com.safetynet.safetynet.repository;
 
 import com.safetynet.safetynet.model.FireStation;
 import java.util.List;
+import java.util.Set;
 
 /**
  * Repository interface for managing {@link FireStation} entities.
@@ -12,8 +13,10 @@ public interface FireStationRepository {
 
     /**
      * Retrieves all fire station mappings.
+     * <p>
+     * The list is a read-only view of the current data set and is not copied.
      *
-     * @return a list of all {@link FireStation} objects
+     * @return an unmodifiable list of all {@link FireStation} objects
      */
     List<FireStation> getAllFireStations();
 
@@ -40,4 +43,20 @@ public interface FireStationRepository {
      * @return {@code true} if the mapping was successfully deleted; {@code false} otherwise
      */
     boolean deleteFireStation(String address);
+
+    /**
+     * Retrieves the addresses covered by the specified station.
+     *
+     * @param station the station number
+     * @return the set of covered addresses, or an empty set if the station is unknown
+     */
+    Set<String> findAddressesByStation(String station);
+
+    /**
+     * Retrieves the stations covering the specified address.
+     *
+     * @param address the exact address
+     * @return the set of station numbers, or an empty set if the address is not covered
+     */
+    Set<String> findStationsByAddress(String address);
 }
@@ -0,0 +1,50 @@
+package com.safetynet.safetynet.repository;
+
+import java.util.List;
+
+/**
+ * Materialized view of one address: the station covering it and the people
+ * living there, each with their medical record already resolved.
+ * <p>
+ * Households are kept up to date by {@link DataSnapshot} whenever a person,
+ * medical record or fire station mapping changes, so alert endpoints can
+ * answer with a single lookup instead of joining the collections.
+ *
+ * @param address       the exact address
+ * @param station       the first station number mapped to the address, or {@code null} if it is not covered
+ * @param residents     the people living at the address, in insertion order; empty if nobody does
+ * @param childrenUntil the epoch day from which no resident with a medical record is a child any more
+ */
+public record Household(String address, String station, List<Resident> residents, int childrenUntil) {
+
+    /**
+     * Builds a household, deriving {@link #childrenUntil()} from the residents' age profiles.
+     *
+     * @param address   the exact address
+     * @param station   the covering station number, or {@code null}
+     * @param residents the residents
+     */
+    public Household(String address, String station, List<Resident> residents) {
+        this(address, station, residents, childrenUntil(residents));
+    }
+
+    private static int childrenUntil(List<Resident> residents) {
+        int until = Integer.MIN_VALUE;
+        for (Resident resident : residents) {
+            if (resident.getMedicalRecord() != null) {
+                until = Math.max(until, resident.getAgeProfile().getAdultFromEpochDay());
+            }
+        }
+        return until;
+    }
+
+    /**
+     * Tells whether at least one resident with a medical record is a child on the given day.
+     *
+     * @param today the reference day
+     * @return {@code true} if the household has a child
+     */
+    public boolean hasChildrenOn(CalendarDay today) {
+        return today.epochDay() < childrenUntil;
+    }
+}
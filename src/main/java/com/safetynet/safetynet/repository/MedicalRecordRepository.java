@@ -38,8 +38,11 @@ public interface MedicalRecordRepository {
 
     /**
      * Retrieves all medical records from the data source.
+     * <p>
+     * The list is a read-only view of the current data set and is not copied;
+     * later writes publish a new list rather than changing this one.
      *
-     * @return a list of all {@link MedicalRecord} objects
+     * @return an unmodifiable list of all {@link MedicalRecord} objects
      */
     List<MedicalRecord> getAllMedicalRecords();
 
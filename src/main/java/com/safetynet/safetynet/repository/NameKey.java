@@ -0,0 +1,51 @@
+package com.safetynet.safetynet.repository;
+
+import java.util.Locale;
+
+/**
+ * Case-normalized composite key identifying a person by first and last name.
+ * <p>
+ * Names are folded to lower case with {@link Locale#ROOT} once, when the key is
+ * built, so that index lookups are plain hash hits and do not depend on the
+ * default locale of the JVM.
+ *
+ * @param firstName the normalized first name
+ * @param lastName  the normalized last name
+ */
+public record NameKey(String firstName, String lastName) {
+
+    /**
+     * Builds the key for a first and last name, ignoring case.
+     *
+     * @param firstName the first name, may be {@code null}
+     * @param lastName  the last name, may be {@code null}
+     * @return the normalized key
+     */
+    public static NameKey of(String firstName, String lastName) {
+        return new NameKey(normalize(firstName), normalize(lastName));
+    }
+
+    /**
+     * Folds a name to its case-insensitive form.
+     *
+     * @param name the name, may be {@code null}
+     * @return the lower-case name, or an empty string for {@code null}
+     */
+    public static String normalize(String name) {
+        return name != null ? name.toLowerCase(Locale.ROOT) : "";
+    }
+
+    /**
+     * Mixes both name hashes with a large odd multiplier. The default record
+     * hash ({@code 31 * first + last}) collides for names that differ by one
+     * trailing character in each part, such as {@code john1 doe2} and
+     * {@code john2 doe1}, which chains whole index buckets together.
+     *
+     * @return the hash code
+     */
+    @Override
+    public int hashCode() {
+        int hash = firstName.hashCode() * 0x9E3779B1 + lastName.hashCode();
+        return hash ^ (hash >>> 16);
+    }
+}
@@ -0,0 +1,551 @@
+package com.safetynet.safetynet.repository;
+
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Objects;
+import java.util.Set;
+
+/**
+ * Immutable hash map sharing its structure between versions, built as a hash
+ * array mapped trie.
+ * <p>
+ * {@link #plus} and {@link #minus} return a new version that copies only the
+ * path from the root to the changed entry, about {@code log32(n)} small nodes,
+ * and shares everything else with the version it was derived from. An
+ * {@link Editor} applies a series of changes in place to the nodes it created
+ * itself, so building a large map, or changing many entries of one, does not
+ * copy a path per change; {@link Editor#publish()} hands out the result and
+ * makes the editor copy again from then on.
+ * <p>
+ * Keys are compared with {@link Object#equals}, or by identity for a map
+ * created with {@link #identity()}. {@code null} is allowed as a key, not as a value.
+ * The {@link Map} methods are read-only views.
+ *
+ * @param <K> the key type
+ * @param <V> the value type
+ */
+final class PersistentMap<K, V> extends AbstractMap<K, V> {
+
+    private static final PersistentMap<?, ?> EMPTY = new PersistentMap<>(null, 0, false);
+    private static final PersistentMap<?, ?> EMPTY_IDENTITY = new PersistentMap<>(null, 0, true);
+
+    /** Stands for the {@code null} key inside the trie, where {@code null} marks a child node. */
+    private static final Object NULL_KEY = new Object();
+
+    private final Node root;
+    private final int size;
+    private final boolean identity;
+
+    private PersistentMap(Node root, int size, boolean identity) {
+        this.root = root;
+        this.size = size;
+        this.identity = identity;
+    }
+
+    /**
+     * Returns the empty map comparing keys with {@code equals}.
+     *
+     * @param <K> the key type
+     * @param <V> the value type
+     * @return the empty map
+     */
+    @SuppressWarnings("unchecked")
+    static <K, V> PersistentMap<K, V> empty() {
+        return (PersistentMap<K, V>) EMPTY;
+    }
+
+    /**
+     * Returns the empty map comparing keys by identity.
+     *
+     * @param <K> the key type
+     * @param <V> the value type
+     * @return the empty map
+     */
+    @SuppressWarnings("unchecked")
+    static <K, V> PersistentMap<K, V> identity() {
+        return (PersistentMap<K, V>) EMPTY_IDENTITY;
+    }
+
+    /**
+     * Returns a version of this map with a key mapped to a value.
+     *
+     * @param key   the key
+     * @param value the value, not {@code null}
+     * @return the new version, or this map if the key already maps to that value
+     */
+    PersistentMap<K, V> plus(K key, V value) {
+        Editor<K, V> editor = edit();
+        editor.put(key, value);
+        return editor.root == root ? this : editor.publish();
+    }
+
+    /**
+     * Returns a version of this map without a key.
+     *
+     * @param key the key
+     * @return the new version, or this map if the key is absent
+     */
+    PersistentMap<K, V> minus(K key) {
+        Editor<K, V> editor = edit();
+        editor.remove(key);
+        return editor.root == root ? this : editor.publish();
+    }
+
+    /**
+     * Starts an editor deriving new versions from this map.
+     *
+     * @return an editor holding this map's entries
+     */
+    Editor<K, V> edit() {
+        return new Editor<>(root, size, identity);
+    }
+
+    @Override
+    public V get(Object key) {
+        return root == null ? null : find(root, key, identity);
+    }
+
+    @Override
+    public boolean containsKey(Object key) {
+        return get(key) != null;
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    @Override
+    public Set<Entry<K, V>> entrySet() {
+        return new AbstractSet<>() {
+            @Override
+            public Iterator<Entry<K, V>> iterator() {
+                return new EntryIterator<>(root);
+            }
+
+            @Override
+            public int size() {
+                return size;
+            }
+        };
+    }
+
+    /**
+     * Mutable view deriving new versions of a {@link PersistentMap}. Nodes the
+     * editor created are changed in place until {@link #publish()}; nodes it
+     * shares with published versions are copied first. Not thread-safe.
+     *
+     * @param <K> the key type
+     * @param <V> the value type
+     */
+    static final class Editor<K, V> {
+
+        private final boolean identity;
+        private Object edit = new Object();
+        private Node root;
+        private int size;
+
+        private Editor(Node root, int size, boolean identity) {
+            this.root = root;
+            this.size = size;
+            this.identity = identity;
+        }
+
+        /**
+         * Returns the value of a key.
+         *
+         * @param key the key
+         * @return the value, or {@code null} if the key is absent
+         */
+        V get(Object key) {
+            return root == null ? null : find(root, key, identity);
+        }
+
+        /**
+         * Maps a key to a value.
+         *
+         * @param key   the key
+         * @param value the value, not {@code null}
+         */
+        void put(K key, V value) {
+            Objects.requireNonNull(value, "value");
+            Object k = mask(key);
+            int hash = hash(k, identity);
+            Change change = new Change();
+            Node next = root == null
+                    ? BitmapNode.EMPTY.put(edit, 0, hash, k, value, change, identity)
+                    : root.put(edit, 0, hash, k, value, change, identity);
+            root = next;
+            if (change.sizeChanged) {
+                size++;
+            }
+        }
+
+        /**
+         * Removes a key.
+         *
+         * @param key the key
+         */
+        void remove(Object key) {
+            if (root == null) {
+                return;
+            }
+            Change change = new Change();
+            Object k = mask(key);
+            root = root.remove(edit, 0, hash(k, identity), k, change, identity);
+            if (change.sizeChanged) {
+                size--;
+            }
+        }
+
+        /**
+         * Returns the number of keys.
+         *
+         * @return the size
+         */
+        int size() {
+            return size;
+        }
+
+        /**
+         * Returns the entries edited so far as an immutable map. Further
+         * changes copy the nodes they touch, leaving the returned map intact.
+         *
+         * @return the map
+         */
+        PersistentMap<K, V> publish() {
+            edit = new Object();
+            if (root == null) {
+                return identity ? identity() : empty();
+            }
+            return new PersistentMap<>(root, size, identity);
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <V> V find(Node root, Object key, boolean identity) {
+        Object k = mask(key);
+        return (V) root.find(0, hash(k, identity), k, identity);
+    }
+
+    private static Object mask(Object key) {
+        return key == null ? NULL_KEY : key;
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <K> K unmask(Object key) {
+        return key == NULL_KEY ? null : (K) key;
+    }
+
+    private static int hash(Object key, boolean identity) {
+        int h = identity ? System.identityHashCode(key) : key.hashCode();
+        return h ^ (h >>> 16);
+    }
+
+    private static boolean same(Object a, Object b, boolean identity) {
+        return a == b || !identity && a.equals(b);
+    }
+
+    /** Records whether an operation added or removed a key. */
+    private static final class Change {
+        private boolean sizeChanged;
+    }
+
+    private abstract static class Node {
+
+        /** Editor allowed to change this node in place, {@code null} once published. */
+        final Object edit;
+
+        Node(Object edit) {
+            this.edit = edit;
+        }
+
+        abstract Object find(int shift, int hash, Object key, boolean identity);
+
+        abstract Node put(Object edit, int shift, int hash, Object key, Object value, Change change,
+                          boolean identity);
+
+        /** Returns the node without the key, or {@code null} if it is left empty. */
+        abstract Node remove(Object edit, int shift, int hash, Object key, Change change, boolean identity);
+
+        /** Returns the entries and child nodes, as key-value pairs with a {@code null} key before a child. */
+        abstract Object[] array();
+    }
+
+    /**
+     * Node holding up to 32 slots, one per 5-bit fragment of the hash at its
+     * depth; a slot holds either a key and its value, or a child node.
+     */
+    private static final class BitmapNode extends Node {
+
+        static final BitmapNode EMPTY = new BitmapNode(null, 0, new Object[0]);
+
+        private int bitmap;
+        private Object[] array;
+
+        BitmapNode(Object edit, int bitmap, Object[] array) {
+            super(edit);
+            this.bitmap = bitmap;
+            this.array = array;
+        }
+
+        @Override
+        Object find(int shift, int hash, Object key, boolean identity) {
+            int bit = bit(hash, shift);
+            if ((bitmap & bit) == 0) {
+                return null;
+            }
+            int index = index(bit);
+            Object k = array[2 * index];
+            Object v = array[2 * index + 1];
+            if (k == null) {
+                return ((Node) v).find(shift + 5, hash, key, identity);
+            }
+            return same(key, k, identity) ? v : null;
+        }
+
+        @Override
+        Node put(Object edit, int shift, int hash, Object key, Object value, Change change, boolean identity) {
+            int bit = bit(hash, shift);
+            int index = index(bit);
+            if ((bitmap & bit) != 0) {
+                Object k = array[2 * index];
+                Object v = array[2 * index + 1];
+                if (k == null) {
+                    Node child = ((Node) v).put(edit, shift + 5, hash, key, value, change, identity);
+                    return child == v ? this : set(edit, 2 * index + 1, child);
+                }
+                if (same(key, k, identity)) {
+                    return v == value ? this : set(edit, 2 * index + 1, value);
+                }
+                change.sizeChanged = true;
+                Node child = split(edit, shift + 5, k, v, hash(k, identity), key, value, hash, identity);
+                BitmapNode editable = editable(edit);
+                editable.array[2 * index] = null;
+                editable.array[2 * index + 1] = child;
+                return editable;
+            }
+            change.sizeChanged = true;
+            Object[] grown = new Object[array.length + 2];
+            System.arraycopy(array, 0, grown, 0, 2 * index);
+            grown[2 * index] = key;
+            grown[2 * index + 1] = value;
+            System.arraycopy(array, 2 * index, grown, 2 * index + 2, array.length - 2 * index);
+            if (edit != null && this.edit == edit) {
+                bitmap |= bit;
+                array = grown;
+                return this;
+            }
+            return new BitmapNode(edit, bitmap | bit, grown);
+        }
+
+        @Override
+        Node remove(Object edit, int shift, int hash, Object key, Change change, boolean identity) {
+            int bit = bit(hash, shift);
+            if ((bitmap & bit) == 0) {
+                return this;
+            }
+            int index = index(bit);
+            Object k = array[2 * index];
+            Object v = array[2 * index + 1];
+            if (k == null) {
+                Node child = ((Node) v).remove(edit, shift + 5, hash, key, change, identity);
+                if (child == v) {
+                    return this;
+                }
+                if (child != null) {
+                    return set(edit, 2 * index + 1, child);
+                }
+            } else if (!same(key, k, identity)) {
+                return this;
+            } else {
+                change.sizeChanged = true;
+            }
+            if (bitmap == bit) {
+                return null;
+            }
+            Object[] shrunk = new Object[array.length - 2];
+            System.arraycopy(array, 0, shrunk, 0, 2 * index);
+            System.arraycopy(array, 2 * index + 2, shrunk, 2 * index, array.length - 2 * index - 2);
+            if (edit != null && this.edit == edit) {
+                bitmap ^= bit;
+                array = shrunk;
+                return this;
+            }
+            return new BitmapNode(edit, bitmap ^ bit, shrunk);
+        }
+
+        @Override
+        Object[] array() {
+            return array;
+        }
+
+        private BitmapNode set(Object edit, int i, Object value) {
+            BitmapNode editable = editable(edit);
+            editable.array[i] = value;
+            return editable;
+        }
+
+        private BitmapNode editable(Object edit) {
+            if (edit != null && this.edit == edit) {
+                return this;
+            }
+            return new BitmapNode(edit, bitmap, array.clone());
+        }
+
+        private int index(int bit) {
+            return Integer.bitCount(bitmap & (bit - 1));
+        }
+
+        private static int bit(int hash, int shift) {
+            return 1 << ((hash >>> shift) & 31);
+        }
+
+        /** Builds the node holding two keys whose hashes agree on every fragment above {@code shift}. */
+        private static Node split(Object edit, int shift, Object key1, Object value1, int hash1,
+                                  Object key2, Object value2, int hash2, boolean identity) {
+            if (hash1 == hash2) {
+                return new CollisionNode(edit, hash1, new Object[]{key1, value1, key2, value2});
+            }
+            Change ignored = new Change();
+            return EMPTY.put(edit, shift, hash1, key1, value1, ignored, identity)
+                    .put(edit, shift, hash2, key2, value2, ignored, identity);
+        }
+    }
+
+    /**
+     * Node holding the keys whose full hashes are equal.
+     */
+    private static final class CollisionNode extends Node {
+
+        private final int hash;
+        private final Object[] array;
+
+        CollisionNode(Object edit, int hash, Object[] array) {
+            super(edit);
+            this.hash = hash;
+            this.array = array;
+        }
+
+        @Override
+        Object find(int shift, int hash, Object key, boolean identity) {
+            int i = indexOf(key, identity);
+            return i < 0 ? null : array[i + 1];
+        }
+
+        @Override
+        Node put(Object edit, int shift, int hash, Object key, Object value, Change change, boolean identity) {
+            if (hash != this.hash) {
+                Node wrapper = new BitmapNode(edit, BitmapNode.bit(this.hash, shift), new Object[]{null, this});
+                return wrapper.put(edit, shift, hash, key, value, change, identity);
+            }
+            int i = indexOf(key, identity);
+            if (i >= 0) {
+                if (array[i + 1] == value) {
+                    return this;
+                }
+                Object[] copy = array.clone();
+                copy[i + 1] = value;
+                return new CollisionNode(edit, hash, copy);
+            }
+            change.sizeChanged = true;
+            Object[] grown = new Object[array.length + 2];
+            System.arraycopy(array, 0, grown, 0, array.length);
+            grown[array.length] = key;
+            grown[array.length + 1] = value;
+            return new CollisionNode(edit, hash, grown);
+        }
+
+        @Override
+        Node remove(Object edit, int shift, int hash, Object key, Change change, boolean identity) {
+            int i = indexOf(key, identity);
+            if (i < 0) {
+                return this;
+            }
+            change.sizeChanged = true;
+            if (array.length == 2) {
+                return null;
+            }
+            Object[] shrunk = new Object[array.length - 2];
+            System.arraycopy(array, 0, shrunk, 0, i);
+            System.arraycopy(array, i + 2, shrunk, i, array.length - i - 2);
+            return new CollisionNode(edit, hash, shrunk);
+        }
+
+        @Override
+        Object[] array() {
+            return array;
+        }
+
+        private int indexOf(Object key, boolean identity) {
+            for (int i = 0; i < array.length; i += 2) {
+                if (same(key, array[i], identity)) {
+                    return i;
+                }
+            }
+            return -1;
+        }
+    }
+
+    /**
+     * Depth-first iterator over the entries of a trie.
+     */
+    private static final class EntryIterator<K, V> implements Iterator<Entry<K, V>> {
+
+        private final Deque<Object[]> arrays = new ArrayDeque<>();
+        private final Deque<Integer> positions = new ArrayDeque<>();
+        private Object[] array;
+        private int position;
+        private Entry<K, V> next;
+
+        EntryIterator(Node root) {
+            array = root == null ? new Object[0] : root.array();
+            advance();
+        }
+
+        @Override
+        public boolean hasNext() {
+            return next != null;
+        }
+
+        @Override
+        public Entry<K, V> next() {
+            if (next == null) {
+                throw new NoSuchElementException();
+            }
+            Entry<K, V> current = next;
+            advance();
+            return current;
+        }
+
+        @SuppressWarnings("unchecked")
+        private void advance() {
+            next = null;
+            while (true) {
+                if (position < array.length) {
+                    Object k = array[position];
+                    Object v = array[position + 1];
+                    position += 2;
+                    if (k != null) {
+                        next = new SimpleImmutableEntry<>(unmask(k), (V) v);
+                        return;
+                    }
+                    arrays.push(array);
+                    positions.push(position);
+                    array = ((Node) v).array();
+                    position = 0;
+                } else if (!arrays.isEmpty()) {
+                    array = arrays.pop();
+                    position = positions.pop();
+                } else {
+                    return;
+                }
+            }
+        }
+    }
+}
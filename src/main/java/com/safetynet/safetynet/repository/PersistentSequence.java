@@ -0,0 +1,427 @@
+package com.safetynet.safetynet.repository;
+
+import java.util.AbstractList;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.RandomAccess;
+
+/**
+ * Immutable sequence of distinct elements in insertion order, sharing its
+ * structure between versions.
+ * <p>
+ * Appending, removing or replacing an element, and finding it, cost
+ * {@code O(log n)}: the elements sit in a 32-way trie of slots, numbered in
+ * insertion order, and a {@link PersistentMap} gives the slot of each element.
+ * A removed element leaves its slot empty; every node counts the elements
+ * below it, so the sequence is still indexed by position, and the slots are
+ * renumbered once more than half of them are empty. A sequence of up to
+ * {@value #SMALL} elements is a plain array instead, copied on each change,
+ * which keeps the many small buckets of an index compact.
+ * <p>
+ * Elements are compared with {@link Object#equals}, or by identity for a
+ * sequence created with {@link #identity()}. {@code null} is allowed once.
+ * Changes take an edit token: trie nodes created under a token are changed in
+ * place by later changes under the same token, so a builder applying many
+ * changes copies each path once. A token must not be used again once the
+ * result has been published. The {@link java.util.List} methods are read-only views.
+ *
+ * @param <E> the element type
+ */
+final class PersistentSequence<E> extends AbstractList<E> implements RandomAccess {
+
+    /** Largest sequence kept as a plain array. */
+    static final int SMALL = 16;
+
+    private static final Object[] NO_ELEMENTS = new Object[0];
+
+    /** Stands for the {@code null} element inside the sequence, where {@code null} marks an empty slot. */
+    private static final Object NULL = new Object();
+    private static final PersistentSequence<?> EMPTY = new PersistentSequence<>(false, NO_ELEMENTS);
+    private static final PersistentSequence<?> EMPTY_IDENTITY = new PersistentSequence<>(true, NO_ELEMENTS);
+
+    private final boolean identity;
+
+    /** The elements of a small sequence, or {@code null} for a large one. */
+    private final Object[] elements;
+
+    /** The slot trie of a large sequence. */
+    private final Trie trie;
+
+    /** Slot of each element of a large sequence. */
+    private final PersistentMap<Object, Integer> slots;
+
+    private PersistentSequence(boolean identity, Object[] elements) {
+        this.identity = identity;
+        this.elements = elements;
+        this.trie = null;
+        this.slots = null;
+    }
+
+    private PersistentSequence(boolean identity, Trie trie, PersistentMap<Object, Integer> slots) {
+        this.identity = identity;
+        this.elements = null;
+        this.trie = trie;
+        this.slots = slots;
+    }
+
+    /**
+     * Returns the empty sequence comparing elements with {@code equals}.
+     *
+     * @param <E> the element type
+     * @return the empty sequence
+     */
+    @SuppressWarnings("unchecked")
+    static <E> PersistentSequence<E> empty() {
+        return (PersistentSequence<E>) EMPTY;
+    }
+
+    /**
+     * Returns the empty sequence comparing elements by identity.
+     *
+     * @param <E> the element type
+     * @return the empty sequence
+     */
+    @SuppressWarnings("unchecked")
+    static <E> PersistentSequence<E> identity() {
+        return (PersistentSequence<E>) EMPTY_IDENTITY;
+    }
+
+    @Override
+    public int size() {
+        return elements != null ? elements.length : trie.root.count;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public E get(int index) {
+        if (index < 0 || index >= size()) {
+            throw new IndexOutOfBoundsException(index);
+        }
+        return (E) unmask(elements != null ? elements[index] : trie.get(index));
+    }
+
+    @Override
+    public boolean contains(Object element) {
+        return indexOf(element) >= 0;
+    }
+
+    @Override
+    public int indexOf(Object element) {
+        if (elements != null) {
+            return smallIndexOf(element);
+        }
+        Integer slot = slots.get(mask(element));
+        return slot == null ? -1 : trie.position(slot);
+    }
+
+    @Override
+    public int lastIndexOf(Object element) {
+        return indexOf(element);
+    }
+
+    @Override
+    public Iterator<E> iterator() {
+        return elements != null ? super.iterator() : trie.iterator();
+    }
+
+    /**
+     * Returns this sequence with an element appended.
+     *
+     * @param element the element
+     * @param edit    the edit token
+     * @return the new version, or this sequence if it already holds the element
+     */
+    PersistentSequence<E> plus(E element, Object edit) {
+        if (elements != null ? smallIndexOf(element) >= 0 : slots.containsKey(mask(element))) {
+            return this;
+        }
+        if (elements != null) {
+            if (elements.length < SMALL) {
+                Object[] grown = Arrays.copyOf(elements, elements.length + 1);
+                grown[elements.length] = mask(element);
+                return new PersistentSequence<>(identity, grown);
+            }
+            return rebuild().plus(element, edit);
+        }
+        int slot = trie.slots;
+        return new PersistentSequence<>(identity, trie.set(edit, slot, mask(element)), slots.plus(mask(element), slot));
+    }
+
+    /**
+     * Returns this sequence without an element.
+     *
+     * @param element the element
+     * @param edit    the edit token
+     * @return the new version, or this sequence if it does not hold the element
+     */
+    PersistentSequence<E> minus(E element, Object edit) {
+        if (elements != null) {
+            int index = smallIndexOf(element);
+            if (index < 0) {
+                return this;
+            }
+            if (elements.length == 1) {
+                return identity ? identity() : empty();
+            }
+            Object[] shrunk = new Object[elements.length - 1];
+            System.arraycopy(elements, 0, shrunk, 0, index);
+            System.arraycopy(elements, index + 1, shrunk, index, elements.length - index - 1);
+            return new PersistentSequence<>(identity, shrunk);
+        }
+        Integer slot = slots.get(mask(element));
+        if (slot == null) {
+            return this;
+        }
+        PersistentSequence<E> next = new PersistentSequence<>(identity, trie.set(edit, slot, null),
+                slots.minus(mask(element)));
+        int count = next.size();
+        if (count <= SMALL / 2) {
+            Object[] small = next.toArray();
+            for (int i = 0; i < small.length; i++) {
+                small[i] = mask(small[i]);
+            }
+            return new PersistentSequence<>(identity, small);
+        }
+        return count * 2 < next.trie.slots ? next.rebuild() : next;
+    }
+
+    /**
+     * Returns this sequence with an element replaced, in its position, by another.
+     *
+     * @param element     the element to replace
+     * @param replacement the element taking its position, not already in the sequence
+     * @param edit        the edit token
+     * @return the new version, or this sequence if it does not hold the element
+     * @throws IllegalArgumentException if the replacement is already in the sequence
+     */
+    PersistentSequence<E> replace(E element, E replacement, Object edit) {
+        if (element == replacement) {
+            return this;
+        }
+        if (contains(replacement) && !(!identity && replacement != null && replacement.equals(element))) {
+            throw new IllegalArgumentException("Replacement is already in the sequence: " + replacement);
+        }
+        if (elements != null) {
+            int index = smallIndexOf(element);
+            if (index < 0) {
+                return this;
+            }
+            Object[] copy = elements.clone();
+            copy[index] = mask(replacement);
+            return new PersistentSequence<>(identity, copy);
+        }
+        Integer slot = slots.get(mask(element));
+        if (slot == null) {
+            return this;
+        }
+        return new PersistentSequence<>(identity, trie.set(edit, slot, mask(replacement)),
+                slots.minus(mask(element)).plus(mask(replacement), slot));
+    }
+
+    private int smallIndexOf(Object element) {
+        Object masked = mask(element);
+        for (int i = 0; i < elements.length; i++) {
+            if (elements[i] == masked || !identity && elements[i].equals(masked)) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    private static Object mask(Object element) {
+        return element == null ? NULL : element;
+    }
+
+    private static Object unmask(Object element) {
+        return element == NULL ? null : element;
+    }
+
+    /**
+     * Builds a trie holding the elements of this sequence in consecutive
+     * slots: converts a full small sequence, or renumbers a trie whose slots
+     * are mostly empty.
+     */
+    private PersistentSequence<E> rebuild() {
+        Trie built = Trie.EMPTY;
+        PersistentMap.Editor<Object, Integer> index = (identity ? PersistentMap.<Object, Integer>identity()
+                : PersistentMap.<Object, Integer>empty()).edit();
+        Object local = new Object();
+        for (E element : this) {
+            int slot = built.slots;
+            built = built.set(local, slot, mask(element));
+            index.put(mask(element), slot);
+        }
+        return new PersistentSequence<>(identity, built, index.publish());
+    }
+
+    /**
+     * 32-way trie of slots. Each node counts the elements below it, so the
+     * {@code i}-th element is found by skipping whole subtrees.
+     */
+    private static final class Trie {
+
+        static final Trie EMPTY = new Trie(new Node(null, new Object[32], 0), 0, 0);
+
+        /** The root node. */
+        final Node root;
+
+        /** Depth of the root above the leaves, in bits of slot number. */
+        final int shift;
+
+        /** Number of slots ever used; the next element goes in slot {@code slots}. */
+        final int slots;
+
+        Trie(Node root, int shift, int slots) {
+            this.root = root;
+            this.shift = shift;
+            this.slots = slots;
+        }
+
+        /**
+         * Sets a slot, which is either in use or the next one, to an element,
+         * or empties it when {@code element} is {@code null}.
+         */
+        Trie set(Object edit, int slot, Object element) {
+            Node top = root;
+            int topShift = shift;
+            if (slot >= capacity(topShift)) {
+                Node grown = new Node(edit, new Object[32], top.count);
+                grown.array[0] = top;
+                top = grown;
+                topShift += 5;
+            }
+            Node next = set(top, edit, topShift, slot, element);
+            return next == root && topShift == shift && slot < slots
+                    ? this : new Trie(next, topShift, Math.max(slots, slot + 1));
+        }
+
+        private static Node set(Node node, Object edit, int shift, int slot, Object element) {
+            int i = (slot >>> shift) & 31;
+            Node editable = node.editable(edit);
+            if (shift == 0) {
+                Object previous = editable.array[i];
+                editable.array[i] = element;
+                editable.count += (element != null ? 1 : 0) - (previous != null ? 1 : 0);
+                return editable;
+            }
+            Node child = (Node) editable.array[i];
+            int before = child != null ? child.count : 0;
+            child = set(child != null ? child : new Node(edit, new Object[32], 0), edit, shift - 5, slot, element);
+            editable.array[i] = child.count > 0 ? child : null;
+            editable.count += child.count - before;
+            return editable;
+        }
+
+        Object get(int index) {
+            Node node = root;
+            for (int level = shift; ; level -= 5) {
+                for (Object entry : node.array) {
+                    if (entry == null) {
+                        continue;
+                    }
+                    int count = level == 0 ? 1 : ((Node) entry).count;
+                    if (index < count) {
+                        if (level == 0) {
+                            return entry;
+                        }
+                        node = (Node) entry;
+                        break;
+                    }
+                    index -= count;
+                }
+            }
+        }
+
+        /** Returns the position among the elements of the element in a slot. */
+        int position(int slot) {
+            int position = 0;
+            Node node = root;
+            for (int level = shift; ; level -= 5) {
+                int i = (slot >>> level) & 31;
+                for (int j = 0; j < i; j++) {
+                    Object entry = node.array[j];
+                    if (entry != null) {
+                        position += level == 0 ? 1 : ((Node) entry).count;
+                    }
+                }
+                if (level == 0) {
+                    return position;
+                }
+                node = (Node) node.array[i];
+            }
+        }
+
+        <E> Iterator<E> iterator() {
+            return new Iterator<>() {
+                private int slot = nextSlot(0);
+
+                @Override
+                public boolean hasNext() {
+                    return slot < slots;
+                }
+
+                @Override
+                @SuppressWarnings("unchecked")
+                public E next() {
+                    if (slot >= slots) {
+                        throw new NoSuchElementException();
+                    }
+                    Object element = leaf(slot).array[slot & 31];
+                    slot = nextSlot(slot + 1);
+                    return (E) unmask(element);
+                }
+            };
+        }
+
+        /** Returns the first slot from {@code from} that holds an element, or {@link #slots}. */
+        private int nextSlot(int from) {
+            int slot = from;
+            while (slot < slots) {
+                Node leaf = leaf(slot);
+                if (leaf == null) {
+                    slot = (slot | 31) + 1;
+                    continue;
+                }
+                if (leaf.array[slot & 31] != null) {
+                    return slot;
+                }
+                slot++;
+            }
+            return slots;
+        }
+
+        /** Returns the leaf holding a slot, or {@code null} if its subtree is empty. */
+        private Node leaf(int slot) {
+            Node node = root;
+            for (int level = shift; level > 0 && node != null; level -= 5) {
+                node = (Node) node.array[(slot >>> level) & 31];
+            }
+            return node;
+        }
+
+        private static int capacity(int shift) {
+            return shift >= 25 ? Integer.MAX_VALUE : 1 << (shift + 5);
+        }
+    }
+
+    /**
+     * Trie node: 32 children, or 32 elements at the leaves, and the number of elements below.
+     */
+    private static final class Node {
+
+        final Object edit;
+        final Object[] array;
+        int count;
+
+        Node(Object edit, Object[] array, int count) {
+            this.edit = edit;
+            this.array = array;
+            this.count = count;
+        }
+
+        Node editable(Object edit) {
+            return edit != null && this.edit == edit ? this : new Node(edit, array.clone(), count);
+        }
+    }
+}
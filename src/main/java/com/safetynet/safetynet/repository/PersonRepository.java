@@ -41,8 +41,20 @@ public interface PersonRepository {
 
     /**
      * Retrieves all persons from the data source.
+     * <p>
+     * The list is a read-only view of the current data set and is not copied:
+     * it stays unchanged even if persons are added or removed afterwards, and
+     * repeated calls without an intervening write return the same instance.
      *
-     * @return a list of all {@link Person} objects
+     * @return an unmodifiable list of all {@link Person} objects
      */
     List<Person> getAllPersons();
+
+    /**
+     * Retrieves all persons living at the given address.
+     *
+     * @param address the exact address to look up
+     * @return a list of {@link Person} objects living at that address, or an empty list if none
+     */
+    List<Person> findByAddress(String address);
 }
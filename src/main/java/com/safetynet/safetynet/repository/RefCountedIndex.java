@@ -0,0 +1,162 @@
+package com.safetynet.safetynet.repository;
+
+import java.util.AbstractSet;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.Set;
+
+/**
+ * Multi-valued index mapping a key to a set of distinct values, where each
+ * value carries a reference count.
+ * <p>
+ * The same value may be added several times under a key (for instance two
+ * identical fire station mappings, or two residents sharing a phone number);
+ * it only leaves the key's set once it has been removed as many times as it
+ * was added. Values are returned in first-insertion order.
+ * <p>
+ * {@link #copy()} is constant time: keys and sets are held in a
+ * {@link PersistentMap} of {@link PersistentSequence}s, so the copy shares all
+ * of them with the original, and adding or removing a value costs
+ * {@code O(log n)} in the size of the index and of the key's set, however
+ * large that set is.
+ * <p>
+ * This class is not thread-safe; callers are responsible for guarding it.
+ *
+ * @param <K> the key type
+ * @param <V> the value type
+ */
+public class RefCountedIndex<K, V> {
+
+    private final PersistentMap.Editor<K, Bucket<V>> buckets;
+
+    /** Edit token of the sets changed by this index, replaced when they are shared by {@link #copy()}. */
+    private Object edit = new Object();
+
+    /**
+     * The distinct values of a key, and the reference count of those referenced more than once.
+     */
+    private record Bucket<V>(PersistentSequence<V> values, PersistentMap<V, Integer> counts) {
+    }
+
+    /**
+     * Creates an empty index.
+     */
+    public RefCountedIndex() {
+        this.buckets = PersistentMap.<K, Bucket<V>>empty().edit();
+    }
+
+    private RefCountedIndex(PersistentMap<K, Bucket<V>> buckets) {
+        this.buckets = buckets.edit();
+    }
+
+    /**
+     * Adds one reference to {@code value} under {@code key}.
+     *
+     * @param key   the key
+     * @param value the value
+     */
+    public void add(K key, V value) {
+        Bucket<V> bucket = buckets.get(key);
+        if (bucket == null) {
+            bucket = new Bucket<>(PersistentSequence.empty(), PersistentMap.empty());
+        }
+        if (bucket.values().contains(value)) {
+            bucket = new Bucket<>(bucket.values(),
+                    bucket.counts().plus(value, bucket.counts().getOrDefault(value, 1) + 1));
+        } else {
+            bucket = new Bucket<>(bucket.values().plus(value, edit), bucket.counts());
+        }
+        buckets.put(key, bucket);
+    }
+
+    /**
+     * Removes one reference to {@code value} under {@code key}.
+     *
+     * @param key   the key
+     * @param value the value
+     */
+    public void remove(K key, V value) {
+        Bucket<V> bucket = buckets.get(key);
+        if (bucket == null || !bucket.values().contains(value)) {
+            return;
+        }
+        Integer count = bucket.counts().get(value);
+        if (count != null) {
+            bucket = new Bucket<>(bucket.values(), count > 2
+                    ? bucket.counts().plus(value, count - 1) : bucket.counts().minus(value));
+        } else if (bucket.values().size() == 1) {
+            buckets.remove(key);
+            return;
+        } else {
+            bucket = new Bucket<>(bucket.values().minus(value, edit), bucket.counts());
+        }
+        buckets.put(key, bucket);
+    }
+
+    /**
+     * Returns the distinct values currently referenced under {@code key}.
+     *
+     * @param key the key
+     * @return an unmodifiable view of the values, empty if the key is unknown
+     */
+    public Set<V> get(K key) {
+        Bucket<V> bucket = buckets.get(key);
+        return bucket != null ? new SequenceSet<>(bucket.values()) : Set.of();
+    }
+
+    /**
+     * Returns the keys that currently reference at least one value.
+     *
+     * @return an unmodifiable view of the keys
+     */
+    public Set<K> keySet() {
+        return Collections.unmodifiableSet(buckets.publish().keySet());
+    }
+
+    /**
+     * Returns an independent copy of this index, reference counts included.
+     * The sets are shared until either index modifies them.
+     *
+     * @return the copy
+     */
+    public RefCountedIndex<K, V> copy() {
+        edit = new Object();
+        return new RefCountedIndex<>(buckets.publish());
+    }
+
+    /**
+     * Removes every key and value.
+     */
+    public void clear() {
+        for (K key : buckets.publish().keySet()) {
+            buckets.remove(key);
+        }
+    }
+
+    /**
+     * Read-only set view of a sequence of distinct values, in sequence order.
+     */
+    private static final class SequenceSet<V> extends AbstractSet<V> {
+
+        private final PersistentSequence<V> values;
+
+        SequenceSet(PersistentSequence<V> values) {
+            this.values = values;
+        }
+
+        @Override
+        public Iterator<V> iterator() {
+            return values.iterator();
+        }
+
+        @Override
+        public int size() {
+            return values.size();
+        }
+
+        @Override
+        public boolean contains(Object value) {
+            return values.contains(value);
+        }
+    }
+}
@@ -0,0 +1,57 @@
+package com.safetynet.safetynet.repository;
+
+import com.safetynet.safetynet.model.MedicalRecord;
+import com.safetynet.safetynet.model.Person;
+import lombok.Getter;
+
+/**
+ * A person living at a {@link Household}, together with their resolved medical record.
+ * <p>
+ * The {@link AgeProfile} of the record's birthdate is computed once, when the
+ * resident is built, so ages and child classification on any given day are
+ * plain integer arithmetic.
+ */
+@Getter
+public final class Resident {
+
+    /** The person. */
+    private final Person person;
+
+    /** The person's medical record, or {@code null} if there is none. */
+    private final MedicalRecord medicalRecord;
+
+    /** Age data of the record's birthdate; {@link AgeProfile#UNKNOWN} without one. */
+    private final AgeProfile ageProfile;
+
+    /**
+     * Creates a resident.
+     *
+     * @param person        the person
+     * @param medicalRecord the person's medical record, may be {@code null}
+     */
+    public Resident(Person person, MedicalRecord medicalRecord) {
+        this.person = person;
+        this.medicalRecord = medicalRecord;
+        this.ageProfile = medicalRecord != null ? AgeProfile.of(medicalRecord.getBirthdate()) : AgeProfile.UNKNOWN;
+    }
+
+    /**
+     * Returns the resident's age in whole years on the given day.
+     *
+     * @param today the reference day
+     * @return the age, or 0 if the medical record or birthdate is missing
+     */
+    public int getAge(CalendarDay today) {
+        return ageProfile.ageOn(today);
+    }
+
+    /**
+     * Tells whether the resident has a medical record and is a child on the given day.
+     *
+     * @param today the reference day
+     * @return {@code true} for a child with a medical record
+     */
+    public boolean isChildOn(CalendarDay today) {
+        return medicalRecord != null && ageProfile.isChildOn(today);
+    }
+}
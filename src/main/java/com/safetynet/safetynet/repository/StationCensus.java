@@ -0,0 +1,166 @@
+package com.safetynet.safetynet.repository;
+
+import java.util.Map;
+
+/**
+ * Running count of the residents covered by one fire station, split into
+ * adults and children.
+ * <p>
+ * Each resident is recorded by the epoch day on which they become an adult:
+ * {@link AgeProfile#getAdultFromEpochDay()} when they have a medical record,
+ * {@link Integer#MIN_VALUE} otherwise, as residents without a record are
+ * never counted as children. The number of children on a given day is kept
+ * as a tally; asking for a later day rolls the tally over by subtracting the
+ * residents who came of age in between, so each day's counts cost one pass
+ * over that day's birthdays and every further lookup is constant time.
+ * <p>
+ * The counts by day are a {@link PersistentMap}, so copying a census before
+ * changing it costs the same whatever the number of residents.
+ * <p>
+ * A census is only modified by the {@link DataSnapshot.Builder} that owns it,
+ * before it is published; published censuses are read-only and may be read by
+ * any number of threads.
+ */
+public final class StationCensus {
+
+    /** Census of a station covering nobody. */
+    static final StationCensus EMPTY = new StationCensus(0, PersistentMap.empty(), null);
+
+    private int residents;
+
+    /** Number of residents by the epoch day on which they become adults. */
+    private PersistentMap<Integer, Integer> adultFrom;
+
+    /** Children counted on the last day asked for, or {@code null} before the first lookup. */
+    private volatile Tally tally;
+
+    private StationCensus(int residents, PersistentMap<Integer, Integer> adultFrom, Tally tally) {
+        this.residents = residents;
+        this.adultFrom = adultFrom;
+        this.tally = tally;
+    }
+
+    /**
+     * Returns the number of residents covered by the station.
+     *
+     * @return the number of residents
+     */
+    public int getResidents() {
+        return residents;
+    }
+
+    /**
+     * Returns the number of residents with a medical record who are children on a given day.
+     *
+     * @param today the reference day
+     * @return the number of children
+     */
+    public int childrenOn(CalendarDay today) {
+        Tally current = tally;
+        if (current == null || current.epochDay() != today.epochDay()) {
+            current = rollOver(current, today.epochDay());
+            tally = current;
+        }
+        return current.children();
+    }
+
+    /**
+     * Returns the number of residents who are not children on a given day,
+     * residents without a medical record included.
+     *
+     * @param today the reference day
+     * @return the number of adults
+     */
+    public int adultsOn(CalendarDay today) {
+        return residents - childrenOn(today);
+    }
+
+    /**
+     * Counts the children on a day, starting from the tally of an earlier day when there is one.
+     */
+    private Tally rollOver(Tally previous, int epochDay) {
+        if (previous != null && previous.epochDay() < epochDay) {
+            return new Tally(epochDay, previous.children() - countBetween(previous.epochDay(), epochDay));
+        }
+        int children = 0;
+        for (Map.Entry<Integer, Integer> entry : adultFrom.entrySet()) {
+            if (entry.getKey() > epochDay) {
+                children += entry.getValue();
+            }
+        }
+        return new Tally(epochDay, children);
+    }
+
+    /**
+     * Counts the residents becoming adults after {@code from} and up to {@code to},
+     * looking the days up one by one when there are fewer days than counts.
+     */
+    private int countBetween(int from, int to) {
+        int count = 0;
+        if ((long) to - from <= adultFrom.size()) {
+            for (int day = from + 1; day <= to; day++) {
+                count += adultFrom.getOrDefault(day, 0);
+            }
+            return count;
+        }
+        for (Map.Entry<Integer, Integer> entry : adultFrom.entrySet()) {
+            if (entry.getKey() > from && entry.getKey() <= to) {
+                count += entry.getValue();
+            }
+        }
+        return count;
+    }
+
+    /**
+     * Counts one more resident.
+     *
+     * @param adultFromEpochDay the day the resident becomes an adult
+     */
+    void add(int adultFromEpochDay) {
+        residents++;
+        adultFrom = adultFrom.plus(adultFromEpochDay, adultFrom.getOrDefault(adultFromEpochDay, 0) + 1);
+        Tally current = tally;
+        if (current != null && adultFromEpochDay > current.epochDay()) {
+            tally = new Tally(current.epochDay(), current.children() + 1);
+        }
+    }
+
+    /**
+     * Counts one resident less. The resident must have been added with the same day.
+     *
+     * @param adultFromEpochDay the day the resident becomes an adult
+     */
+    void remove(int adultFromEpochDay) {
+        residents--;
+        Integer count = adultFrom.get(adultFromEpochDay);
+        if (count != null) {
+            adultFrom = count > 1 ? adultFrom.plus(adultFromEpochDay, count - 1) : adultFrom.minus(adultFromEpochDay);
+        }
+        Tally current = tally;
+        if (current != null && adultFromEpochDay > current.epochDay()) {
+            tally = new Tally(current.epochDay(), current.children() - 1);
+        }
+    }
+
+    /**
+     * Tells whether the census counts nobody.
+     *
+     * @return {@code true} if there are no residents
+     */
+    boolean isEmpty() {
+        return residents == 0;
+    }
+
+    /**
+     * Returns a modifiable copy of this census, its tally included. The
+     * counts are shared until either census changes them.
+     *
+     * @return the copy
+     */
+    StationCensus copy() {
+        return new StationCensus(residents, adultFrom, tally);
+    }
+
+    private record Tally(int epochDay, int children) {
+    }
+}
@@ -0,0 +1,366 @@
+package com.safetynet.safetynet.repository.generator;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import com.safetynet.safetynet.dto.DataDTO;
+import com.safetynet.safetynet.model.FireStation;
+import com.safetynet.safetynet.model.MedicalRecord;
+import com.safetynet.safetynet.model.Person;
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Random;
+import java.util.function.Consumer;
+
+/**
+ * Deterministic generator of synthetic SafetyNet data sets, in the schema of {@code data.json}.
+ * <p>
+ * The same person count, seed and reference date always produce the same data.
+ * Households are generated one at a time and nothing is retained between them,
+ * so {@link #writeJson(OutputStream)} can stream data sets far larger than the
+ * heap; it makes one pass per top-level array, replaying the same random sequence.
+ * <p>
+ * The distributions aim to look like a real county rather than uniform noise:
+ * <ul>
+ *     <li>household sizes from 1 to 6, mostly 1 to 2, sharing a last name and often a phone;</li>
+ *     <li>adults aged 19 to 89 with a tapering age pyramid, children only in households of 3 or more;</li>
+ *     <li>last names, cities and station coverage skewed with a Zipf distribution;</li>
+ *     <li>about 1% of addresses mapped to two stations and 2% not covered at all;</li>
+ *     <li>medication counts growing with age, allergies on about a third of the people;</li>
+ *     <li>some household members sharing an email address, and about 1% of people without a medical record.</li>
+ * </ul>
+ * First names carry the person's sequence number, so that every (first name, last name) pair is unique.
+ * <p>
+ * Usable from the command line:
+ * {@code java -cp <classpath> com.safetynet.safetynet.repository.generator.SyntheticDataGenerator <persons> <seed> <output.json>}
+ */
+@Slf4j
+public class SyntheticDataGenerator {
+
+    /** Data set sizes, in persons, used for scale testing. */
+    public static final int[] SCALE_POINTS = {10_000, 100_000, 1_000_000, 10_000_000};
+
+    /** Reference date used to derive birthdates when none is given. */
+    public static final LocalDate DEFAULT_REFERENCE_DATE = LocalDate.of(2025, 1, 1);
+
+    private static final int[] HOUSEHOLD_SIZES = {1, 2, 3, 4, 5, 6};
+    private static final double[] HOUSEHOLD_SIZE_WEIGHTS = {0.28, 0.35, 0.15, 0.13, 0.06, 0.03};
+    private static final int HOUSES_PER_STREET = 9_999;
+
+    private static final String[] FIRST_NAMES = {
+            "John", "Jacob", "Tenley", "Roger", "Felicia", "Jonanathan", "Tessa", "Eric", "Peter", "Reginold",
+            "Jamie", "Ron", "Allison", "Sophia", "Warren", "Zach", "Lily", "Shawna", "Kendrik", "Clive",
+            "Foster", "Brian", "Clara", "Emma", "Olivia", "Liam", "Noah", "Ava", "Mia", "Lucas",
+            "Amelia", "Ethan", "Harper", "Mason", "Ella", "Logan", "Chloe", "Aiden", "Grace", "Henry"
+    };
+    private static final String[] LAST_NAME_STEMS = {
+            "Boyd", "Marrack", "Peters", "Walker", "Duncan", "Cadigan", "Stelzer", "Ferguson", "Zemicks", "Smith",
+            "Johnson", "Brown", "Miller", "Davis", "Garcia", "Wilson", "Moore", "Taylor", "Clark", "Lewis"
+    };
+    private static final String[] STREETS = {
+            "Culver St", "Binoc Ave", "Ash St", "Floor St", "Gershwin St", "Broadway", "Wall St", "Jefferson Blvd",
+            "Elm St", "Maple Ave", "Oak Rd", "Pine St", "Cedar Ln", "Birch Way", "Lake Dr", "Hill Rd"
+    };
+    private static final String[] CITY_STEMS = {
+            "Culver", "Springfield", "Riverton", "Fairview", "Greenville", "Franklin", "Clinton", "Madison"
+    };
+    private static final String[] MEDICATIONS = {
+            "aznol:350mg", "hydrapermazol:100mg", "pharmacol:5000mg", "terazine:10mg", "noznazol:250mg",
+            "tetracyclaz:650mg", "thradox:700mg", "dodoxadin:30mg", "ibupurin:200mg", "noxidian:100mg",
+            "metformin:500mg", "lisinopril:10mg", "atorvastatin:20mg", "levothyroxine:50mcg", "amlodipine:5mg",
+            "metoprolol:25mg", "omeprazole:20mg", "simvastatin:40mg", "losartan:50mg", "albuterol:90mcg"
+    };
+    private static final String[] ALLERGIES = {
+            "nillacilan", "peanut", "shellfish", "xilliathal", "penicillin", "latex", "pollen", "gluten",
+            "lactose", "dust", "sulfa", "eggs"
+    };
+
+    private final int personCount;
+    private final long seed;
+    private final LocalDate referenceDate;
+
+    private final ZipfSampler lastNames;
+    private final ZipfSampler cities;
+    private final ZipfSampler stations;
+    private final int stationCount;
+    private final ZipfSampler medications;
+    private final ZipfSampler allergies;
+
+    /**
+     * Creates a generator using {@link #DEFAULT_REFERENCE_DATE}.
+     *
+     * @param personCount the number of persons to generate
+     * @param seed        the random seed
+     */
+    public SyntheticDataGenerator(int personCount, long seed) {
+        this(personCount, seed, DEFAULT_REFERENCE_DATE);
+    }
+
+    /**
+     * Creates a generator.
+     *
+     * @param personCount   the number of persons to generate
+     * @param seed          the random seed
+     * @param referenceDate the date ages are counted from
+     */
+    public SyntheticDataGenerator(int personCount, long seed, LocalDate referenceDate) {
+        if (personCount < 0) {
+            throw new IllegalArgumentException("Person count cannot be negative: " + personCount);
+        }
+        this.personCount = personCount;
+        this.seed = seed;
+        this.referenceDate = referenceDate;
+
+        // Roughly 2.4 persons per address
+        int addressCount = Math.max(1, personCount * 10 / 24);
+        this.lastNames = new ZipfSampler(Math.max(LAST_NAME_STEMS.length, personCount / 50), 0.9);
+        this.cities = new ZipfSampler(Math.max(1, addressCount / 2_000), 1.1);
+        this.stationCount = Math.max(4, addressCount / 500);
+        this.stations = new ZipfSampler(stationCount, 0.6);
+        this.medications = new ZipfSampler(MEDICATIONS.length, 1.0);
+        this.allergies = new ZipfSampler(ALLERGIES.length, 1.0);
+    }
+
+    /**
+     * Generates the data set household by household, handing every entity to the matching consumer.
+     *
+     * @param persons        receives the persons
+     * @param fireStations   receives the fire station mappings
+     * @param medicalRecords receives the medical records
+     */
+    public void generate(Consumer<? super Person> persons,
+                         Consumer<? super FireStation> fireStations,
+                         Consumer<? super MedicalRecord> medicalRecords) {
+        Random random = new Random(seed);
+        int generated = 0;
+        for (int address = 0; generated < personCount; address++) {
+            generated += household(random, address, generated, persons, fireStations, medicalRecords);
+        }
+    }
+
+    /**
+     * Generates the whole data set in memory.
+     *
+     * @return the data set
+     */
+    public DataDTO toDataDTO() {
+        List<Person> persons = new ArrayList<>(personCount);
+        List<FireStation> fireStations = new ArrayList<>();
+        List<MedicalRecord> medicalRecords = new ArrayList<>(personCount);
+        generate(persons::add, fireStations::add, medicalRecords::add);
+        return new DataDTO(persons, fireStations, medicalRecords);
+    }
+
+    /**
+     * Streams the data set as JSON in the schema of {@code data.json}. The stream is not closed.
+     *
+     * @param out the destination
+     * @throws IOException if writing fails
+     */
+    public void writeJson(OutputStream out) throws IOException {
+        ObjectMapper objectMapper = new ObjectMapper();
+        objectMapper.registerModule(new JavaTimeModule());
+        objectMapper.disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS);
+
+        try (JsonGenerator generator = objectMapper.getFactory().createGenerator(out)) {
+            generator.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+            generator.writeStartObject();
+            writeArray(generator, objectMapper, "persons", 0);
+            writeArray(generator, objectMapper, "firestations", 1);
+            writeArray(generator, objectMapper, "medicalrecords", 2);
+            generator.writeEndObject();
+        }
+    }
+
+    /**
+     * Writes one top-level array by replaying the generation and keeping one kind of entity.
+     */
+    private void writeArray(JsonGenerator generator, ObjectMapper objectMapper, String name, int section)
+            throws IOException {
+        Consumer<Object> writer = entity -> {
+            try {
+                objectMapper.writeValue(generator, entity);
+            } catch (IOException e) {
+                throw new GenerationException(e);
+            }
+        };
+        Consumer<Object> skip = entity -> { };
+
+        generator.writeArrayFieldStart(name);
+        try {
+            generate(section == 0 ? writer : skip, section == 1 ? writer : skip, section == 2 ? writer : skip);
+        } catch (GenerationException e) {
+            throw e.getCause();
+        }
+        generator.writeEndArray();
+    }
+
+    /**
+     * Generates one household and returns its number of persons.
+     */
+    private int household(Random random, int addressIndex, int firstPerson,
+                          Consumer<? super Person> persons,
+                          Consumer<? super FireStation> fireStations,
+                          Consumer<? super MedicalRecord> medicalRecords) {
+        String address = address(addressIndex);
+        String city = city(cities.sample(random));
+        String zip = String.valueOf(97_000 + Math.floorMod(city.hashCode(), 1_000));
+
+        // Station coverage: a few addresses are uncovered, a few are covered twice
+        double coverage = random.nextDouble();
+        if (coverage >= 0.02) {
+            int station = stations.sample(random);
+            fireStations.accept(new FireStation(address, String.valueOf(station + 1)));
+            if (coverage >= 0.99) {
+                fireStations.accept(new FireStation(address, String.valueOf((station + 1) % stationCount + 1)));
+            }
+        }
+
+        int size = Math.min(householdSize(random), personCount - firstPerson);
+        String lastName = lastName(lastNames.sample(random));
+        String householdPhone = phone(random);
+        String householdEmail = null;
+        int headAge = 19 + adultAge(random);
+
+        for (int member = 0; member < size; member++) {
+            int index = firstPerson + member;
+            String firstName = FIRST_NAMES[random.nextInt(FIRST_NAMES.length)] + index;
+            String phone = random.nextDouble() < 0.7 ? householdPhone : phone(random);
+            String email = firstName.toLowerCase(Locale.ROOT) + "." + lastName.toLowerCase(Locale.ROOT) + "@email.com";
+            if (householdEmail == null) {
+                householdEmail = email;
+            } else if (random.nextDouble() < 0.2) {
+                email = householdEmail;
+            }
+            persons.accept(new Person(firstName, lastName, address, city, zip, phone, email));
+
+            int age;
+            if (member == 0) {
+                age = headAge;
+            } else if (member == 1 || size < 3) {
+                age = Math.max(19, Math.min(95, headAge + random.nextInt(11) - 5));
+            } else {
+                age = random.nextInt(19);
+            }
+            LocalDate birthdate = referenceDate.minusYears(age).minusDays(random.nextInt(365));
+            List<String> medicationList = draw(random, MEDICATIONS, medications, medicationCount(random, age));
+            List<String> allergyList = draw(random, ALLERGIES, allergies, random.nextDouble() < 0.3 ? 1 + random.nextInt(2) : 0);
+            if (random.nextDouble() >= 0.01) {
+                medicalRecords.accept(new MedicalRecord(firstName, lastName, birthdate, medicationList, allergyList));
+            }
+        }
+        return size;
+    }
+
+    private static int householdSize(Random random) {
+        double draw = random.nextDouble();
+        for (int i = 0; i < HOUSEHOLD_SIZES.length; i++) {
+            draw -= HOUSEHOLD_SIZE_WEIGHTS[i];
+            if (draw < 0) {
+                return HOUSEHOLD_SIZES[i];
+            }
+        }
+        return HOUSEHOLD_SIZES[HOUSEHOLD_SIZES.length - 1];
+    }
+
+    /**
+     * Draws an adult age offset from 19 with a tapering pyramid: uniform draws
+     * folded so that older ages are progressively rarer.
+     */
+    private static int adultAge(Random random) {
+        return (int) (71 * Math.pow(random.nextDouble(), 1.4));
+    }
+
+    private static int medicationCount(Random random, int age) {
+        double draw = random.nextDouble();
+        if (age < 40) {
+            return draw < 0.6 ? 0 : draw < 0.9 ? 1 : 2;
+        }
+        if (age < 65) {
+            return draw < 0.3 ? 0 : 1 + random.nextInt(3);
+        }
+        return 1 + random.nextInt(6);
+    }
+
+    private static List<String> draw(Random random, String[] values, ZipfSampler sampler, int count) {
+        if (count == 0) {
+            return List.of();
+        }
+        List<String> drawn = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            String value = values[sampler.sample(random)];
+            if (!drawn.contains(value)) {
+                drawn.add(value);
+            }
+        }
+        return drawn;
+    }
+
+    private static String address(int index) {
+        int street = index / HOUSES_PER_STREET;
+        String streetName = STREETS[street % STREETS.length];
+        if (street >= STREETS.length) {
+            streetName = streetName + " " + (street / STREETS.length + 1);
+        }
+        return (index % HOUSES_PER_STREET + 1) + " " + streetName;
+    }
+
+    private static String city(int rank) {
+        String stem = CITY_STEMS[rank % CITY_STEMS.length];
+        return rank < CITY_STEMS.length ? stem : stem + " " + (rank / CITY_STEMS.length + 1);
+    }
+
+    private static String lastName(int rank) {
+        String stem = LAST_NAME_STEMS[rank % LAST_NAME_STEMS.length];
+        return rank < LAST_NAME_STEMS.length ? stem : stem + (rank / LAST_NAME_STEMS.length + 1);
+    }
+
+    private static String phone(Random random) {
+        return String.format("841-874-%04d", random.nextInt(10_000));
+    }
+
+    /**
+     * Writes a data set to a file.
+     *
+     * @param args the number of persons, the seed and the output path
+     * @throws IOException if writing fails
+     */
+    public static void main(String[] args) throws IOException {
+        if (args.length != 3) {
+            System.err.println("Usage: SyntheticDataGenerator <persons> <seed> <output.json>");
+            System.exit(2);
+        }
+        SyntheticDataGenerator generator = new SyntheticDataGenerator(Integer.parseInt(args[0]), Long.parseLong(args[1]));
+        Path output = Path.of(args[2]);
+        long start = System.nanoTime();
+        try (OutputStream out = new BufferedOutputStream(Files.newOutputStream(output), 1 << 16)) {
+            generator.writeJson(out);
+        }
+        log.info("Wrote {} persons to {} in {} ms", args[0], output, (System.nanoTime() - start) / 1_000_000);
+    }
+
+    /**
+     * Carries an {@link IOException} out of a consumer.
+     */
+    private static final class GenerationException extends RuntimeException {
+
+        private GenerationException(IOException cause) {
+            super(cause);
+        }
+
+        @Override
+        public synchronized IOException getCause() {
+            return (IOException) super.getCause();
+        }
+    }
+}
@@ -0,0 +1,43 @@
+package com.safetynet.safetynet.repository.generator;
+
+import java.util.Arrays;
+import java.util.Random;
+
+/**
+ * Samples ranks {@code 0..n-1} with probability proportional to {@code 1 / (rank + 1)^exponent},
+ * so that a few values are very common and most are rare.
+ */
+final class ZipfSampler {
+
+    private final double[] cumulative;
+
+    /**
+     * Creates a sampler.
+     *
+     * @param n        the number of ranks, at least 1
+     * @param exponent the skew; 0 gives a uniform distribution
+     */
+    ZipfSampler(int n, double exponent) {
+        cumulative = new double[n];
+        double total = 0;
+        for (int rank = 0; rank < n; rank++) {
+            total += 1 / Math.pow(rank + 1, exponent);
+            cumulative[rank] = total;
+        }
+        for (int rank = 0; rank < n; rank++) {
+            cumulative[rank] /= total;
+        }
+    }
+
+    /**
+     * Draws a rank.
+     *
+     * @param random the source of randomness
+     * @return a rank in {@code [0, n)}
+     */
+    int sample(Random random) {
+        int index = Arrays.binarySearch(cumulative, random.nextDouble());
+        int rank = index >= 0 ? index : -index - 1;
+        return Math.min(rank, cumulative.length - 1);
+    }
+}
@@ -0,0 +1,38 @@
+package com.safetynet.safetynet.repository.impl;
+
+import com.safetynet.safetynet.repository.DataLoader;
+import com.safetynet.safetynet.repository.DataSnapshot;
+import com.safetynet.safetynet.repository.DataSnapshotRepository;
+import org.springframework.stereotype.Repository;
+
+/**
+ * Implementation of the {@link DataSnapshotRepository} interface.
+ * <p>
+ * Hands out the snapshot currently published by the {@link DataLoader}.
+ * Reading it takes no lock.
+ * </p>
+ */
+@Repository
+public class DataSnapshotRepositoryImpl implements DataSnapshotRepository {
+
+    private final DataLoader dataLoader;
+
+    /**
+     * Constructs a new {@code DataSnapshotRepositoryImpl} with the specified data loader.
+     *
+     * @param dataLoader the {@link DataLoader} publishing the snapshots
+     */
+    public DataSnapshotRepositoryImpl(DataLoader dataLoader) {
+        this.dataLoader = dataLoader;
+    }
+
+    /**
+     * Retrieves the snapshot currently published by the {@link DataLoader}.
+     *
+     * @return the current {@link DataSnapshot}
+     */
+    @Override
+    public DataSnapshot current() {
+        return dataLoader.getSnapshot();
+    }
+}
@@ -2,15 +2,25 @@ package com.safetynet.safetynet.repository.impl;
 
 import com.safetynet.safetynet.model.FireStation;
 import com.safetynet.safetynet.repository.DataLoader;
+import com.safetynet.safetynet.repository.DataSnapshot;
 import com.safetynet.safetynet.repository.FireStationRepository;
+import com.safetynet.safetynet.repository.persistence.JournalEntry;
 import org.springframework.stereotype.Repository;
 
 import java.util.List;
+import java.util.Set;
+import java.util.concurrent.locks.Lock;
 
 /**
  * Implementation of the {@link FireStationRepository} interface.
  * Provides data access methods for managing {@link FireStation} entities
  * using the in-memory data loaded by {@link DataLoader}.
+ * <p>
+ * Coverage lookups are answered by the bidirectional index (station to
+ * addresses and address to stations) of the current {@link DataSnapshot},
+ * without locking. Mutations derive, journal and publish a new snapshot while
+ * holding the {@link DataLoader}'s write lock. Updates replace the stored
+ * mapping instead of mutating it in place.
  */
 @Repository
 public class FireStationRepositoryImpl implements FireStationRepository {
@@ -27,25 +37,31 @@ public class FireStationRepositoryImpl implements FireStationRepository {
     }
 
     /**
-     * Retrieves all fire station mappings.
+     * Retrieves all fire station mappings from the current snapshot.
      *
-     * @return a list of all {@link FireStation} objects
+     * @return an unmodifiable list of all {@link FireStation} objects
      */
     @Override
     public List<FireStation> getAllFireStations() {
-        return dataLoader.getFireStations();
+        return dataLoader.getSnapshot().getFireStations();
     }
 
     /**
-     * Adds a new fire station mapping and persists the updated list.
+     * Adds a new fire station mapping and records it in the journal.
      *
      * @param fireStation the {@link FireStation} to add
      */
     @Override
     public void addFireStation(FireStation fireStation) {
-        List<FireStation> fireStations = dataLoader.getFireStations();
-        fireStations.add(fireStation);
-        dataLoader.setFireStations(fireStations); // persist to file
+        Lock writeLock = dataLoader.getLock().writeLock();
+        writeLock.lock();
+        try {
+            DataSnapshot next = dataLoader.getSnapshot().toBuilder().addFireStation(fireStation).build();
+            dataLoader.append(JournalEntry.fireStationAdded(fireStation)); // persist to journal
+            dataLoader.publish(next);
+        } finally {
+            writeLock.unlock();
+        }
     }
 
     /**
@@ -57,15 +73,23 @@ public class FireStationRepositoryImpl implements FireStationRepository {
      */
     @Override
     public FireStation updateFireStation(String address, FireStation updatedFireStation) {
-        List<FireStation> fireStations = dataLoader.getFireStations();
-        for (FireStation current : fireStations) {
-            if (current.getAddress().equalsIgnoreCase(address)) {
-                current.setStation(updatedFireStation.getStation());
-                dataLoader.setFireStations(fireStations); // persist to file
-                return current;
+        Lock writeLock = dataLoader.getLock().writeLock();
+        writeLock.lock();
+        try {
+            DataSnapshot current = dataLoader.getSnapshot();
+            List<FireStation> mapped = current.findFireStationsByAddress(address);
+            if (mapped.isEmpty()) {
+                return null;
             }
+            FireStation existing = mapped.get(0);
+            FireStation replacement = new FireStation(existing.getAddress(), updatedFireStation.getStation());
+            DataSnapshot next = current.toBuilder().replaceFireStation(existing, replacement).build();
+            dataLoader.append(JournalEntry.fireStationUpdated(address, replacement)); // persist to journal
+            dataLoader.publish(next);
+            return replacement;
+        } finally {
+            writeLock.unlock();
         }
-        return null;
     }
 
     /**
@@ -76,11 +100,43 @@ public class FireStationRepositoryImpl implements FireStationRepository {
      */
     @Override
     public boolean deleteFireStation(String address) {
-        List<FireStation> fireStations = dataLoader.getFireStations();
-        boolean removed = fireStations.removeIf(f -> f.getAddress().equalsIgnoreCase(address));
-        if (removed) {
-            dataLoader.setFireStations(fireStations); // persist to file
+        Lock writeLock = dataLoader.getLock().writeLock();
+        writeLock.lock();
+        try {
+            DataSnapshot current = dataLoader.getSnapshot();
+            List<FireStation> mapped = current.findFireStationsByAddress(address);
+            if (mapped.isEmpty()) {
+                return false;
+            }
+            DataSnapshot.Builder next = current.toBuilder();
+            mapped.forEach(next::removeFireStation);
+            dataLoader.append(JournalEntry.fireStationDeleted(address)); // persist to journal
+            dataLoader.publish(next.build());
+            return true;
+        } finally {
+            writeLock.unlock();
         }
-        return removed;
+    }
+
+    /**
+     * Retrieves the addresses covered by a station using the station index.
+     *
+     * @param station the station number
+     * @return an unmodifiable set of covered addresses, empty if the station is unknown
+     */
+    @Override
+    public Set<String> findAddressesByStation(String station) {
+        return dataLoader.getSnapshot().findAddressesByStation(station);
+    }
+
+    /**
+     * Retrieves the stations covering an address using the address index.
+     *
+     * @param address the exact address
+     * @return an unmodifiable set of station numbers in mapping order, empty if the address is not covered
+     */
+    @Override
+    public Set<String> findStationsByAddress(String address) {
+        return dataLoader.getSnapshot().findStationsByAddress(address);
     }
 }
@@ -2,16 +2,24 @@ package com.safetynet.safetynet.repository.impl;
 
 import com.safetynet.safetynet.model.MedicalRecord;
 import com.safetynet.safetynet.repository.DataLoader;
+import com.safetynet.safetynet.repository.DataSnapshot;
 import com.safetynet.safetynet.repository.MedicalRecordRepository;
+import com.safetynet.safetynet.repository.persistence.JournalEntry;
 import org.springframework.stereotype.Repository;
 
-import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.locks.Lock;
 
 /**
  * Implementation of the {@link MedicalRecordRepository} interface.
  * Provides data access methods for managing {@link MedicalRecord} entities
  * using the in-memory data loaded and persisted through {@link DataLoader}.
+ * <p>
+ * Lookups read the current {@link DataSnapshot}, whose name index makes a
+ * lookup by name a hash hit; as with a linear scan, the first record of a
+ * given name wins. Mutations derive, journal and publish a new snapshot while
+ * holding the {@link DataLoader}'s write lock. Updates replace the stored
+ * record instead of mutating it in place.
  */
 @Repository
 public class MedicalRecordRepositoryImpl implements MedicalRecordRepository {
@@ -27,17 +35,6 @@ public class MedicalRecordRepositoryImpl implements MedicalRecordRepository {
         this.dataLoader = dataLoader;
     }
 
-    /**
-     * Retrieves all medical records from the data source.
-     * If no records are available, returns an empty list.
-     *
-     * @return a list of all {@link MedicalRecord} objects, or an empty list if none exist
-     */
-    private List<MedicalRecord> getMedicalRecords() {
-        List<MedicalRecord> records = dataLoader.getMedicalRecords();
-        return records != null ? records : new ArrayList<>();
-    }
-
     /**
      * Adds a new medical record and persists the change.
      *
@@ -45,9 +42,15 @@ public class MedicalRecordRepositoryImpl implements MedicalRecordRepository {
      */
     @Override
     public void addMedicalRecord(MedicalRecord record) {
-        List<MedicalRecord> records = getMedicalRecords();
-        records.add(record);
-        dataLoader.setMedicalRecords(records); // persist change
+        Lock writeLock = dataLoader.getLock().writeLock();
+        writeLock.lock();
+        try {
+            DataSnapshot next = dataLoader.getSnapshot().toBuilder().addMedicalRecord(record).build();
+            dataLoader.append(JournalEntry.medicalRecordAdded(record)); // persist change
+            dataLoader.publish(next);
+        } finally {
+            writeLock.unlock();
+        }
     }
 
     /**
@@ -61,15 +64,22 @@ public class MedicalRecordRepositoryImpl implements MedicalRecordRepository {
      */
     @Override
     public MedicalRecord updateMedicalRecord(String firstName, String lastName, MedicalRecord updatedRecord) {
-        List<MedicalRecord> records = getMedicalRecords();
-        for (MedicalRecord record : records) {
-            if (record.getFirstName().equals(firstName) && record.getLastName().equals(lastName)) {
-                record.setBirthdate(updatedRecord.getBirthdate());
-                record.setMedications(updatedRecord.getMedications());
-                record.setAllergies(updatedRecord.getAllergies());
-                dataLoader.setMedicalRecords(records); // persist change
-                return record;
+        Lock writeLock = dataLoader.getLock().writeLock();
+        writeLock.lock();
+        try {
+            DataSnapshot current = dataLoader.getSnapshot();
+            for (MedicalRecord record : current.findMedicalRecords(firstName, lastName)) {
+                if (record.getFirstName().equals(firstName) && record.getLastName().equals(lastName)) {
+                    MedicalRecord replacement = new MedicalRecord(record.getFirstName(), record.getLastName(),
+                            updatedRecord.getBirthdate(), updatedRecord.getMedications(), updatedRecord.getAllergies());
+                    DataSnapshot next = current.toBuilder().replaceMedicalRecord(record, replacement).build();
+                    dataLoader.append(JournalEntry.medicalRecordUpdated(firstName, lastName, replacement)); // persist change
+                    dataLoader.publish(next);
+                    return replacement;
+                }
             }
+        } finally {
+            writeLock.unlock();
         }
         return null;
     }
@@ -83,29 +93,36 @@ public class MedicalRecordRepositoryImpl implements MedicalRecordRepository {
      */
     @Override
     public boolean deleteMedicalRecord(String firstName, String lastName) {
-        List<MedicalRecord> records = getMedicalRecords();
-        boolean removed = records.removeIf(record ->
-                record.getFirstName().equalsIgnoreCase(firstName)
-                        && record.getLastName().equalsIgnoreCase(lastName)
-        );
-        if (removed) {
-            dataLoader.setMedicalRecords(records);
+        Lock writeLock = dataLoader.getLock().writeLock();
+        writeLock.lock();
+        try {
+            DataSnapshot current = dataLoader.getSnapshot();
+            List<MedicalRecord> named = current.findMedicalRecords(firstName, lastName);
+            if (named.isEmpty()) {
+                return false;
+            }
+            DataSnapshot.Builder next = current.toBuilder();
+            named.forEach(next::removeMedicalRecord);
+            dataLoader.append(JournalEntry.medicalRecordDeleted(firstName, lastName));
+            dataLoader.publish(next.build());
+            return true;
+        } finally {
+            writeLock.unlock();
         }
-        return removed;
     }
 
     /**
-     * Retrieves all medical records as an unmodifiable copy of the current data set.
+     * Retrieves all medical records from the current snapshot.
      *
      * @return an immutable list of {@link MedicalRecord} objects
      */
     @Override
     public List<MedicalRecord> getAllMedicalRecords() {
-        return List.copyOf(getMedicalRecords());
+        return dataLoader.getSnapshot().getMedicalRecords();
     }
 
     /**
-     * Finds a medical record by first and last name.
+     * Finds a medical record by first and last name, ignoring case, using the name index.
      *
      * @param firstName the first name to search for
      * @param lastName  the last name to search for
@@ -113,10 +130,6 @@ public class MedicalRecordRepositoryImpl implements MedicalRecordRepository {
      */
     @Override
     public MedicalRecord findByFirstNameAndLastName(String firstName, String lastName) {
-        return getMedicalRecords().stream()
-                .filter(r -> r.getFirstName().equalsIgnoreCase(firstName)
-                        && r.getLastName().equalsIgnoreCase(lastName))
-                .findFirst()
-                .orElse(null);
+        return dataLoader.getSnapshot().findMedicalRecord(firstName, lastName);
     }
 }
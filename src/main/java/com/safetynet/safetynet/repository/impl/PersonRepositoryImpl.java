@@ -2,16 +2,26 @@ package com.safetynet.safetynet.repository.impl;
 
 import com.safetynet.safetynet.model.Person;
 import com.safetynet.safetynet.repository.DataLoader;
+import com.safetynet.safetynet.repository.DataSnapshot;
 import com.safetynet.safetynet.repository.PersonRepository;
+import com.safetynet.safetynet.repository.persistence.JournalEntry;
 import org.springframework.stereotype.Repository;
 
 import java.util.List;
+import java.util.concurrent.locks.Lock;
 
 /**
  * Implementation of the {@link PersonRepository} interface.
  * <p>
  * This class provides CRUD operations for {@link Person} data by interacting with
  * the {@link DataLoader}, which handles persistence of the data source.
+ * Lookups read the current {@link DataSnapshot} without locking. Each mutation
+ * derives a new snapshot, records it in the journal and publishes it while
+ * holding the {@link DataLoader}'s write lock.
+ * </p>
+ * <p>
+ * Updates replace the stored {@link Person} rather than mutating it, so an
+ * instance handed to a reader never changes underneath it.
  * </p>
  */
 @Repository
@@ -28,17 +38,6 @@ public class PersonRepositoryImpl implements PersonRepository {
         this.dataLoader = dataLoader;
     }
 
-    /**
-     * Retrieves the list of all persons from the data source.
-     * If the data is unavailable, an empty list is returned instead of {@code null}.
-     *
-     * @return a list of {@link Person} objects, or an empty list if none are found
-     */
-    private List<Person> getPersons() {
-        List<Person> persons = dataLoader.getPersons();
-        return persons != null ? persons : List.of();
-    }
-
     /**
      * Adds a new person to the data source.
      *
@@ -47,9 +46,15 @@ public class PersonRepositoryImpl implements PersonRepository {
      */
     @Override
     public Person addPerson(Person person) {
-        List<Person> persons = getPersons();
-        persons.add(person);
-        dataLoader.setPersons(persons);
+        Lock writeLock = dataLoader.getLock().writeLock();
+        writeLock.lock();
+        try {
+            DataSnapshot next = dataLoader.getSnapshot().toBuilder().addPerson(person).build();
+            dataLoader.append(JournalEntry.personAdded(person));
+            dataLoader.publish(next);
+        } finally {
+            writeLock.unlock();
+        }
         return person;
     }
 
@@ -63,21 +68,25 @@ public class PersonRepositoryImpl implements PersonRepository {
      */
     @Override
     public Person updatePerson(String firstName, String lastName, Person updatedPerson) {
-        List<Person> persons = getPersons();
-        for (Person p : persons) {
-            if (p.getFirstName().equalsIgnoreCase(firstName) &&
-                    p.getLastName().equalsIgnoreCase(lastName)) {
-
-                p.setAddress(updatedPerson.getAddress());
-                p.setCity(updatedPerson.getCity());
-                p.setZip(updatedPerson.getZip());
-                p.setPhone(updatedPerson.getPhone());
-                p.setEmail(updatedPerson.getEmail());
-                dataLoader.setPersons(persons);
-                return p;
+        Lock writeLock = dataLoader.getLock().writeLock();
+        writeLock.lock();
+        try {
+            DataSnapshot current = dataLoader.getSnapshot();
+            List<Person> named = current.findPersonsByName(firstName, lastName);
+            if (named.isEmpty()) {
+                return null;
             }
+            Person p = named.get(0);
+            Person replacement = new Person(p.getFirstName(), p.getLastName(),
+                    updatedPerson.getAddress(), updatedPerson.getCity(), updatedPerson.getZip(),
+                    updatedPerson.getPhone(), updatedPerson.getEmail());
+            DataSnapshot next = current.toBuilder().replacePerson(p, replacement).build();
+            dataLoader.append(JournalEntry.personUpdated(firstName, lastName, replacement));
+            dataLoader.publish(next);
+            return replacement;
+        } finally {
+            writeLock.unlock();
         }
-        return null;
     }
 
     /**
@@ -89,25 +98,42 @@ public class PersonRepositoryImpl implements PersonRepository {
      */
     @Override
     public boolean deletePerson(String firstName, String lastName) {
-        List<Person> persons = getPersons();
-        boolean removed = persons.removeIf(p ->
-                p.getFirstName().equalsIgnoreCase(firstName) &&
-                        p.getLastName().equalsIgnoreCase(lastName)
-        );
-        if (removed) {
-            dataLoader.setPersons(persons);
+        Lock writeLock = dataLoader.getLock().writeLock();
+        writeLock.lock();
+        try {
+            DataSnapshot current = dataLoader.getSnapshot();
+            List<Person> named = current.findPersonsByName(firstName, lastName);
+            if (named.isEmpty()) {
+                return false;
+            }
+            DataSnapshot.Builder next = current.toBuilder();
+            named.forEach(next::removePerson);
+            dataLoader.append(JournalEntry.personDeleted(firstName, lastName));
+            dataLoader.publish(next.build());
+            return true;
+        } finally {
+            writeLock.unlock();
         }
-        return removed;
     }
 
     /**
-     * Retrieves all persons from the data source.
+     * Retrieves all persons from the current snapshot.
      *
      * @return an unmodifiable list of all {@link Person} objects, or an empty list if none exist
      */
     @Override
     public List<Person> getAllPersons() {
-        List<Person> persons = getPersons();
-        return persons != null ? List.copyOf(persons) : List.of();
+        return dataLoader.getSnapshot().getPersons();
+    }
+
+    /**
+     * Retrieves all persons living at the given address using the snapshot's address index.
+     *
+     * @param address the exact address to look up
+     * @return an unmodifiable list of residents, or an empty list if nobody lives there
+     */
+    @Override
+    public List<Person> findByAddress(String address) {
+        return dataLoader.getSnapshot().findPersonsByAddress(address);
     }
 }
@@ -0,0 +1,665 @@
+package com.safetynet.safetynet.repository.persistence;
+
+import com.safetynet.safetynet.model.FireStation;
+import com.safetynet.safetynet.model.MedicalRecord;
+import com.safetynet.safetynet.model.Person;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
+import java.util.zip.CRC32C;
+
+/**
+ * Compact binary encoding of the data set, used for snapshots when restart
+ * time matters more than readability. JSON remains the interchange format;
+ * {@link SnapshotConverter} converts between the two.
+ * <p>
+ * A file starts with a fixed {@value #HEADER_SIZE}-byte header holding a magic
+ * number, the format version, the entity counts, the offset of each section,
+ * the body length, a CRC-32C of the body and a CRC-32C of the header itself.
+ * The body holds the persons, the fire station mappings and the medical
+ * records, each entity prefixed with its length, followed by a string
+ * dictionary. Values that repeat across entities (last names, addresses,
+ * cities, zip codes, phones, station numbers, medications and allergies) are
+ * written once in the dictionary and referenced by index; first names and
+ * emails, which are mostly unique, are written inline. Integers are unsigned
+ * LEB128 varints, so small counts and references take a single byte.
+ * <p>
+ * {@link #open(Path)} memory-maps a file, verifies both checksums and decodes
+ * the dictionary; the sections are then decoded on demand, each independently,
+ * so they may be read concurrently. Strings are decoded once per dictionary
+ * entry, so repeated values share a single instance across all sections.
+ * <p>
+ * {@link #mapMedicalRecords(Consumer)} decodes only the names and birthdates
+ * of the medical records, which the indexes need at once; medications and
+ * allergies are decoded from their offset in the mapped file whenever they are
+ * read, so they take no heap while unused. Each such record keeps the mapping
+ * open; snapshot files are only ever replaced, never rewritten in place, so a
+ * mapped file does not change under it.
+ */
+public final class BinarySnapshot {
+
+    /** File name extension of binary snapshots. */
+    public static final String EXTENSION = ".bin";
+
+    /** Size in bytes of the fixed header. */
+    public static final int HEADER_SIZE = 64;
+
+    /** {@code "SNBS"}: SafetyNet binary snapshot. */
+    private static final int MAGIC = 0x534E4253;
+
+    /** Version written by this class; files of any other version are rejected. */
+    private static final short VERSION = 1;
+
+    /** Body bytes buffered before being written to the file. */
+    private static final int WRITE_BUFFER_SIZE = 1 << 16;
+
+    private final Path file;
+    private final ByteBuffer buffer;
+    private final String[] dictionary;
+    private final int personCount;
+    private final int fireStationCount;
+    private final int medicalRecordCount;
+    private final int fireStationsOffset;
+    private final int medicalRecordsOffset;
+
+    private BinarySnapshot(Path file, ByteBuffer buffer, String[] dictionary,
+                           int personCount, int fireStationCount, int medicalRecordCount,
+                           int fireStationsOffset, int medicalRecordsOffset) {
+        this.file = file;
+        this.buffer = buffer;
+        this.dictionary = dictionary;
+        this.personCount = personCount;
+        this.fireStationCount = fireStationCount;
+        this.medicalRecordCount = medicalRecordCount;
+        this.fireStationsOffset = fireStationsOffset;
+        this.medicalRecordsOffset = medicalRecordsOffset;
+    }
+
+    /**
+     * Tells whether a file is named as a binary snapshot.
+     *
+     * @param file the file
+     * @return {@code true} if its name ends with {@value #EXTENSION}
+     */
+    public static boolean isBinary(Path file) {
+        return file.getFileName().toString().endsWith(EXTENSION);
+    }
+
+    /**
+     * Writes a data set to a file, replacing any existing content, and forces
+     * it to the storage device before returning.
+     *
+     * @param file           the target file
+     * @param persons        the persons
+     * @param fireStations   the fire station mappings
+     * @param medicalRecords the medical records
+     * @throws IOException if the file cannot be written
+     */
+    public static void write(Path file,
+                             List<Person> persons,
+                             List<FireStation> fireStations,
+                             List<MedicalRecord> medicalRecords) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING)) {
+            Writer writer = new Writer(channel);
+            for (Person person : persons) {
+                writer.record.putString(person.getFirstName());
+                writer.putReference(person.getLastName());
+                writer.putReference(person.getAddress());
+                writer.putReference(person.getCity());
+                writer.putReference(person.getZip());
+                writer.putReference(person.getPhone());
+                writer.record.putString(person.getEmail());
+                writer.endEntity();
+            }
+            long fireStationsOffset = writer.offset();
+            for (FireStation fireStation : fireStations) {
+                writer.putReference(fireStation.getAddress());
+                writer.putReference(fireStation.getStation());
+                writer.endEntity();
+            }
+            long medicalRecordsOffset = writer.offset();
+            for (MedicalRecord record : medicalRecords) {
+                writer.record.putString(record.getFirstName());
+                writer.putReference(record.getLastName());
+                writer.record.putDate(record.getBirthdate());
+                writer.putReferences(record.getMedications());
+                writer.putReferences(record.getAllergies());
+                writer.endEntity();
+            }
+            long dictionaryOffset = writer.offset();
+            for (String value : writer.entries) {
+                writer.body.putString(value);
+                writer.flushIfFull();
+            }
+            writer.flush();
+
+            ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE)
+                    .putInt(MAGIC)
+                    .putShort(VERSION)
+                    .putShort((short) 0)
+                    .putInt(persons.size())
+                    .putInt(fireStations.size())
+                    .putInt(medicalRecords.size())
+                    .putInt(writer.entries.size())
+                    .putLong(fireStationsOffset)
+                    .putLong(medicalRecordsOffset)
+                    .putLong(dictionaryOffset)
+                    .putLong(writer.written)
+                    .putInt((int) writer.checksum.getValue());
+            header.putInt(headerChecksum(header));
+            channel.write(header.flip(), 0);
+            channel.force(true);
+        }
+    }
+
+    /**
+     * Memory-maps a binary snapshot, verifies it and decodes its dictionary.
+     *
+     * @param file the snapshot file
+     * @return the opened snapshot, whose sections can then be read
+     * @throws IOException if the file cannot be read, is not a binary snapshot,
+     *                     has an unsupported version or fails its checksums
+     */
+    public static BinarySnapshot open(Path file) throws IOException {
+        MappedByteBuffer buffer;
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            long size = channel.size();
+            if (size < HEADER_SIZE) {
+                throw corrupt(file, "shorter than its header");
+            }
+            if (size > Integer.MAX_VALUE) {
+                throw new IOException("Binary snapshot " + file + " is too large to be mapped (" + size + " bytes)");
+            }
+            buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, size);
+        }
+
+        if (buffer.getInt(0) != MAGIC) {
+            throw new IOException(file + " is not a binary snapshot");
+        }
+        if (buffer.getShort(4) != VERSION) {
+            throw new IOException("Unsupported binary snapshot version " + buffer.getShort(4) + " in " + file);
+        }
+        if (buffer.getInt(HEADER_SIZE - 4) != headerChecksum(buffer.slice(0, HEADER_SIZE))) {
+            throw corrupt(file, "header checksum mismatch");
+        }
+        int personCount = buffer.getInt(8);
+        int fireStationCount = buffer.getInt(12);
+        int medicalRecordCount = buffer.getInt(16);
+        int dictionarySize = buffer.getInt(20);
+        long fireStationsOffset = buffer.getLong(24);
+        long medicalRecordsOffset = buffer.getLong(32);
+        long dictionaryOffset = buffer.getLong(40);
+        long bodyLength = buffer.getLong(48);
+        if (bodyLength != buffer.capacity() - HEADER_SIZE) {
+            throw corrupt(file, "expected " + bodyLength + " body bytes but found " + (buffer.capacity() - HEADER_SIZE));
+        }
+        if (personCount < 0 || fireStationCount < 0 || medicalRecordCount < 0 || dictionarySize < 0
+                || fireStationsOffset < HEADER_SIZE || medicalRecordsOffset < fireStationsOffset
+                || dictionaryOffset < medicalRecordsOffset || dictionaryOffset > buffer.capacity()) {
+            throw corrupt(file, "inconsistent header");
+        }
+        CRC32C checksum = new CRC32C();
+        checksum.update(buffer.slice(HEADER_SIZE, (int) bodyLength));
+        if ((int) checksum.getValue() != buffer.getInt(56)) {
+            throw corrupt(file, "body checksum mismatch");
+        }
+
+        String[] dictionary = new String[dictionarySize];
+        Decoder in = new Decoder(file, buffer, dictionary, (int) dictionaryOffset);
+        for (int i = 0; i < dictionarySize; i++) {
+            dictionary[i] = in.string();
+        }
+        return new BinarySnapshot(file, buffer, dictionary, personCount, fireStationCount, medicalRecordCount,
+                (int) fireStationsOffset, (int) medicalRecordsOffset);
+    }
+
+    /**
+     * Returns the number of persons in the snapshot.
+     *
+     * @return the person count
+     */
+    public int getPersonCount() {
+        return personCount;
+    }
+
+    /**
+     * Returns the number of fire station mappings in the snapshot.
+     *
+     * @return the fire station mapping count
+     */
+    public int getFireStationCount() {
+        return fireStationCount;
+    }
+
+    /**
+     * Returns the number of medical records in the snapshot.
+     *
+     * @return the medical record count
+     */
+    public int getMedicalRecordCount() {
+        return medicalRecordCount;
+    }
+
+    /**
+     * Decodes the persons, in the order they were written.
+     *
+     * @param persons receives the persons
+     * @throws IOException if the section is malformed
+     */
+    public void readPersons(Consumer<? super Person> persons) throws IOException {
+        Decoder in = new Decoder(file, buffer, dictionary, HEADER_SIZE);
+        for (int i = 0; i < personCount; i++) {
+            int end = in.entityEnd();
+            Person person = new Person(in.string(), in.reference(), in.reference(), in.reference(),
+                    in.reference(), in.reference(), in.string());
+            in.seek(end);
+            persons.accept(person);
+        }
+    }
+
+    /**
+     * Decodes the fire station mappings, in the order they were written.
+     *
+     * @param fireStations receives the fire station mappings
+     * @throws IOException if the section is malformed
+     */
+    public void readFireStations(Consumer<? super FireStation> fireStations) throws IOException {
+        Decoder in = new Decoder(file, buffer, dictionary, fireStationsOffset);
+        for (int i = 0; i < fireStationCount; i++) {
+            int end = in.entityEnd();
+            FireStation fireStation = new FireStation(in.reference(), in.reference());
+            in.seek(end);
+            fireStations.accept(fireStation);
+        }
+    }
+
+    /**
+     * Decodes the medical records, in the order they were written.
+     *
+     * @param medicalRecords receives the medical records
+     * @throws IOException if the section is malformed
+     */
+    public void readMedicalRecords(Consumer<? super MedicalRecord> medicalRecords) throws IOException {
+        Decoder in = new Decoder(file, buffer, dictionary, medicalRecordsOffset);
+        for (int i = 0; i < medicalRecordCount; i++) {
+            int end = in.entityEnd();
+            MedicalRecord record = new MedicalRecord(in.string(), in.reference(), in.date(),
+                    in.references(), in.references());
+            in.seek(end);
+            medicalRecords.accept(record);
+        }
+    }
+
+    /**
+     * Decodes the medical records, in the order they were written, leaving
+     * their medications and allergies in the mapped file: the records returned
+     * decode them each time they are read, until a setter replaces them.
+     *
+     * @param medicalRecords receives the medical records
+     * @throws IOException if the section is malformed
+     */
+    public void mapMedicalRecords(Consumer<? super MedicalRecord> medicalRecords) throws IOException {
+        Decoder in = new Decoder(file, buffer, dictionary, medicalRecordsOffset);
+        for (int i = 0; i < medicalRecordCount; i++) {
+            int end = in.entityEnd();
+            String firstName = in.string();
+            String lastName = in.reference();
+            LocalDate birthdate = in.date();
+            int listsOffset = in.position;
+            in.skipReferences();
+            in.skipReferences();
+            in.seek(end);
+            medicalRecords.accept(new MappedMedicalRecord(this, listsOffset, firstName, lastName, birthdate));
+        }
+    }
+
+    /**
+     * Decodes the medications ({@code 0}) or allergies ({@code 1}) of the
+     * medical record whose lists start at {@code listsOffset}.
+     */
+    private List<String> decodeList(int listsOffset, int index) {
+        Decoder in = new Decoder(file, buffer, dictionary, listsOffset);
+        try {
+            for (int i = 0; i < index; i++) {
+                in.skipReferences();
+            }
+            List<String> values = in.references();
+            return values != null ? Collections.unmodifiableList(values) : null;
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Computes the checksum of every header field preceding the checksum itself.
+     */
+    private static int headerChecksum(ByteBuffer header) {
+        CRC32C checksum = new CRC32C();
+        checksum.update(header.slice(0, HEADER_SIZE - 4));
+        return (int) checksum.getValue();
+    }
+
+    private static IOException corrupt(Path file, String reason) {
+        return new IOException("Corrupt binary snapshot " + file + ": " + reason);
+    }
+
+    /**
+     * Medical record whose medications and allergies stay in a mapped
+     * snapshot until read. It equals a plain {@link MedicalRecord} with the
+     * same values.
+     */
+    private static final class MappedMedicalRecord extends MedicalRecord {
+
+        private final BinarySnapshot snapshot;
+        private final int listsOffset;
+
+        /** Set once a setter replaced the lists, which are then held by the superclass. */
+        private volatile boolean detached;
+
+        private MappedMedicalRecord(BinarySnapshot snapshot, int listsOffset,
+                                    String firstName, String lastName, LocalDate birthdate) {
+            super(firstName, lastName, birthdate, null, null);
+            this.snapshot = snapshot;
+            this.listsOffset = listsOffset;
+        }
+
+        @Override
+        public List<String> getMedications() {
+            return detached ? super.getMedications() : snapshot.decodeList(listsOffset, 0);
+        }
+
+        @Override
+        public List<String> getAllergies() {
+            return detached ? super.getAllergies() : snapshot.decodeList(listsOffset, 1);
+        }
+
+        @Override
+        public void setMedications(List<String> medications) {
+            detach();
+            super.setMedications(medications);
+        }
+
+        @Override
+        public void setAllergies(List<String> allergies) {
+            detach();
+            super.setAllergies(allergies);
+        }
+
+        private synchronized void detach() {
+            if (!detached) {
+                super.setMedications(snapshot.decodeList(listsOffset, 0));
+                super.setAllergies(snapshot.decodeList(listsOffset, 1));
+                detached = true;
+            }
+        }
+    }
+
+    /**
+     * Growable byte array with the encoding primitives of the format.
+     */
+    private static final class Encoder {
+
+        private byte[] bytes;
+        private int size;
+
+        private Encoder(int capacity) {
+            this.bytes = new byte[capacity];
+        }
+
+        private void putVarint(long value) {
+            ensure(10);
+            while ((value & ~0x7FL) != 0) {
+                bytes[size++] = (byte) ((value & 0x7F) | 0x80);
+                value >>>= 7;
+            }
+            bytes[size++] = (byte) value;
+        }
+
+        /**
+         * Writes a string as its UTF-8 length plus one, then its bytes; {@code null} is written as 0.
+         */
+        private void putString(String value) {
+            if (value == null) {
+                putVarint(0);
+                return;
+            }
+            byte[] utf8 = value.getBytes(StandardCharsets.UTF_8);
+            putVarint(utf8.length + 1L);
+            putBytes(utf8, 0, utf8.length);
+        }
+
+        /**
+         * Writes a date as its zigzag-encoded epoch day plus one; {@code null} is written as 0.
+         */
+        private void putDate(LocalDate date) {
+            if (date == null) {
+                putVarint(0);
+                return;
+            }
+            long epochDay = date.toEpochDay();
+            putVarint(((epochDay << 1) ^ (epochDay >> 63)) + 1);
+        }
+
+        private void putBytes(byte[] source, int offset, int length) {
+            ensure(length);
+            System.arraycopy(source, offset, bytes, size, length);
+            size += length;
+        }
+
+        private void ensure(int extra) {
+            if (size + extra > bytes.length) {
+                bytes = Arrays.copyOf(bytes, Math.max(bytes.length * 2, size + extra));
+            }
+        }
+    }
+
+    /**
+     * Single-pass writer of the body. Each entity is encoded into
+     * {@code record} first, so that it can be prefixed with its length.
+     */
+    private static final class Writer {
+
+        private final FileChannel channel;
+        private final Encoder body = new Encoder(WRITE_BUFFER_SIZE + 1024);
+        private final Encoder record = new Encoder(256);
+        private final CRC32C checksum = new CRC32C();
+        private final Map<String, Integer> references = new HashMap<>();
+        private final List<String> entries = new ArrayList<>();
+
+        /** Body bytes already written to the channel. */
+        private long written;
+
+        private Writer(FileChannel channel) throws IOException {
+            this.channel = channel;
+            channel.position(HEADER_SIZE);
+        }
+
+        /**
+         * Writes a dictionary reference: the entry index plus one, or 0 for {@code null}.
+         */
+        private void putReference(String value) {
+            if (value == null) {
+                record.putVarint(0);
+                return;
+            }
+            Integer index = references.get(value);
+            if (index == null) {
+                index = entries.size();
+                references.put(value, index);
+                entries.add(value);
+            }
+            record.putVarint(index + 1L);
+        }
+
+        /**
+         * Writes a list as its size plus one, then a reference per element; {@code null} is written as 0.
+         */
+        private void putReferences(List<String> values) {
+            if (values == null) {
+                record.putVarint(0);
+                return;
+            }
+            record.putVarint(values.size() + 1L);
+            values.forEach(this::putReference);
+        }
+
+        private void endEntity() throws IOException {
+            body.putVarint(record.size);
+            body.putBytes(record.bytes, 0, record.size);
+            record.size = 0;
+            flushIfFull();
+        }
+
+        /**
+         * Returns the file offset of the next body byte.
+         */
+        private long offset() {
+            return HEADER_SIZE + written + body.size;
+        }
+
+        private void flushIfFull() throws IOException {
+            if (body.size >= WRITE_BUFFER_SIZE) {
+                flush();
+            }
+        }
+
+        private void flush() throws IOException {
+            checksum.update(body.bytes, 0, body.size);
+            ByteBuffer pending = ByteBuffer.wrap(body.bytes, 0, body.size);
+            while (pending.hasRemaining()) {
+                channel.write(pending);
+            }
+            written += body.size;
+            body.size = 0;
+        }
+    }
+
+    /**
+     * Reads the encoding primitives from a position of the mapped file.
+     * Each decoder has its own position, so sections can be decoded concurrently.
+     */
+    private static final class Decoder {
+
+        private final Path file;
+        private final ByteBuffer buffer;
+        private final String[] dictionary;
+        private int position;
+        private byte[] scratch = new byte[64];
+
+        private Decoder(Path file, ByteBuffer buffer, String[] dictionary, int position) {
+            this.file = file;
+            this.buffer = buffer;
+            this.dictionary = dictionary;
+            this.position = position;
+        }
+
+        private long varint() throws IOException {
+            long value = 0;
+            for (int shift = 0; shift < 64; shift += 7) {
+                if (position >= buffer.capacity()) {
+                    throw corrupt(file, "truncated value at offset " + position);
+                }
+                byte b = buffer.get(position++);
+                value |= (long) (b & 0x7F) << shift;
+                if (b >= 0) {
+                    return value;
+                }
+            }
+            throw corrupt(file, "malformed varint at offset " + position);
+        }
+
+        /**
+         * Reads an entity's length prefix and returns the offset just past the entity.
+         */
+        private int entityEnd() throws IOException {
+            long length = varint();
+            if (length > buffer.capacity() - position) {
+                throw corrupt(file, "entity at offset " + position + " overruns the file");
+            }
+            return position + (int) length;
+        }
+
+        private void seek(int offset) {
+            position = offset;
+        }
+
+        private String string() throws IOException {
+            long encoded = varint();
+            if (encoded == 0) {
+                return null;
+            }
+            long length = encoded - 1;
+            if (length > buffer.capacity() - position) {
+                throw corrupt(file, "string at offset " + position + " overruns the file");
+            }
+            int size = (int) length;
+            if (scratch.length < size) {
+                scratch = new byte[Math.max(size, scratch.length * 2)];
+            }
+            buffer.get(position, scratch, 0, size);
+            position += size;
+            return new String(scratch, 0, size, StandardCharsets.UTF_8);
+        }
+
+        private String reference() throws IOException {
+            long encoded = varint();
+            if (encoded == 0) {
+                return null;
+            }
+            if (encoded > dictionary.length) {
+                throw corrupt(file, "dictionary reference " + (encoded - 1) + " out of range");
+            }
+            return dictionary[(int) encoded - 1];
+        }
+
+        private List<String> references() throws IOException {
+            long encoded = varint();
+            if (encoded == 0) {
+                return null;
+            }
+            if (encoded - 1 > buffer.capacity() - position) {
+                throw corrupt(file, "list at offset " + position + " overruns the file");
+            }
+            int size = (int) encoded - 1;
+            List<String> values = new ArrayList<>(size);
+            for (int i = 0; i < size; i++) {
+                values.add(reference());
+            }
+            return values;
+        }
+
+        /**
+         * Skips a list of references, checking them as {@link #references()} does.
+         */
+        private void skipReferences() throws IOException {
+            long encoded = varint();
+            for (long i = 1; i < encoded; i++) {
+                reference();
+            }
+        }
+
+        private LocalDate date() throws IOException {
+            long encoded = varint();
+            if (encoded == 0) {
+                return null;
+            }
+            long zigzag = encoded - 1;
+            return LocalDate.ofEpochDay((zigzag >>> 1) ^ -(zigzag & 1));
+        }
+    }
+}
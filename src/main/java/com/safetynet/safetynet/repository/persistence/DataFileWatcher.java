@@ -0,0 +1,108 @@
+package com.safetynet.safetynet.repository.persistence;
+
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.IOException;
+import java.nio.file.ClosedWatchServiceException;
+import java.nio.file.Path;
+import java.nio.file.StandardWatchEventKinds;
+import java.nio.file.WatchEvent;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+/**
+ * Watches one file with a {@link WatchService} and reports when it changes.
+ * <p>
+ * A file is usually written in several steps, each raising its own event, so
+ * the watcher waits until the file has been quiet for {@code quietMillis}
+ * before reporting it once. Events on other files of the directory are
+ * ignored and do not postpone the report. The callback runs on a dedicated
+ * daemon thread, one change at a time.
+ */
+@Slf4j
+public final class DataFileWatcher implements AutoCloseable {
+
+    private final Path file;
+    private final long quietNanos;
+    private final Consumer<Path> onChange;
+    private final WatchService watchService;
+    private final Thread thread;
+
+    /**
+     * Starts watching a file. Its directory must exist.
+     *
+     * @param file        the file to watch
+     * @param quietMillis time without further changes after which a change is reported
+     * @param onChange    called with the file once it has changed and settled
+     * @throws IOException if the directory cannot be watched
+     */
+    public DataFileWatcher(Path file, long quietMillis, Consumer<Path> onChange) throws IOException {
+        this.file = file;
+        this.quietNanos = TimeUnit.MILLISECONDS.toNanos(Math.max(0, quietMillis));
+        this.onChange = onChange;
+        Path directory = file.toAbsolutePath().getParent();
+        this.watchService = directory.getFileSystem().newWatchService();
+        directory.register(watchService, StandardWatchEventKinds.ENTRY_CREATE, StandardWatchEventKinds.ENTRY_MODIFY);
+        this.thread = Thread.ofPlatform().name("data-watcher").daemon().start(this::run);
+        log.info("Watching {} for changes", file);
+    }
+
+    /**
+     * Waits for changes until the watcher is closed.
+     */
+    private void run() {
+        try {
+            while (true) {
+                if (!drain(watchService.take())) {
+                    continue;
+                }
+                long deadline = System.nanoTime() + quietNanos;
+                for (long wait; (wait = deadline - System.nanoTime()) > 0; ) {
+                    WatchKey next = watchService.poll(wait, TimeUnit.NANOSECONDS);
+                    if (next != null && drain(next)) {
+                        deadline = System.nanoTime() + quietNanos;
+                    }
+                }
+                try {
+                    onChange.accept(file);
+                } catch (RuntimeException e) {
+                    log.error("Failed to handle change of {}", file, e);
+                }
+            }
+        } catch (InterruptedException | ClosedWatchServiceException e) {
+            log.debug("Stopped watching {}", file);
+        }
+    }
+
+    /**
+     * Consumes the events of a key and tells whether one concerns the watched file.
+     * An overflow, where events were lost, is assumed to concern it.
+     */
+    private boolean drain(WatchKey key) {
+        boolean changed = false;
+        for (WatchEvent<?> event : key.pollEvents()) {
+            if (event.kind() == StandardWatchEventKinds.OVERFLOW || file.getFileName().equals(event.context())) {
+                changed = true;
+            }
+        }
+        key.reset();
+        return changed;
+    }
+
+    /**
+     * Stops watching and waits for a change being handled to complete.
+     */
+    @Override
+    public void close() {
+        try {
+            watchService.close();
+            thread.join();
+        } catch (IOException e) {
+            log.warn("Failed to close the watch service of {}: {}", file, e.getMessage());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
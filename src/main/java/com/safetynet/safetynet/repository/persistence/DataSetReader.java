@@ -0,0 +1,350 @@
+package com.safetynet.safetynet.repository.persistence;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonParseException;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.safetynet.safetynet.model.FireStation;
+import com.safetynet.safetynet.model.MedicalRecord;
+import com.safetynet.safetynet.model.Person;
+
+import java.io.BufferedInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.channels.Channels;
+import java.nio.channels.SeekableByteChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.DateTimeException;
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
+
+/**
+ * Streaming reader for documents in the {@code data.json} schema.
+ * <p>
+ * The {@code persons}, {@code firestations} and {@code medicalrecords} arrays
+ * are read token by token and each entity is built and handed to a consumer
+ * as soon as its closing brace has been read, so neither a JSON tree nor
+ * intermediate lists are ever held in memory. Arrays may appear in any order;
+ * unknown fields and {@code null} elements are skipped.
+ * <p>
+ * Values that repeat across entities (addresses, cities, zip codes, phones,
+ * last names, station numbers, medications and allergies) are de-duplicated
+ * for the duration of one {@link #read} call, so each distinct value is held
+ * once by the loaded data set instead of once per occurrence.
+ * <p>
+ * A document on disk can also be read section by section: {@link #locate}
+ * finds where each array starts, after which each array can be parsed on its
+ * own thread.
+ */
+public class DataSetReader {
+
+    /** Read buffer used for files opened by the reader itself. */
+    private static final int BUFFER_SIZE = 1 << 16;
+
+    private final JsonFactory jsonFactory;
+
+    /**
+     * Creates a reader using the given factory for its parsers.
+     *
+     * @param jsonFactory the JSON factory
+     */
+    public DataSetReader(JsonFactory jsonFactory) {
+        this.jsonFactory = jsonFactory;
+    }
+
+    /**
+     * Reads a document, handing every entity to the matching consumer in document order.
+     * The stream is closed when reading ends.
+     *
+     * @param in             the document
+     * @param persons        receives the persons
+     * @param fireStations   receives the fire station mappings
+     * @param medicalRecords receives the medical records
+     * @throws IOException if the stream cannot be read or is not a valid document
+     */
+    public void read(InputStream in,
+                     Consumer<? super Person> persons,
+                     Consumer<? super FireStation> fireStations,
+                     Consumer<? super MedicalRecord> medicalRecords) throws IOException {
+        Map<String, String> pool = new HashMap<>();
+        try (JsonParser parser = jsonFactory.createParser(in)) {
+            if (parser.nextToken() != JsonToken.START_OBJECT) {
+                throw new JsonParseException(parser, "Expected a JSON object at the root of the data set");
+            }
+            while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                String field = parser.currentName();
+                parser.nextToken();
+                switch (field) {
+                    case "persons" -> readArray(parser, () -> readPerson(parser, pool), persons);
+                    case "firestations" -> readArray(parser, () -> readFireStation(parser, pool), fireStations);
+                    case "medicalrecords" -> readArray(parser, () -> readMedicalRecord(parser, pool), medicalRecords);
+                    default -> parser.skipChildren();
+                }
+            }
+        }
+    }
+
+    /**
+     * Byte offsets at which the top-level arrays of a document start.
+     * An offset is {@code -1} when the array is missing or {@code null}.
+     *
+     * @param persons        offset of the {@code persons} array
+     * @param fireStations   offset of the {@code firestations} array
+     * @param medicalRecords offset of the {@code medicalrecords} array
+     */
+    public record Sections(long persons, long fireStations, long medicalRecords) {
+    }
+
+    /**
+     * Finds where each top-level array of a document starts, so that the arrays
+     * can then be read independently, and concurrently, with
+     * {@link #readPersons}, {@link #readFireStations} and {@link #readMedicalRecords}.
+     * Array contents are skipped without being decoded.
+     *
+     * @param file the document
+     * @return the offsets of the arrays
+     * @throws IOException if the file cannot be read or is not a valid document
+     */
+    public Sections locate(Path file) throws IOException {
+        long persons = -1;
+        long fireStations = -1;
+        long medicalRecords = -1;
+        try (JsonParser parser = jsonFactory.createParser(
+                new BufferedInputStream(Files.newInputStream(file), BUFFER_SIZE))) {
+            if (parser.nextToken() != JsonToken.START_OBJECT) {
+                throw new JsonParseException(parser, "Expected a JSON object at the root of the data set");
+            }
+            while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                String field = parser.currentName();
+                long offset = parser.nextToken() == JsonToken.START_ARRAY
+                        ? parser.currentTokenLocation().getByteOffset() : -1;
+                switch (field) {
+                    case "persons" -> persons = offset;
+                    case "firestations" -> fireStations = offset;
+                    case "medicalrecords" -> medicalRecords = offset;
+                    default -> { }
+                }
+                parser.skipChildren();
+            }
+        }
+        return new Sections(persons, fireStations, medicalRecords);
+    }
+
+    /**
+     * Reads the {@code persons} array starting at a byte offset found by {@link #locate}.
+     *
+     * @param file    the document
+     * @param offset  the offset of the array, or {@code -1} to read nothing
+     * @param persons receives the persons
+     * @throws IOException if the file cannot be read or the array is not valid
+     */
+    public void readPersons(Path file, long offset, Consumer<? super Person> persons) throws IOException {
+        readSection(file, offset, DataSetReader::readPerson, persons);
+    }
+
+    /**
+     * Reads the {@code firestations} array starting at a byte offset found by {@link #locate}.
+     *
+     * @param file         the document
+     * @param offset       the offset of the array, or {@code -1} to read nothing
+     * @param fireStations receives the fire station mappings
+     * @throws IOException if the file cannot be read or the array is not valid
+     */
+    public void readFireStations(Path file, long offset, Consumer<? super FireStation> fireStations)
+            throws IOException {
+        readSection(file, offset, DataSetReader::readFireStation, fireStations);
+    }
+
+    /**
+     * Reads the {@code medicalrecords} array starting at a byte offset found by {@link #locate}.
+     *
+     * @param file           the document
+     * @param offset         the offset of the array, or {@code -1} to read nothing
+     * @param medicalRecords receives the medical records
+     * @throws IOException if the file cannot be read or the array is not valid
+     */
+    public void readMedicalRecords(Path file, long offset, Consumer<? super MedicalRecord> medicalRecords)
+            throws IOException {
+        readSection(file, offset, DataSetReader::readMedicalRecord, medicalRecords);
+    }
+
+    /**
+     * Reads one array from its offset. The parser stops at the array's closing
+     * bracket, so the rest of the document is never parsed. Each section has
+     * its own string pool, which keeps concurrent section reads independent.
+     */
+    private <T> void readSection(Path file, long offset, SectionParser<T> sectionParser, Consumer<? super T> consumer)
+            throws IOException {
+        if (offset < 0) {
+            return;
+        }
+        Map<String, String> pool = new HashMap<>();
+        try (SeekableByteChannel channel = Files.newByteChannel(file);
+             JsonParser parser = jsonFactory.createParser(
+                     new BufferedInputStream(Channels.newInputStream(channel.position(offset)), BUFFER_SIZE))) {
+            parser.nextToken();
+            readArray(parser, () -> sectionParser.parse(parser, pool), consumer);
+        }
+    }
+
+    /**
+     * Reads one entity with the parser positioned on its {@code START_OBJECT}.
+     */
+    @FunctionalInterface
+    private interface EntityParser<T> {
+        T parse() throws IOException;
+    }
+
+    /**
+     * Reads one entity of a section, using the section's string pool.
+     */
+    @FunctionalInterface
+    private interface SectionParser<T> {
+        T parse(JsonParser parser, Map<String, String> pool) throws IOException;
+    }
+
+    private static <T> void readArray(JsonParser parser, EntityParser<T> entityParser, Consumer<? super T> consumer)
+            throws IOException {
+        if (parser.currentToken() == JsonToken.VALUE_NULL) {
+            return;
+        }
+        expect(parser, JsonToken.START_ARRAY);
+        for (JsonToken token = parser.nextToken(); token != JsonToken.END_ARRAY; token = parser.nextToken()) {
+            if (token == JsonToken.VALUE_NULL) {
+                continue;
+            }
+            expect(parser, JsonToken.START_OBJECT);
+            consumer.accept(entityParser.parse());
+        }
+    }
+
+    private static Person readPerson(JsonParser parser, Map<String, String> pool) throws IOException {
+        Person person = new Person();
+        for (String field = parser.nextFieldName(); field != null; field = parser.nextFieldName()) {
+            parser.nextToken();
+            switch (field) {
+                case "firstName" -> person.setFirstName(text(parser));
+                case "lastName" -> person.setLastName(pooled(parser, pool));
+                case "address" -> person.setAddress(pooled(parser, pool));
+                case "city" -> person.setCity(pooled(parser, pool));
+                case "zip" -> person.setZip(pooled(parser, pool));
+                case "phone" -> person.setPhone(pooled(parser, pool));
+                case "email" -> person.setEmail(text(parser));
+                default -> parser.skipChildren();
+            }
+        }
+        expect(parser, JsonToken.END_OBJECT);
+        return person;
+    }
+
+    private static FireStation readFireStation(JsonParser parser, Map<String, String> pool) throws IOException {
+        FireStation fireStation = new FireStation();
+        for (String field = parser.nextFieldName(); field != null; field = parser.nextFieldName()) {
+            parser.nextToken();
+            switch (field) {
+                case "address" -> fireStation.setAddress(pooled(parser, pool));
+                case "station" -> fireStation.setStation(pooled(parser, pool));
+                default -> parser.skipChildren();
+            }
+        }
+        expect(parser, JsonToken.END_OBJECT);
+        return fireStation;
+    }
+
+    private static MedicalRecord readMedicalRecord(JsonParser parser, Map<String, String> pool) throws IOException {
+        MedicalRecord record = new MedicalRecord();
+        for (String field = parser.nextFieldName(); field != null; field = parser.nextFieldName()) {
+            parser.nextToken();
+            switch (field) {
+                case "firstName" -> record.setFirstName(text(parser));
+                case "lastName" -> record.setLastName(pooled(parser, pool));
+                case "birthdate" -> record.setBirthdate(date(parser));
+                case "medications" -> record.setMedications(pooledList(parser, pool));
+                case "allergies" -> record.setAllergies(pooledList(parser, pool));
+                default -> parser.skipChildren();
+            }
+        }
+        expect(parser, JsonToken.END_OBJECT);
+        return record;
+    }
+
+    private static String text(JsonParser parser) throws IOException {
+        if (parser.currentToken() == JsonToken.VALUE_NULL) {
+            return null;
+        }
+        if (!parser.currentToken().isScalarValue()) {
+            throw new JsonParseException(parser, "Expected a value for '" + parser.currentName() + "'");
+        }
+        return parser.getValueAsString();
+    }
+
+    private static String pooled(JsonParser parser, Map<String, String> pool) throws IOException {
+        String value = text(parser);
+        if (value == null) {
+            return null;
+        }
+        String existing = pool.putIfAbsent(value, value);
+        return existing != null ? existing : value;
+    }
+
+    private static List<String> pooledList(JsonParser parser, Map<String, String> pool) throws IOException {
+        if (parser.currentToken() == JsonToken.VALUE_NULL) {
+            return null;
+        }
+        expect(parser, JsonToken.START_ARRAY);
+        List<String> values = new ArrayList<>(2);
+        while (parser.nextToken() != JsonToken.END_ARRAY) {
+            values.add(pooled(parser, pool));
+        }
+        return values;
+    }
+
+    /**
+     * Parses a birthdate written as {@code MM/dd/yyyy}, the format declared on {@link MedicalRecord}.
+     * As with the formatter's smart resolution, a day past the end of its month
+     * (such as February 30) is clamped to the last day of that month.
+     */
+    private static LocalDate date(JsonParser parser) throws IOException {
+        String value = text(parser);
+        if (value == null || value.isEmpty()) {
+            return null;
+        }
+        if (value.length() != 10 || value.charAt(2) != '/' || value.charAt(5) != '/') {
+            throw new JsonParseException(parser, "Invalid birthdate '" + value + "', expected MM/dd/yyyy");
+        }
+        try {
+            int day = digits(parser, value, 3, 5);
+            if (day < 1 || day > 31) {
+                throw new DateTimeException("Invalid day of month: " + day);
+            }
+            YearMonth month = YearMonth.of(digits(parser, value, 6, 10), digits(parser, value, 0, 2));
+            return month.atDay(Math.min(day, month.lengthOfMonth()));
+        } catch (DateTimeException e) {
+            throw new JsonParseException(parser, "Invalid birthdate '" + value + "'", e);
+        }
+    }
+
+    private static int digits(JsonParser parser, String value, int from, int to) throws IOException {
+        int result = 0;
+        for (int i = from; i < to; i++) {
+            char c = value.charAt(i);
+            if (c < '0' || c > '9') {
+                throw new JsonParseException(parser, "Invalid birthdate '" + value + "', expected MM/dd/yyyy");
+            }
+            result = result * 10 + (c - '0');
+        }
+        return result;
+    }
+
+    private static void expect(JsonParser parser, JsonToken expected) throws IOException {
+        if (parser.currentToken() != expected) {
+            throw new JsonParseException(parser, "Expected " + expected + " but found " + parser.currentToken());
+        }
+    }
+}
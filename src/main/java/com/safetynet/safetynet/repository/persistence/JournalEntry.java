@@ -0,0 +1,138 @@
+package com.safetynet.safetynet.repository.persistence;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.safetynet.safetynet.model.FireStation;
+import com.safetynet.safetynet.model.MedicalRecord;
+import com.safetynet.safetynet.model.Person;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * A single mutation recorded in the {@link MutationJournal}.
+ * <p>
+ * Each entry describes one add, update or delete applied to persons,
+ * fire stations or medical records. The {@code key} holds the lookup
+ * arguments of the original operation (first and last name, or address)
+ * and exactly one of the entity fields carries the new data when the
+ * operation has a payload.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class JournalEntry {
+
+    /** Kind of mutation recorded. */
+    public enum Operation { ADD, UPDATE, DELETE }
+
+    /** Collection the mutation applies to. */
+    public enum EntityType { PERSON, FIRE_STATION, MEDICAL_RECORD }
+
+    private Operation operation;
+    private EntityType type;
+    /** Lookup key of the operation: first and last name, or address. */
+    private List<String> key;
+    private Person person;
+    private FireStation fireStation;
+    private MedicalRecord medicalRecord;
+
+    /**
+     * Records a person being added.
+     *
+     * @param person the added person
+     * @return the journal entry
+     */
+    public static JournalEntry personAdded(Person person) {
+        return new JournalEntry(Operation.ADD, EntityType.PERSON, null, person, null, null);
+    }
+
+    /**
+     * Records the update of the person found by name.
+     *
+     * @param firstName the first name the person was looked up by
+     * @param lastName  the last name the person was looked up by
+     * @param person    the person as stored after the update
+     * @return the journal entry
+     */
+    public static JournalEntry personUpdated(String firstName, String lastName, Person person) {
+        return new JournalEntry(Operation.UPDATE, EntityType.PERSON, List.of(firstName, lastName), person, null, null);
+    }
+
+    /**
+     * Records the deletion of the persons with a name.
+     *
+     * @param firstName the first name of the deleted persons
+     * @param lastName  the last name of the deleted persons
+     * @return the journal entry
+     */
+    public static JournalEntry personDeleted(String firstName, String lastName) {
+        return new JournalEntry(Operation.DELETE, EntityType.PERSON, List.of(firstName, lastName), null, null, null);
+    }
+
+    /**
+     * Records a fire station mapping being added.
+     *
+     * @param fireStation the added mapping
+     * @return the journal entry
+     */
+    public static JournalEntry fireStationAdded(FireStation fireStation) {
+        return new JournalEntry(Operation.ADD, EntityType.FIRE_STATION, null, null, fireStation, null);
+    }
+
+    /**
+     * Records the update of the fire station mapping found by address.
+     *
+     * @param address     the address the mapping was looked up by
+     * @param fireStation the mapping as stored after the update
+     * @return the journal entry
+     */
+    public static JournalEntry fireStationUpdated(String address, FireStation fireStation) {
+        return new JournalEntry(Operation.UPDATE, EntityType.FIRE_STATION, List.of(address), null, fireStation, null);
+    }
+
+    /**
+     * Records the deletion of the fire station mappings of an address.
+     *
+     * @param address the address of the deleted mappings
+     * @return the journal entry
+     */
+    public static JournalEntry fireStationDeleted(String address) {
+        return new JournalEntry(Operation.DELETE, EntityType.FIRE_STATION, List.of(address), null, null, null);
+    }
+
+    /**
+     * Records a medical record being added.
+     *
+     * @param medicalRecord the added record
+     * @return the journal entry
+     */
+    public static JournalEntry medicalRecordAdded(MedicalRecord medicalRecord) {
+        return new JournalEntry(Operation.ADD, EntityType.MEDICAL_RECORD, null, null, null, medicalRecord);
+    }
+
+    /**
+     * Records the update of the medical record found by name.
+     *
+     * @param firstName     the first name the record was looked up by
+     * @param lastName      the last name the record was looked up by
+     * @param medicalRecord the record as stored after the update
+     * @return the journal entry
+     */
+    public static JournalEntry medicalRecordUpdated(String firstName, String lastName, MedicalRecord medicalRecord) {
+        return new JournalEntry(Operation.UPDATE, EntityType.MEDICAL_RECORD, List.of(firstName, lastName), null, null, medicalRecord);
+    }
+
+    /**
+     * Records the deletion of the medical records with a name.
+     *
+     * @param firstName the first name of the deleted records
+     * @param lastName  the last name of the deleted records
+     * @return the journal entry
+     */
+    public static JournalEntry medicalRecordDeleted(String firstName, String lastName) {
+        return new JournalEntry(Operation.DELETE, EntityType.MEDICAL_RECORD, List.of(firstName, lastName), null, null, null);
+    }
+}
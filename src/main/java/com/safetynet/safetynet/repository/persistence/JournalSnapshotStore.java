@@ -0,0 +1,595 @@
+package com.safetynet.safetynet.repository.persistence;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.safetynet.safetynet.dto.DataDTO;
+import com.safetynet.safetynet.model.FireStation;
+import com.safetynet.safetynet.model.MedicalRecord;
+import com.safetynet.safetynet.model.Person;
+import com.safetynet.safetynet.repository.persistence.JournalEntry.EntityType;
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.EnumSet;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.stream.Stream;
+import java.util.zip.CRC32C;
+import java.util.zip.CheckedOutputStream;
+
+/**
+ * Storage of the SafetyNet data set as compacted snapshots plus an append-only journal.
+ * <p>
+ * Files are organized in generations: the snapshot of generation {@code N} is
+ * described by {@code manifest-N.json}, which names one file per collection
+ * ({@code persons-G}, {@code firestations-G} and {@code medicalrecords-G},
+ * each {@code .json} or {@code .bin}, see {@link SnapshotFormat}), and
+ * {@code journal-N.log} holds the mutations made during generation {@code N}.
+ * A collection file is a data file in its own right, holding that collection
+ * only. Recovery loads the newest snapshot and replays every journal of the
+ * same or a later generation, so a crash at any point of a compaction never
+ * loses or double-applies a mutation.
+ * <p>
+ * Appending an entry marks its collection dirty. A compaction writes a new file
+ * only for the collections that are dirty since the previous snapshot; the
+ * manifest keeps pointing at the existing file of every other collection, so a
+ * collection that rarely changes is rarely rewritten.
+ * <p>
+ * Every file is written to a temporary file, forced to the storage device,
+ * renamed into place atomically, and the rename itself is made durable by
+ * syncing the directory; the manifest is written last and commits the snapshot.
+ * JSON files end with a one-line footer holding the length and CRC-32C of the
+ * document; binary files carry both in their header. Recovery checks them and
+ * skips a snapshot whose manifest or files fail, setting the manifest aside as
+ * {@code *.corrupt} and falling back to the previous generation. The snapshot
+ * and journals of that generation are kept until the next snapshot has been
+ * written for exactly this purpose.
+ */
+@Slf4j
+public class JournalSnapshotStore implements AutoCloseable {
+
+    private static final Pattern MANIFEST_FILE = Pattern.compile("manifest-(\\d+)\\.json");
+    private static final Pattern CORRUPT_MANIFEST_FILE = Pattern.compile("manifest-(\\d+)\\.json\\.corrupt");
+    private static final Pattern SECTION_FILE = Pattern.compile("(?:persons|firestations|medicalrecords)-(\\d+)\\.(?:json|bin)");
+    private static final Pattern JOURNAL_FILE = Pattern.compile("journal-(\\d+)\\.log");
+
+    /** File holding the fingerprint of the seed the stored data was last derived from. */
+    private static final String SEED_FINGERPRINT_FILE = "seed.fingerprint";
+
+    /** Footer ending every JSON file: the byte length and CRC-32C of the document before it. */
+    private static final String FOOTER_FORMAT = "\n#snapshot length=%020d crc32c=%08x\n";
+    private static final Pattern FOOTER = Pattern.compile("\\R#snapshot length=(\\d{20}) crc32c=(\\p{XDigit}{8})\\R");
+    private static final int FOOTER_SIZE = String.format(FOOTER_FORMAT, 0L, 0).length();
+
+    private final Path directory;
+    private final ObjectMapper objectMapper;
+    private final SnapshotFormat format;
+
+    private long generation;
+    private MutationJournal journal;
+
+    /** Newest snapshot written or recovered, or {@code null} if there is none yet. */
+    private Manifest manifest;
+
+    /** Generation of {@link #manifest}. */
+    private long manifestGeneration;
+
+    /** Serializes {@link #writeSnapshot} calls, which run outside the store's monitor. */
+    private final Object snapshotLock = new Object();
+
+    /** Collections changed by the journal of each generation since {@link #manifest}. */
+    private final TreeMap<Long, Set<EntityType>> dirty = new TreeMap<>();
+
+    /**
+     * Result of {@link #recover()}: the collection files of the newest snapshot,
+     * if any, and the journal entries to replay on top of them. The files are
+     * not parsed here, so that the caller can stream them with a {@link DataSetReader}
+     * or decode them as a {@link BinarySnapshot}.
+     *
+     * @param persons        the persons file, or {@code null} if no snapshot exists yet
+     * @param fireStations   the fire stations file, or {@code null} if no snapshot exists yet
+     * @param medicalRecords the medical records file, or {@code null} if no snapshot exists yet
+     * @param entries        the journal entries written after the snapshot, in order
+     */
+    public record Recovery(Path persons, Path fireStations, Path medicalRecords, List<JournalEntry> entries) {
+
+        /**
+         * Tells whether a snapshot was found, or the data set starts from the seed.
+         *
+         * @return {@code true} if the collection files are set
+         */
+        public boolean hasSnapshot() {
+            return persons != null;
+        }
+    }
+
+    /**
+     * Content of {@code manifest-N.json}: the file names holding each collection.
+     *
+     * @param persons        the persons file
+     * @param fireStations   the fire stations file
+     * @param medicalRecords the medical records file
+     */
+    record Manifest(String persons, String fireStations, String medicalRecords) {
+
+        String file(EntityType type) {
+            return switch (type) {
+                case PERSON -> persons;
+                case FIRE_STATION -> fireStations;
+                case MEDICAL_RECORD -> medicalRecords;
+            };
+        }
+    }
+
+    /**
+     * Creates a store rooted at the given directory, writing JSON snapshots.
+     *
+     * @param directory    the directory holding snapshots and journals
+     * @param objectMapper the mapper used for snapshots and journal entries
+     */
+    public JournalSnapshotStore(Path directory, ObjectMapper objectMapper) {
+        this(directory, objectMapper, SnapshotFormat.JSON);
+    }
+
+    /**
+     * Creates a store rooted at the given directory.
+     *
+     * @param directory    the directory holding snapshots and journals
+     * @param objectMapper the mapper used for JSON snapshots and journal entries
+     * @param format       the format of the collection files written by {@link #writeSnapshot}
+     */
+    public JournalSnapshotStore(Path directory, ObjectMapper objectMapper, SnapshotFormat format) {
+        this.directory = directory;
+        this.objectMapper = objectMapper;
+        this.format = format;
+    }
+
+    /**
+     * Locates the newest intact snapshot, loads the journal entries that follow
+     * it, and opens the current journal for appending. Snapshots whose manifest
+     * or collection files fail their length or checksum verification are set aside.
+     * Only the newest journal may end with a torn record; every older one must
+     * read back completely, since no snapshot can stand in for its mutations.
+     *
+     * @return the recovered snapshot and journal tail
+     * @throws IOException if the directory cannot be read, if no snapshot is
+     *                     intact and the journals needed to rebuild from the seed are gone,
+     *                     or if a journal other than the newest one is corrupt
+     */
+    public synchronized Recovery recover() throws IOException {
+        Files.createDirectories(directory);
+        deleteTemporaryFiles();
+        TreeMap<Long, Path> manifests = listGenerations(MANIFEST_FILE);
+        TreeMap<Long, Path> journals = listGenerations(JOURNAL_FILE);
+        long newestGeneration = Math.max(manifests.isEmpty() ? 0 : manifests.lastKey(),
+                journals.isEmpty() ? 0 : journals.lastKey());
+
+        manifest = null;
+        long snapshotGeneration = 0;
+        for (Map.Entry<Long, Path> candidate : manifests.descendingMap().entrySet()) {
+            try {
+                manifest = readManifest(candidate.getValue());
+                for (EntityType type : EntityType.values()) {
+                    verify(directory.resolve(manifest.file(type)));
+                }
+                snapshotGeneration = candidate.getKey();
+                manifestGeneration = snapshotGeneration;
+                log.info("Found snapshot generation {}", snapshotGeneration);
+                break;
+            } catch (IOException e) {
+                manifest = null;
+                log.error("Skipping snapshot generation {}: {}", candidate.getKey(), e.getMessage());
+                Path path = candidate.getValue();
+                Files.move(path, path.resolveSibling(path.getFileName() + ".corrupt"),
+                        StandardCopyOption.REPLACE_EXISTING);
+            }
+        }
+        if (manifest == null && !rebuildableFromSeed(manifests, journals)) {
+            throw new IOException("No intact snapshot in " + directory + " and the journals needed to rebuild"
+                    + " from the seed are gone; restore a snapshot or remove the storage directory to start over");
+        }
+
+        List<JournalEntry> entries = new ArrayList<>();
+        dirty.clear();
+        for (Map.Entry<Long, Path> journalFile : journals.tailMap(snapshotGeneration, true).entrySet()) {
+            boolean newest = journalFile.getKey().equals(journals.lastKey());
+            for (JournalEntry entry : new MutationJournal(journalFile.getValue(), objectMapper).readAll(newest)) {
+                entries.add(entry);
+                markDirty(journalFile.getKey(), entry);
+            }
+        }
+        log.info("Replaying {} journal entries", entries.size());
+
+        generation = newestGeneration;
+        journal = new MutationJournal(journalPath(generation), objectMapper);
+        if (manifest == null) {
+            return new Recovery(null, null, null, entries);
+        }
+        return new Recovery(directory.resolve(manifest.persons()), directory.resolve(manifest.fireStations()),
+                directory.resolve(manifest.medicalRecords()), entries);
+    }
+
+    /**
+     * Tells whether the data set can be rebuilt from the seed by replaying the
+     * journals, when no snapshot is intact. That takes every journal since
+     * generation 0. A journal of a later generation only, or a manifest, even
+     * one set aside as {@code *.corrupt} by an earlier recovery, proves that
+     * earlier state existed, so its absence is never mistaken for a first start.
+     */
+    private boolean rebuildableFromSeed(TreeMap<Long, Path> manifests, TreeMap<Long, Path> journals) throws IOException {
+        if (!journals.isEmpty()) {
+            return journals.firstKey() == 0;
+        }
+        return manifests.isEmpty() && listGenerations(CORRUPT_MANIFEST_FILE).isEmpty();
+    }
+
+    /**
+     * Appends an entry to the journal of the current generation
+     * and marks its collection dirty.
+     *
+     * @param entry the entry to append
+     */
+    public synchronized void append(JournalEntry entry) {
+        journal.append(entry);
+        markDirty(generation, entry);
+    }
+
+    /**
+     * Marks every collection dirty, so that the next snapshot rewrites them all.
+     * For a data set replaced as a whole rather than through journaled mutations.
+     */
+    public synchronized void markAllDirty() {
+        dirty.computeIfAbsent(generation, g -> EnumSet.noneOf(EntityType.class)).addAll(EnumSet.allOf(EntityType.class));
+    }
+
+    /**
+     * Forces the current journal to the storage device.
+     */
+    public synchronized void sync() {
+        journal.sync();
+    }
+
+    /**
+     * Returns the size in bytes of the current journal.
+     *
+     * @return the journal size
+     */
+    public synchronized long journalSize() {
+        return journal.size();
+    }
+
+    /**
+     * Starts a new generation: the current journal is closed and further
+     * appends go to a fresh journal. Must be called atomically with capturing
+     * the data that will be written by {@link #writeSnapshot(long, DataDTO)}.
+     *
+     * @return the new generation number
+     */
+    public synchronized long rotate() {
+        journal.close();
+        generation++;
+        journal = new MutationJournal(journalPath(generation), objectMapper);
+        return generation;
+    }
+
+    /**
+     * Writes the snapshot for a generation and deletes the files it supersedes,
+     * keeping the previous snapshot and its journals as a fallback. Only the
+     * collections that are dirty since the previous snapshot are written; the
+     * others are carried over from it. Every file is written to a temporary
+     * file, forced to disk and moved into place, so that a partial file is
+     * never visible under its final name.
+     * <p>
+     * Snapshots are written one at a time. A snapshot whose generation is not
+     * newer than the last one written is skipped, since the collections it would
+     * carry over are already out of date.
+     *
+     * @param snapshotGeneration the generation returned by {@link #rotate()}
+     * @param data               the data captured at rotation time
+     */
+    public void writeSnapshot(long snapshotGeneration, DataDTO data) {
+        synchronized (snapshotLock) {
+            Path target = manifestPath(snapshotGeneration);
+            try {
+                Manifest base;
+                Set<EntityType> changed;
+                synchronized (this) {
+                    if (manifest != null && snapshotGeneration <= manifestGeneration) {
+                        log.info("Skipping snapshot generation {}, superseded by generation {}",
+                                snapshotGeneration, manifestGeneration);
+                        return;
+                    }
+                    base = manifest;
+                    changed = dirtyBefore(snapshotGeneration);
+                }
+                EnumMap<EntityType, String> files = new EnumMap<>(EntityType.class);
+                for (EntityType type : EntityType.values()) {
+                    files.put(type, base == null || changed.contains(type)
+                            ? writeSection(snapshotGeneration, type, data)
+                            : base.file(type));
+                }
+                Manifest next = new Manifest(files.get(EntityType.PERSON), files.get(EntityType.FIRE_STATION),
+                        files.get(EntityType.MEDICAL_RECORD));
+
+                Path temp = directory.resolve(target.getFileName() + ".tmp");
+                writeJson(temp, next);
+                Files.move(temp, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+                syncDirectory();
+                synchronized (this) {
+                    manifest = next;
+                    manifestGeneration = snapshotGeneration;
+                    dirty.headMap(snapshotGeneration).clear();
+                }
+                deleteSuperseded(snapshotGeneration, next);
+                log.info("Wrote snapshot generation {} ({} rewritten)", snapshotGeneration,
+                        base == null ? EnumSet.allOf(EntityType.class) : changed);
+            } catch (IOException e) {
+                throw new UncheckedIOException("Failed to write snapshot " + target, e);
+            }
+        }
+    }
+
+    /**
+     * Returns the fingerprint recorded by {@link #recordSeedFingerprint(String)}.
+     *
+     * @return the fingerprint, or {@code null} if none was recorded yet
+     * @throws IOException if the file cannot be read
+     */
+    public String seedFingerprint() throws IOException {
+        Path file = directory.resolve(SEED_FINGERPRINT_FILE);
+        return Files.exists(file) ? Files.readString(file, StandardCharsets.US_ASCII).strip() : null;
+    }
+
+    /**
+     * Records the fingerprint of the seed the stored data now derives from.
+     * Like every other file, it is written to a temporary file, forced to disk
+     * and moved into place. Callers record it only once a snapshot of the data
+     * read from that seed has been written.
+     *
+     * @param fingerprint the fingerprint, without line breaks
+     */
+    public void recordSeedFingerprint(String fingerprint) {
+        Path target = directory.resolve(SEED_FINGERPRINT_FILE);
+        Path temp = directory.resolve(SEED_FINGERPRINT_FILE + ".tmp");
+        try {
+            try (FileChannel channel = FileChannel.open(temp, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                    StandardOpenOption.TRUNCATE_EXISTING)) {
+                channel.write(ByteBuffer.wrap((fingerprint + "\n").getBytes(StandardCharsets.US_ASCII)));
+                channel.force(true);
+            }
+            Files.move(temp, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            syncDirectory();
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to write " + target, e);
+        }
+    }
+
+    /**
+     * Writes the file holding one collection of a snapshot.
+     *
+     * @return the name of the file
+     */
+    private String writeSection(long snapshotGeneration, EntityType type, DataDTO data) throws IOException {
+        String name = switch (type) {
+            case PERSON -> "persons";
+            case FIRE_STATION -> "firestations";
+            case MEDICAL_RECORD -> "medicalrecords";
+        } + "-" + snapshotGeneration + format.getExtension();
+        List<Person> persons = type == EntityType.PERSON ? data.getPersons() : List.of();
+        List<FireStation> fireStations = type == EntityType.FIRE_STATION ? data.getFireStations() : List.of();
+        List<MedicalRecord> medicalRecords = type == EntityType.MEDICAL_RECORD ? data.getMedicalRecords() : List.of();
+
+        Path target = directory.resolve(name);
+        Path temp = directory.resolve(name + ".tmp");
+        if (format == SnapshotFormat.BINARY) {
+            BinarySnapshot.write(temp, persons, fireStations, medicalRecords);
+        } else {
+            writeJson(temp, new DataDTO(persons, fireStations, medicalRecords));
+        }
+        Files.move(temp, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        return name;
+    }
+
+    /**
+     * Checks that a snapshot file was written completely: the footer of a JSON
+     * file, or the header and checksums of a binary one.
+     *
+     * @param snapshot the snapshot file
+     * @throws IOException if the file cannot be read or fails verification
+     */
+    public static void verify(Path snapshot) throws IOException {
+        if (BinarySnapshot.isBinary(snapshot)) {
+            BinarySnapshot.open(snapshot);
+            return;
+        }
+        try (FileChannel channel = FileChannel.open(snapshot, StandardOpenOption.READ)) {
+            long size = channel.size();
+            if (size < FOOTER_SIZE) {
+                throw new IOException("Snapshot " + snapshot + " is too short to hold its footer");
+            }
+            ByteBuffer footer = ByteBuffer.allocate(FOOTER_SIZE);
+            while (footer.hasRemaining() && channel.read(footer, size - FOOTER_SIZE + footer.position()) >= 0) {
+                // read until the footer is complete
+            }
+            Matcher matcher = FOOTER.matcher(new String(footer.array(), StandardCharsets.US_ASCII));
+            if (!matcher.matches()) {
+                throw new IOException("Snapshot " + snapshot + " has no footer, it was not written completely");
+            }
+            long length = Long.parseLong(matcher.group(1));
+            if (length != size - FOOTER_SIZE) {
+                throw new IOException("Snapshot " + snapshot + " holds " + (size - FOOTER_SIZE)
+                        + " bytes but its footer records " + length);
+            }
+            CRC32C checksum = new CRC32C();
+            ByteBuffer buffer = ByteBuffer.allocateDirect(1 << 16);
+            long position = 0;
+            while (position < length) {
+                buffer.clear().limit((int) Math.min(buffer.capacity(), length - position));
+                int read = channel.read(buffer, position);
+                if (read < 0) {
+                    break;
+                }
+                position += read;
+                checksum.update(buffer.flip());
+            }
+            if ((int) checksum.getValue() != Integer.parseUnsignedInt(matcher.group(2), 16)) {
+                throw new IOException("Snapshot " + snapshot + " fails its checksum");
+            }
+        }
+    }
+
+    /**
+     * Writes a JSON document followed by its footer and forces it to disk.
+     */
+    private void writeJson(Path file, Object value) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING)) {
+            CRC32C checksum = new CRC32C();
+            CheckedOutputStream out = new CheckedOutputStream(
+                    new BufferedOutputStream(Channels.newOutputStream(channel), 1 << 16), checksum);
+            try (JsonGenerator generator = objectMapper.getFactory().createGenerator(out)) {
+                generator.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+                objectMapper.writeValue(generator, value);
+            }
+            out.flush();
+            String footer = String.format(FOOTER_FORMAT, channel.position(), checksum.getValue());
+            channel.write(ByteBuffer.wrap(footer.getBytes(StandardCharsets.US_ASCII)));
+            channel.force(true);
+        }
+    }
+
+    /**
+     * Makes a rename in the storage directory durable. Not every platform
+     * can open a directory for syncing; there the rename is left to the file system.
+     */
+    private void syncDirectory() {
+        try (FileChannel channel = FileChannel.open(directory, StandardOpenOption.READ)) {
+            channel.force(true);
+        } catch (IOException e) {
+            log.debug("Cannot sync directory {}: {}", directory, e.getMessage());
+        }
+    }
+
+    /**
+     * Syncs and closes the current journal.
+     */
+    @Override
+    public synchronized void close() {
+        if (journal != null) {
+            journal.close();
+        }
+    }
+
+    /**
+     * Deletes the temporary files left behind by a snapshot interrupted by a crash.
+     */
+    private void deleteTemporaryFiles() throws IOException {
+        try (Stream<Path> files = Files.list(directory)) {
+            for (Path path : files.filter(p -> p.getFileName().toString().endsWith(".tmp")).toList()) {
+                log.warn("Deleting unfinished snapshot {}", path.getFileName());
+                Files.deleteIfExists(path);
+            }
+        }
+    }
+
+    /**
+     * Deletes the manifests, collection files and journals that neither the
+     * snapshot of {@code snapshotGeneration} nor the one preceding it, which
+     * stays recoverable on its own, still needs.
+     */
+    private void deleteSuperseded(long snapshotGeneration, Manifest current) throws IOException {
+        TreeMap<Long, Path> manifests = listGenerations(MANIFEST_FILE);
+        Long previous = manifests.lowerKey(snapshotGeneration);
+        if (previous == null) {
+            return;
+        }
+        Set<String> kept = new HashSet<>();
+        for (Manifest retained : List.of(current, readManifest(manifests.get(previous)))) {
+            for (EntityType type : EntityType.values()) {
+                kept.add(retained.file(type));
+            }
+        }
+        for (Path path : manifests.headMap(previous).values()) {
+            Files.deleteIfExists(path);
+        }
+        try (Stream<Path> files = Files.list(directory)) {
+            for (Path path : files.toList()) {
+                String name = path.getFileName().toString();
+                Matcher matcher = SECTION_FILE.matcher(name);
+                if (matcher.matches() && Long.parseLong(matcher.group(1)) < snapshotGeneration && !kept.contains(name)) {
+                    Files.deleteIfExists(path);
+                }
+            }
+        }
+        for (Path path : listGenerations(JOURNAL_FILE).headMap(previous).values()) {
+            Files.deleteIfExists(path);
+        }
+    }
+
+    /**
+     * Reads and checks a manifest.
+     */
+    private Manifest readManifest(Path path) throws IOException {
+        verify(path);
+        Manifest read = objectMapper.readValue(path.toFile(), Manifest.class);
+        if (read.persons() == null || read.fireStations() == null || read.medicalRecords() == null) {
+            throw new IOException("Manifest " + path + " does not name a file for every collection");
+        }
+        return read;
+    }
+
+    /**
+     * Marks the collection of an entry dirty for the journal of a generation.
+     */
+    private void markDirty(long journalGeneration, JournalEntry entry) {
+        dirty.computeIfAbsent(journalGeneration, g -> EnumSet.noneOf(EntityType.class)).add(entry.getType());
+    }
+
+    /**
+     * Returns the collections changed by the journals since the current manifest,
+     * up to but excluding {@code snapshotGeneration}.
+     */
+    private Set<EntityType> dirtyBefore(long snapshotGeneration) {
+        Set<EntityType> changed = EnumSet.noneOf(EntityType.class);
+        dirty.headMap(snapshotGeneration).values().forEach(changed::addAll);
+        return changed;
+    }
+
+    private TreeMap<Long, Path> listGenerations(Pattern pattern) throws IOException {
+        TreeMap<Long, Path> generations = new TreeMap<>();
+        try (Stream<Path> files = Files.list(directory)) {
+            files.forEach(path -> {
+                Matcher matcher = pattern.matcher(path.getFileName().toString());
+                if (matcher.matches()) {
+                    generations.put(Long.parseLong(matcher.group(1)), path);
+                }
+            });
+        }
+        return generations;
+    }
+
+    private Path manifestPath(long snapshotGeneration) {
+        return directory.resolve("manifest-" + snapshotGeneration + ".json");
+    }
+
+    private Path journalPath(long journalGeneration) {
+        return directory.resolve("journal-" + journalGeneration + ".log");
+    }
+}
@@ -0,0 +1,271 @@
+package com.safetynet.safetynet.repository.persistence;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.Getter;
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.zip.CRC32;
+
+/**
+ * Append-only file of {@link JournalEntry} records.
+ * <p>
+ * Every record is framed as a 4-byte payload length, a 4-byte CRC32 of the
+ * payload and the JSON-encoded entry. When reading the newest journal, a
+ * record that is cut short or fails its checksum marks the end of the
+ * journal: it is treated as a torn write from a crash and truncated away.
+ * An older journal was complete when the next one was started, so a bad
+ * record there is corruption and fails the read.
+ * <p>
+ * A failed append truncates the file back to the end of the last complete
+ * record. If even that fails, the journal refuses any further append, since
+ * a record written after the partial one could never be read back.
+ */
+@Slf4j
+public class MutationJournal implements Closeable {
+
+    /** Size of the length and checksum header preceding each payload. */
+    static final int HEADER_SIZE = 8;
+
+    /** Upper bound on a single payload, used to reject garbage lengths. */
+    private static final int MAX_PAYLOAD_SIZE = 16 * 1024 * 1024;
+
+    @Getter
+    private final Path file;
+    private final ObjectMapper objectMapper;
+    private FileChannel channel;
+
+    /** Why a failed append could not be rolled back, or {@code null} while the journal is usable. */
+    private IOException failure;
+
+    /**
+     * Creates a journal backed by the given file. The file is created on first append.
+     *
+     * @param file         the journal file
+     * @param objectMapper the mapper used to encode entries
+     */
+    public MutationJournal(Path file, ObjectMapper objectMapper) {
+        this.file = file;
+        this.objectMapper = objectMapper;
+    }
+
+    /**
+     * Appends one entry to the end of the journal. The record reaches the
+     * operating system immediately but is only durable after {@link #sync()}.
+     *
+     * @param entry the entry to append
+     * @throws UncheckedIOException if the record cannot be written, or if an
+     *                              earlier failed append could not be rolled back
+     */
+    public synchronized void append(JournalEntry entry) {
+        if (failure != null) {
+            throw new UncheckedIOException("Journal " + file + " is unusable after a failed append", failure);
+        }
+        try {
+            byte[] payload = objectMapper.writeValueAsBytes(entry);
+            CRC32 crc = new CRC32();
+            crc.update(payload);
+
+            ByteBuffer buffer = ByteBuffer.allocate(HEADER_SIZE + payload.length);
+            buffer.putInt(payload.length).putInt((int) crc.getValue()).put(payload).flip();
+
+            FileChannel out = openChannel();
+            long end = out.size();
+            try {
+                while (buffer.hasRemaining()) {
+                    out.write(buffer);
+                }
+            } catch (IOException e) {
+                rollBack(out, end, e);
+                throw e;
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to append to journal " + file, e);
+        }
+    }
+
+    /**
+     * Cuts off the part of a record written before a failure,
+     * or marks the journal unusable if the file cannot be truncated.
+     */
+    private void rollBack(FileChannel out, long end, IOException cause) {
+        try {
+            out.truncate(end);
+        } catch (IOException e) {
+            cause.addSuppressed(e);
+            failure = cause;
+            log.error("Cannot roll back a failed append to journal {}, refusing further appends", file);
+        }
+    }
+
+    /**
+     * Forces appended records to the storage device.
+     */
+    public synchronized void sync() {
+        if (channel == null) {
+            return;
+        }
+        try {
+            channel.force(false);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to sync journal " + file, e);
+        }
+    }
+
+    /**
+     * Returns the current size of the journal file in bytes.
+     *
+     * @return the journal size, or 0 if the file does not exist
+     */
+    public synchronized long size() {
+        try {
+            if (channel != null) {
+                return channel.size();
+            }
+            return Files.exists(file) ? Files.size(file) : 0;
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to read size of journal " + file, e);
+        }
+    }
+
+    /**
+     * Reads every intact entry of the newest journal, in append order.
+     * A torn or corrupt trailing record is logged and truncated.
+     *
+     * @return the recovered entries
+     * @throws IOException if the file cannot be read
+     */
+    public List<JournalEntry> readAll() throws IOException {
+        return readAll(true);
+    }
+
+    /**
+     * Reads every entry of the journal, in append order.
+     *
+     * @param newest {@code true} for the journal that was being appended to
+     *               when the process stopped, the only one a crash can leave
+     *               with a torn record; that record is logged and truncated
+     * @return the recovered entries
+     * @throws IOException if the file cannot be read, or if a record of a
+     *                     journal other than the newest one is cut short or corrupt
+     */
+    public synchronized List<JournalEntry> readAll(boolean newest) throws IOException {
+        List<JournalEntry> entries = new ArrayList<>();
+        if (!Files.exists(file)) {
+            return entries;
+        }
+
+        try (FileChannel in = FileChannel.open(file, StandardOpenOption.READ)) {
+            long fileSize = in.size();
+            long position = 0;
+            ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE);
+
+            while (position < fileSize) {
+                header.clear();
+                if (readFully(in, header, position) < HEADER_SIZE) {
+                    break;
+                }
+                header.flip();
+                int length = header.getInt();
+                int checksum = header.getInt();
+                if (length < 0 || length > MAX_PAYLOAD_SIZE || position + HEADER_SIZE + length > fileSize) {
+                    break;
+                }
+
+                ByteBuffer payload = ByteBuffer.allocate(length);
+                readFully(in, payload, position + HEADER_SIZE);
+                CRC32 crc = new CRC32();
+                crc.update(payload.array());
+                if ((int) crc.getValue() != checksum) {
+                    break;
+                }
+
+                entries.add(objectMapper.readValue(payload.array(), JournalEntry.class));
+                position += HEADER_SIZE + length;
+            }
+
+            if (position < fileSize && !newest) {
+                throw new IOException("Journal " + file + " is corrupt at offset " + position
+                        + ", " + (fileSize - position) + " byte(s) before its end");
+            }
+            if (position < fileSize) {
+                log.warn("Discarding {} byte(s) of torn journal tail in {}", fileSize - position, file);
+                truncate(position);
+            }
+        }
+        return entries;
+    }
+
+    /**
+     * Closes the underlying file channel after syncing it.
+     */
+    @Override
+    public synchronized void close() {
+        if (channel == null) {
+            return;
+        }
+        try {
+            channel.force(false);
+            channel.close();
+        } catch (IOException e) {
+            log.error("Failed to close journal {}: {}", file, e.getMessage());
+        } finally {
+            channel = null;
+        }
+    }
+
+    /**
+     * Deletes the journal file.
+     *
+     * @throws IOException if the file cannot be deleted
+     */
+    public synchronized void delete() throws IOException {
+        close();
+        Files.deleteIfExists(file);
+    }
+
+    private FileChannel openChannel() throws IOException {
+        if (channel == null) {
+            channel = open();
+        }
+        return channel;
+    }
+
+    /**
+     * Opens the channel appends are written to. Overridden by tests to simulate a failing device.
+     *
+     * @return a channel appending to the journal file
+     * @throws IOException if the file cannot be opened
+     */
+    FileChannel open() throws IOException {
+        return FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.APPEND);
+    }
+
+    private void truncate(long size) throws IOException {
+        try (FileChannel out = FileChannel.open(file, StandardOpenOption.WRITE)) {
+            out.truncate(size);
+            out.force(false);
+        }
+    }
+
+    private static int readFully(FileChannel in, ByteBuffer buffer, long position) throws IOException {
+        int total = 0;
+        while (buffer.hasRemaining()) {
+            int read = in.read(buffer, position + total);
+            if (read < 0) {
+                break;
+            }
+            total += read;
+        }
+        return total;
+    }
+}
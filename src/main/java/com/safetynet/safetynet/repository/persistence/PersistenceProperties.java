@@ -0,0 +1,70 @@
+package com.safetynet.safetynet.repository.persistence;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.nio.file.Path;
+
+/**
+ * Configuration properties controlling how in-memory SafetyNet data
+ * is persisted, bound from the {@code safetynet.persistence.*} keys.
+ */
+@Data
+@Component
+@ConfigurationProperties(prefix = "safetynet.persistence")
+public class PersistenceProperties {
+
+    /**
+     * Directory holding {@code data.json}, the data set loaded when no snapshot
+     * exists yet. The copy bundled on the classpath is written there on first start.
+     */
+    private Path dataDirectory = Path.of("data");
+
+    /**
+     * Directory holding snapshots and journals, typically on a fast local volume.
+     * Defaults to the data directory when not set.
+     */
+    private Path storageDirectory;
+
+    /** Maximum time (ms) a journal record may stay unsynced before a flush is triggered. */
+    private long maxDelayMs = 500;
+
+    /** Number of unsynced journal records that forces an immediate flush. */
+    private int maxDirty = 100;
+
+    /** When {@code true}, every journal record is synced to disk on the calling thread. */
+    private boolean durable = false;
+
+    /** Journal size (bytes) above which it is compacted into a new snapshot. */
+    private long compactionThresholdBytes = 4L * 1024 * 1024;
+
+    /**
+     * When {@code true}, the sections of a data file on disk are parsed and
+     * indexed on separate threads at startup.
+     */
+    private boolean parallelLoad = true;
+
+    /** Format of the snapshots written by compaction; either format is read back at startup. */
+    private SnapshotFormat snapshotFormat = SnapshotFormat.JSON;
+
+    /**
+     * When {@code true}, {@code data.json} in the data directory is watched and
+     * a new version of it replaces the data set without a restart. Off by
+     * default; a version replaced while the application was down is picked up
+     * at startup either way.
+     */
+    private boolean reloadOnChange = false;
+
+    /** Time (ms) {@code data.json} must stay unchanged before a new version of it is loaded. */
+    private long reloadQuietMs = 1000;
+
+    /**
+     * Returns the directory holding snapshots and journals.
+     *
+     * @return the storage directory, or the data directory if none is configured
+     */
+    public Path getStorageDirectory() {
+        return storageDirectory != null ? storageDirectory : dataDirectory;
+    }
+}
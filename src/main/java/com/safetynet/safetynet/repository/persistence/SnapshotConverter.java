@@ -0,0 +1,120 @@
+package com.safetynet.safetynet.repository.persistence;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import com.safetynet.safetynet.dto.DataDTO;
+import com.safetynet.safetynet.model.FireStation;
+import com.safetynet.safetynet.model.MedicalRecord;
+import com.safetynet.safetynet.model.Person;
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Converts data sets between the JSON format of {@code data.json} and the
+ * {@link BinarySnapshot} format, in either direction. The format of each
+ * file is given by its extension: {@value BinarySnapshot#EXTENSION} for
+ * binary, anything else for JSON.
+ * <p>
+ * JSON is the format to use for exporting or editing data; a binary file is
+ * only meant to be loaded back by the application.
+ */
+@Slf4j
+public class SnapshotConverter {
+
+    private final ObjectMapper objectMapper;
+
+    /**
+     * Creates a converter writing JSON with the given mapper.
+     *
+     * @param objectMapper the mapper, which must handle {@code java.time} types
+     */
+    public SnapshotConverter(ObjectMapper objectMapper) {
+        this.objectMapper = objectMapper;
+    }
+
+    /**
+     * Reads a data set in one format and writes it in the format of the output.
+     *
+     * @param input  the file to read
+     * @param output the file to write, replaced if it exists
+     * @return the converted data set
+     * @throws IOException if either file cannot be accessed or the input is invalid
+     */
+    public DataDTO convert(Path input, Path output) throws IOException {
+        DataDTO data = read(input);
+        write(data, output);
+        return data;
+    }
+
+    /**
+     * Reads a data set from a JSON or binary file.
+     *
+     * @param input the file to read
+     * @return the data set
+     * @throws IOException if the file cannot be read or is invalid
+     */
+    public DataDTO read(Path input) throws IOException {
+        List<Person> persons = new ArrayList<>();
+        List<FireStation> fireStations = new ArrayList<>();
+        List<MedicalRecord> medicalRecords = new ArrayList<>();
+        if (BinarySnapshot.isBinary(input)) {
+            BinarySnapshot binary = BinarySnapshot.open(input);
+            binary.readPersons(persons::add);
+            binary.readFireStations(fireStations::add);
+            binary.readMedicalRecords(medicalRecords::add);
+        } else {
+            new DataSetReader(objectMapper.getFactory()).read(
+                    new BufferedInputStream(Files.newInputStream(input), 1 << 16),
+                    persons::add, fireStations::add, medicalRecords::add);
+        }
+        return new DataDTO(persons, fireStations, medicalRecords);
+    }
+
+    /**
+     * Writes a data set to a JSON or binary file. JSON is pretty-printed.
+     *
+     * @param data   the data set
+     * @param output the file to write, replaced if it exists
+     * @throws IOException if the file cannot be written
+     */
+    public void write(DataDTO data, Path output) throws IOException {
+        if (BinarySnapshot.isBinary(output)) {
+            BinarySnapshot.write(output, data.getPersons(), data.getFireStations(), data.getMedicalRecords());
+        } else {
+            try (OutputStream out = new BufferedOutputStream(Files.newOutputStream(output), 1 << 16)) {
+                objectMapper.writerWithDefaultPrettyPrinter().writeValue(out, data);
+            }
+        }
+    }
+
+    /**
+     * Command-line entry point: {@code SnapshotConverter <input> <output>}.
+     *
+     * @param args the input and output files
+     * @throws IOException if the conversion fails
+     */
+    public static void main(String[] args) throws IOException {
+        if (args.length != 2) {
+            System.err.println("Usage: SnapshotConverter <input.json|input.bin> <output.json|output.bin>");
+            System.exit(2);
+        }
+        ObjectMapper objectMapper = new ObjectMapper().registerModule(new JavaTimeModule())
+                .disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS);
+        Path input = Path.of(args[0]);
+        Path output = Path.of(args[1]);
+        long start = System.nanoTime();
+        DataDTO data = new SnapshotConverter(objectMapper).convert(input, output);
+        log.info("Converted {} persons from {} ({} bytes) to {} ({} bytes) in {} ms",
+                data.getPersons().size(), input, Files.size(input), output, Files.size(output),
+                (System.nanoTime() - start) / 1_000_000);
+    }
+}
@@ -0,0 +1,30 @@
+package com.safetynet.safetynet.repository.persistence;
+
+/**
+ * Encoding used for the snapshots written by {@link JournalSnapshotStore}.
+ * Snapshots of either format are recognized on recovery, whatever the
+ * configured format, so the setting can be changed between restarts.
+ */
+public enum SnapshotFormat {
+
+    /** JSON in the {@code data.json} schema. */
+    JSON(".json"),
+
+    /** The compact {@link BinarySnapshot} encoding. */
+    BINARY(BinarySnapshot.EXTENSION);
+
+    private final String extension;
+
+    SnapshotFormat(String extension) {
+        this.extension = extension;
+    }
+
+    /**
+     * Returns the file name extension of snapshots in this format.
+     *
+     * @return the extension, including the leading dot
+     */
+    public String getExtension() {
+        return extension;
+    }
+}
@@ -0,0 +1,166 @@
+package com.safetynet.safetynet.repository.persistence;
+
+import lombok.extern.slf4j.Slf4j;
+
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Asynchronous write-behind persister.
+ * <p>
+ * Mutations are reported through {@link #markDirty()} and coalesced: a single
+ * flush runs once {@code maxDelayMillis} has elapsed since the first pending
+ * mutation, or immediately once {@code maxDirtyCount} mutations are pending.
+ * Flushes are always executed one at a time, so the flush action never runs
+ * concurrently with itself.
+ */
+@Slf4j
+public class WriteBehindPersister implements AutoCloseable {
+
+    private final Runnable flushAction;
+    private final long maxDelayMillis;
+    private final int maxDirtyCount;
+    private final ScheduledExecutorService executor;
+
+    /** Serializes executions of {@link #flushAction}. */
+    private final ReentrantLock flushLock = new ReentrantLock();
+
+    /** Guards {@link #dirtyCount}, {@link #scheduledFlush} and {@link #closed}. */
+    private final Object monitor = new Object();
+
+    private int dirtyCount;
+    private ScheduledFuture<?> scheduledFlush;
+    private boolean closed;
+
+    /**
+     * Creates a persister running flushes on a dedicated daemon thread.
+     *
+     * @param flushAction    the action writing the current state to storage
+     * @param maxDelayMillis maximum delay before pending mutations are flushed
+     * @param maxDirtyCount  number of pending mutations that triggers an immediate flush
+     */
+    public WriteBehindPersister(Runnable flushAction, long maxDelayMillis, int maxDirtyCount) {
+        this.flushAction = flushAction;
+        this.maxDelayMillis = Math.max(0, maxDelayMillis);
+        this.maxDirtyCount = Math.max(1, maxDirtyCount);
+        this.executor = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "data-persister");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * Records one pending mutation and schedules a flush if needed.
+     * Once the persister is closed, the mutation is flushed synchronously.
+     */
+    public void markDirty() {
+        synchronized (monitor) {
+            dirtyCount++;
+            if (!closed) {
+                if (dirtyCount >= maxDirtyCount) {
+                    cancelScheduledFlush();
+                    scheduledFlush = executor.schedule(this::flushInBackground, 0, TimeUnit.MILLISECONDS);
+                } else if (scheduledFlush == null) {
+                    scheduledFlush = executor.schedule(this::flushInBackground, maxDelayMillis, TimeUnit.MILLISECONDS);
+                }
+                return;
+            }
+        }
+        flush();
+    }
+
+    /**
+     * Synchronously flushes all pending mutations on the calling thread.
+     * Does nothing if there is nothing to persist.
+     *
+     * @throws RuntimeException if the flush action fails; pending mutations are kept
+     */
+    public void flush() {
+        flushLock.lock();
+        try {
+            int pending;
+            synchronized (monitor) {
+                pending = dirtyCount;
+                dirtyCount = 0;
+                cancelScheduledFlush();
+            }
+            if (pending == 0) {
+                return;
+            }
+            try {
+                flushAction.run();
+                log.debug("Flushed {} pending mutation(s)", pending);
+            } catch (RuntimeException e) {
+                synchronized (monitor) {
+                    dirtyCount += pending;
+                }
+                throw e;
+            }
+        } finally {
+            flushLock.unlock();
+        }
+    }
+
+    /**
+     * Returns the number of mutations not yet persisted.
+     *
+     * @return the pending mutation count
+     */
+    public int getPendingCount() {
+        synchronized (monitor) {
+            return dirtyCount;
+        }
+    }
+
+    /**
+     * Flushes pending mutations and stops the background thread.
+     */
+    @Override
+    public void close() {
+        synchronized (monitor) {
+            if (closed) {
+                return;
+            }
+            closed = true;
+            cancelScheduledFlush();
+        }
+        executor.shutdown();
+        try {
+            executor.awaitTermination(maxDelayMillis + 5000, TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        flush();
+    }
+
+    /**
+     * Flush task run by the background thread. Failures are logged and the
+     * flush is retried after {@code maxDelayMillis}.
+     */
+    private void flushInBackground() {
+        synchronized (monitor) {
+            scheduledFlush = null;
+        }
+        try {
+            flush();
+        } catch (RuntimeException e) {
+            log.error("Background flush failed, will retry: {}", e.getMessage());
+            synchronized (monitor) {
+                if (!closed && scheduledFlush == null) {
+                    scheduledFlush = executor.schedule(this::flushInBackground, maxDelayMillis, TimeUnit.MILLISECONDS);
+                }
+            }
+        }
+    }
+
+    private void cancelScheduledFlush() {
+        if (scheduledFlush != null) {
+            scheduledFlush.cancel(false);
+            scheduledFlush = null;
+        }
+    }
+}
@@ -0,0 +1,56 @@
+package com.safetynet.safetynet.service;
+
+import com.safetynet.safetynet.repository.CalendarDay;
+import org.springframework.stereotype.Component;
+
+import java.time.Clock;
+import java.time.LocalDate;
+
+/**
+ * Shared source of "today" for age computations.
+ * <p>
+ * The current {@link CalendarDay} is cached together with the instant of the
+ * next midnight; reading it costs a volatile read and a millisecond clock
+ * read, and the value is refreshed by the first call made after midnight.
+ */
+@Component
+public class AgeClock {
+
+    private final Clock clock;
+    private volatile Today current;
+
+    /**
+     * Creates a clock following the system clock in the default time zone.
+     */
+    public AgeClock() {
+        this(Clock.systemDefaultZone());
+    }
+
+    /**
+     * Creates a clock following the given clock.
+     *
+     * @param clock the underlying clock
+     */
+    public AgeClock(Clock clock) {
+        this.clock = clock;
+    }
+
+    /**
+     * Returns the current day.
+     *
+     * @return today, in the clock's time zone
+     */
+    public CalendarDay today() {
+        Today today = current;
+        if (today == null || clock.millis() >= today.nextMidnightMillis()) {
+            LocalDate date = LocalDate.now(clock);
+            long nextMidnight = date.plusDays(1).atStartOfDay(clock.getZone()).toInstant().toEpochMilli();
+            today = new Today(CalendarDay.of(date), nextMidnight);
+            current = today;
+        }
+        return today.day();
+    }
+
+    private record Today(CalendarDay day, long nextMidnightMillis) {
+    }
+}
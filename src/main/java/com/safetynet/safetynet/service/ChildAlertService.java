@@ -3,24 +3,28 @@ package com.safetynet.safetynet.service;
 import com.safetynet.safetynet.dto.ChildAlertDTO;
 import com.safetynet.safetynet.dto.ChildAlertDTO.ChildInfo;
 import com.safetynet.safetynet.dto.ChildAlertDTO.HouseholdMember;
-import com.safetynet.safetynet.model.MedicalRecord;
 import com.safetynet.safetynet.model.Person;
+import com.safetynet.safetynet.repository.CalendarDay;
+import com.safetynet.safetynet.repository.DataSnapshot;
+import com.safetynet.safetynet.repository.DataSnapshotRepository;
+import com.safetynet.safetynet.repository.Household;
+import com.safetynet.safetynet.repository.Resident;
 import lombok.AllArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Service;
 
-import java.time.LocalDate;
-import java.time.Period;
 import java.util.ArrayList;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 
 @Slf4j
 @Service
 @AllArgsConstructor
 public class ChildAlertService {
 
-    private final PersonService personService;
-    private final MedicalRecordService medicalRecordService;
+    private final DataSnapshotRepository dataSnapshotRepository;
+    private final AgeClock ageClock;
 
     /**
      * Get children and household members living at a given address.
@@ -30,32 +34,49 @@ public class ChildAlertService {
      */
     public ChildAlertDTO getChildrenAtAddress(String address) {
         log.debug("Starting getChildrenAtAddress for address: {}", address);
+        return buildChildAlert(dataSnapshotRepository.current(), ageClock.today(), address);
+    }
+
+    /**
+     * Get children and household members for several addresses at once.
+     * Every address is resolved against the same version of the data.
+     *
+     * @param addresses The addresses to search.
+     * @return The DTO of each distinct address, in request order; empty for addresses without children.
+     */
+    public Map<String, ChildAlertDTO> getChildrenAtAddresses(List<String> addresses) {
+        log.debug("Starting getChildrenAtAddresses for {} addresses", addresses.size());
+
+        DataSnapshot snapshot = dataSnapshotRepository.current();
+        CalendarDay today = ageClock.today();
+        Map<String, ChildAlertDTO> childAlerts = new LinkedHashMap<>();
+        for (String address : addresses) {
+            childAlerts.computeIfAbsent(address, a -> buildChildAlert(snapshot, today, a));
+        }
+        return childAlerts;
+    }
 
-        // Get all persons at the given address
-        List<Person> personsAtAddress = personService.getAllPersons().stream()
-                .filter(person -> address.equals(person.getAddress()))
-                .toList();
+    private ChildAlertDTO buildChildAlert(DataSnapshot snapshot, CalendarDay today, String address) {
+        Household household = snapshot.findHousehold(address);
 
-        log.debug("Found {} persons at address {}", personsAtAddress.size(), address);
+        // Skip the residents entirely when the household has no child today
+        if (household == null || !household.hasChildrenOn(today)) {
+            log.debug("No children found at address: {}", address);
+            return new ChildAlertDTO(new ArrayList<>(), new ArrayList<>());
+        }
 
-        List<MedicalRecord> allMedicalRecords = medicalRecordService.getAllMedicalRecords();
+        List<Resident> residentsAtAddress = household.residents();
+        log.debug("Found {} persons at address {}", residentsAtAddress.size(), address);
 
         List<ChildInfo> children = new ArrayList<>();
         List<HouseholdMember> householdMembers = new ArrayList<>();
 
-        for (Person person : personsAtAddress) {
-            MedicalRecord record = allMedicalRecords.stream()
-                    .filter(r -> r.getFirstName().equals(person.getFirstName())
-                            && r.getLastName().equals(person.getLastName()))
-                    .findFirst()
-                    .orElse(null);
-
-            if (record == null) continue;
-
-            int age = calculateAge(record.getBirthdate());
+        for (Resident resident : residentsAtAddress) {
+            if (resident.getMedicalRecord() == null) continue;
 
-            if (age <= 18) {
-                children.add(new ChildInfo(person.getFirstName(), person.getLastName(), age));
+            Person person = resident.getPerson();
+            if (resident.isChildOn(today)) {
+                children.add(new ChildInfo(person.getFirstName(), person.getLastName(), resident.getAge(today)));
             }
 
             // Add every person who is not already a child as household member
@@ -77,12 +98,4 @@ public class ChildAlertService {
 
         return new ChildAlertDTO(children, householdMembers);
     }
-
-    /**
-     * Utility to calculate age from a birthdate.
-     */
-    int calculateAge(LocalDate birthDate) {
-        if (birthDate == null) return 0;
-        return Period.between(birthDate, LocalDate.now()).getYears();
-    }
 }
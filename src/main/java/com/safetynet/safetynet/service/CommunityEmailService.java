@@ -1,20 +1,19 @@
 package com.safetynet.safetynet.service;
 
 import com.safetynet.safetynet.dto.CommunityEmailDTO;
-import com.safetynet.safetynet.model.Person;
+import com.safetynet.safetynet.repository.DataSnapshotRepository;
 import lombok.AllArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Service;
 
-import java.util.List;
-import java.util.stream.Collectors;
+import java.util.Set;
 
 @Slf4j
 @Service
 @AllArgsConstructor
 public class CommunityEmailService {
 
-    private final PersonService personService;
+    private final DataSnapshotRepository dataSnapshotRepository;
 
     /**
      * Get all email addresses of people living in a specified city.
@@ -25,17 +24,8 @@ public class CommunityEmailService {
     public CommunityEmailDTO getEmailsByCity(String city) {
         log.debug("Starting getEmailsByCity for city: {}", city);
 
-        // Retrieve all persons
-        List<Person> allPersons = personService.getAllPersons();
-        log.debug("Total persons retrieved: {}", allPersons.size());
-
-        // Filter persons by city and collect their emails
-        List<String> emails = allPersons.stream()
-                .filter(person -> city.equalsIgnoreCase(person.getCity()))
-                .map(Person::getEmail)
-                .filter(email -> email != null && !email.isEmpty()) // Exclude null or empty emails
-                .distinct() // Remove duplicates
-                .collect(Collectors.toList());
+        // Distinct non-empty emails are maintained per city by the snapshot
+        Set<String> emails = dataSnapshotRepository.current().findEmailsByCity(city);
 
         log.debug("Emails retrieved for city {}: {}", city, emails);
         log.debug("Finished getEmailsByCity for city: {} with {} emails found.", city, emails.size());
@@ -2,16 +2,20 @@ package com.safetynet.safetynet.service;
 
 import com.safetynet.safetynet.dto.FireDTO;
 import com.safetynet.safetynet.dto.FireDTO.ResidentInfo;
-import com.safetynet.safetynet.model.FireStation;
 import com.safetynet.safetynet.model.MedicalRecord;
 import com.safetynet.safetynet.model.Person;
+import com.safetynet.safetynet.repository.CalendarDay;
+import com.safetynet.safetynet.repository.DataSnapshot;
+import com.safetynet.safetynet.repository.DataSnapshotRepository;
+import com.safetynet.safetynet.repository.Household;
+import com.safetynet.safetynet.repository.Resident;
 import lombok.AllArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Service;
 
-import java.time.LocalDate;
-import java.time.Period;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.stream.Collectors;
 
 @Slf4j
@@ -19,9 +23,8 @@ import java.util.stream.Collectors;
 @AllArgsConstructor
 public class FireAlertService {
 
-    private final PersonService personService;
-    private final MedicalRecordService medicalRecordService;
-    private final FireStationService fireStationService;
+    private final DataSnapshotRepository dataSnapshotRepository;
+    private final AgeClock ageClock;
 
     /**
      * Get details of residents and the fire station number for a given address.
@@ -32,46 +35,60 @@ public class FireAlertService {
     public FireDTO getFireAlertByAddress(String address) {
         log.debug("Starting getFireAlertByAddress for address: {}", address);
 
-        // Retrieve all persons living at this address
-        List<Person> personsAtAddress = personService.getAllPersons().stream()
-                .filter(person -> address.equals(person.getAddress()))
-                .toList();
-        log.debug("Found {} persons at address {}", personsAtAddress.size(), address);
+        FireDTO fireAlertDTO = buildFireAlert(dataSnapshotRepository.current(), ageClock.today(), address);
+        log.debug("Finished getFireAlertByAddress for address {}: DTO successfully built", address);
+        return fireAlertDTO;
+    }
+
+    /**
+     * Get details of residents and the fire station number for several addresses at once.
+     * Every address is resolved against the same version of the data.
+     *
+     * @param addresses The addresses to search for.
+     * @return The DTO of each distinct address, in request order.
+     */
+    public Map<String, FireDTO> getFireAlertsByAddresses(List<String> addresses) {
+        log.debug("Starting getFireAlertsByAddresses for {} addresses", addresses.size());
 
-        // Retrieve all medical records
-        List<MedicalRecord> medicalRecords = medicalRecordService.getAllMedicalRecords();
+        DataSnapshot snapshot = dataSnapshotRepository.current();
+        CalendarDay today = ageClock.today();
+        Map<String, FireDTO> fireAlerts = new LinkedHashMap<>();
+        for (String address : addresses) {
+            fireAlerts.computeIfAbsent(address, a -> buildFireAlert(snapshot, today, a));
+        }
 
-        // Find the fire station covering this address and convert to int
-        int stationNumber = fireStationService.getAllFireStations().stream()
-                .filter(station -> address.equals(station.getAddress()))
-                .map(FireStation::getStation)   // returns String
-                .findFirst()
-                .map(s -> {
-                    try {
-                        return Integer.parseInt(s); // convert String -> int
-                    } catch (NumberFormatException e) {
-                        log.warn("Invalid fire station number '{}', defaulting to 0", s);
-                        return 0;
-                    }
-                })
-                .orElse(0); // default if no fire station found
+        log.debug("Finished getFireAlertsByAddresses: {} DTOs built", fireAlerts.size());
+        return fireAlerts;
+    }
+
+    private FireDTO buildFireAlert(DataSnapshot snapshot, CalendarDay today, String address) {
+        Household household = snapshot.findHousehold(address);
+        List<Resident> residentsAtAddress = household != null ? household.residents() : List.of();
+        log.debug("Found {} persons at address {}", residentsAtAddress.size(), address);
+
+        // Read the fire station covering this address and convert to int
+        String station = household != null ? household.station() : null;
+        int stationNumber = 0; // default if no fire station found
+        if (station != null) {
+            try {
+                stationNumber = Integer.parseInt(station); // convert String -> int
+            } catch (NumberFormatException e) {
+                log.warn("Invalid fire station number '{}', defaulting to 0", station);
+            }
+        }
 
         // Build the list of residents with detailed information
-        List<ResidentInfo> residents = personsAtAddress.stream()
-                .map(person -> {
-                    MedicalRecord medicalRecord = medicalRecords.stream()
-                            .filter(record -> record.getFirstName().equals(person.getFirstName())
-                                    && record.getLastName().equals(person.getLastName()))
-                            .findFirst()
-                            .orElse(null);
+        List<ResidentInfo> residents = residentsAtAddress.stream()
+                .map(resident -> {
+                    Person person = resident.getPerson();
+                    MedicalRecord medicalRecord = resident.getMedicalRecord();
 
                     if (medicalRecord != null) {
-                        int age = calculateAge(medicalRecord.getBirthdate());
                         return new ResidentInfo(
                                 person.getFirstName(),
                                 person.getLastName(),
                                 person.getPhone(),
-                                age,
+                                resident.getAge(today),
                                 medicalRecord.getMedications(),
                                 medicalRecord.getAllergies()
                         );
@@ -89,19 +106,6 @@ public class FireAlertService {
                 })
                 .collect(Collectors.toList());
 
-        FireDTO fireAlertDTO = new FireDTO(stationNumber, residents);
-        log.debug("Finished getFireAlertByAddress for address {}: DTO successfully built", address);
-        return fireAlertDTO;
-    }
-
-    /**
-     * Utility method to calculate age from a birthdate (LocalDate version).
-     *
-     * @param birthDate The birthdate of the person.
-     * @return Age in years.
-     */
-    private int calculateAge(LocalDate birthDate) {
-        if (birthDate == null) return 0;
-        return Period.between(birthDate, LocalDate.now()).getYears();
+        return new FireDTO(stationNumber, residents);
     }
 }
@@ -2,24 +2,25 @@ package com.safetynet.safetynet.service;
 
 import com.safetynet.safetynet.dto.FireStationCoverageDTO;
 import com.safetynet.safetynet.model.Person;
-import com.safetynet.safetynet.model.MedicalRecord;
+import com.safetynet.safetynet.repository.CalendarDay;
+import com.safetynet.safetynet.repository.DataSnapshot;
+import com.safetynet.safetynet.repository.DataSnapshotRepository;
+import com.safetynet.safetynet.repository.StationCensus;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Service;
 
-import java.time.LocalDate;
-import java.time.Period;
+import java.util.ArrayList;
 import java.util.List;
-import java.util.stream.Collectors;
+import java.util.Set;
 
 @Slf4j
 @Service
 @RequiredArgsConstructor
 public class FireStationCoverageService {
 
-    private final FireStationService firestationService;
-    private final PersonService personService;
-    private final MedicalRecordService medicalRecordService;
+    private final DataSnapshotRepository dataSnapshotRepository;
+    private final AgeClock ageClock;
 
     /**
      * Get coverage details for a fire station number.
@@ -30,40 +31,30 @@ public class FireStationCoverageService {
     public FireStationCoverageDTO getCoverageByStation(String stationNumber) {
         log.debug("Starting getCoverageByStation for station number: {}", stationNumber);
 
+        DataSnapshot snapshot = dataSnapshotRepository.current();
+
         // Get addresses covered by the station
-        List<String> addresses = firestationService.getAllFireStations().stream()
-                .filter(f -> f.getStation().equals(stationNumber))
-                .map(f -> f.getAddress())
-                .toList();
+        Set<String> addresses = snapshot.findAddressesByStation(stationNumber);
         log.debug("Found {} addresses covered by station {}", addresses.size(), stationNumber);
 
-        // Get all persons living at those addresses
-        List<Person> persons = personService.getAllPersons().stream()
-                .filter(p -> addresses.contains(p.getAddress()))
-                .toList();
-        log.debug("Found {} persons living at these addresses", persons.size());
-
-        // Map persons to DTO
-        List<FireStationCoverageDTO.PersonInfoDTO> personInfoList = persons.stream()
-                .map(p -> new FireStationCoverageDTO.PersonInfoDTO(
+        // List the residents of those addresses; the counts come from the station's census
+        List<FireStationCoverageDTO.PersonInfoDTO> personInfoList = new ArrayList<>();
+        for (String address : addresses) {
+            for (Person p : snapshot.findPersonsByAddress(address)) {
+                personInfoList.add(new FireStationCoverageDTO.PersonInfoDTO(
                         p.getFirstName(),
                         p.getLastName(),
                         p.getAddress(),
                         p.getPhone()
-                ))
-                .collect(Collectors.toList());
-        log.debug("Mapped persons to PersonInfoDTO list");
+                ));
+            }
+        }
+        log.debug("Found {} persons living at these addresses", personInfoList.size());
 
-        // Count children
-        long childCount = persons.stream()
-                .filter(p -> {
-                    MedicalRecord mr = medicalRecordService.findByName(p.getFirstName(), p.getLastName());
-                    boolean isChild = mr != null && calculateAge(mr.getBirthdate()) <= 18;
-                    if (mr == null) log.debug("No medical record found for {} {}", p.getFirstName(), p.getLastName());
-                    return isChild;
-                })
-                .count();
-        long adultCount = persons.size() - childCount;
+        StationCensus census = snapshot.findCensusByStation(stationNumber);
+        CalendarDay today = ageClock.today();
+        long childCount = census.childrenOn(today);
+        long adultCount = census.adultsOn(today);
 
         log.debug("Adult count: {}, Child count: {}", adultCount, childCount);
 
@@ -71,12 +62,4 @@ public class FireStationCoverageService {
         log.debug("Finished getCoverageByStation for station {}: DTO ready", stationNumber);
         return dto;
     }
-
-    /**
-     * Utility to calculate age from LocalDate birthdate.
-     */
-    private int calculateAge(LocalDate birthdate) {
-        if (birthdate == null) return 0;
-        return Period.between(birthdate, LocalDate.now()).getYears();
-    }
 }
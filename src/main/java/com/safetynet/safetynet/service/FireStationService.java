@@ -6,6 +6,7 @@ import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Service;
 import java.util.List;
+import java.util.Set;
 
 /**
  * Service class for managing {@link FireStation} entities.
@@ -62,4 +63,26 @@ public class FireStationService {
         log.debug("Fetching all fire stations");
         return firestationRepository.getAllFireStations();
     }
+
+    /**
+     * Retrieves the addresses covered by a fire station.
+     *
+     * @param station the station number
+     * @return the set of addresses covered by the station
+     */
+    public Set<String> findAddressesByStation(String station) {
+        log.debug("Fetching addresses covered by station: {}", station);
+        return firestationRepository.findAddressesByStation(station);
+    }
+
+    /**
+     * Retrieves the fire stations covering an address.
+     *
+     * @param address the address
+     * @return the set of station numbers covering the address
+     */
+    public Set<String> findStationsByAddress(String address) {
+        log.debug("Fetching stations covering address: {}", address);
+        return firestationRepository.findStationsByAddress(address);
+    }
 }
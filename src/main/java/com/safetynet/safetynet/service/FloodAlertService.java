@@ -2,17 +2,21 @@ package com.safetynet.safetynet.service;
 
 import com.safetynet.safetynet.dto.FloodStationsDTO;
 import com.safetynet.safetynet.dto.FloodStationsDTO.HouseholdInfo;
-import com.safetynet.safetynet.model.FireStation;
 import com.safetynet.safetynet.model.MedicalRecord;
 import com.safetynet.safetynet.model.Person;
+import com.safetynet.safetynet.repository.CalendarDay;
+import com.safetynet.safetynet.repository.DataSnapshot;
+import com.safetynet.safetynet.repository.DataSnapshotRepository;
+import com.safetynet.safetynet.repository.Household;
 import lombok.AllArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Service;
 
-import java.time.LocalDate;
-import java.time.Period;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
 import java.util.stream.Collectors;
 
 @Slf4j
@@ -20,9 +24,8 @@ import java.util.stream.Collectors;
 @AllArgsConstructor
 public class FloodAlertService {
 
-    private final PersonService personService;
-    private final FireStationService fireStationService;
-    private final MedicalRecordService medicalRecordService;
+    private final DataSnapshotRepository dataSnapshotRepository;
+    private final AgeClock ageClock;
 
     /**
      * Get households covered by a list of fire stations.
@@ -33,56 +36,40 @@ public class FloodAlertService {
     public FloodStationsDTO getHouseholdsByStations(List<String> stationNumbers) {
         log.debug("Fetching households for fire stations: {}", stationNumbers);
 
+        DataSnapshot snapshot = dataSnapshotRepository.current();
+
         // Get addresses covered by the stations
-        List<String> coveredAddresses = fireStationService.getAllFireStations().stream()
-                .filter(f -> stationNumbers.contains(f.getStation()))
-                .map(FireStation::getAddress)
-                .toList();
+        Set<String> coveredAddresses = new LinkedHashSet<>();
+        stationNumbers.forEach(station -> coveredAddresses.addAll(snapshot.findAddressesByStation(station)));
 
         log.debug("Covered addresses: {}", coveredAddresses);
 
-        // Get persons living at these addresses
-        List<Person> persons = personService.getAllPersons().stream()
-                .filter(p -> coveredAddresses.contains(p.getAddress()))
-                .toList();
-
-        log.debug("Number of persons at covered addresses: {}", persons.size());
-
-        // Get all medical records
-        List<MedicalRecord> medicalRecords = medicalRecordService.getAllMedicalRecords();
-
-        // Group by address and map to HouseholdInfo
-        Map<String, List<HouseholdInfo>> households = persons.stream()
-                .collect(Collectors.groupingBy(
-                        Person::getAddress,
-                        Collectors.mapping(person -> {
-                            MedicalRecord record = medicalRecords.stream()
-                                    .filter(r -> r.getFirstName().equals(person.getFirstName())
-                                            && r.getLastName().equals(person.getLastName()))
-                                    .findFirst()
-                                    .orElse(null);
-
-                            int age = record != null ? calculateAge(record.getBirthdate()) : 0;
-
-                            return new HouseholdInfo(
-                                    person.getFirstName(),
-                                    person.getLastName(),
-                                    person.getPhone(),
-                                    age,
-                                    record != null ? record.getMedications() : List.of(),
-                                    record != null ? record.getAllergies() : List.of()
-                            );
-                        }, Collectors.toList())
-                ));
+        // Map the household of each covered address to HouseholdInfo
+        CalendarDay today = ageClock.today();
+        Map<String, List<HouseholdInfo>> households = new HashMap<>();
+        for (String address : coveredAddresses) {
+            Household household = snapshot.findHousehold(address);
+            if (household == null || household.residents().isEmpty()) continue;
+
+            households.put(household.address(), household.residents().stream()
+                    .map(resident -> {
+                        Person person = resident.getPerson();
+                        MedicalRecord record = resident.getMedicalRecord();
+
+                        return new HouseholdInfo(
+                                person.getFirstName(),
+                                person.getLastName(),
+                                person.getPhone(),
+                                resident.getAge(today),
+                                record != null ? record.getMedications() : List.of(),
+                                record != null ? record.getAllergies() : List.of()
+                        );
+                    })
+                    .collect(Collectors.toList()));
+        }
 
         log.debug("Households grouped by address: {}", households);
 
         return new FloodStationsDTO(households);
     }
-
-    /** Calculate age from LocalDate birthdate */
-    private int calculateAge(LocalDate birthDate) {
-        if (birthDate == null) return 0;
-        return Period.between(birthDate, LocalDate.now()).getYears();
-    }
 }
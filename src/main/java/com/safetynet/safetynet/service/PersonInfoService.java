@@ -3,12 +3,13 @@ package com.safetynet.safetynet.service;
 import com.safetynet.safetynet.dto.PersonInfoDTO;
 import com.safetynet.safetynet.model.MedicalRecord;
 import com.safetynet.safetynet.model.Person;
+import com.safetynet.safetynet.repository.CalendarDay;
+import com.safetynet.safetynet.repository.DataSnapshot;
+import com.safetynet.safetynet.repository.DataSnapshotRepository;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Service;
 
-import java.time.LocalDate;
-import java.time.Period;
 import java.util.List;
 import java.util.stream.Collectors;
 
@@ -17,8 +18,8 @@ import java.util.stream.Collectors;
 @RequiredArgsConstructor
 public class PersonInfoService {
 
-    private final PersonService personService;
-    private final MedicalRecordService medicalRecordService;
+    private final DataSnapshotRepository dataSnapshotRepository;
+    private final AgeClock ageClock;
 
     /**
      * Retrieves personal and medical information for all people with the given last name.
@@ -29,28 +30,20 @@ public class PersonInfoService {
     public List<PersonInfoDTO> getPersonInfoByLastName(String lastName) {
         log.debug("Starting getPersonInfoByLastName for last name: {}", lastName);
 
-        // Get all persons matching the given last name
-        List<Person> personsWithLastName = personService.getAllPersons().stream()
-                .filter(person -> person.getLastName().equalsIgnoreCase(lastName))
-                .toList();
-        log.debug("Found {} persons with last name '{}'", personsWithLastName.size(), lastName);
+        DataSnapshot snapshot = dataSnapshotRepository.current();
 
-        // Get all medical records
-        List<MedicalRecord> medicalRecords = medicalRecordService.getAllMedicalRecords();
+        // Get all persons matching the given last name from the last-name index
+        List<Person> personsWithLastName = snapshot.findPersonsByLastName(lastName);
+        log.debug("Found {} persons with last name '{}'", personsWithLastName.size(), lastName);
 
         // Map each person to a PersonInfoDTO
+        CalendarDay today = ageClock.today();
         List<PersonInfoDTO> personInfoList = personsWithLastName.stream()
                 .map(person -> {
-                    // Match medical record
-                    MedicalRecord record = medicalRecords.stream()
-                            .filter(mr -> mr.getFirstName().equals(person.getFirstName())
-                                    && mr.getLastName().equals(person.getLastName()))
-                            .findFirst()
-                            .orElse(null);
+                    // Match medical record by name key
+                    MedicalRecord record = snapshot.findMedicalRecord(person.getFirstName(), person.getLastName());
 
-                    int age = (record != null && record.getBirthdate() != null)
-                            ? calculateAge(record.getBirthdate())
-                            : 0;
+                    int age = record != null ? today.yearsSince(record.getBirthdate()) : 0;
 
                     return new PersonInfoDTO(
                             person.getFirstName(),
@@ -67,12 +60,4 @@ public class PersonInfoService {
         log.debug("Finished getPersonInfoByLastName, returning {} DTOs", personInfoList.size());
         return personInfoList;
     }
-
-    /**
-     * Utility method to calculate age from a LocalDate birthdate.
-     */
-    private int calculateAge(LocalDate birthdate) {
-        if (birthdate == null) return 0;
-        return Period.between(birthdate, LocalDate.now()).getYears();
-    }
 }
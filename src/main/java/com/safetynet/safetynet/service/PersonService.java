@@ -83,4 +83,16 @@ public class PersonService {
         log.debug("Total persons found: {}", allPersons.size());
         return allPersons;
     }
+
+    /**
+     * Retrieve the persons living at an address.
+     * @param address The address to look up.
+     * @return The residents of that address.
+     */
+    public List<Person> findByAddress(String address) {
+        log.debug("Retrieving persons at address: {}", address);
+        List<Person> residents = personRepository.findByAddress(address);
+        log.debug("Persons found at address {}: {}", address, residents.size());
+        return residents;
+    }
 }
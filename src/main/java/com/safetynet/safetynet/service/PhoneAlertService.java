@@ -1,26 +1,27 @@
 package com.safetynet.safetynet.service;
 
 import com.safetynet.safetynet.dto.PhoneAlertDTO;
-import com.safetynet.safetynet.model.FireStation;
-import com.safetynet.safetynet.model.Person;
+import com.safetynet.safetynet.repository.DataSnapshot;
+import com.safetynet.safetynet.repository.DataSnapshotRepository;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Service;
 
+import java.util.LinkedHashMap;
 import java.util.List;
-import java.util.stream.Collectors;
+import java.util.Map;
+import java.util.Set;
 
 @Slf4j
 @Service
 @RequiredArgsConstructor
 public class PhoneAlertService {
 
-    private final FireStationService fireStationService;
-    private final PersonService personService;
+    private final DataSnapshotRepository dataSnapshotRepository;
 
     /**
      * Retrieves the list of phone numbers of all residents
-     * covered by a specific fire station.
+     * covered by a specific fire station. Residents without a phone number are left out.
      *
      * @param stationNumber The fire station number.
      * @return A {@link PhoneAlertDTO} containing the phone numbers.
@@ -28,25 +29,29 @@ public class PhoneAlertService {
     public PhoneAlertDTO getPhonesByFireStation(String stationNumber) {
         log.debug("Fetching phone numbers for fire station: {}", stationNumber);
 
-        // Get addresses served by the given fire station
-        List<FireStation> fireStations = fireStationService.getAllFireStations();
-        List<String> addresses = fireStations.stream()
-                .filter(station -> station.getStation().equals(stationNumber))
-                .map(FireStation::getAddress)
-                .collect(Collectors.toList());
-
-        log.debug("Addresses found for fire station {}: {}", stationNumber, addresses);
-
-        // Get residents living at those addresses and collect their phone numbers
-        List<Person> persons = personService.getAllPersons();
-        List<String> phoneNumbers = persons.stream()
-                .filter(person -> addresses.contains(person.getAddress()))
-                .map(Person::getPhone)
-                .distinct()
-                .collect(Collectors.toList());
+        // Distinct phone numbers are maintained per station by the snapshot
+        Set<String> phoneNumbers = dataSnapshotRepository.current().findPhonesByStation(stationNumber);
 
         log.debug("Phone numbers retrieved for fire station {}: {}", stationNumber, phoneNumbers);
 
         return new PhoneAlertDTO(phoneNumbers);
     }
+
+    /**
+     * Retrieves the phone numbers of the residents covered by each of several fire stations.
+     * Every station is resolved against the same version of the data.
+     *
+     * @param stationNumbers The fire station numbers.
+     * @return The {@link PhoneAlertDTO} of each distinct station, in request order.
+     */
+    public Map<String, PhoneAlertDTO> getPhonesByFireStations(List<String> stationNumbers) {
+        log.debug("Fetching phone numbers for {} fire stations", stationNumbers.size());
+
+        DataSnapshot snapshot = dataSnapshotRepository.current();
+        Map<String, PhoneAlertDTO> phoneAlerts = new LinkedHashMap<>();
+        for (String stationNumber : stationNumbers) {
+            phoneAlerts.computeIfAbsent(stationNumber, s -> new PhoneAlertDTO(snapshot.findPhonesByStation(s)));
+        }
+        return phoneAlerts;
+    }
 }
@@ -7,14 +7,18 @@ import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.context.annotation.Import;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.test.context.bean.override.mockito.MockitoBean;
 import org.springframework.test.web.servlet.MockMvc;
 import org.springframework.test.web.servlet.request.MockMvcRequestBuilders;
 import org.springframework.web.server.ResponseStatusException;
 
 import java.util.List;
+import java.util.Map;
 
+import static org.mockito.Mockito.verifyNoInteractions;
 import static org.mockito.Mockito.when;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
@@ -27,7 +31,8 @@ import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.
  * missing parameters, empty responses, and exceptions.
  * </p>
  */
-@WebMvcTest(ChildAlertController.class)
+@WebMvcTest(controllers = ChildAlertController.class, properties = "safetynet.alerts.max-batch-size=2")
+@Import(AlertProperties.class)
 class ChildAlertControllerTest {
 
     @Autowired
@@ -134,4 +139,47 @@ class ChildAlertControllerTest {
                         .param("address", address))
                 .andExpect(status().isInternalServerError());
     }
+
+    /**
+     * Tests retrieval of child alert data for several addresses in one POST request.
+     * Verifies that the response maps each address to its children and household members.
+     *
+     * @throws Exception if the request execution fails
+     */
+    @Test
+    @DisplayName("Test success - retrieve child alert data for several addresses")
+    void testGetChildAlertBatchSuccess() throws Exception {
+        List<String> addresses = List.of("123 Main St", "Unknown St");
+        when(childAlertService.getChildrenAtAddresses(addresses))
+                .thenReturn(Map.of("123 Main St", mockChildAlertDTO,
+                        "Unknown St", new ChildAlertDTO(List.of(), List.of())));
+
+        mockMvc.perform(MockMvcRequestBuilders.post("/childAlert/batch")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("[\"123 Main St\", \"Unknown St\"]"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$['123 Main St'].children[0].firstName").value("John"))
+                .andExpect(jsonPath("$['123 Main St'].householdMembers[1].firstName").value("Jill"))
+                .andExpect(jsonPath("$['Unknown St'].children").isEmpty());
+    }
+
+    /**
+     * Tests that a batch with a blank address, or with more addresses than allowed, gets a 400 response.
+     *
+     * @throws Exception if the request execution fails
+     */
+    @Test
+    @DisplayName("POST /childAlert/batch - Invalid batch")
+    void testGetChildAlertBatchInvalid() throws Exception {
+        mockMvc.perform(MockMvcRequestBuilders.post("/childAlert/batch")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("[\"123 Main St\", \"\"]"))
+                .andExpect(status().isBadRequest());
+        mockMvc.perform(MockMvcRequestBuilders.post("/childAlert/batch")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("[\"1 A St\", \"2 B St\", \"3 C St\"]"))
+                .andExpect(status().isBadRequest());
+
+        verifyNoInteractions(childAlertService);
+    }
 }
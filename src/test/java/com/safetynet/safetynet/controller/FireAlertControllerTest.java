@@ -8,14 +8,18 @@ import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.context.annotation.Import;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.test.context.bean.override.mockito.MockitoBean;
 import org.springframework.test.web.servlet.MockMvc;
 import org.springframework.test.web.servlet.request.MockMvcRequestBuilders;
 import org.springframework.web.server.ResponseStatusException;
 
 import java.util.List;
+import java.util.Map;
 
+import static org.mockito.Mockito.verifyNoInteractions;
 import static org.mockito.Mockito.when;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
@@ -28,7 +32,8 @@ import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.
  * missing parameters, empty responses, and service exceptions.
  * </p>
  */
-@WebMvcTest(FireAlertController.class)
+@WebMvcTest(controllers = FireAlertController.class, properties = "safetynet.alerts.max-batch-size=2")
+@Import(AlertProperties.class)
 class FireAlertControllerTest {
 
     @Autowired
@@ -130,4 +135,76 @@ class FireAlertControllerTest {
                         .param("address", address))
                 .andExpect(status().isInternalServerError());
     }
+
+    /**
+     * Tests retrieval of fire alert data for several addresses in one POST request.
+     * Verifies that the response maps each address to its fire data.
+     *
+     * @throws Exception if the request execution fails
+     */
+    @Test
+    @DisplayName("Test success - retrieve fire info for several addresses")
+    void testGetFireInfoBatchSuccess() throws Exception {
+        List<String> addresses = List.of("123 Main St", "Unknown St");
+        when(fireAlertService.getFireAlertsByAddresses(addresses))
+                .thenReturn(Map.of("123 Main St", mockFireDTO, "Unknown St", new FireDTO(0, List.of())));
+
+        mockMvc.perform(MockMvcRequestBuilders.post("/fire/batch")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("[\"123 Main St\", \"Unknown St\"]"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$['123 Main St'].fireStationNumber").value(1))
+                .andExpect(jsonPath("$['123 Main St'].residents[0].firstName").value("John"))
+                .andExpect(jsonPath("$['Unknown St'].residents").isEmpty());
+    }
+
+    /**
+     * Tests the scenario where the batch request has no body.
+     * Expects a 400 Bad Request response.
+     *
+     * @throws Exception if the request execution fails
+     */
+    @Test
+    @DisplayName("Test 400 - missing batch body")
+    void testGetFireInfoBatchMissingBody() throws Exception {
+        mockMvc.perform(MockMvcRequestBuilders.post("/fire/batch")
+                        .contentType(MediaType.APPLICATION_JSON))
+                .andExpect(status().isBadRequest());
+    }
+
+    /**
+     * Tests that a batch holding a null or blank address is rejected before reaching the service.
+     *
+     * @throws Exception if the request execution fails
+     */
+    @Test
+    @DisplayName("Test 400 - null or blank address in batch")
+    void testGetFireInfoBatchInvalidAddress() throws Exception {
+        mockMvc.perform(MockMvcRequestBuilders.post("/fire/batch")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("[\"123 Main St\", null]"))
+                .andExpect(status().isBadRequest());
+        mockMvc.perform(MockMvcRequestBuilders.post("/fire/batch")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("[\" \"]"))
+                .andExpect(status().isBadRequest());
+
+        verifyNoInteractions(fireAlertService);
+    }
+
+    /**
+     * Tests that a batch holding more addresses than the configured maximum is rejected.
+     *
+     * @throws Exception if the request execution fails
+     */
+    @Test
+    @DisplayName("Test 400 - batch above the maximum size")
+    void testGetFireInfoBatchTooLarge() throws Exception {
+        mockMvc.perform(MockMvcRequestBuilders.post("/fire/batch")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("[\"1 A St\", \"2 B St\", \"3 C St\"]"))
+                .andExpect(status().isBadRequest());
+
+        verifyNoInteractions(fireAlertService);
+    }
 }
@@ -8,13 +8,18 @@ import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.http.MediaType;
 import org.springframework.test.context.bean.override.mockito.MockitoBean;
 import org.springframework.test.web.servlet.MockMvc;
 
 import java.util.List;
+import java.util.Map;
 
+import static org.mockito.Mockito.verifyNoInteractions;
 import static org.mockito.Mockito.when;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
 
 /**
@@ -25,7 +30,8 @@ import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.
  * for residents covered by a given fire station.
  * </p>
  */
-@WebMvcTest(PhoneAlertController.class)
+@WebMvcTest(controllers = PhoneAlertController.class, properties = "safetynet.alerts.max-batch-size=2")
+@Import(AlertProperties.class)
 class PhoneAlertControllerTest {
 
     @Autowired
@@ -83,4 +89,44 @@ class PhoneAlertControllerTest {
                 .andExpect(status().isOk())
                 .andExpect(jsonPath("$.phoneNumbers").isEmpty());
     }
+
+    /**
+     * Tests retrieval of phone numbers for several fire stations in one POST request.
+     *
+     * @throws Exception if request execution fails
+     */
+    @Test
+    @DisplayName("POST /phoneAlert/batch - Success")
+    void testGetPhoneAlertBatchSuccess() throws Exception {
+        List<String> stations = List.of("1", "99");
+        when(phoneAlertService.getPhonesByFireStations(stations))
+                .thenReturn(Map.of("1", mockPhoneAlertDTO, "99", new PhoneAlertDTO(List.of())));
+
+        mockMvc.perform(post("/phoneAlert/batch")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(stations)))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$['1'].phoneNumbers[0]").value("123-456-7890"))
+                .andExpect(jsonPath("$['99'].phoneNumbers").isEmpty());
+    }
+
+    /**
+     * Tests that a batch with a null station, or with more stations than allowed, gets a 400 response.
+     *
+     * @throws Exception if the request execution fails
+     */
+    @Test
+    @DisplayName("POST /phoneAlert/batch - Invalid batch")
+    void testGetPhoneAlertBatchInvalid() throws Exception {
+        mockMvc.perform(post("/phoneAlert/batch")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("[\"1\", null]"))
+                .andExpect(status().isBadRequest());
+        mockMvc.perform(post("/phoneAlert/batch")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(List.of("1", "2", "3"))))
+                .andExpect(status().isBadRequest());
+
+        verifyNoInteractions(phoneAlertService);
+    }
 }
@@ -0,0 +1,75 @@
+package com.safetynet.safetynet.repository;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+import java.time.Period;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Unit tests for {@link AgeProfile} and the age arithmetic of {@link CalendarDay}.
+ *
+ * <p>Verifies that ages match {@link Period#between} and that the child/adult
+ * classification flips exactly on the nineteenth birthday.</p>
+ */
+class AgeProfileTest {
+
+    /**
+     * Test that the age is computed in whole years for a valid birthdate.
+     */
+    @Test
+    void testAgeOn_ShouldReturnValidAge() {
+        LocalDate today = LocalDate.now();
+        int age = AgeProfile.of(today.minusYears(20)).ageOn(CalendarDay.of(today));
+        assertThat(age).isEqualTo(20);
+    }
+
+    /**
+     * Test that an unknown birthdate gives age 0 and a child.
+     */
+    @Test
+    void testAgeOn_ShouldReturnZeroWhenNull() {
+        CalendarDay today = CalendarDay.of(LocalDate.now());
+
+        assertThat(AgeProfile.of(null)).isSameAs(AgeProfile.UNKNOWN);
+        assertThat(AgeProfile.UNKNOWN.ageOn(today)).isEqualTo(0);
+        assertThat(AgeProfile.UNKNOWN.isChildOn(today)).isTrue();
+        assertThat(today.yearsSince(null)).isEqualTo(0);
+    }
+
+    /**
+     * Test that the integer arithmetic agrees with Period.between, including
+     * month ends, February 29 and birthdates in the future.
+     */
+    @Test
+    void testAgeOn_ShouldMatchPeriodBetween() {
+        LocalDate[] birthDates = {
+                LocalDate.of(2000, 2, 29), LocalDate.of(2000, 1, 31), LocalDate.of(1999, 12, 31),
+                LocalDate.of(2007, 3, 1), LocalDate.of(2030, 5, 1)
+        };
+        for (LocalDate birthDate : birthDates) {
+            AgeProfile profile = AgeProfile.of(birthDate);
+            for (LocalDate day = LocalDate.of(2018, 12, 25); day.isBefore(LocalDate.of(2027, 3, 5)); day = day.plusDays(1)) {
+                int expected = Period.between(birthDate, day).getYears();
+                CalendarDay today = CalendarDay.of(day);
+
+                assertThat(profile.ageOn(today)).as("%s on %s", birthDate, day).isEqualTo(expected);
+                assertThat(today.yearsSince(birthDate)).as("%s on %s", birthDate, day).isEqualTo(expected);
+                assertThat(profile.isChildOn(today)).as("%s on %s", birthDate, day).isEqualTo(expected <= 18);
+            }
+        }
+    }
+
+    /**
+     * Test that someone born on February 29 becomes an adult on March 1 of a common year.
+     */
+    @Test
+    void testAdultFrom_LeapDayBirth() {
+        AgeProfile profile = AgeProfile.of(LocalDate.of(2004, 2, 29));
+
+        assertThat(LocalDate.ofEpochDay(profile.getAdultFromEpochDay())).isEqualTo(LocalDate.of(2023, 3, 1));
+        assertThat(profile.isChildOn(CalendarDay.of(LocalDate.of(2023, 2, 28)))).isTrue();
+        assertThat(profile.isChildOn(CalendarDay.of(LocalDate.of(2023, 3, 1)))).isFalse();
+    }
+}
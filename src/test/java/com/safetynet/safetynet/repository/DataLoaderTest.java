@@ -0,0 +1,225 @@
+package com.safetynet.safetynet.repository;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.safetynet.safetynet.model.MedicalRecord;
+import com.safetynet.safetynet.model.Person;
+import com.safetynet.safetynet.repository.persistence.JournalEntry;
+import com.safetynet.safetynet.repository.persistence.JournalSnapshotStore;
+import com.safetynet.safetynet.repository.persistence.PersistenceProperties;
+import com.safetynet.safetynet.repository.persistence.SnapshotFormat;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.time.LocalDate;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for {@link DataLoader}.
+ * <p>
+ * Verifies that the bundled seed is copied to the data directory, and that a
+ * new data file replaces the data set as a whole, survives a restart, from a
+ * binary snapshot too, is
+ * picked up at startup when it was dropped in while the application was down, and is
+ * rejected without disturbing the current data set when it is malformed, and
+ * that startup fails rather than serving an empty data set when the stored
+ * data cannot be recovered or an older journal is corrupt.
+ */
+class DataLoaderTest {
+
+    private static final String EXPORT = """
+            {"persons": [{"firstName": "Ann", "lastName": "Lee", "address": "9 Elm St", "city": "Culver",
+                          "zip": "97451", "phone": "333-333-3333", "email": "ann@example.com"}],
+             "firestations": [{"address": "9 Elm St", "station": "7"}],
+             "medicalrecords": []}
+            """;
+
+    @TempDir
+    Path tempDir;
+
+    private PersistenceProperties properties;
+    private SimpleMeterRegistry meterRegistry;
+
+    @BeforeEach
+    void setUp() {
+        properties = new PersistenceProperties();
+        properties.setDataDirectory(tempDir.resolve("data"));
+        properties.setStorageDirectory(tempDir.resolve("storage"));
+        properties.setReloadOnChange(false);
+        meterRegistry = new SimpleMeterRegistry();
+    }
+
+    /**
+     * Tests that the bundled data set is copied to the data directory and loaded.
+     */
+    @Test
+    void testSeedIsCopiedToDataDirectory() {
+        DataLoader dataLoader = new DataLoader(properties, meterRegistry);
+        dataLoader.start();
+        try {
+            assertTrue(Files.exists(tempDir.resolve("data/data.json")));
+            assertFalse(dataLoader.getSnapshot().getPersons().isEmpty());
+        } finally {
+            dataLoader.shutdown();
+        }
+    }
+
+    /**
+     * Tests that a reloaded file replaces the data set and is what a restart loads.
+     */
+    @Test
+    void testReloadReplacesDataSet() throws IOException {
+        Path export = Files.writeString(tempDir.resolve("export.json"), EXPORT);
+        DataLoader dataLoader = new DataLoader(properties, meterRegistry);
+        dataLoader.start();
+        try {
+            assertTrue(dataLoader.reload(export));
+
+            DataSnapshot reloaded = dataLoader.getSnapshot();
+            assertEquals("Ann", reloaded.getPersons().getFirst().getFirstName());
+            assertEquals(1, reloaded.getPersons().size());
+            assertEquals("7", reloaded.findHousehold("9 Elm St").station());
+            assertEquals(1, meterRegistry.get("safetynet.data.reload").tag("outcome", "success").timer().count());
+        } finally {
+            dataLoader.shutdown();
+        }
+
+        DataLoader restarted = new DataLoader(properties, meterRegistry);
+        restarted.start();
+        try {
+            assertEquals(1, restarted.getSnapshot().getPersons().size());
+        } finally {
+            restarted.shutdown();
+        }
+    }
+
+    /**
+     * Tests that a restart from a binary snapshot serves the medical records
+     * it maps, medications and allergies included.
+     */
+    @Test
+    void testRestartFromBinarySnapshot() throws IOException {
+        properties.setSnapshotFormat(SnapshotFormat.BINARY);
+        Path export = Files.writeString(tempDir.resolve("export.json"), EXPORT.replace("\"medicalrecords\": []", """
+                "medicalrecords": [{"firstName": "Ann", "lastName": "Lee", "birthdate": "03/06/1984",
+                                    "medications": ["aznol:350mg"], "allergies": ["nillacilan"]}]"""));
+        DataLoader dataLoader = new DataLoader(properties, meterRegistry);
+        dataLoader.start();
+        try {
+            assertTrue(dataLoader.reload(export));
+        } finally {
+            dataLoader.shutdown();
+        }
+
+        DataLoader restarted = new DataLoader(properties, meterRegistry);
+        restarted.start();
+        try {
+            MedicalRecord record = restarted.getSnapshot().findMedicalRecord("ann", "LEE");
+            assertEquals(LocalDate.of(1984, 3, 6), record.getBirthdate());
+            assertEquals(List.of("aznol:350mg"), record.getMedications());
+            assertEquals(List.of("nillacilan"), record.getAllergies());
+        } finally {
+            restarted.shutdown();
+        }
+    }
+
+    /**
+     * Tests that a {@code data.json} replaced while the application was down is
+     * loaded at the next start, over the data set stored before.
+     */
+    @Test
+    void testChangedSeedIsReloadedAtStartup() throws IOException {
+        DataLoader dataLoader = new DataLoader(properties, meterRegistry);
+        dataLoader.start();
+        dataLoader.shutdown();
+
+        Path seed = Files.writeString(tempDir.resolve("data/data.json"), EXPORT);
+        Files.setLastModifiedTime(seed, FileTime.fromMillis(Files.getLastModifiedTime(seed).toMillis() + 60_000));
+
+        DataLoader restarted = new DataLoader(properties, meterRegistry);
+        restarted.start();
+        try {
+            assertEquals("Ann", restarted.getSnapshot().getPersons().getFirst().getFirstName());
+            assertEquals(1, restarted.getSnapshot().getPersons().size());
+        } finally {
+            restarted.shutdown();
+        }
+
+        DataLoader again = new DataLoader(properties, meterRegistry);
+        again.start();
+        try {
+            assertEquals(1, again.getSnapshot().getPersons().size());
+            assertEquals(1, meterRegistry.get("safetynet.data.reload").tag("outcome", "success").timer().count());
+        } finally {
+            again.shutdown();
+        }
+    }
+
+    /**
+     * Tests that malformed or invalid files are rejected and the current data set is kept.
+     */
+    @Test
+    void testReloadRejectsMalformedFile() throws IOException {
+        Path truncated = Files.writeString(tempDir.resolve("truncated.json"), EXPORT.substring(0, 80));
+        Path invalid = Files.writeString(tempDir.resolve("invalid.json"), EXPORT.replace("\"Ann\"", "\"\""));
+        Path empty = Files.writeString(tempDir.resolve("empty.json"), "{}");
+        DataLoader dataLoader = new DataLoader(properties, meterRegistry);
+        dataLoader.start();
+        try {
+            DataSnapshot serving = dataLoader.getSnapshot();
+
+            assertFalse(dataLoader.reload(truncated));
+            assertFalse(dataLoader.reload(invalid));
+            assertFalse(dataLoader.reload(empty));
+
+            assertSame(serving, dataLoader.getSnapshot());
+            assertTrue(serving.getPersons().stream().map(Person::getFirstName).anyMatch("John"::equals));
+            assertEquals(3, meterRegistry.get("safetynet.data.reload").tag("outcome", "rejected").timer().count());
+        } finally {
+            dataLoader.shutdown();
+        }
+    }
+
+    /**
+     * Tests that startup fails, on every restart, when no snapshot is intact
+     * and the journals needed to rebuild from the seed are gone.
+     */
+    @Test
+    void testStartupFailsWithoutIntactSnapshot() throws IOException {
+        Path storage = Files.createDirectories(tempDir.resolve("storage"));
+        Files.writeString(storage.resolve("manifest-3.json"), "{\"persons\":");
+        Files.writeString(storage.resolve("journal-3.log"), "");
+
+        assertThrows(UncheckedIOException.class, () -> new DataLoader(properties, meterRegistry));
+        assertThrows(UncheckedIOException.class, () -> new DataLoader(properties, meterRegistry));
+    }
+
+    /**
+     * Tests that startup fails when a journal other than the newest one is torn,
+     * rather than dropping the mutations recorded after the damage.
+     */
+    @Test
+    void testStartupFailsOnCorruptOlderJournal() throws IOException {
+        Path storage = tempDir.resolve("storage");
+        try (JournalSnapshotStore store = new JournalSnapshotStore(storage, new ObjectMapper())) {
+            store.recover();
+            store.append(JournalEntry.fireStationDeleted("1509 Culver St"));
+            store.rotate();
+            store.append(JournalEntry.fireStationDeleted("29 15th St"));
+        }
+        Path older = storage.resolve("journal-0.log");
+        byte[] content = Files.readAllBytes(older);
+        Files.write(older, Arrays.copyOf(content, content.length - 3));
+
+        assertThrows(UncheckedIOException.class, () -> new DataLoader(properties, meterRegistry));
+    }
+}
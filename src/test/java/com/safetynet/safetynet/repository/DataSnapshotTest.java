@@ -0,0 +1,376 @@
+package com.safetynet.safetynet.repository;
+
+import com.safetynet.safetynet.model.FireStation;
+import com.safetynet.safetynet.model.MedicalRecord;
+import com.safetynet.safetynet.model.Person;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for {@link DataSnapshot}.
+ * <p>
+ * Verifies that the indexes are built from the collections, that a builder
+ * derives a new version without disturbing the one it started from, and that
+ * untouched collections are shared between versions, and that households
+ * are joined on lookup and follow the mutations made through a builder.
+ */
+class DataSnapshotTest {
+
+    private Person john;
+    private Person jane;
+    private MedicalRecord johnRecord;
+    private DataSnapshot snapshot;
+
+    /**
+     * Builds a small snapshot with two residents at one address.
+     */
+    @BeforeEach
+    void setUp() {
+        john = new Person("John", "Doe", "1 Main St", "Culver", "97451", "111-111-1111", "john@example.com");
+        jane = new Person("Jane", "Doe", "1 Main St", "Culver", "97451", "222-222-2222", "jane@example.com");
+        johnRecord = new MedicalRecord("John", "Doe", LocalDate.of(1980, 1, 1), List.of(), List.of());
+
+        snapshot = DataSnapshot.of(
+                List.of(john, jane),
+                List.of(new FireStation("1 Main St", "1"), new FireStation("2 Side St", "1")),
+                List.of(johnRecord));
+    }
+
+    /**
+     * Tests that lookups are answered from the indexes.
+     */
+    @Test
+    void testLookups() {
+        assertEquals(List.of(john, jane), snapshot.findPersonsByAddress("1 Main St"));
+        assertSame(johnRecord, snapshot.findMedicalRecord("JOHN", "doe"));
+        assertEquals(List.of("1 Main St", "2 Side St"), List.copyOf(snapshot.findAddressesByStation("1")));
+        assertEquals(Set.of("1"), snapshot.findStationsByAddress("2 Side St"));
+        assertEquals(List.of(john, jane), snapshot.findPersonsByLastName("DOE"));
+        assertTrue(snapshot.findPersonsByAddress("9 Nowhere").isEmpty());
+        assertTrue(snapshot.findPersonsByLastName("White").isEmpty());
+        assertNull(snapshot.findMedicalRecord("Alice", "White"));
+    }
+
+    /**
+     * Tests that a derived version leaves the original snapshot unchanged.
+     */
+    @Test
+    void testBuilderDoesNotAlterBase() {
+        Person movedJohn = new Person("John", "Doe", "3 Oak St", "Culver", "97451", "111-111-1111", "john@example.com");
+
+        DataSnapshot.Builder builder = snapshot.toBuilder().replacePerson(0, movedJohn);
+        assertTrue(builder.removePersonsIf(p -> p.getFirstName().equals("Jane")));
+        DataSnapshot next = builder.build();
+
+        assertEquals(List.of(movedJohn), next.getPersons());
+        assertTrue(next.findPersonsByAddress("1 Main St").isEmpty());
+        assertEquals(List.of(movedJohn), next.findPersonsByAddress("3 Oak St"));
+        assertEquals(List.of(movedJohn), next.findPersonsByLastName("doe"));
+
+        assertEquals(List.of(john, jane), snapshot.getPersons());
+        assertEquals(List.of(john, jane), snapshot.findPersonsByAddress("1 Main St"));
+        assertEquals(List.of(john, jane), snapshot.findPersonsByLastName("Doe"));
+        assertTrue(snapshot.findPersonsByAddress("3 Oak St").isEmpty());
+    }
+
+    /**
+     * Tests that collections a builder did not touch are shared with the new version.
+     */
+    @Test
+    void testUntouchedCollectionsAreShared() {
+        DataSnapshot next = snapshot.toBuilder()
+                .addFireStation(new FireStation("3 Oak St", "2"))
+                .build();
+
+        assertSame(snapshot.getPersons(), next.getPersons());
+        assertSame(snapshot.getMedicalRecords(), next.getMedicalRecords());
+        assertEquals(Set.of("3 Oak St"), next.findAddressesByStation("2"));
+        assertTrue(snapshot.findAddressesByStation("2").isEmpty());
+    }
+
+    /**
+     * Tests that a builder with nothing to remove returns the same snapshot.
+     */
+    @Test
+    void testNoOpBuilderReturnsBase() {
+        DataSnapshot.Builder builder = snapshot.toBuilder();
+
+        assertFalse(builder.removeMedicalRecordsIf(r -> r.getFirstName().equals("Nobody")));
+        assertSame(snapshot, builder.build());
+    }
+
+    /**
+     * Tests that a city's emails stay distinct and follow moves and removals,
+     * an email shared by two persons leaving only with the last of them.
+     */
+    @Test
+    void testEmailsByCity() {
+        Person sharing = new Person("Joe", "Doe", "2 Side St", "CULVER", "97451", "333-333-3333", "john@example.com");
+        Person noEmail = new Person("Ann", "Lee", "2 Side St", "Culver", "97451", "444-444-4444", "");
+        DataSnapshot next = snapshot.toBuilder().addPerson(sharing).addPerson(noEmail).build();
+
+        assertEquals(List.of("john@example.com", "jane@example.com"), List.copyOf(next.findEmailsByCity("culver")));
+        assertTrue(next.findEmailsByCity("Paris").isEmpty());
+
+        DataSnapshot.Builder builder = next.toBuilder();
+        assertTrue(builder.removePersonsIf(p -> p.getFirstName().equals("John")));
+        builder.replacePerson(0, new Person("Jane", "Doe", "1 Main St", "Paris", "75001", "222-222-2222", "jane@example.com"));
+        DataSnapshot moved = builder.build();
+
+        assertEquals(Set.of("john@example.com"), moved.findEmailsByCity("Culver"));
+        assertEquals(Set.of("jane@example.com"), moved.findEmailsByCity("Paris"));
+        assertEquals(Set.of("john@example.com", "jane@example.com"), next.findEmailsByCity("Culver"));
+    }
+
+    /**
+     * Tests that a station's phones follow residents moving or changing number,
+     * and mappings being added and removed, duplicated mappings included.
+     */
+    @Test
+    void testPhonesByStation() {
+        assertEquals(List.of("111-111-1111", "222-222-2222"), List.copyOf(snapshot.findPhonesByStation("1")));
+
+        DataSnapshot.Builder builder = snapshot.toBuilder()
+                .replacePerson(1, new Person("Jane", "Doe", "3 Oak St", "Culver", "97451", "222-222-2222", "jane@example.com"))
+                .addPerson(new Person("Ann", "Lee", "2 Side St", "Culver", "97451", "111-111-1111", "ann@example.com"))
+                .addFireStation(new FireStation("3 Oak St", "2"))
+                .addFireStation(new FireStation("1 Main St", "2"))
+                .addFireStation(new FireStation("1 Main St", "2"));
+        DataSnapshot next = builder.build();
+        assertEquals(Set.of("111-111-1111"), next.findPhonesByStation("1"));
+        assertEquals(Set.of("222-222-2222", "111-111-1111"), next.findPhonesByStation("2"));
+
+        DataSnapshot.Builder unmapped = next.toBuilder();
+        assertTrue(unmapped.removeFireStationsIf(f -> f.getAddress().equals("3 Oak St")));
+        assertTrue(unmapped.removePersonsIf(p -> p.getFirstName().equals("John")));
+        DataSnapshot last = unmapped.replacePerson(1, new Person("Ann", "Lee", "2 Side St", "Culver", "97451",
+                "999-999-9999", "ann@example.com")).build();
+        assertEquals(Set.of("999-999-9999"), last.findPhonesByStation("1"));
+        assertTrue(last.findPhonesByStation("2").isEmpty());
+
+        assertEquals(Set.of("111-111-1111", "222-222-2222"), snapshot.findPhonesByStation("1"));
+        assertTrue(snapshot.findPhonesByStation("9").isEmpty());
+    }
+
+    /**
+     * Tests that a station's census follows residents moving, records changing
+     * and mappings being added and removed, and rolls over when a child comes of age.
+     */
+    @Test
+    void testCensusByStation() {
+        CalendarDay today = CalendarDay.of(LocalDate.of(2024, 6, 1));
+        assertEquals(2, snapshot.findCensusByStation("1").adultsOn(today));
+        assertEquals(0, snapshot.findCensusByStation("1").childrenOn(today));
+
+        MedicalRecord janeRecord = new MedicalRecord("Jane", "Doe", LocalDate.of(2010, 6, 2), List.of(), List.of());
+        DataSnapshot.Builder builder = snapshot.toBuilder()
+                .addMedicalRecord(janeRecord)
+                .addFireStation(new FireStation("1 Main St", "2"))
+                .addFireStation(new FireStation("1 Main St", "2"));
+        DataSnapshot next = builder.build();
+        assertEquals(1, next.findCensusByStation("1").childrenOn(today));
+        assertEquals(1, next.findCensusByStation("2").childrenOn(today));
+        assertEquals(2, next.findCensusByStation("2").getResidents());
+        assertEquals(0, next.findCensusByStation("1").childrenOn(CalendarDay.of(LocalDate.of(2029, 6, 2))));
+        assertEquals(1, next.findCensusByStation("1").childrenOn(today));
+
+        DataSnapshot.Builder moved = next.toBuilder()
+                .replacePerson(1, new Person("Jane", "Doe", "2 Side St", "Culver", "97451", "222-222-2222",
+                        "jane@example.com"))
+                .replaceMedicalRecord(1, new MedicalRecord("Jane", "Doe", LocalDate.of(2000, 1, 1), List.of(),
+                        List.of()));
+        assertTrue(moved.removeFireStationsIf(f -> f.getStation().equals("2")));
+        DataSnapshot last = moved.build();
+        assertEquals(2, last.findCensusByStation("1").adultsOn(today));
+        assertEquals(0, last.findCensusByStation("1").childrenOn(today));
+        assertEquals(0, last.findCensusByStation("2").getResidents());
+
+        assertEquals(1, next.findCensusByStation("2").childrenOn(today));
+        assertEquals(0, snapshot.findCensusByStation("9").getResidents());
+    }
+
+    /**
+     * Tests that households join residents, records and the covering station.
+     */
+    @Test
+    void testHouseholds() {
+        Household household = snapshot.findHousehold("1 Main St");
+
+        assertEquals("1", household.station());
+        assertEquals(List.of(john, jane), household.residents().stream().map(Resident::getPerson).toList());
+        assertSame(johnRecord, household.residents().get(0).getMedicalRecord());
+        assertNull(household.residents().get(1).getMedicalRecord());
+        assertEquals(40, household.residents().get(0).getAge(CalendarDay.of(LocalDate.of(2020, 6, 1))));
+
+        assertTrue(snapshot.findHousehold("2 Side St").residents().isEmpty());
+        assertNull(snapshot.findHousehold("9 Nowhere"));
+    }
+
+    /**
+     * Tests that a household is joined once, on first lookup, and that a derived
+     * version joins the households it dropped again from its own indexes.
+     */
+    @Test
+    void testHouseholdsJoinedOnLookup() {
+        Household mainStreet = snapshot.findHousehold("1 Main St");
+        assertSame(mainStreet, snapshot.findHousehold("1 Main St"));
+
+        Person visitor = new Person("Ann", "Lee", "2 Side St", "Culver", "97451", "333-333-3333", "ann@example.com");
+        DataSnapshot next = snapshot.toBuilder().addPerson(visitor).build();
+
+        assertSame(mainStreet, next.findHousehold("1 Main St"));
+        assertEquals(List.of(visitor), next.findHousehold("2 Side St").residents().stream()
+                .map(Resident::getPerson).toList());
+        assertTrue(snapshot.findHousehold("2 Side St").residents().isEmpty());
+    }
+
+    /**
+     * Tests that a write joins the households it touched, so they are shared
+     * with later versions before anyone looks them up, while a load joins none.
+     */
+    @Test
+    void testWriteJoinsTouchedHouseholds() {
+        Person visitor = new Person("Ann", "Lee", "2 Side St", "Culver", "97451", "333-333-3333", "ann@example.com");
+        DataSnapshot written = snapshot.toBuilder().addPerson(visitor).build();
+        DataSnapshot later = written.toBuilder()
+                .addFireStation(new FireStation("9 Far St", "4"))
+                .build();
+
+        assertSame(written.findHousehold("2 Side St"), later.findHousehold("2 Side St"));
+        assertNotSame(snapshot.findHousehold("1 Main St"), written.findHousehold("1 Main St"));
+    }
+
+    /**
+     * Tests that every kind of mutation rebuilds only the households it affects.
+     */
+    @Test
+    void testHouseholdsFollowMutations() {
+        MedicalRecord janeRecord = new MedicalRecord("Jane", "Doe", LocalDate.of(2010, 1, 1), List.of(), List.of());
+        Person movedJohn = new Person("John", "Doe", "2 Side St", "Culver", "97451", "111-111-1111", "john@example.com");
+        Household mainStreet = snapshot.findHousehold("1 Main St");
+        Household sideStreet = snapshot.findHousehold("2 Side St");
+
+        DataSnapshot withRecord = snapshot.toBuilder().addMedicalRecord(janeRecord).build();
+        assertSame(janeRecord, withRecord.findHousehold("1 Main St").residents().get(1).getMedicalRecord());
+        assertSame(mainStreet.residents().get(0), withRecord.findHousehold("1 Main St").residents().get(0));
+        assertSame(sideStreet, withRecord.findHousehold("2 Side St"));
+
+        DataSnapshot moved = withRecord.toBuilder().replacePerson(0, movedJohn).build();
+        assertEquals(List.of(jane), moved.findHousehold("1 Main St").residents().stream().map(Resident::getPerson).toList());
+        assertSame(johnRecord, moved.findHousehold("2 Side St").residents().get(0).getMedicalRecord());
+
+        DataSnapshot.Builder builder = moved.toBuilder();
+        assertTrue(builder.removeFireStationsIf(f -> f.getAddress().equals("1 Main St")));
+        assertTrue(builder.removeMedicalRecordsIf(r -> r.getFirstName().equals("John")));
+        DataSnapshot next = builder.build();
+        assertNull(next.findHousehold("1 Main St").station());
+        assertNull(next.findHousehold("2 Side St").residents().get(0).getMedicalRecord());
+
+        DataSnapshot.Builder emptied = next.toBuilder();
+        assertTrue(emptied.removePersonsIf(p -> p.getFirstName().equals("Jane")));
+        assertNull(emptied.build().findHousehold("1 Main St"));
+    }
+
+    /**
+     * Tests that removing the indexed record of a name promotes the next record
+     * of that name, ignoring case, in the index, the households and the census.
+     */
+    @Test
+    void testRemovingIndexedRecordPromotesDuplicate() {
+        CalendarDay today = CalendarDay.of(LocalDate.of(2024, 6, 1));
+        MedicalRecord duplicate = new MedicalRecord("JOHN", "doe", LocalDate.of(2015, 1, 1), List.of(), List.of());
+        DataSnapshot withDuplicate = snapshot.toBuilder().addMedicalRecord(duplicate).build();
+        withDuplicate.findHousehold("1 Main St");
+        assertSame(johnRecord, withDuplicate.findMedicalRecord("John", "Doe"));
+
+        DataSnapshot.Builder builder = withDuplicate.toBuilder();
+        assertTrue(builder.removeMedicalRecordsIf(r -> r == johnRecord));
+        DataSnapshot next = builder.build();
+
+        assertEquals(List.of(duplicate), next.getMedicalRecords());
+        assertSame(duplicate, next.findMedicalRecord("John", "Doe"));
+        assertSame(duplicate, next.findHousehold("1 Main St").residents().get(0).getMedicalRecord());
+        assertEquals(1, next.findCensusByStation("1").childrenOn(today));
+        assertEquals(0, withDuplicate.findCensusByStation("1").childrenOn(today));
+    }
+
+    /**
+     * Tests that a household stops having children on the day its youngest resident turns 19.
+     */
+    @Test
+    void testHouseholdChildrenUntil() {
+        MedicalRecord janeRecord = new MedicalRecord("Jane", "Doe", LocalDate.of(2010, 6, 15), List.of(), List.of());
+        Household household = snapshot.toBuilder().addMedicalRecord(janeRecord).build().findHousehold("1 Main St");
+
+        assertTrue(household.hasChildrenOn(CalendarDay.of(LocalDate.of(2029, 6, 14))));
+        assertFalse(household.hasChildrenOn(CalendarDay.of(LocalDate.of(2029, 6, 15))));
+        assertFalse(snapshot.findHousehold("1 Main St").hasChildrenOn(CalendarDay.of(LocalDate.of(1999, 1, 1))));
+    }
+
+    /**
+     * Tests that joining separately built sections yields the snapshot built in one pass.
+     */
+    @Test
+    void testJoinMatchesSequentialBuild() {
+        DataSnapshot.Builder persons = DataSnapshot.empty().toBuilder().addPerson(john).addPerson(jane);
+        DataSnapshot.Builder fireStations = DataSnapshot.empty().toBuilder()
+                .addFireStation(new FireStation("1 Main St", "1"))
+                .addFireStation(new FireStation("2 Side St", "1"));
+        DataSnapshot.Builder records = DataSnapshot.empty().toBuilder().addMedicalRecord(johnRecord);
+
+        DataSnapshot joined = DataSnapshot.join(persons, fireStations, records);
+
+        assertEquals(snapshot.getPersons(), joined.getPersons());
+        assertEquals(snapshot.getFireStations(), joined.getFireStations());
+        assertEquals(List.of(john, jane), joined.findPersonsByLastName("Doe"));
+        assertEquals(snapshot.findPhonesByStation("1"), joined.findPhonesByStation("1"));
+        CalendarDay today = CalendarDay.of(LocalDate.of(2024, 6, 1));
+        assertEquals(2, joined.findCensusByStation("1").getResidents());
+        assertEquals(snapshot.findCensusByStation("1").childrenOn(today),
+                joined.findCensusByStation("1").childrenOn(today));
+        assertSame(johnRecord, joined.findMedicalRecord("John", "Doe"));
+        assertEquals(Set.of("1"), joined.findStationsByAddress("2 Side St"));
+        for (String address : List.of("1 Main St", "2 Side St")) {
+            Household expected = snapshot.findHousehold(address);
+            Household actual = joined.findHousehold(address);
+            assertEquals(expected.station(), actual.station());
+            assertEquals(expected.childrenUntil(), actual.childrenUntil());
+            assertEquals(expected.residents().stream().map(Resident::getMedicalRecord).toList(),
+                    actual.residents().stream().map(Resident::getMedicalRecord).toList());
+        }
+        assertNull(joined.findHousehold("9 Nowhere"));
+
+        DataSnapshot.Builder builder = joined.toBuilder();
+        assertTrue(builder.removeMedicalRecordsIf(r -> r.getFirstName().equals("John")));
+        assertNull(builder.build().findHousehold("1 Main St").residents().get(0).getMedicalRecord());
+    }
+
+    /**
+     * Tests that a builder holding more than its own section is rejected.
+     */
+    @Test
+    void testJoinRejectsMixedSections() {
+        DataSnapshot.Builder mixed = DataSnapshot.empty().toBuilder().addPerson(john).addMedicalRecord(johnRecord);
+        DataSnapshot.Builder empty = DataSnapshot.empty().toBuilder();
+
+        assertThrows(IllegalArgumentException.class,
+                () -> DataSnapshot.join(mixed, empty, DataSnapshot.empty().toBuilder()));
+        assertThrows(IllegalArgumentException.class,
+                () -> DataSnapshot.join(empty, snapshot.toBuilder(), empty));
+    }
+
+    /**
+     * Tests that published lists cannot be modified.
+     */
+    @Test
+    void testListsAreUnmodifiable() {
+        assertThrows(UnsupportedOperationException.class, () -> snapshot.getPersons().add(john));
+        assertThrows(UnsupportedOperationException.class, () -> snapshot.findPersonsByAddress("1 Main St").clear());
+    }
+}
@@ -2,11 +2,15 @@ package com.safetynet.safetynet.repository;
 
 import com.safetynet.safetynet.model.FireStation;
 import com.safetynet.safetynet.repository.impl.FireStationRepositoryImpl;
+import com.safetynet.safetynet.repository.persistence.JournalEntry;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.Mockito.*;
@@ -23,6 +27,7 @@ class FireStationRepositoryImplTest {
     private FireStationRepositoryImpl repository;
 
     private List<FireStation> mockData;
+    private AtomicReference<DataSnapshot> snapshot;
 
     /**
      * Sets up the test environment before each test.
@@ -32,13 +37,19 @@ class FireStationRepositoryImplTest {
     @BeforeEach
     void setUp() {
         dataLoader = mock(DataLoader.class);
+        when(dataLoader.getLock()).thenReturn(new ReentrantReadWriteLock());
         repository = new FireStationRepositoryImpl(dataLoader);
 
         mockData = new ArrayList<>();
         mockData.add(new FireStation("123 Main St", "1"));
         mockData.add(new FireStation("456 Oak Ave", "2"));
 
-        when(dataLoader.getFireStations()).thenReturn(mockData);
+        snapshot = new AtomicReference<>(DataSnapshot.of(List.of(), mockData, List.of()));
+        when(dataLoader.getSnapshot()).thenAnswer(invocation -> snapshot.get());
+        doAnswer(invocation -> {
+            snapshot.set(invocation.getArgument(0));
+            return null;
+        }).when(dataLoader).publish(any());
     }
 
     /**
@@ -53,7 +64,7 @@ class FireStationRepositoryImplTest {
 
         assertEquals(2, result.size());
         assertEquals("123 Main St", result.get(0).getAddress());
-        verify(dataLoader, times(1)).getFireStations();
+        verify(dataLoader, times(1)).getSnapshot();
     }
 
     /**
@@ -68,8 +79,8 @@ class FireStationRepositoryImplTest {
 
         repository.addFireStation(newStation);
 
-        assertTrue(mockData.contains(newStation));
-        verify(dataLoader, times(1)).setFireStations(mockData);
+        assertTrue(repository.getAllFireStations().contains(newStation));
+        verify(dataLoader, times(1)).append(JournalEntry.fireStationAdded(newStation));
     }
 
     /**
@@ -86,7 +97,7 @@ class FireStationRepositoryImplTest {
 
         assertNotNull(result);
         assertEquals("5", result.getStation());
-        verify(dataLoader, times(1)).setFireStations(mockData);
+        verify(dataLoader, times(1)).append(JournalEntry.fireStationUpdated("123 Main St", result));
     }
 
     /**
@@ -101,7 +112,7 @@ class FireStationRepositoryImplTest {
         FireStation result = repository.updateFireStation("999 Elm St", updatedStation);
 
         assertNull(result);
-        verify(dataLoader, never()).setFireStations(anyList());
+        verify(dataLoader, never()).append(any());
     }
 
     /**
@@ -114,8 +125,8 @@ class FireStationRepositoryImplTest {
         boolean result = repository.deleteFireStation("456 Oak Ave");
 
         assertTrue(result);
-        verify(dataLoader, times(1)).setFireStations(mockData);
-        assertEquals(1, mockData.size());
+        verify(dataLoader, times(1)).append(JournalEntry.fireStationDeleted("456 Oak Ave"));
+        assertEquals(1, repository.getAllFireStations().size());
     }
 
     /**
@@ -128,6 +139,44 @@ class FireStationRepositoryImplTest {
         boolean result = repository.deleteFireStation("999 Elm St");
 
         assertFalse(result);
-        verify(dataLoader, never()).setFireStations(anyList());
+        verify(dataLoader, never()).append(any());
+    }
+
+    /**
+     * Tests the station to addresses and address to station lookups.
+     * <p>
+     * Verifies that both directions of the index reflect the loaded mappings.
+     */
+    @Test
+    void testFindAddressesAndStations() {
+        mockData.add(new FireStation("789 Pine Rd", "1"));
+        snapshot.set(DataSnapshot.of(List.of(), mockData, List.of()));
+
+        assertEquals(Set.of("123 Main St", "789 Pine Rd"), repository.findAddressesByStation("1"));
+        assertEquals(Set.of("2"), repository.findStationsByAddress("456 Oak Ave"));
+        assertTrue(repository.findAddressesByStation("9").isEmpty());
+        assertTrue(repository.findStationsByAddress("999 Elm St").isEmpty());
+    }
+
+    /**
+     * Tests that the index follows adds, updates and deletes.
+     * <p>
+     * Verifies that an address moves between stations on update and leaves
+     * the index on deletion, while duplicate mappings are reference counted.
+     */
+    @Test
+    void testIndexAfterMutations() {
+        repository.addFireStation(new FireStation("123 Main St", "1"));
+        repository.addFireStation(new FireStation("789 Pine Rd", "3"));
+        assertEquals(Set.of("789 Pine Rd"), repository.findAddressesByStation("3"));
+
+        repository.updateFireStation("123 Main St", new FireStation("123 Main St", "5"));
+        assertEquals(Set.of("123 Main St"), repository.findAddressesByStation("1"));
+        assertEquals(Set.of("1", "5"), repository.findStationsByAddress("123 Main St"));
+
+        repository.deleteFireStation("123 Main St");
+        assertTrue(repository.findStationsByAddress("123 Main St").isEmpty());
+        assertTrue(repository.findAddressesByStation("1").isEmpty());
+        assertTrue(repository.findAddressesByStation("5").isEmpty());
     }
 }
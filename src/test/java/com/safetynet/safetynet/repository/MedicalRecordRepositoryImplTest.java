@@ -2,6 +2,7 @@ package com.safetynet.safetynet.repository;
 
 import com.safetynet.safetynet.model.MedicalRecord;
 import com.safetynet.safetynet.repository.impl.MedicalRecordRepositoryImpl;
+import com.safetynet.safetynet.repository.persistence.JournalEntry;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 
@@ -9,6 +10,8 @@ import java.time.LocalDate;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.Mockito.*;
@@ -24,6 +27,7 @@ class MedicalRecordRepositoryImplTest {
     private DataLoader dataLoader;
     private MedicalRecordRepositoryImpl repository;
     private List<MedicalRecord> mockData;
+    private AtomicReference<DataSnapshot> snapshot;
 
     /**
      * Initializes the test environment before each test.
@@ -33,6 +37,7 @@ class MedicalRecordRepositoryImplTest {
     @BeforeEach
     void setUp() {
         dataLoader = mock(DataLoader.class);
+        when(dataLoader.getLock()).thenReturn(new ReentrantReadWriteLock());
         repository = new MedicalRecordRepositoryImpl(dataLoader);
 
         mockData = new ArrayList<>();
@@ -41,7 +46,12 @@ class MedicalRecordRepositoryImplTest {
         mockData.add(new MedicalRecord("Jane", "Smith", LocalDate.of(1990, 2, 2),
                 List.of("aspirin:50mg"), List.of("nuts")));
 
-        when(dataLoader.getMedicalRecords()).thenReturn(mockData);
+        snapshot = new AtomicReference<>(DataSnapshot.of(List.of(), List.of(), mockData));
+        when(dataLoader.getSnapshot()).thenAnswer(invocation -> snapshot.get());
+        doAnswer(invocation -> {
+            snapshot.set(invocation.getArgument(0));
+            return null;
+        }).when(dataLoader).publish(any());
     }
 
     /**
@@ -56,7 +66,26 @@ class MedicalRecordRepositoryImplTest {
         assertNotNull(result);
         assertEquals(2, result.size());
         assertEquals("John", result.getFirst().getFirstName());
-        verify(dataLoader, times(1)).getMedicalRecords();
+        verify(dataLoader, times(1)).getSnapshot();
+    }
+
+    /**
+     * Tests that reading all medical records does not copy the data set.
+     * <p>
+     * Verifies that the same read-only list is returned until a write publishes
+     * a new one, and that the earlier list is left untouched by that write.
+     */
+    @Test
+    void testGetAllMedicalRecordsIsZeroCopy() {
+        List<MedicalRecord> first = repository.getAllMedicalRecords();
+
+        assertSame(first, repository.getAllMedicalRecords());
+        assertThrows(UnsupportedOperationException.class, () -> first.remove(0));
+
+        repository.addMedicalRecord(new MedicalRecord("Alice", "White", LocalDate.of(2000, 3, 3), List.of(), List.of()));
+
+        assertEquals(2, first.size());
+        assertEquals(3, repository.getAllMedicalRecords().size());
     }
 
     /**
@@ -71,8 +100,8 @@ class MedicalRecordRepositoryImplTest {
 
         repository.addMedicalRecord(newRecord);
 
-        assertTrue(mockData.contains(newRecord));
-        verify(dataLoader, times(1)).setMedicalRecords(mockData);
+        assertTrue(repository.getAllMedicalRecords().contains(newRecord));
+        verify(dataLoader, times(1)).append(JournalEntry.medicalRecordAdded(newRecord));
     }
 
     /**
@@ -90,7 +119,7 @@ class MedicalRecordRepositoryImplTest {
         assertNotNull(result);
         assertEquals(LocalDate.of(1985, 5, 5), result.getBirthdate());
         assertEquals(List.of("newmed:10mg"), result.getMedications());
-        verify(dataLoader, times(1)).setMedicalRecords(mockData);
+        verify(dataLoader, times(1)).append(JournalEntry.medicalRecordUpdated("John", "Doe", result));
     }
 
     /**
@@ -106,7 +135,7 @@ class MedicalRecordRepositoryImplTest {
         MedicalRecord result = repository.updateMedicalRecord("Unknown", "Person", updatedRecord);
 
         assertNull(result);
-        verify(dataLoader, never()).setMedicalRecords(anyList());
+        verify(dataLoader, never()).append(any());
     }
 
     /**
@@ -119,8 +148,8 @@ class MedicalRecordRepositoryImplTest {
         boolean result = repository.deleteMedicalRecord("Jane", "Smith");
 
         assertTrue(result);
-        assertEquals(1, mockData.size());
-        verify(dataLoader, times(1)).setMedicalRecords(mockData);
+        assertEquals(1, repository.getAllMedicalRecords().size());
+        verify(dataLoader, times(1)).append(JournalEntry.medicalRecordDeleted("Jane", "Smith"));
     }
 
     /**
@@ -133,7 +162,7 @@ class MedicalRecordRepositoryImplTest {
         boolean result = repository.deleteMedicalRecord("Unknown", "Person");
 
         assertFalse(result);
-        verify(dataLoader, never()).setMedicalRecords(anyList());
+        verify(dataLoader, never()).append(any());
     }
 
     /**
@@ -147,7 +176,7 @@ class MedicalRecordRepositoryImplTest {
 
         assertNotNull(result);
         assertEquals(LocalDate.of(1980, 1, 1), result.getBirthdate());
-        verify(dataLoader, times(1)).getMedicalRecords();
+        verify(dataLoader, times(1)).getSnapshot();
     }
 
     /**
@@ -160,6 +189,36 @@ class MedicalRecordRepositoryImplTest {
         MedicalRecord result = repository.findByFirstNameAndLastName("Alice", "White");
 
         assertNull(result);
-        verify(dataLoader, times(1)).getMedicalRecords();
+        verify(dataLoader, times(1)).getSnapshot();
+    }
+
+    /**
+     * Tests that lookups by name ignore case.
+     * <p>
+     * Verifies that the name index normalizes both stored and requested names.
+     */
+    @Test
+    void testFindByFirstNameAndLastNameIgnoresCase() {
+        MedicalRecord result = repository.findByFirstNameAndLastName("JOHN", "doe");
+
+        assertNotNull(result);
+        assertEquals("John", result.getFirstName());
+    }
+
+    /**
+     * Tests that the name index follows adds and deletes.
+     * <p>
+     * Verifies that a new record is found immediately and a deleted one is no longer returned.
+     */
+    @Test
+    void testFindByFirstNameAndLastNameAfterMutations() {
+        assertNotNull(repository.findByFirstNameAndLastName("Jane", "Smith"));
+
+        MedicalRecord newRecord = new MedicalRecord("Alice", "Brown", LocalDate.of(2000, 3, 3), List.of(), List.of());
+        repository.addMedicalRecord(newRecord);
+        assertSame(newRecord, repository.findByFirstNameAndLastName("Alice", "Brown"));
+
+        repository.deleteMedicalRecord("Jane", "Smith");
+        assertNull(repository.findByFirstNameAndLastName("Jane", "Smith"));
     }
 }
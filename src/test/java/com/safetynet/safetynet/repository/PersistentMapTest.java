@@ -0,0 +1,104 @@
+package com.safetynet.safetynet.repository;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for {@link PersistentMap}.
+ * <p>
+ * Verifies that a long series of changes, colliding hashes included, keeps
+ * the map equal to a {@link HashMap} applying the same changes, and that
+ * versions handed out earlier never see later changes.
+ */
+class PersistentMapTest {
+
+    /**
+     * Key whose hash only takes a few values, so most keys collide.
+     */
+    private record Colliding(int id) {
+        @Override
+        public int hashCode() {
+            return id % 3;
+        }
+    }
+
+    /**
+     * Tests that random puts and removes through an editor match a {@link HashMap}.
+     */
+    @Test
+    void testMatchesHashMap() {
+        Random random = new Random(42);
+        Map<Object, Integer> expected = new HashMap<>();
+        PersistentMap.Editor<Object, Integer> editor = PersistentMap.<Object, Integer>empty().edit();
+        for (int i = 0; i < 20_000; i++) {
+            Object key = random.nextInt(4) == 0 ? new Colliding(random.nextInt(50)) : random.nextInt(5_000);
+            if (random.nextInt(3) == 0) {
+                expected.remove(key);
+                editor.remove(key);
+            } else {
+                expected.put(key, i);
+                editor.put(key, i);
+            }
+            assertEquals(expected.size(), editor.size());
+        }
+        PersistentMap<Object, Integer> published = editor.publish();
+        assertEquals(expected, published);
+        expected.forEach((key, value) -> assertEquals(value, published.get(key)));
+    }
+
+    /**
+     * Tests that a published version is not changed by later edits, in place or not.
+     */
+    @Test
+    void testVersionsAreIndependent() {
+        PersistentMap.Editor<Integer, String> editor = PersistentMap.<Integer, String>empty().edit();
+        for (int i = 0; i < 1_000; i++) {
+            editor.put(i, "v" + i);
+        }
+        PersistentMap<Integer, String> first = editor.publish();
+        editor.put(1, "changed");
+        editor.remove(2);
+        PersistentMap<Integer, String> second = editor.publish();
+        PersistentMap<Integer, String> third = second.plus(3, "plus").minus(4);
+
+        assertEquals(1_000, first.size());
+        assertEquals("v1", first.get(1));
+        assertEquals("v2", first.get(2));
+        assertEquals("changed", second.get(1));
+        assertFalse(second.containsKey(2));
+        assertEquals("v3", second.get(3));
+        assertEquals("plus", third.get(3));
+        assertTrue(second.containsKey(4));
+        assertFalse(third.containsKey(4));
+    }
+
+    /**
+     * Tests that a {@code null} key is allowed and that an identity map tells equal keys apart.
+     */
+    @Test
+    void testNullAndIdentityKeys() {
+        PersistentMap<String, Integer> map = PersistentMap.<String, Integer>empty().plus(null, 1);
+        assertEquals(1, map.get(null));
+        assertTrue(map.minus(null).isEmpty());
+
+        String key = new String("key");
+        PersistentMap<String, Integer> identity = PersistentMap.<String, Integer>identity().plus(key, 1);
+        assertEquals(1, identity.get(key));
+        assertNull(identity.get(new String("key")));
+    }
+
+    /**
+     * Tests that a change leaving the map as it was returns the same version.
+     */
+    @Test
+    void testUnchangedVersionIsShared() {
+        PersistentMap<String, Integer> map = PersistentMap.<String, Integer>empty().plus("a", 1);
+        assertSame(map, map.minus("b"));
+        assertSame(map, map.plus("a", map.get("a")));
+    }
+}
@@ -0,0 +1,103 @@
+package com.safetynet.safetynet.repository;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for {@link PersistentSequence}.
+ * <p>
+ * Verifies that appends, removals and replacements keep insertion order and
+ * positions, across the switch between the small array and the trie, and
+ * that versions handed out earlier never see later changes.
+ */
+class PersistentSequenceTest {
+
+    /**
+     * Tests that random changes under one edit token match an {@link ArrayList} of distinct elements.
+     */
+    @Test
+    void testMatchesList() {
+        Random random = new Random(42);
+        List<Integer> expected = new ArrayList<>();
+        PersistentSequence<Integer> sequence = PersistentSequence.empty();
+        Object edit = new Object();
+        for (int i = 0; i < 20_000; i++) {
+            Integer element = random.nextInt(2_000);
+            int choice = random.nextInt(5);
+            if (choice < 2) {
+                expected.remove(element);
+                sequence = sequence.minus(element, edit);
+            } else if (choice == 2 && expected.contains(element)) {
+                Integer replacement = 10_000 + i;
+                expected.set(expected.indexOf(element), replacement);
+                sequence = sequence.replace(element, replacement, edit);
+            } else if (!expected.contains(element)) {
+                expected.add(element);
+                sequence = sequence.plus(element, edit);
+            }
+            assertEquals(expected.size(), sequence.size());
+        }
+        assertEquals(expected, sequence);
+        for (int i = 0; i < expected.size(); i++) {
+            assertEquals(expected.get(i), sequence.get(i));
+            assertEquals(i, sequence.indexOf(expected.get(i)));
+        }
+    }
+
+    /**
+     * Tests that a version is not changed by later changes under a new token.
+     */
+    @Test
+    void testVersionsAreIndependent() {
+        PersistentSequence<Integer> sequence = PersistentSequence.empty();
+        Object edit = new Object();
+        for (int i = 0; i < 1_000; i++) {
+            sequence = sequence.plus(i, edit);
+        }
+        PersistentSequence<Integer> first = sequence;
+        Object next = new Object();
+        PersistentSequence<Integer> second = first.minus(0, next).replace(1, -1, next).plus(1_000, next);
+
+        assertEquals(1_000, first.size());
+        assertEquals(0, first.get(0));
+        assertEquals(1, first.get(1));
+        assertEquals(1_000, second.size());
+        assertEquals(-1, second.get(0));
+        assertEquals(1_000, second.get(999));
+    }
+
+    /**
+     * Tests that an identity sequence holds equal elements apart, and that adding one twice does nothing.
+     */
+    @Test
+    void testIdentityAndDuplicates() {
+        String a = new String("same");
+        String b = new String("same");
+        PersistentSequence<String> sequence = PersistentSequence.<String>identity().plus(a, null).plus(b, null);
+
+        assertEquals(2, sequence.size());
+        assertEquals(1, sequence.indexOf(b));
+        assertSame(sequence, sequence.plus(a, null));
+        assertSame(b, sequence.minus(a, null).get(0));
+        assertThrows(IllegalArgumentException.class, () -> sequence.replace(a, b, null));
+    }
+
+    /**
+     * Tests that {@code null} is an element like any other.
+     */
+    @Test
+    void testNullElement() {
+        PersistentSequence<String> sequence = PersistentSequence.empty();
+        for (int i = 0; i < 40; i++) {
+            sequence = sequence.plus(i == 20 ? null : "e" + i, null);
+        }
+        assertEquals(20, sequence.indexOf(null));
+        assertNull(sequence.get(20));
+        assertFalse(sequence.minus(null, null).contains(null));
+    }
+}
@@ -2,11 +2,14 @@ package com.safetynet.safetynet.repository;
 
 import com.safetynet.safetynet.model.Person;
 import com.safetynet.safetynet.repository.impl.PersonRepositoryImpl;
+import com.safetynet.safetynet.repository.persistence.JournalEntry;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 
 import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.Mockito.*;
@@ -22,6 +25,7 @@ class PersonRepositoryImplTest {
     private DataLoader dataLoader;
     private PersonRepositoryImpl repository;
     private List<Person> mockData;
+    private AtomicReference<DataSnapshot> snapshot;
 
     /**
      * Initializes the test environment before each test.
@@ -31,13 +35,19 @@ class PersonRepositoryImplTest {
     @BeforeEach
     void setUp() {
         dataLoader = mock(DataLoader.class);
+        when(dataLoader.getLock()).thenReturn(new ReentrantReadWriteLock());
         repository = new PersonRepositoryImpl(dataLoader);
 
         mockData = new ArrayList<>();
         mockData.add(new Person("John", "Doe", "123 Main St", "Culver", "97451", "841-874-6512", "john.doe@example.com"));
         mockData.add(new Person("Jane", "Smith", "456 Oak St", "Springfield", "12345", "123-456-7890", "jane.smith@example.com"));
 
-        when(dataLoader.getPersons()).thenReturn(mockData);
+        snapshot = new AtomicReference<>(DataSnapshot.of(mockData, List.of(), List.of()));
+        when(dataLoader.getSnapshot()).thenAnswer(invocation -> snapshot.get());
+        doAnswer(invocation -> {
+            snapshot.set(invocation.getArgument(0));
+            return null;
+        }).when(dataLoader).publish(any());
     }
 
     /**
@@ -52,7 +62,26 @@ class PersonRepositoryImplTest {
         assertNotNull(result);
         assertEquals(2, result.size());
         assertEquals("John", result.get(0).getFirstName());
-        verify(dataLoader, times(1)).getPersons();
+        verify(dataLoader, times(1)).getSnapshot();
+    }
+
+    /**
+     * Tests that reading all persons does not copy the data set.
+     * <p>
+     * Verifies that the same read-only list is returned until a write publishes
+     * a new one, and that the earlier list is left untouched by that write.
+     */
+    @Test
+    void testGetAllPersonsIsZeroCopy() {
+        List<Person> first = repository.getAllPersons();
+
+        assertSame(first, repository.getAllPersons());
+        assertThrows(UnsupportedOperationException.class, () -> first.remove(0));
+
+        repository.addPerson(new Person("Alice", "Brown", "123 Main St", "Culver", "97451", "555-555-5555", "alice@example.com"));
+
+        assertEquals(2, first.size());
+        assertEquals(3, repository.getAllPersons().size());
     }
 
     /**
@@ -66,8 +95,8 @@ class PersonRepositoryImplTest {
 
         repository.addPerson(newPerson);
 
-        assertTrue(mockData.contains(newPerson));
-        verify(dataLoader, times(1)).setPersons(mockData);
+        assertTrue(repository.getAllPersons().contains(newPerson));
+        verify(dataLoader, times(1)).append(JournalEntry.personAdded(newPerson));
     }
 
     /**
@@ -84,7 +113,25 @@ class PersonRepositoryImplTest {
         assertNotNull(result);
         assertEquals("999 Elm St", result.getAddress());
         assertEquals("john.new@example.com", result.getEmail());
-        verify(dataLoader, times(1)).setPersons(mockData);
+        verify(dataLoader, times(1)).append(JournalEntry.personUpdated("John", "Doe", result));
+    }
+
+    /**
+     * Tests that an update finds the person ignoring case and, among namesakes,
+     * replaces the first one in place.
+     */
+    @Test
+    void testUpdatePersonReplacesFirstNamesakeInPlace() {
+        repository.addPerson(new Person("John", "Doe", "1 Other St", "Culver", "97451", "111-111-1111", "other@example.com"));
+        Person updatedPerson = new Person("John", "Doe", "999 Elm St", "Culver", "97451", "000-000-0000", "john.new@example.com");
+
+        Person result = repository.updatePerson("JOHN", "doe", updatedPerson);
+
+        List<Person> persons = repository.getAllPersons();
+        assertSame(result, persons.get(0));
+        assertEquals("John", result.getFirstName());
+        assertEquals("1 Other St", persons.get(2).getAddress());
+        assertEquals(List.of(result), repository.findByAddress("999 Elm St"));
     }
 
     /**
@@ -99,7 +146,7 @@ class PersonRepositoryImplTest {
         Person result = repository.updatePerson("Unknown", "Person", updatedPerson);
 
         assertNull(result);
-        verify(dataLoader, never()).setPersons(anyList());
+        verify(dataLoader, never()).append(any());
     }
 
     /**
@@ -112,8 +159,8 @@ class PersonRepositoryImplTest {
         boolean result = repository.deletePerson("Jane", "Smith");
 
         assertTrue(result);
-        assertEquals(1, mockData.size());
-        verify(dataLoader, times(1)).setPersons(mockData);
+        assertEquals(1, repository.getAllPersons().size());
+        verify(dataLoader, times(1)).append(JournalEntry.personDeleted("Jane", "Smith"));
     }
 
     /**
@@ -126,6 +173,45 @@ class PersonRepositoryImplTest {
         boolean result = repository.deletePerson("Unknown", "Person");
 
         assertFalse(result);
-        verify(dataLoader, never()).setPersons(anyList());
+        verify(dataLoader, never()).append(any());
+    }
+
+    /**
+     * Tests lookup of residents by address.
+     * <p>
+     * Verifies that only persons living at the exact address are returned.
+     */
+    @Test
+    void testFindByAddress() {
+        mockData.add(new Person("Jack", "Doe", "123 Main St", "Culver", "97451", "841-874-6513", "jack.doe@example.com"));
+        snapshot.set(DataSnapshot.of(mockData, List.of(), List.of()));
+
+        List<Person> result = repository.findByAddress("123 Main St");
+
+        assertEquals(2, result.size());
+        assertTrue(result.stream().allMatch(p -> p.getAddress().equals("123 Main St")));
+        assertTrue(repository.findByAddress("999 Nowhere").isEmpty());
+    }
+
+    /**
+     * Tests that the address index follows adds, updates and deletes.
+     * <p>
+     * Verifies that a person moves between addresses on update and
+     * disappears from the index on deletion.
+     */
+    @Test
+    void testFindByAddressAfterMutations() {
+        assertEquals(1, repository.findByAddress("123 Main St").size());
+
+        repository.addPerson(new Person("Alice", "Brown", "123 Main St", "Culver", "97451", "555-555-5555", "alice@example.com"));
+        assertEquals(2, repository.findByAddress("123 Main St").size());
+
+        repository.updatePerson("John", "Doe",
+                new Person("John", "Doe", "999 Elm St", "Culver", "97451", "841-874-6512", "john.doe@example.com"));
+        assertEquals(1, repository.findByAddress("123 Main St").size());
+        assertEquals("John", repository.findByAddress("999 Elm St").getFirst().getFirstName());
+
+        repository.deletePerson("Alice", "Brown");
+        assertTrue(repository.findByAddress("123 Main St").isEmpty());
     }
 }
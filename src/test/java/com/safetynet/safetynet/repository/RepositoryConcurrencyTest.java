@@ -0,0 +1,214 @@
+package com.safetynet.safetynet.repository;
+
+import com.safetynet.safetynet.model.FireStation;
+import com.safetynet.safetynet.model.MedicalRecord;
+import com.safetynet.safetynet.model.Person;
+import com.safetynet.safetynet.repository.impl.FireStationRepositoryImpl;
+import com.safetynet.safetynet.repository.impl.MedicalRecordRepositoryImpl;
+import com.safetynet.safetynet.repository.impl.PersonRepositoryImpl;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * Multi-threaded stress test for the repository layer.
+ * <p>
+ * Writers add, update and delete persons, fire stations and medical records
+ * while readers hammer the lookups. The three repositories share one
+ * {@link DataLoader}, as they do in the application: writers are serialized
+ * by its lock and readers take published snapshots without locking. The test
+ * checks that no reader fails or observes a half-applied update, that every
+ * snapshot is internally consistent, and that the lists, the indexes and the
+ * journal agree once all writers are done.
+ */
+class RepositoryConcurrencyTest {
+
+    private static final int WRITERS = 4;
+    private static final int READERS = 4;
+    private static final int ITERATIONS = 200;
+
+    private static final String[] ADDRESSES = {"1 Alpha St", "2 Beta St", "3 Gamma St"};
+
+    private AtomicReference<DataSnapshot> snapshot;
+    private AtomicInteger journalEntries;
+
+    private PersonRepositoryImpl personRepository;
+    private FireStationRepositoryImpl fireStationRepository;
+    private MedicalRecordRepositoryImpl medicalRecordRepository;
+
+    /**
+     * Wires the three repositories to a stub-only {@link DataLoader} backed by
+     * a real snapshot reference and a real lock, counting journal appends.
+     */
+    @BeforeEach
+    void setUp() {
+        List<FireStation> fireStations = new ArrayList<>();
+        for (int i = 0; i < ADDRESSES.length; i++) {
+            fireStations.add(new FireStation(ADDRESSES[i], String.valueOf(i + 1)));
+        }
+        snapshot = new AtomicReference<>(DataSnapshot.of(List.of(), fireStations, List.of()));
+        journalEntries = new AtomicInteger();
+
+        DataLoader dataLoader = mock(DataLoader.class, withSettings().stubOnly());
+        when(dataLoader.getLock()).thenReturn(new ReentrantReadWriteLock());
+        when(dataLoader.getSnapshot()).thenAnswer(invocation -> snapshot.get());
+        doAnswer(invocation -> {
+            snapshot.set(invocation.getArgument(0));
+            return null;
+        }).when(dataLoader).publish(any());
+        doAnswer(invocation -> journalEntries.incrementAndGet()).when(dataLoader).append(any());
+
+        personRepository = new PersonRepositoryImpl(dataLoader);
+        fireStationRepository = new FireStationRepositoryImpl(dataLoader);
+        medicalRecordRepository = new MedicalRecordRepositoryImpl(dataLoader);
+    }
+
+    /**
+     * Runs concurrent writers and readers and checks the final state.
+     * <p>
+     * Each writer owns its own persons, so the expected outcome is known:
+     * every other person is deleted and the survivors sit at the address of
+     * their last update. Updates always set address and phone together, so a
+     * reader seeing one without the other would reveal a torn write.
+     */
+    @Test
+    void testConcurrentReadsAndWrites() throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(WRITERS + READERS);
+        CountDownLatch start = new CountDownLatch(1);
+        AtomicBoolean writing = new AtomicBoolean(true);
+        AtomicInteger reads = new AtomicInteger();
+        try {
+            List<Future<?>> writers = new ArrayList<>();
+            for (int w = 0; w < WRITERS; w++) {
+                int writer = w;
+                writers.add(executor.submit(task(start, () -> write(writer))));
+            }
+            List<Future<?>> readers = new ArrayList<>();
+            for (int r = 0; r < READERS; r++) {
+                readers.add(executor.submit(task(start, () -> read(writing, reads))));
+            }
+
+            start.countDown();
+            for (Future<?> writer : writers) {
+                writer.get(60, TimeUnit.SECONDS);
+            }
+            writing.set(false);
+            for (Future<?> reader : readers) {
+                reader.get(60, TimeUnit.SECONDS);
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+
+        int survivors = WRITERS * ITERATIONS / 2;
+        assertTrue(reads.get() > 0);
+        assertEquals(survivors, personRepository.getAllPersons().size());
+        assertEquals(survivors, medicalRecordRepository.getAllMedicalRecords().size());
+        assertEquals(ADDRESSES.length, fireStationRepository.getAllFireStations().size());
+
+        int indexed = 0;
+        for (String address : ADDRESSES) {
+            List<Person> residents = personRepository.findByAddress(address);
+            List<Person> scanned = personRepository.getAllPersons().stream()
+                    .filter(p -> p.getAddress().equals(address))
+                    .toList();
+            assertEquals(scanned.size(), residents.size());
+            assertTrue(residents.containsAll(scanned));
+            assertEquals(1, fireStationRepository.findStationsByAddress(address).size());
+            indexed += residents.size();
+        }
+        assertEquals(survivors, indexed);
+
+        // per round: two adds, three updates, and two deletes every other round
+        int expectedEntries = WRITERS * ITERATIONS * 5 + survivors * 2;
+        assertEquals(expectedEntries, journalEntries.get());
+    }
+
+    private void write(int writer) {
+        for (int i = 0; i < ITERATIONS; i++) {
+            String firstName = "W" + writer;
+            String lastName = "N" + i;
+            int slot = i % ADDRESSES.length;
+
+            personRepository.addPerson(person(firstName, lastName, 0));
+            medicalRecordRepository.addMedicalRecord(
+                    new MedicalRecord(firstName, lastName, LocalDate.of(1990, 1, 1), List.of(), List.of()));
+
+            personRepository.updatePerson(firstName, lastName, person(firstName, lastName, slot));
+            medicalRecordRepository.updateMedicalRecord(firstName, lastName,
+                    new MedicalRecord(firstName, lastName, LocalDate.of(2000, 1, 1), List.of("med"), List.of()));
+            fireStationRepository.updateFireStation(ADDRESSES[slot], new FireStation(ADDRESSES[slot], String.valueOf(slot + 1)));
+
+            if (i % 2 == 1) {
+                assertTrue(personRepository.deletePerson(firstName, lastName));
+                assertTrue(medicalRecordRepository.deleteMedicalRecord(firstName, lastName));
+            }
+        }
+    }
+
+    private void read(AtomicBoolean writing, AtomicInteger reads) {
+        do {
+            for (int slot = 0; slot < ADDRESSES.length; slot++) {
+                for (Person resident : personRepository.findByAddress(ADDRESSES[slot])) {
+                    assertEquals(ADDRESSES[slot], resident.getAddress());
+                    assertEquals(phoneFor(slot), resident.getPhone());
+                }
+                assertEquals(List.of(ADDRESSES[slot]),
+                        List.copyOf(fireStationRepository.findAddressesByStation(String.valueOf(slot + 1))));
+            }
+            for (Person person : personRepository.getAllPersons()) {
+                int slot = List.of(ADDRESSES).indexOf(person.getAddress());
+                assertEquals(phoneFor(slot), person.getPhone());
+            }
+            MedicalRecord record = medicalRecordRepository.findByFirstNameAndLastName("W0", "N0");
+            if (record != null) {
+                assertNotNull(record.getBirthdate());
+            }
+            DataSnapshot current = snapshot.get();
+            int indexed = 0;
+            for (String address : ADDRESSES) {
+                indexed += current.findPersonsByAddress(address).size();
+            }
+            assertEquals(current.getPersons().size(), indexed);
+            for (MedicalRecord stored : current.getMedicalRecords()) {
+                assertSame(stored, current.findMedicalRecord(stored.getFirstName(), stored.getLastName()));
+            }
+            reads.incrementAndGet();
+            // leave the writers CPU time on machines with few cores
+            Thread.yield();
+        } while (writing.get());
+    }
+
+    private static Person person(String firstName, String lastName, int slot) {
+        return new Person(firstName, lastName, ADDRESSES[slot], "Culver", "97451", phoneFor(slot),
+                firstName + "." + lastName + "@example.com");
+    }
+
+    private static String phoneFor(int slot) {
+        return "555-000-000" + slot;
+    }
+
+    private static Callable<Void> task(CountDownLatch start, Runnable body) {
+        return () -> {
+            start.await();
+            body.run();
+            return null;
+        };
+    }
+}
@@ -0,0 +1,80 @@
+package com.safetynet.safetynet.repository;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for {@link StationCensus}.
+ * <p>
+ * Verifies that children and adults are counted on the day asked for, that
+ * the tally rolls over as residents come of age, in either direction, and
+ * that adding and removing residents keeps a tally already computed exact.
+ */
+class StationCensusTest {
+
+    private static final CalendarDay TODAY = CalendarDay.of(LocalDate.of(2024, 6, 1));
+
+    private static int adultFrom(LocalDate birthDate) {
+        return AgeProfile.of(birthDate).getAdultFromEpochDay();
+    }
+
+    /**
+     * Tests that residents without a medical record are adults and unknown birthdates children.
+     */
+    @Test
+    void testCountsOnDay() {
+        StationCensus census = StationCensus.EMPTY.copy();
+        census.add(Integer.MIN_VALUE);
+        census.add(adultFrom(LocalDate.of(1980, 1, 1)));
+        census.add(adultFrom(LocalDate.of(2010, 1, 1)));
+        census.add(AgeProfile.UNKNOWN.getAdultFromEpochDay());
+
+        assertEquals(4, census.getResidents());
+        assertEquals(2, census.childrenOn(TODAY));
+        assertEquals(2, census.adultsOn(TODAY));
+    }
+
+    /**
+     * Tests that a child is counted as such up to their 18th year and as an adult from their 19th birthday.
+     */
+    @Test
+    void testRollsOverInBothDirections() {
+        StationCensus census = StationCensus.EMPTY.copy();
+        census.add(adultFrom(LocalDate.of(2005, 6, 2)));
+        census.add(adultFrom(LocalDate.of(2005, 6, 3)));
+
+        assertEquals(2, census.childrenOn(TODAY));
+        assertEquals(1, census.childrenOn(CalendarDay.of(LocalDate.of(2024, 6, 2))));
+        assertEquals(0, census.childrenOn(CalendarDay.of(LocalDate.of(2030, 1, 1))));
+        assertEquals(2, census.childrenOn(TODAY));
+    }
+
+    /**
+     * Tests that residents added or removed after a lookup update the tally of that day.
+     */
+    @Test
+    void testMutationsUpdateTally() {
+        StationCensus census = StationCensus.EMPTY.copy();
+        int child = adultFrom(LocalDate.of(2015, 3, 1));
+        int adult = adultFrom(LocalDate.of(1970, 3, 1));
+        census.add(adult);
+        assertEquals(0, census.childrenOn(TODAY));
+
+        census.add(child);
+        census.add(child);
+        assertEquals(2, census.childrenOn(TODAY));
+
+        census.remove(child);
+        census.remove(adult);
+        assertEquals(1, census.childrenOn(TODAY));
+        assertEquals(0, census.adultsOn(TODAY));
+
+        StationCensus copy = census.copy();
+        copy.remove(child);
+        assertTrue(copy.isEmpty());
+        assertEquals(1, census.childrenOn(TODAY));
+    }
+}
@@ -0,0 +1,114 @@
+package com.safetynet.safetynet.repository.generator;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import com.safetynet.safetynet.dto.DataDTO;
+import com.safetynet.safetynet.model.FireStation;
+import com.safetynet.safetynet.model.MedicalRecord;
+import com.safetynet.safetynet.model.Person;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Unit tests for {@link SyntheticDataGenerator}.
+ *
+ * <p>Verifies that generation is deterministic, that the streamed JSON reads
+ * back as a {@link DataDTO}, and that the generated data has the expected shape.</p>
+ */
+class SyntheticDataGeneratorTest {
+
+    private static final int PERSONS = 10_000;
+
+    /**
+     * Test that the same seed produces byte-identical output and a different seed does not.
+     */
+    @Test
+    void testWriteJson_IsDeterministic() throws IOException {
+        byte[] first = json(new SyntheticDataGenerator(1_000, 7L));
+        byte[] second = json(new SyntheticDataGenerator(1_000, 7L));
+        byte[] other = json(new SyntheticDataGenerator(1_000, 8L));
+
+        assertThat(first).isEqualTo(second);
+        assertThat(first).isNotEqualTo(other);
+    }
+
+    /**
+     * Test that the streamed JSON matches the in-memory data set.
+     */
+    @Test
+    void testWriteJson_ReadsBackAsDataDTO() throws IOException {
+        SyntheticDataGenerator generator = new SyntheticDataGenerator(2_000, 3L);
+        ObjectMapper objectMapper = new ObjectMapper().registerModule(new JavaTimeModule());
+
+        DataDTO parsed = objectMapper.readValue(json(generator), DataDTO.class);
+        DataDTO expected = generator.toDataDTO();
+
+        assertThat(parsed.getPersons()).isEqualTo(expected.getPersons());
+        assertThat(parsed.getFireStations()).isEqualTo(expected.getFireStations());
+        assertThat(parsed.getMedicalRecords()).isEqualTo(expected.getMedicalRecords());
+    }
+
+    /**
+     * Test the size, uniqueness and distributions of a generated data set.
+     */
+    @Test
+    void testToDataDTO_Shape() {
+        DataDTO data = new SyntheticDataGenerator(PERSONS, 42L).toDataDTO();
+
+        assertThat(data.getPersons()).hasSize(PERSONS);
+
+        Set<String> names = new HashSet<>();
+        data.getPersons().forEach(p -> names.add(p.getFirstName() + " " + p.getLastName()));
+        assertThat(names).hasSize(PERSONS);
+
+        // Every medical record belongs to a person, and almost every person has one
+        assertThat(data.getMedicalRecords()).allMatch(r -> names.contains(r.getFirstName() + " " + r.getLastName()));
+        assertThat(data.getMedicalRecords().size()).isBetween(PERSONS * 97 / 100, PERSONS);
+
+        // Households average between 2 and 3 persons
+        long addresses = data.getPersons().stream().map(Person::getAddress).distinct().count();
+        assertThat((double) PERSONS / addresses).isBetween(2.0, 3.0);
+
+        // Children make up a realistic share of the population
+        long children = data.getMedicalRecords().stream()
+                .map(MedicalRecord::getBirthdate)
+                .filter(birthdate -> birthdate.isAfter(SyntheticDataGenerator.DEFAULT_REFERENCE_DATE.minusYears(19)))
+                .count();
+        assertThat((double) children / data.getMedicalRecords().size()).isBetween(0.1, 0.4);
+
+        // Last names are skewed: the most common one is far above the average
+        Map<String, Long> byLastName = data.getPersons().stream()
+                .collect(Collectors.groupingBy(Person::getLastName, Collectors.counting()));
+        long mostCommon = byLastName.values().stream().mapToLong(Long::longValue).max().orElseThrow();
+        assertThat(mostCommon).isGreaterThan(5L * PERSONS / byLastName.size());
+
+        // Some household members share an email address
+        Map<String, Long> byEmail = data.getPersons().stream()
+                .collect(Collectors.groupingBy(Person::getEmail, Collectors.counting()));
+        assertThat(byEmail.size()).isLessThan(PERSONS);
+
+        // Most addresses are covered by exactly one station
+        Map<String, Long> stationsPerAddress = data.getFireStations().stream()
+                .collect(Collectors.groupingBy(FireStation::getAddress, Collectors.counting()));
+        assertThat(stationsPerAddress.values().stream().filter(count -> count == 1).count())
+                .isGreaterThan(addresses * 9 / 10);
+        assertThat(stationsPerAddress.values()).contains(2L);
+        assertThat(data.getPersons().stream().map(Person::getAddress).distinct()
+                .filter(address -> !stationsPerAddress.containsKey(address))
+                .count()).isPositive();
+    }
+
+    private static byte[] json(SyntheticDataGenerator generator) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        generator.writeJson(out);
+        return out.toByteArray();
+    }
+}
@@ -0,0 +1,141 @@
+package com.safetynet.safetynet.repository.persistence;
+
+import com.safetynet.safetynet.dto.DataDTO;
+import com.safetynet.safetynet.model.FireStation;
+import com.safetynet.safetynet.model.MedicalRecord;
+import com.safetynet.safetynet.model.Person;
+import com.safetynet.safetynet.repository.generator.SyntheticDataGenerator;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.function.Consumer;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for {@link BinarySnapshot}.
+ * <p>
+ * Verifies that a data set survives a write and read unchanged, that repeated
+ * values are shared through the dictionary, that mapped medical records decode
+ * their lists on demand, and that damaged files are rejected.
+ */
+class BinarySnapshotTest {
+
+    @TempDir
+    Path tempDir;
+
+    /**
+     * Tests that a generated data set reads back equal to what was written.
+     */
+    @Test
+    void testRoundTrip() throws IOException {
+        DataDTO data = new SyntheticDataGenerator(2_000, 9L).toDataDTO();
+        Path file = tempDir.resolve("snapshot-1.bin");
+
+        BinarySnapshot.write(file, data.getPersons(), data.getFireStations(), data.getMedicalRecords());
+        BinarySnapshot binary = BinarySnapshot.open(file);
+
+        assertEquals(data.getPersons().size(), binary.getPersonCount());
+        assertEquals(data.getPersons(), read(binary::readPersons));
+        assertEquals(data.getFireStations(), read(binary::readFireStations));
+        assertEquals(data.getMedicalRecords(), read(binary::readMedicalRecords));
+    }
+
+    /**
+     * Tests that nulls, non-ASCII text and dates before the epoch are preserved,
+     * and that dictionary values are shared between sections.
+     */
+    @Test
+    void testRoundTripUnusualValues() throws IOException {
+        Person person = new Person("Zoë", "Brontë", "12 Rue Émile", null, "97451", null, null);
+        FireStation fireStation = new FireStation("12 Rue Émile", "3");
+        MedicalRecord ancient = new MedicalRecord("Zoë", "Brontë", LocalDate.of(1901, 2, 28),
+                List.of("aznol:350mg"), null);
+        MedicalRecord undated = new MedicalRecord(null, "Brontë", null, List.of(), List.of("peanut", "peanut"));
+        Path file = tempDir.resolve("snapshot.bin");
+
+        BinarySnapshot.write(file, List.of(person), List.of(fireStation), List.of(ancient, undated));
+        BinarySnapshot binary = BinarySnapshot.open(file);
+
+        List<Person> persons = read(binary::readPersons);
+        List<FireStation> fireStations = read(binary::readFireStations);
+        assertEquals(List.of(person), persons);
+        assertEquals(List.of(fireStation), fireStations);
+        assertEquals(List.of(ancient, undated), read(binary::readMedicalRecords));
+        assertSame(persons.getFirst().getAddress(), fireStations.getFirst().getAddress());
+    }
+
+    /**
+     * Tests that mapped medical records equal the written ones, decode their
+     * lists from the file on each read, and keep the lists a setter gives them.
+     */
+    @Test
+    void testMappedMedicalRecords() throws IOException {
+        DataDTO data = new SyntheticDataGenerator(500, 9L).toDataDTO();
+        Path file = tempDir.resolve("snapshot.bin");
+
+        BinarySnapshot.write(file, data.getPersons(), data.getFireStations(), data.getMedicalRecords());
+        List<MedicalRecord> mapped = read(BinarySnapshot.open(file)::mapMedicalRecords);
+
+        assertEquals(data.getMedicalRecords(), mapped);
+        MedicalRecord record = mapped.getFirst();
+        assertEquals(record.getMedications(), record.getMedications());
+        assertNotSame(record.getMedications(), record.getMedications());
+        List<String> allergies = record.getAllergies();
+        record.setMedications(List.of("aznol:350mg"));
+        assertEquals(List.of("aznol:350mg"), record.getMedications());
+        assertEquals(allergies, record.getAllergies());
+        assertSame(record.getAllergies(), record.getAllergies());
+    }
+
+    /**
+     * Tests that a flipped bit, a truncated file and a foreign file are all rejected.
+     */
+    @Test
+    void testRejectsDamagedFiles() throws IOException {
+        DataDTO data = new SyntheticDataGenerator(100, 9L).toDataDTO();
+        Path file = tempDir.resolve("snapshot.bin");
+        BinarySnapshot.write(file, data.getPersons(), data.getFireStations(), data.getMedicalRecords());
+        byte[] bytes = Files.readAllBytes(file);
+
+        byte[] flipped = bytes.clone();
+        flipped[bytes.length / 2] ^= 0x10;
+        assertCorrupt(flipped, "body checksum mismatch");
+
+        byte[] header = bytes.clone();
+        header[9] ^= 0x01;
+        assertCorrupt(header, "header checksum mismatch");
+
+        assertCorrupt(Arrays.copyOf(bytes, bytes.length - 1), "body bytes");
+        assertCorrupt(Arrays.copyOf(bytes, 10), "shorter than its header");
+
+        Path json = tempDir.resolve("data.bin");
+        Files.writeString(json, "{\"persons\": [], \"firestations\": [], \"medicalrecords\": []} ".repeat(2));
+        assertThrows(IOException.class, () -> BinarySnapshot.open(json));
+    }
+
+    private void assertCorrupt(byte[] content, String reason) throws IOException {
+        Path file = tempDir.resolve("damaged.bin");
+        Files.write(file, content);
+        IOException e = assertThrows(IOException.class, () -> BinarySnapshot.open(file));
+        assertTrue(e.getMessage().contains(reason), e.getMessage());
+    }
+
+    @FunctionalInterface
+    private interface Section<T> {
+        void read(Consumer<T> consumer) throws IOException;
+    }
+
+    private static <T> List<T> read(Section<T> section) throws IOException {
+        List<T> entities = new ArrayList<>();
+        section.read(entities::add);
+        return entities;
+    }
+}
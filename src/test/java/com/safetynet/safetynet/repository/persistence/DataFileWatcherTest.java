@@ -0,0 +1,70 @@
+package com.safetynet.safetynet.repository.persistence;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for {@link DataFileWatcher}.
+ * <p>
+ * Verifies that a series of writes to the watched file is reported once it has
+ * settled, that a file moved into place is reported, and that other files of
+ * the directory are ignored.
+ */
+class DataFileWatcherTest {
+
+    @TempDir
+    Path tempDir;
+
+    private final BlockingQueue<Path> changes = new LinkedBlockingQueue<>();
+    private DataFileWatcher watcher;
+
+    @AfterEach
+    void tearDown() {
+        if (watcher != null) {
+            watcher.close();
+        }
+    }
+
+    /**
+     * Tests that several writes in a row are reported as one change.
+     */
+    @Test
+    void testWritesAreReportedOnceSettled() throws IOException, InterruptedException {
+        Path file = tempDir.resolve("data.json");
+        watcher = new DataFileWatcher(file, 300, changes::add);
+
+        for (int i = 0; i < 5; i++) {
+            Files.writeString(file, "{\"persons\":[" + i + "]}");
+        }
+
+        assertEquals(file, changes.poll(10, TimeUnit.SECONDS));
+        assertNull(changes.poll(1, TimeUnit.SECONDS));
+    }
+
+    /**
+     * Tests that a file renamed over the watched one is reported, and that other files are not.
+     */
+    @Test
+    void testOnlyTheWatchedFileIsReported() throws IOException, InterruptedException {
+        Path file = tempDir.resolve("data.json");
+        watcher = new DataFileWatcher(file, 50, changes::add);
+
+        Files.writeString(tempDir.resolve("journal-0.log"), "entry");
+        assertNull(changes.poll(1, TimeUnit.SECONDS));
+
+        Path temp = Files.writeString(tempDir.resolve("data.json.tmp"), "{}");
+        Files.move(temp, file, StandardCopyOption.ATOMIC_MOVE);
+        assertEquals(file, changes.poll(10, TimeUnit.SECONDS));
+    }
+}
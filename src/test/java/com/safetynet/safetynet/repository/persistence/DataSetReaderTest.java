@@ -0,0 +1,187 @@
+package com.safetynet.safetynet.repository.persistence;
+
+import com.fasterxml.jackson.core.JsonParseException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import com.safetynet.safetynet.dto.DataDTO;
+import com.safetynet.safetynet.model.FireStation;
+import com.safetynet.safetynet.model.MedicalRecord;
+import com.safetynet.safetynet.model.Person;
+import com.safetynet.safetynet.repository.generator.SyntheticDataGenerator;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for {@link DataSetReader}.
+ * <p>
+ * Verifies that streaming a document yields the same entities as binding it
+ * to a {@link DataDTO}, that located sections read back the same entities,
+ * and how unusual documents are handled.
+ */
+class DataSetReaderTest {
+
+    private ObjectMapper objectMapper;
+    private DataSetReader reader;
+
+    private final List<Person> persons = new ArrayList<>();
+    private final List<FireStation> fireStations = new ArrayList<>();
+    private final List<MedicalRecord> medicalRecords = new ArrayList<>();
+
+    @BeforeEach
+    void setUp() {
+        objectMapper = new ObjectMapper().registerModule(new JavaTimeModule());
+        reader = new DataSetReader(objectMapper.getFactory());
+    }
+
+    /**
+     * Tests that a generated data set streams to the same entities as a bound {@link DataDTO}.
+     */
+    @Test
+    void testReadMatchesDataDTO() throws IOException {
+        ByteArrayOutputStream json = new ByteArrayOutputStream();
+        new SyntheticDataGenerator(1_000, 5L).writeJson(json);
+
+        DataDTO expected = objectMapper.readValue(json.toByteArray(), DataDTO.class);
+        read(json.toString(StandardCharsets.UTF_8));
+
+        assertEquals(expected.getPersons(), persons);
+        assertEquals(expected.getFireStations(), fireStations);
+        assertEquals(expected.getMedicalRecords(), medicalRecords);
+    }
+
+    /**
+     * Tests that arrays may come in any order and that unknown fields and null elements are skipped.
+     */
+    @Test
+    void testReadSkipsUnknownFieldsAndNulls() throws IOException {
+        read("""
+                {
+                  "medicalrecords": [{"firstName": "John", "lastName": "Boyd", "birthdate": "03/06/1984",
+                                      "medications": [], "allergies": ["nillacilan"]}],
+                  "version": {"major": 1, "tags": [1, 2]},
+                  "firestations": null,
+                  "persons": [null, {"firstName": "John", "lastName": "Boyd", "address": "1509 Culver St"}]
+                }
+                """);
+
+        assertEquals(1, persons.size());
+        assertEquals("1509 Culver St", persons.getFirst().getAddress());
+        assertTrue(fireStations.isEmpty());
+        assertEquals(LocalDate.of(1984, 3, 6), medicalRecords.getFirst().getBirthdate());
+    }
+
+    /**
+     * Tests that birthdates resolve like the {@code MM/dd/yyyy} formatter used by data binding.
+     */
+    @Test
+    void testReadBirthdates() throws IOException {
+        read("""
+                {"medicalrecords": [
+                  {"firstName": "A", "lastName": "B", "birthdate": "02/30/2021"},
+                  {"firstName": "C", "lastName": "D", "birthdate": "02/29/2020"},
+                  {"firstName": "E", "lastName": "F", "birthdate": null}
+                ]}
+                """);
+
+        assertEquals(LocalDate.of(2021, 2, 28), medicalRecords.get(0).getBirthdate());
+        assertEquals(LocalDate.of(2020, 2, 29), medicalRecords.get(1).getBirthdate());
+        assertNull(medicalRecords.get(2).getBirthdate());
+        assertThrows(JsonParseException.class,
+                () -> read("{\"medicalrecords\": [{\"birthdate\": \"13/01/2020\"}]}"));
+        assertThrows(JsonParseException.class,
+                () -> read("{\"medicalrecords\": [{\"birthdate\": \"2020-01-01\"}]}"));
+    }
+
+    /**
+     * Tests that repeated values share a single string instance.
+     */
+    @Test
+    void testReadDeduplicatesRepeatedValues() throws IOException {
+        ByteArrayOutputStream json = new ByteArrayOutputStream();
+        new SyntheticDataGenerator(200, 5L).writeJson(json);
+        read(json.toString(StandardCharsets.UTF_8));
+
+        Person first = persons.getFirst();
+        Person housemate = persons.get(1);
+        assertEquals(first.getAddress(), housemate.getAddress());
+        assertSame(first.getAddress(), housemate.getAddress());
+        assertSame(first.getAddress(), fireStations.getFirst().getAddress());
+    }
+
+    /**
+     * Tests that sections located in a file read back the same entities as a full read.
+     */
+    @Test
+    void testReadSectionsMatchesRead(@TempDir Path directory) throws IOException {
+        Path file = directory.resolve("data.json");
+        try (OutputStream out = Files.newOutputStream(file)) {
+            new SyntheticDataGenerator(1_000, 5L).writeJson(out);
+        }
+        reader.read(Files.newInputStream(file), persons::add, fireStations::add, medicalRecords::add);
+
+        DataSetReader.Sections sections = reader.locate(file);
+        List<Person> sectionPersons = new ArrayList<>();
+        List<FireStation> sectionFireStations = new ArrayList<>();
+        List<MedicalRecord> sectionRecords = new ArrayList<>();
+        reader.readMedicalRecords(file, sections.medicalRecords(), sectionRecords::add);
+        reader.readFireStations(file, sections.fireStations(), sectionFireStations::add);
+        reader.readPersons(file, sections.persons(), sectionPersons::add);
+
+        assertEquals(persons, sectionPersons);
+        assertEquals(fireStations, sectionFireStations);
+        assertEquals(medicalRecords, sectionRecords);
+    }
+
+    /**
+     * Tests that section offsets count bytes, and that missing or null sections read nothing.
+     */
+    @Test
+    void testLocateSections(@TempDir Path directory) throws IOException {
+        Path file = directory.resolve("data.json");
+        Files.writeString(file, """
+                {"persons": [{"firstName": "Zoë", "lastName": "Brontë", "address": "12 Rue Émile"}],
+                 "version": [1, 2],
+                 "firestations": null,
+                 "medicalrecords": [{"firstName": "Zoë", "lastName": "Brontë", "birthdate": "01/02/2003"}]}
+                """, StandardCharsets.UTF_8);
+
+        DataSetReader.Sections sections = reader.locate(file);
+        assertEquals(-1, sections.fireStations());
+        reader.readPersons(file, sections.persons(), persons::add);
+        reader.readFireStations(file, sections.fireStations(), fireStations::add);
+        reader.readMedicalRecords(file, sections.medicalRecords(), medicalRecords::add);
+
+        assertEquals("12 Rue Émile", persons.getFirst().getAddress());
+        assertTrue(fireStations.isEmpty());
+        assertEquals(LocalDate.of(2003, 1, 2), medicalRecords.getFirst().getBirthdate());
+    }
+
+    /**
+     * Tests that a truncated document is rejected.
+     */
+    @Test
+    void testReadRejectsTruncatedDocument() {
+        assertThrows(IOException.class, () -> read("{\"persons\": [{\"firstName\": \"John\"}, "));
+        assertThrows(JsonParseException.class, () -> read("[]"));
+    }
+
+    private void read(String json) throws IOException {
+        InputStream in = new ByteArrayInputStream(json.getBytes(StandardCharsets.UTF_8));
+        reader.read(in, persons::add, fireStations::add, medicalRecords::add);
+    }
+}
@@ -0,0 +1,321 @@
+package com.safetynet.safetynet.repository.persistence;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import com.safetynet.safetynet.dto.DataDTO;
+import com.safetynet.safetynet.model.FireStation;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for {@link JournalSnapshotStore}.
+ * <p>
+ * Verifies recovery of the journal tail on top of the newest snapshot,
+ * including a crash between rotating the journal and writing the snapshot,
+ * and with snapshots in either format, that only dirty collections are
+ * rewritten, the fallback to the previous generation when the newest
+ * snapshot is damaged, the refusal to rebuild from the seed once a snapshot
+ * existed, and the refusal to replay a corrupt older journal.
+ */
+class JournalSnapshotStoreTest {
+
+    @TempDir
+    Path tempDir;
+
+    private ObjectMapper objectMapper;
+
+    @BeforeEach
+    void setUp() {
+        objectMapper = new ObjectMapper().registerModule(new JavaTimeModule());
+    }
+
+    /**
+     * Tests that an empty directory recovers without snapshot or entries.
+     */
+    @Test
+    void testRecoverEmptyDirectory() throws IOException {
+        try (JournalSnapshotStore store = new JournalSnapshotStore(tempDir, objectMapper)) {
+            JournalSnapshotStore.Recovery recovery = store.recover();
+
+            assertFalse(recovery.hasSnapshot());
+            assertTrue(recovery.entries().isEmpty());
+        }
+    }
+
+    /**
+     * Tests that a compaction replaces the journal with a snapshot and that
+     * only entries appended after the rotation are replayed.
+     */
+    @Test
+    void testRecoverAfterCompaction() throws IOException {
+        JournalEntry beforeRotation = JournalEntry.fireStationDeleted("1 Main St");
+        JournalEntry afterRotation = JournalEntry.fireStationAdded(new FireStation("2 Main St", "2"));
+
+        try (JournalSnapshotStore store = new JournalSnapshotStore(tempDir, objectMapper)) {
+            store.recover();
+            store.append(beforeRotation);
+            long generation = store.rotate();
+            store.append(afterRotation);
+            store.writeSnapshot(generation, new DataDTO(List.of(), List.of(new FireStation("3 Main St", "3")), List.of()));
+        }
+
+        try (JournalSnapshotStore store = new JournalSnapshotStore(tempDir, objectMapper)) {
+            JournalSnapshotStore.Recovery recovery = store.recover();
+
+            DataDTO snapshot = objectMapper.readValue(recovery.fireStations().toFile(), DataDTO.class);
+            assertEquals("3 Main St", snapshot.getFireStations().getFirst().getAddress());
+            assertEquals(List.of(afterRotation), recovery.entries());
+        }
+    }
+
+    /**
+     * Tests that a crash after rotation but before the snapshot is written
+     * replays both the old and the new journal.
+     */
+    @Test
+    void testRecoverAfterInterruptedCompaction() throws IOException {
+        JournalEntry beforeRotation = JournalEntry.fireStationDeleted("1 Main St");
+        JournalEntry afterRotation = JournalEntry.fireStationDeleted("2 Main St");
+
+        try (JournalSnapshotStore store = new JournalSnapshotStore(tempDir, objectMapper)) {
+            store.recover();
+            store.append(beforeRotation);
+            store.rotate();
+            store.append(afterRotation);
+        }
+
+        try (JournalSnapshotStore store = new JournalSnapshotStore(tempDir, objectMapper)) {
+            JournalSnapshotStore.Recovery recovery = store.recover();
+
+            assertFalse(recovery.hasSnapshot());
+            assertEquals(List.of(beforeRotation, afterRotation), recovery.entries());
+        }
+    }
+
+    /**
+     * Tests that a binary collection file supersedes an older JSON one and is found on recovery.
+     */
+    @Test
+    void testRecoverBinarySnapshot() throws IOException {
+        try (JournalSnapshotStore store = new JournalSnapshotStore(tempDir, objectMapper)) {
+            store.recover();
+            store.writeSnapshot(store.rotate(), new DataDTO(List.of(), List.of(), List.of()));
+        }
+        try (JournalSnapshotStore store = new JournalSnapshotStore(tempDir, objectMapper, SnapshotFormat.BINARY)) {
+            store.recover();
+            store.append(JournalEntry.fireStationAdded(new FireStation("3 Main St", "3")));
+            store.writeSnapshot(store.rotate(), new DataDTO(List.of(), List.of(new FireStation("3 Main St", "3")), List.of()));
+        }
+
+        assertTrue(Files.exists(tempDir.resolve("firestations-1.json")));
+        try (JournalSnapshotStore store = new JournalSnapshotStore(tempDir, objectMapper)) {
+            JournalSnapshotStore.Recovery recovery = store.recover();
+
+            assertEquals(tempDir.resolve("firestations-2.bin"), recovery.fireStations());
+            assertEquals(tempDir.resolve("persons-1.json"), recovery.persons());
+            List<FireStation> fireStations = new ArrayList<>();
+            BinarySnapshot.open(recovery.fireStations()).readFireStations(fireStations::add);
+            assertEquals(List.of(new FireStation("3 Main St", "3")), fireStations);
+        }
+    }
+
+    /**
+     * Tests that a snapshot only rewrites the collections changed since the previous
+     * one, including changes recovered from the journal after a restart.
+     */
+    @Test
+    void testWritesOnlyDirtyCollections() throws IOException {
+        DataDTO data = new DataDTO(List.of(), List.of(new FireStation("1 Main St", "1")), List.of());
+        try (JournalSnapshotStore store = new JournalSnapshotStore(tempDir, objectMapper)) {
+            store.recover();
+            store.writeSnapshot(store.rotate(), data);
+            store.append(JournalEntry.medicalRecordDeleted("John", "Boyd"));
+            store.writeSnapshot(store.rotate(), data);
+            store.append(JournalEntry.personDeleted("John", "Boyd"));
+        }
+
+        assertTrue(Files.exists(tempDir.resolve("medicalrecords-2.json")));
+        assertFalse(Files.exists(tempDir.resolve("persons-2.json")));
+        assertFalse(Files.exists(tempDir.resolve("firestations-2.json")));
+
+        try (JournalSnapshotStore store = new JournalSnapshotStore(tempDir, objectMapper)) {
+            JournalSnapshotStore.Recovery recovery = store.recover();
+            assertEquals(tempDir.resolve("persons-1.json"), recovery.persons());
+            assertEquals(tempDir.resolve("firestations-1.json"), recovery.fireStations());
+            assertEquals(tempDir.resolve("medicalrecords-2.json"), recovery.medicalRecords());
+
+            store.writeSnapshot(store.rotate(), data);
+        }
+
+        try (JournalSnapshotStore store = new JournalSnapshotStore(tempDir, objectMapper)) {
+            JournalSnapshotStore.Recovery recovery = store.recover();
+            assertEquals(tempDir.resolve("persons-3.json"), recovery.persons());
+            assertEquals(tempDir.resolve("firestations-1.json"), recovery.fireStations());
+            assertEquals(tempDir.resolve("medicalrecords-2.json"), recovery.medicalRecords());
+            assertTrue(recovery.entries().isEmpty());
+        }
+    }
+
+    /**
+     * Tests that each snapshot keeps the previous generation and deletes the files
+     * that only older generations need.
+     */
+    @Test
+    void testRetainsPreviousGeneration() throws IOException {
+        DataDTO empty = new DataDTO(List.of(), List.of(), List.of());
+        try (JournalSnapshotStore store = new JournalSnapshotStore(tempDir, objectMapper)) {
+            store.recover();
+            store.append(JournalEntry.fireStationDeleted("1 Main St"));
+            store.writeSnapshot(store.rotate(), empty);
+            assertTrue(Files.exists(tempDir.resolve("journal-0.log")));
+
+            for (int i = 0; i < 2; i++) {
+                store.append(JournalEntry.fireStationDeleted("1 Main St"));
+                store.writeSnapshot(store.rotate(), empty);
+            }
+            store.append(JournalEntry.fireStationDeleted("1 Main St"));
+        }
+
+        try (var files = Files.list(tempDir)) {
+            assertEquals(List.of("firestations-2.json", "firestations-3.json", "journal-2.log", "journal-3.log",
+                            "manifest-2.json", "manifest-3.json", "medicalrecords-1.json", "persons-1.json"),
+                    files.map(path -> path.getFileName().toString()).sorted().toList());
+        }
+    }
+
+    /**
+     * Tests that a JSON collection file ends with a footer that a truncated copy fails.
+     */
+    @Test
+    void testVerifyJsonFooter() throws IOException {
+        try (JournalSnapshotStore store = new JournalSnapshotStore(tempDir, objectMapper)) {
+            store.recover();
+            store.writeSnapshot(store.rotate(), new DataDTO(List.of(), List.of(new FireStation("3 Main St", "3")), List.of()));
+        }
+        Path snapshot = tempDir.resolve("firestations-1.json");
+        JournalSnapshotStore.verify(snapshot);
+        assertEquals("3 Main St",
+                objectMapper.readValue(snapshot.toFile(), DataDTO.class).getFireStations().getFirst().getAddress());
+
+        byte[] content = Files.readAllBytes(snapshot);
+        Files.write(snapshot, Arrays.copyOf(content, content.length - 10));
+        assertThrows(IOException.class, () -> JournalSnapshotStore.verify(snapshot));
+
+        content[5] ^= 1;
+        Files.write(snapshot, content);
+        assertThrows(IOException.class, () -> JournalSnapshotStore.verify(snapshot));
+    }
+
+    /**
+     * Tests that a damaged newest snapshot is set aside and recovery falls back
+     * to the previous one, replaying the journals of both generations.
+     */
+    @Test
+    void testRecoverFallsBackToPreviousSnapshot() throws IOException {
+        JournalEntry first = JournalEntry.fireStationDeleted("1 Main St");
+        JournalEntry second = JournalEntry.fireStationDeleted("2 Main St");
+
+        try (JournalSnapshotStore store = new JournalSnapshotStore(tempDir, objectMapper, SnapshotFormat.BINARY)) {
+            store.recover();
+            store.writeSnapshot(store.rotate(), new DataDTO(List.of(), List.of(new FireStation("1 Main St", "1")), List.of()));
+            store.append(first);
+            store.writeSnapshot(store.rotate(), new DataDTO(List.of(), List.of(), List.of()));
+            store.append(second);
+        }
+        Path damaged = tempDir.resolve("firestations-2.bin");
+        byte[] content = Files.readAllBytes(damaged);
+        Files.write(damaged, Arrays.copyOf(content, content.length / 2));
+        Files.writeString(tempDir.resolve("persons-3.json.tmp"), "{\"persons\":[");
+
+        try (JournalSnapshotStore store = new JournalSnapshotStore(tempDir, objectMapper)) {
+            JournalSnapshotStore.Recovery recovery = store.recover();
+
+            assertEquals(tempDir.resolve("firestations-1.bin"), recovery.fireStations());
+            assertEquals(List.of(first, second), recovery.entries());
+            assertTrue(Files.exists(tempDir.resolve("manifest-2.json.corrupt")));
+            assertFalse(Files.exists(tempDir.resolve("persons-3.json.tmp")));
+
+            store.append(JournalEntry.fireStationDeleted("3 Main St"));
+            assertTrue(Files.size(tempDir.resolve("journal-2.log")) > 0);
+        }
+    }
+
+    /**
+     * Tests that recovery fails rather than silently falling back to the seed
+     * when no snapshot is intact and the early journals are gone.
+     */
+    @Test
+    void testRecoverFailsWithoutIntactGeneration() throws IOException {
+        Files.writeString(tempDir.resolve("manifest-2.json"), "{\"persons\":");
+        Files.writeString(tempDir.resolve("journal-2.log"), "");
+
+        try (JournalSnapshotStore store = new JournalSnapshotStore(tempDir, objectMapper)) {
+            assertThrows(IOException.class, store::recover);
+        }
+    }
+
+    /**
+     * Tests that recovery keeps failing on later restarts, once the damaged
+     * manifest has been set aside, instead of rebuilding from the seed and
+     * replaying only the journals that are left.
+     */
+    @Test
+    void testRecoverFailsAgainAfterRestart() throws IOException {
+        Files.writeString(tempDir.resolve("manifest-3.json"), "{\"persons\":");
+        Files.writeString(tempDir.resolve("journal-3.log"), "");
+
+        for (int restart = 0; restart < 2; restart++) {
+            try (JournalSnapshotStore store = new JournalSnapshotStore(tempDir, objectMapper)) {
+                assertThrows(IOException.class, store::recover);
+            }
+        }
+        assertTrue(Files.exists(tempDir.resolve("manifest-3.json.corrupt")));
+
+        Files.delete(tempDir.resolve("journal-3.log"));
+        try (JournalSnapshotStore store = new JournalSnapshotStore(tempDir, objectMapper)) {
+            assertThrows(IOException.class, store::recover);
+        }
+    }
+
+    /**
+     * Tests that a torn newest journal is cut back to its last intact record,
+     * while a corrupt older journal fails recovery instead of silently
+     * dropping the mutations that follow the damage.
+     */
+    @Test
+    void testOnlyNewestJournalMayBeTorn() throws IOException {
+        JournalEntry first = JournalEntry.fireStationDeleted("1 Main St");
+        JournalEntry second = JournalEntry.fireStationDeleted("2 Main St");
+        try (JournalSnapshotStore store = new JournalSnapshotStore(tempDir, objectMapper)) {
+            store.recover();
+            store.append(first);
+            store.rotate();
+            store.append(second);
+        }
+        Path newest = tempDir.resolve("journal-1.log");
+        byte[] content = Files.readAllBytes(newest);
+        Files.write(newest, Arrays.copyOf(content, content.length - 3));
+
+        try (JournalSnapshotStore store = new JournalSnapshotStore(tempDir, objectMapper)) {
+            assertEquals(List.of(first), store.recover().entries());
+        }
+
+        Path older = tempDir.resolve("journal-0.log");
+        content = Files.readAllBytes(older);
+        Files.write(older, Arrays.copyOf(content, content.length - 3));
+
+        try (JournalSnapshotStore store = new JournalSnapshotStore(tempDir, objectMapper)) {
+            assertThrows(IOException.class, store::recover);
+        }
+    }
+}
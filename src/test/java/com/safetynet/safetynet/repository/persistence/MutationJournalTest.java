@@ -0,0 +1,305 @@
+package com.safetynet.safetynet.repository.persistence;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import com.safetynet.safetynet.model.FireStation;
+import com.safetynet.safetynet.model.MedicalRecord;
+import com.safetynet.safetynet.model.Person;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDate;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for {@link MutationJournal}.
+ * <p>
+ * Verifies that entries round-trip through the journal file, that a torn or
+ * corrupt trailing record is discarded when reading the newest journal but
+ * fails the read of an older one, and that a failed append leaves no partial
+ * record behind.
+ */
+class MutationJournalTest {
+
+    @TempDir
+    Path tempDir;
+
+    private ObjectMapper objectMapper;
+    private Path file;
+
+    @BeforeEach
+    void setUp() {
+        objectMapper = new ObjectMapper().registerModule(new JavaTimeModule());
+        file = tempDir.resolve("journal-0.log");
+    }
+
+    /**
+     * Tests that appended entries are read back in order.
+     */
+    @Test
+    void testAppendAndReadAll() throws IOException {
+        JournalEntry added = JournalEntry.personAdded(
+                new Person("John", "Doe", "1 Main St", "Culver", "97451", "841-874-6512", "john@doe.com"));
+        JournalEntry updated = JournalEntry.fireStationUpdated("1 Main St", new FireStation("1 Main St", "3"));
+        JournalEntry recorded = JournalEntry.medicalRecordAdded(
+                new MedicalRecord("John", "Doe", LocalDate.of(1980, 1, 1), List.of("aspirin:50mg"), List.of()));
+
+        try (MutationJournal journal = new MutationJournal(file, objectMapper)) {
+            journal.append(added);
+            journal.append(updated);
+            journal.append(recorded);
+        }
+
+        List<JournalEntry> entries = new MutationJournal(file, objectMapper).readAll();
+        assertEquals(List.of(added, updated, recorded), entries);
+    }
+
+    /**
+     * Tests that a record cut short by a crash is dropped and truncated,
+     * and that appends continue cleanly afterwards.
+     */
+    @Test
+    void testTornLastRecordIsDiscarded() throws IOException {
+        JournalEntry first = JournalEntry.personDeleted("John", "Doe");
+        JournalEntry second = JournalEntry.personDeleted("Jane", "Doe");
+        try (MutationJournal journal = new MutationJournal(file, objectMapper)) {
+            journal.append(first);
+            journal.append(second);
+        }
+        long intactSize = Files.size(file);
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.WRITE)) {
+            channel.truncate(intactSize - 3);
+        }
+
+        List<JournalEntry> entries = new MutationJournal(file, objectMapper).readAll();
+        assertEquals(List.of(first), entries);
+
+        JournalEntry third = JournalEntry.fireStationDeleted("1 Main St");
+        try (MutationJournal journal = new MutationJournal(file, objectMapper)) {
+            journal.append(third);
+        }
+        assertEquals(List.of(first, third), new MutationJournal(file, objectMapper).readAll());
+    }
+
+    /**
+     * Tests that a record whose checksum does not match is treated as the end of the journal.
+     */
+    @Test
+    void testCorruptRecordStopsRecovery() throws IOException {
+        try (MutationJournal journal = new MutationJournal(file, objectMapper)) {
+            journal.append(JournalEntry.personDeleted("John", "Doe"));
+        }
+        byte[] bytes = Files.readAllBytes(file);
+        bytes[bytes.length - 2] ^= 0x7F;
+        Files.write(file, bytes);
+
+        assertTrue(new MutationJournal(file, objectMapper).readAll().isEmpty());
+        assertEquals(0, Files.size(file));
+    }
+
+    /**
+     * Tests that a torn or corrupt record in a journal other than the newest
+     * one fails the read and leaves the file untouched.
+     */
+    @Test
+    void testCorruptOlderJournalFailsRead() throws IOException {
+        try (MutationJournal journal = new MutationJournal(file, objectMapper)) {
+            journal.append(JournalEntry.personDeleted("John", "Doe"));
+            journal.append(JournalEntry.personDeleted("Jane", "Doe"));
+        }
+        byte[] bytes = Files.readAllBytes(file);
+        bytes[MutationJournal.HEADER_SIZE + 1] ^= 0x7F;
+        Files.write(file, bytes);
+
+        assertThrows(IOException.class, () -> new MutationJournal(file, objectMapper).readAll(false));
+        assertEquals(bytes.length, Files.size(file));
+
+        Files.write(file, Arrays.copyOf(bytes, bytes.length - 3));
+        assertThrows(IOException.class, () -> new MutationJournal(file, objectMapper).readAll(false));
+    }
+
+    /**
+     * Tests that a write failing halfway through a record is rolled back,
+     * so that later appends remain readable.
+     */
+    @Test
+    void testFailedAppendIsRolledBack() throws IOException {
+        JournalEntry first = JournalEntry.personDeleted("John", "Doe");
+        JournalEntry third = JournalEntry.personDeleted("Jim", "Doe");
+        FailingChannel[] channel = new FailingChannel[1];
+        try (MutationJournal journal = new MutationJournal(file, objectMapper) {
+            @Override
+            FileChannel open() throws IOException {
+                channel[0] = new FailingChannel(super.open(), true);
+                return channel[0];
+            }
+        }) {
+            journal.append(first);
+            channel[0].failWrites = true;
+            assertThrows(UncheckedIOException.class, () -> journal.append(JournalEntry.personDeleted("Jane", "Doe")));
+            channel[0].failWrites = false;
+            journal.append(third);
+        }
+
+        assertEquals(List.of(first, third), new MutationJournal(file, objectMapper).readAll(false));
+    }
+
+    /**
+     * Tests that a journal whose failed append cannot be rolled back refuses further appends.
+     */
+    @Test
+    void testUnrecoverableAppendPoisonsJournal() throws IOException {
+        FailingChannel[] channel = new FailingChannel[1];
+        try (MutationJournal journal = new MutationJournal(file, objectMapper) {
+            @Override
+            FileChannel open() throws IOException {
+                channel[0] = new FailingChannel(super.open(), false);
+                return channel[0];
+            }
+        }) {
+            journal.append(JournalEntry.personDeleted("John", "Doe"));
+            channel[0].failWrites = true;
+            assertThrows(UncheckedIOException.class, () -> journal.append(JournalEntry.personDeleted("Jane", "Doe")));
+            channel[0].failWrites = false;
+
+            long size = Files.size(file);
+            assertThrows(UncheckedIOException.class, () -> journal.append(JournalEntry.personDeleted("Jim", "Doe")));
+            assertEquals(size, Files.size(file));
+        }
+    }
+
+    /**
+     * Tests that reading a journal that was never written returns no entries.
+     */
+    @Test
+    void testReadMissingJournal() throws IOException {
+        assertTrue(new MutationJournal(file, objectMapper).readAll().isEmpty());
+    }
+
+    /**
+     * Channel that can be switched to write half of a buffer and then fail,
+     * and optionally to fail truncation too, like a device running out of space.
+     */
+    private static final class FailingChannel extends FileChannel {
+
+        private final FileChannel delegate;
+        private final boolean canTruncate;
+        boolean failWrites;
+
+        FailingChannel(FileChannel delegate, boolean canTruncate) {
+            this.delegate = delegate;
+            this.canTruncate = canTruncate;
+        }
+
+        @Override
+        public int write(ByteBuffer src) throws IOException {
+            if (!failWrites) {
+                return delegate.write(src);
+            }
+            ByteBuffer half = src.duplicate();
+            half.limit(src.position() + src.remaining() / 2);
+            delegate.write(half);
+            throw new IOException("No space left on device");
+        }
+
+        @Override
+        public FileChannel truncate(long size) throws IOException {
+            if (!canTruncate) {
+                throw new IOException("Device is read-only");
+            }
+            delegate.truncate(size);
+            return this;
+        }
+
+        @Override
+        public long size() throws IOException {
+            return delegate.size();
+        }
+
+        @Override
+        public void force(boolean metaData) throws IOException {
+            delegate.force(metaData);
+        }
+
+        @Override
+        public int read(ByteBuffer dst) throws IOException {
+            return delegate.read(dst);
+        }
+
+        @Override
+        public long read(ByteBuffer[] dsts, int offset, int length) throws IOException {
+            return delegate.read(dsts, offset, length);
+        }
+
+        @Override
+        public long write(ByteBuffer[] srcs, int offset, int length) throws IOException {
+            return delegate.write(srcs, offset, length);
+        }
+
+        @Override
+        public long position() throws IOException {
+            return delegate.position();
+        }
+
+        @Override
+        public FileChannel position(long newPosition) throws IOException {
+            delegate.position(newPosition);
+            return this;
+        }
+
+        @Override
+        public long transferTo(long position, long count, WritableByteChannel target) throws IOException {
+            return delegate.transferTo(position, count, target);
+        }
+
+        @Override
+        public long transferFrom(ReadableByteChannel src, long position, long count) throws IOException {
+            return delegate.transferFrom(src, position, count);
+        }
+
+        @Override
+        public int read(ByteBuffer dst, long position) throws IOException {
+            return delegate.read(dst, position);
+        }
+
+        @Override
+        public int write(ByteBuffer src, long position) throws IOException {
+            return delegate.write(src, position);
+        }
+
+        @Override
+        public MappedByteBuffer map(MapMode mode, long position, long size) throws IOException {
+            return delegate.map(mode, position, size);
+        }
+
+        @Override
+        public FileLock lock(long position, long size, boolean shared) throws IOException {
+            return delegate.lock(position, size, shared);
+        }
+
+        @Override
+        public FileLock tryLock(long position, long size, boolean shared) throws IOException {
+            return delegate.tryLock(position, size, shared);
+        }
+
+        @Override
+        protected void implCloseChannel() throws IOException {
+            delegate.close();
+        }
+    }
+}
@@ -0,0 +1,53 @@
+package com.safetynet.safetynet.repository.persistence;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import com.safetynet.safetynet.dto.DataDTO;
+import com.safetynet.safetynet.repository.generator.SyntheticDataGenerator;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for {@link SnapshotConverter}.
+ * <p>
+ * Verifies that converting JSON to binary and back preserves the data set.
+ */
+class SnapshotConverterTest {
+
+    @TempDir
+    Path tempDir;
+
+    /**
+     * Tests a JSON to binary to JSON round trip, and that the binary file is the smaller one.
+     */
+    @Test
+    void testJsonBinaryRoundTrip() throws IOException {
+        ObjectMapper objectMapper = new ObjectMapper().registerModule(new JavaTimeModule())
+                .disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS);
+        SnapshotConverter converter = new SnapshotConverter(objectMapper);
+        Path json = tempDir.resolve("data.json");
+        try (OutputStream out = Files.newOutputStream(json)) {
+            new SyntheticDataGenerator(1_000, 3L).writeJson(out);
+        }
+        Path binary = tempDir.resolve("data.bin");
+        Path exported = tempDir.resolve("exported.json");
+
+        DataDTO original = converter.convert(json, binary);
+        converter.convert(binary, exported);
+        DataDTO roundTripped = objectMapper.readValue(exported.toFile(), DataDTO.class);
+
+        assertEquals(original.getPersons(), roundTripped.getPersons());
+        assertEquals(original.getFireStations(), roundTripped.getFireStations());
+        assertEquals(original.getMedicalRecords(), roundTripped.getMedicalRecords());
+        assertTrue(Files.size(binary) * 2 < Files.size(json),
+                "binary " + Files.size(binary) + " bytes vs JSON " + Files.size(json) + " bytes");
+    }
+}
@@ -0,0 +1,110 @@
+package com.safetynet.safetynet.repository.persistence;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for {@link WriteBehindPersister}.
+ * <p>
+ * Verifies that mutations are coalesced into a single flush, that the dirty
+ * threshold forces an early flush and that closing flushes pending changes.
+ */
+class WriteBehindPersisterTest {
+
+    private final AtomicInteger flushes = new AtomicInteger();
+    private WriteBehindPersister persister;
+
+    @AfterEach
+    void tearDown() {
+        if (persister != null) {
+            persister.close();
+        }
+    }
+
+    /**
+     * Tests that a burst of mutations results in a single flush after the delay.
+     */
+    @Test
+    void testBurstIsCoalescedIntoOneFlush() throws InterruptedException {
+        persister = new WriteBehindPersister(flushes::incrementAndGet, 100, 1000);
+
+        for (int i = 0; i < 50; i++) {
+            persister.markDirty();
+        }
+        assertEquals(0, flushes.get());
+
+        waitForFlushes(1);
+        assertEquals(1, flushes.get());
+        assertEquals(0, persister.getPendingCount());
+    }
+
+    /**
+     * Tests that reaching the dirty threshold flushes without waiting for the delay.
+     */
+    @Test
+    void testMaxDirtyCountTriggersImmediateFlush() throws InterruptedException {
+        persister = new WriteBehindPersister(flushes::incrementAndGet, 60_000, 3);
+
+        persister.markDirty();
+        persister.markDirty();
+        persister.markDirty();
+
+        waitForFlushes(1);
+        assertEquals(1, flushes.get());
+    }
+
+    /**
+     * Tests that a synchronous flush persists immediately and that
+     * flushing with nothing pending is a no-op.
+     */
+    @Test
+    void testSynchronousFlush() {
+        persister = new WriteBehindPersister(flushes::incrementAndGet, 60_000, 1000);
+
+        persister.flush();
+        assertEquals(0, flushes.get());
+
+        persister.markDirty();
+        persister.flush();
+        assertEquals(1, flushes.get());
+    }
+
+    /**
+     * Tests that closing the persister flushes pending mutations.
+     */
+    @Test
+    void testCloseFlushesPendingMutations() {
+        persister = new WriteBehindPersister(flushes::incrementAndGet, 60_000, 1000);
+
+        persister.markDirty();
+        persister.close();
+
+        assertEquals(1, flushes.get());
+    }
+
+    /**
+     * Tests that a failed flush keeps the mutations pending.
+     */
+    @Test
+    void testFailedFlushKeepsMutationsPending() {
+        persister = new WriteBehindPersister(() -> {
+            throw new IllegalStateException("disk full");
+        }, 60_000, 1000);
+
+        persister.markDirty();
+        assertThrows(IllegalStateException.class, persister::flush);
+        assertEquals(1, persister.getPendingCount());
+        persister = null;
+    }
+
+    private void waitForFlushes(int expected) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 5000;
+        while (flushes.get() < expected && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+        }
+    }
+}
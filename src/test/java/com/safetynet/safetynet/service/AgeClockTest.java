@@ -0,0 +1,65 @@
+package com.safetynet.safetynet.service;
+
+import com.safetynet.safetynet.repository.CalendarDay;
+import org.junit.jupiter.api.Test;
+
+import java.time.Clock;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Unit tests for {@link AgeClock}.
+ *
+ * <p>Verifies that the cached day is served until midnight and refreshed by
+ * the first call made after it.</p>
+ */
+class AgeClockTest {
+
+    /**
+     * Test that the day changes exactly at midnight in the clock's time zone.
+     */
+    @Test
+    void testToday_ShouldRollOverAtMidnight() {
+        MutableClock clock = new MutableClock(LocalDateTime.of(2024, 2, 28, 23, 59, 59).toInstant(ZoneOffset.UTC));
+        AgeClock ageClock = new AgeClock(clock);
+
+        CalendarDay before = ageClock.today();
+        assertThat(before).isEqualTo(CalendarDay.of(LocalDate.of(2024, 2, 28)));
+        assertThat(ageClock.today()).isSameAs(before);
+
+        clock.instant = clock.instant.plusSeconds(1);
+        assertThat(ageClock.today()).isEqualTo(CalendarDay.of(LocalDate.of(2024, 2, 29)));
+    }
+
+    /**
+     * Clock whose instant can be moved by the test.
+     */
+    private static final class MutableClock extends Clock {
+
+        private Instant instant;
+
+        private MutableClock(Instant instant) {
+            this.instant = instant;
+        }
+
+        @Override
+        public ZoneId getZone() {
+            return ZoneOffset.UTC;
+        }
+
+        @Override
+        public Clock withZone(ZoneId zone) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public Instant instant() {
+            return instant;
+        }
+    }
+}
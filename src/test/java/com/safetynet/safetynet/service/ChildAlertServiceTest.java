@@ -3,6 +3,8 @@ package com.safetynet.safetynet.service;
 import com.safetynet.safetynet.dto.ChildAlertDTO;
 import com.safetynet.safetynet.model.MedicalRecord;
 import com.safetynet.safetynet.model.Person;
+import com.safetynet.safetynet.repository.DataSnapshot;
+import com.safetynet.safetynet.repository.DataSnapshotRepository;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -11,6 +13,7 @@ import org.springframework.test.context.bean.override.mockito.MockitoBean;
 
 import java.time.LocalDate;
 import java.util.List;
+import java.util.Map;
 
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.mockito.Mockito.*;
@@ -19,16 +22,13 @@ import static org.mockito.Mockito.*;
  * Unit tests for {@link ChildAlertService}.
  *
  * <p>Verifies the behavior of {@link ChildAlertService} methods for retrieving
- * children and household members at a given address, as well as age calculation.</p>
+ * children and household members at a given address.</p>
  */
 @SpringBootTest
 public class ChildAlertServiceTest {
 
     @MockitoBean
-    private PersonService personService;
-
-    @MockitoBean
-    private MedicalRecordService medicalRecordService;
+    private DataSnapshotRepository dataSnapshotRepository;
 
     @Autowired
     private ChildAlertService childAlertService;
@@ -58,8 +58,7 @@ public class ChildAlertServiceTest {
      */
     @Test
     void testGetChildrenAtAddress_WithChildrenPresent() {
-        when(personService.getAllPersons()).thenReturn(mockPersons);
-        when(medicalRecordService.getAllMedicalRecords()).thenReturn(mockMedicalRecords);
+        when(dataSnapshotRepository.current()).thenReturn(DataSnapshot.of(mockPersons, List.of(), mockMedicalRecords));
 
         ChildAlertDTO result = childAlertService.getChildrenAtAddress("1 Dover St");
 
@@ -74,8 +73,7 @@ public class ChildAlertServiceTest {
         assertThat(result.getHouseholdMembers().get(0).getFirstName()).isEqualTo("Jane");
         assertThat(result.getHouseholdMembers().get(0).getLastName()).isEqualTo("Doe");
 
-        verify(personService, times(1)).getAllPersons();
-        verify(medicalRecordService, times(1)).getAllMedicalRecords();
+        verify(dataSnapshotRepository, times(1)).current();
     }
     /**
      * Test retrieving children at an address where no children are present.
@@ -87,8 +85,7 @@ public class ChildAlertServiceTest {
                 new MedicalRecord("John", "Doe", LocalDate.of(1985, 1, 1), List.of(), List.of()),
                 new MedicalRecord("Jane", "Doe", LocalDate.of(1990, 1, 1), List.of(), List.of())
         );
-        when(personService.getAllPersons()).thenReturn(mockPersons);
-        when(medicalRecordService.getAllMedicalRecords()).thenReturn(mockMedicalRecords);
+        when(dataSnapshotRepository.current()).thenReturn(DataSnapshot.of(mockPersons, List.of(), mockMedicalRecords));
 
         ChildAlertDTO result = childAlertService.getChildrenAtAddress("1 Dover St");
 
@@ -103,8 +100,7 @@ public class ChildAlertServiceTest {
      */
     @Test
     void testGetChildrenAtAddress_UnknownAddress() {
-        when(personService.getAllPersons()).thenReturn(List.of());
-        when(medicalRecordService.getAllMedicalRecords()).thenReturn(List.of());
+        when(dataSnapshotRepository.current()).thenReturn(DataSnapshot.of(mockPersons, List.of(), mockMedicalRecords));
 
         ChildAlertDTO result = childAlertService.getChildrenAtAddress("999 Nowhere Rd");
 
@@ -114,20 +110,20 @@ public class ChildAlertServiceTest {
     }
 
     /**
-     * Test that the age calculation method returns the correct age for a valid birthdate.
+     * Test retrieving children at several addresses in one call.
+     * Verifies that every address gets an entry, empty when no child lives there.
      */
     @Test
-    void testCalculateAge_ShouldReturnValidAge() {
-        int age = childAlertService.calculateAge(LocalDate.now().minusYears(20));
-        assertThat(age).isEqualTo(20);
-    }
+    void testGetChildrenAtAddresses() {
+        when(dataSnapshotRepository.current()).thenReturn(DataSnapshot.of(mockPersons, List.of(), mockMedicalRecords));
 
-    /**
-     * Test that the age calculation method returns 0 if the birthdate is null.
-     */
-    @Test
-    void testCalculateAge_ShouldReturnZeroWhenNull() {
-        int age = childAlertService.calculateAge(null);
-        assertThat(age).isEqualTo(0);
+        Map<String, ChildAlertDTO> result = childAlertService.getChildrenAtAddresses(
+                List.of("1 Dover St", "9 Nowhere"));
+
+        assertThat(result.keySet()).containsExactly("1 Dover St", "9 Nowhere");
+        assertThat(result.get("1 Dover St").getChildren()).hasSize(1);
+        assertThat(result.get("1 Dover St").getHouseholdMembers()).hasSize(1);
+        assertThat(result.get("9 Nowhere").getChildren()).isEmpty();
+        verify(dataSnapshotRepository, times(1)).current();
     }
 }
@@ -2,6 +2,8 @@ package com.safetynet.safetynet.service;
 
 import com.safetynet.safetynet.dto.CommunityEmailDTO;
 import com.safetynet.safetynet.model.Person;
+import com.safetynet.safetynet.repository.DataSnapshot;
+import com.safetynet.safetynet.repository.DataSnapshotRepository;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -24,7 +26,7 @@ import static org.mockito.Mockito.when;
 class CommunityEmailServiceTest {
 
     @MockitoBean
-    private PersonService personService;
+    private DataSnapshotRepository dataSnapshotRepository;
 
     @Autowired
     private CommunityEmailService communityEmailService;
@@ -40,7 +42,8 @@ class CommunityEmailServiceTest {
                 new Person("John", "Doe", "1 Dover St", "Miami", "33101", "111-222-3333", "john@doe.com"),
                 new Person("Jane", "Doe", "2 Palm Ave", "Miami", "33102", "111-222-3334", "jane@doe.com"),
                 new Person("Bob", "Smith", "3 Ocean Dr", "Orlando", "33103", "111-222-3335", "bob@smith.com"),
-                new Person("NoMail", "User", "5 Bay Rd", "Miami", "33104", "111-222-3336", null) // no email
+                new Person("NoMail", "User", "5 Bay Rd", "Miami", "33104", "111-222-3336", null), // no email
+                new Person("Jill", "Doe", "2 Palm Ave", "MIAMI", "33102", "111-222-3337", "jane@doe.com") // shared email
         );
     }
 
@@ -50,7 +53,7 @@ class CommunityEmailServiceTest {
      */
     @Test
     void testGetEmailsByCity_WithMultipleValidEmails() {
-        when(personService.getAllPersons()).thenReturn(mockPersons);
+        when(dataSnapshotRepository.current()).thenReturn(DataSnapshot.of(mockPersons, List.of(), List.of()));
 
         CommunityEmailDTO result = communityEmailService.getEmailsByCity("Miami");
 
@@ -66,7 +69,7 @@ class CommunityEmailServiceTest {
      */
     @Test
     void testGetEmailsByCity_NoMatchFound() {
-        when(personService.getAllPersons()).thenReturn(mockPersons);
+        when(dataSnapshotRepository.current()).thenReturn(DataSnapshot.of(mockPersons, List.of(), List.of()));
 
         CommunityEmailDTO result = communityEmailService.getEmailsByCity("Tampa");
 
@@ -81,7 +84,7 @@ class CommunityEmailServiceTest {
      */
     @Test
     void testGetEmailsByCity_CaseInsensitive() {
-        when(personService.getAllPersons()).thenReturn(mockPersons);
+        when(dataSnapshotRepository.current()).thenReturn(DataSnapshot.of(mockPersons, List.of(), List.of()));
 
         CommunityEmailDTO result = communityEmailService.getEmailsByCity("miami");
 
@@ -4,6 +4,8 @@ import com.safetynet.safetynet.dto.FireDTO;
 import com.safetynet.safetynet.model.FireStation;
 import com.safetynet.safetynet.model.MedicalRecord;
 import com.safetynet.safetynet.model.Person;
+import com.safetynet.safetynet.repository.DataSnapshot;
+import com.safetynet.safetynet.repository.DataSnapshotRepository;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -12,9 +14,10 @@ import org.springframework.test.context.bean.override.mockito.MockitoBean;
 
 import java.time.LocalDate;
 import java.util.List;
+import java.util.Map;
 
 import static org.assertj.core.api.Assertions.assertThat;
-import static org.mockito.Mockito.when;
+import static org.mockito.Mockito.*;
 
 /**
  * Unit tests for {@link FireAlertService}.
@@ -26,13 +29,7 @@ import static org.mockito.Mockito.when;
 class FireAlertServiceTest {
 
     @MockitoBean
-    private PersonService personService;
-
-    @MockitoBean
-    private MedicalRecordService medicalRecordService;
-
-    @MockitoBean
-    private FireStationService fireStationService;
+    private DataSnapshotRepository dataSnapshotRepository;
 
     @Autowired
     private FireAlertService fireAlertService;
@@ -68,9 +65,8 @@ class FireAlertServiceTest {
      */
     @Test
     void testGetFireAlertByAddress_ValidData() {
-        when(personService.getAllPersons()).thenReturn(mockPersons);
-        when(medicalRecordService.getAllMedicalRecords()).thenReturn(mockMedicalRecords);
-        when(fireStationService.getAllFireStations()).thenReturn(mockFireStations);
+        when(dataSnapshotRepository.current())
+                .thenReturn(DataSnapshot.of(mockPersons, mockFireStations, mockMedicalRecords));
 
         FireDTO result = fireAlertService.getFireAlertByAddress("123 Main St");
 
@@ -100,9 +96,8 @@ class FireAlertServiceTest {
      */
     @Test
     void testGetFireAlertByAddress_NoFireStationFound() {
-        when(personService.getAllPersons()).thenReturn(mockPersons);
-        when(medicalRecordService.getAllMedicalRecords()).thenReturn(mockMedicalRecords);
-        when(fireStationService.getAllFireStations()).thenReturn(List.of());
+        when(dataSnapshotRepository.current()).thenReturn(DataSnapshot.of(
+                mockPersons, List.of(new FireStation("456 Other St", "5")), mockMedicalRecords));
 
         FireDTO result = fireAlertService.getFireAlertByAddress("123 Main St");
 
@@ -117,10 +112,8 @@ class FireAlertServiceTest {
      */
     @Test
     void testGetFireAlertByAddress_InvalidStationNumber() {
-        when(personService.getAllPersons()).thenReturn(mockPersons);
-        when(medicalRecordService.getAllMedicalRecords()).thenReturn(mockMedicalRecords);
-        when(fireStationService.getAllFireStations())
-                .thenReturn(List.of(new FireStation("123 Main St", "invalid")));
+        when(dataSnapshotRepository.current()).thenReturn(DataSnapshot.of(
+                mockPersons, List.of(new FireStation("123 Main St", "invalid")), mockMedicalRecords));
 
         FireDTO result = fireAlertService.getFireAlertByAddress("123 Main St");
 
@@ -134,9 +127,8 @@ class FireAlertServiceTest {
      */
     @Test
     void testGetFireAlertByAddress_NoMedicalRecord() {
-        when(personService.getAllPersons()).thenReturn(mockPersons);
-        when(medicalRecordService.getAllMedicalRecords()).thenReturn(List.of());
-        when(fireStationService.getAllFireStations()).thenReturn(mockFireStations);
+        when(dataSnapshotRepository.current())
+                .thenReturn(DataSnapshot.of(mockPersons, mockFireStations, List.of()));
 
         FireDTO result = fireAlertService.getFireAlertByAddress("123 Main St");
 
@@ -145,4 +137,24 @@ class FireAlertServiceTest {
         assertThat(result.getResidents().get(0).getMedications()).isEmpty();
         assertThat(result.getResidents().get(0).getAllergies()).isEmpty();
     }
+
+    /**
+     * Test retrieving fire alert information for several addresses in one call.
+     * Verifies that each distinct address is answered once, in request order, from a single snapshot.
+     */
+    @Test
+    void testGetFireAlertsByAddresses() {
+        when(dataSnapshotRepository.current())
+                .thenReturn(DataSnapshot.of(mockPersons, mockFireStations, mockMedicalRecords));
+
+        Map<String, FireDTO> result = fireAlertService.getFireAlertsByAddresses(
+                List.of("456 Other St", "123 Main St", "456 Other St"));
+
+        assertThat(result.keySet()).containsExactly("456 Other St", "123 Main St");
+        assertThat(result.get("123 Main St").getFireStationNumber()).isEqualTo(2);
+        assertThat(result.get("123 Main St").getResidents()).hasSize(2);
+        assertThat(result.get("456 Other St").getFireStationNumber()).isEqualTo(5);
+        assertThat(result.get("456 Other St").getResidents()).isEmpty();
+        verify(dataSnapshotRepository, times(1)).current();
+    }
 }
@@ -2,7 +2,10 @@ package com.safetynet.safetynet.service;
 
 import com.safetynet.safetynet.dto.FireStationCoverageDTO;
 import com.safetynet.safetynet.model.Person;
+import com.safetynet.safetynet.model.FireStation;
 import com.safetynet.safetynet.model.MedicalRecord;
+import com.safetynet.safetynet.repository.DataSnapshot;
+import com.safetynet.safetynet.repository.DataSnapshotRepository;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -26,13 +29,7 @@ import static org.mockito.Mockito.when;
 public class FireStationCoverageServiceTest {
 
     @MockitoBean
-    private FireStationService fireStationService;
-
-    @MockitoBean
-    private PersonService personService;
-
-    @MockitoBean
-    private MedicalRecordService medicalRecordService;
+    private DataSnapshotRepository dataSnapshotRepository;
 
     @Autowired
     private FireStationCoverageService fireStationCoverageService;
@@ -64,12 +61,8 @@ public class FireStationCoverageServiceTest {
     @Test
     void testGetCoverageByStation() {
         // GIVEN
-        when(fireStationService.getAllFireStations()).thenReturn(List.of(
-                new com.safetynet.safetynet.model.FireStation("10 Elm St", "1")
-        ));
-        when(personService.getAllPersons()).thenReturn(mockPersons);
-        when(medicalRecordService.findByName("Alice", "Smith")).thenReturn(mockMedicalRecords.get(0));
-        when(medicalRecordService.findByName("Bob", "Smith")).thenReturn(mockMedicalRecords.get(1));
+        when(dataSnapshotRepository.current()).thenReturn(DataSnapshot.of(
+                mockPersons, List.of(new FireStation("10 Elm St", "1")), mockMedicalRecords));
 
         // WHEN
         FireStationCoverageDTO dto = fireStationCoverageService.getCoverageByStation("1");
@@ -9,6 +9,7 @@ import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.test.context.bean.override.mockito.MockitoBean;
 
 import java.util.List;
+import java.util.Set;
 
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.mockito.Mockito.*;
@@ -92,4 +93,32 @@ public class FireStationServiceTest {
 
         verify(fireStationRepository, times(1)).getAllFireStations();
     }
+
+    /**
+     * Test retrieving the addresses covered by a station.
+     * Verifies that the lookup is delegated to the repository index.
+     */
+    @Test
+    void testFindAddressesByStation() {
+        when(fireStationRepository.findAddressesByStation("1")).thenReturn(Set.of("10 Elm St"));
+
+        Set<String> addresses = fireStationService.findAddressesByStation("1");
+        assertThat(addresses).containsExactly("10 Elm St");
+
+        verify(fireStationRepository, times(1)).findAddressesByStation("1");
+    }
+
+    /**
+     * Test retrieving the stations covering an address.
+     * Verifies that the lookup is delegated to the repository index.
+     */
+    @Test
+    void testFindStationsByAddress() {
+        when(fireStationRepository.findStationsByAddress("10 Elm St")).thenReturn(Set.of("1"));
+
+        Set<String> stations = fireStationService.findStationsByAddress("10 Elm St");
+        assertThat(stations).containsExactly("1");
+
+        verify(fireStationRepository, times(1)).findStationsByAddress("10 Elm St");
+    }
 }
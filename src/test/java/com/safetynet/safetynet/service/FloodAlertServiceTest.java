@@ -5,6 +5,8 @@ import com.safetynet.safetynet.dto.FloodStationsDTO.HouseholdInfo;
 import com.safetynet.safetynet.model.FireStation;
 import com.safetynet.safetynet.model.MedicalRecord;
 import com.safetynet.safetynet.model.Person;
+import com.safetynet.safetynet.repository.DataSnapshot;
+import com.safetynet.safetynet.repository.DataSnapshotRepository;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -29,13 +31,7 @@ import static org.mockito.Mockito.when;
 class FloodAlertServiceTest {
 
     @MockitoBean
-    private PersonService personService;
-
-    @MockitoBean
-    private FireStationService fireStationService;
-
-    @MockitoBean
-    private MedicalRecordService medicalRecordService;
+    private DataSnapshotRepository dataSnapshotRepository;
 
     @Autowired
     private FloodAlertService floodAlertService;
@@ -48,7 +44,7 @@ class FloodAlertServiceTest {
      * Initializes mock data before each test.
      * <p>
      * Creates persons, fire stations, and medical records, and
-     * mocks service methods to return this data.
+     * mocks the snapshot repository to return this data.
      */
     @BeforeEach
     void setUp() {
@@ -72,10 +68,9 @@ class FloodAlertServiceTest {
                 new MedicalRecord("Alice", "Smith", LocalDate.of(2005, 5, 5), List.of(), List.of())
         );
 
-        // Mocking service responses
-        when(fireStationService.getAllFireStations()).thenReturn(mockFireStations);
-        when(personService.getAllPersons()).thenReturn(mockPersons);
-        when(medicalRecordService.getAllMedicalRecords()).thenReturn(mockMedicalRecords);
+        // Mocking the snapshot
+        when(dataSnapshotRepository.current())
+                .thenReturn(DataSnapshot.of(mockPersons, mockFireStations, mockMedicalRecords));
     }
 
     /**
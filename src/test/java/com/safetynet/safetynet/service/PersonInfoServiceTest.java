@@ -3,6 +3,8 @@ package com.safetynet.safetynet.service;
 import com.safetynet.safetynet.dto.PersonInfoDTO;
 import com.safetynet.safetynet.model.MedicalRecord;
 import com.safetynet.safetynet.model.Person;
+import com.safetynet.safetynet.repository.DataSnapshot;
+import com.safetynet.safetynet.repository.DataSnapshotRepository;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -25,10 +27,7 @@ import static org.mockito.Mockito.when;
 public class PersonInfoServiceTest {
 
     @MockitoBean
-    private PersonService personService;
-
-    @MockitoBean
-    private MedicalRecordService medicalRecordService;
+    private DataSnapshotRepository dataSnapshotRepository;
 
     @Autowired
     private PersonInfoService personInfoService;
@@ -57,8 +56,8 @@ public class PersonInfoServiceTest {
     @Test
     void testGetPersonInfoByLastName() {
         // GIVEN
-        when(personService.getAllPersons()).thenReturn(List.of(johnDoe, janeDoe));
-        when(medicalRecordService.getAllMedicalRecords()).thenReturn(List.of(johnRecord, janeRecord));
+        when(dataSnapshotRepository.current())
+                .thenReturn(DataSnapshot.of(List.of(johnDoe, janeDoe), List.of(), List.of(johnRecord, janeRecord)));
 
         // WHEN
         List<PersonInfoDTO> result = personInfoService.getPersonInfoByLastName("Doe");
@@ -89,4 +88,23 @@ public class PersonInfoServiceTest {
         assertThat(janeDTO.getMedications()).containsExactly("med2");
         assertThat(janeDTO.getAllergies()).containsExactly("allergy2");
     }
+
+    /**
+     * Tests that the last name is matched ignoring case and that an unknown name yields no result.
+     */
+    @Test
+    void testGetPersonInfoByLastNameIgnoresCase() {
+        // GIVEN
+        Person renamed = new Person("Ann", "Smith", "456 Oak St", "City", "12345", "777-888-9999", "ann@smith.com");
+        when(dataSnapshotRepository.current())
+                .thenReturn(DataSnapshot.of(List.of(johnDoe, renamed, janeDoe), List.of(), List.of(johnRecord)));
+
+        // WHEN
+        List<PersonInfoDTO> result = personInfoService.getPersonInfoByLastName("dOE");
+
+        // THEN
+        assertThat(result).extracting(PersonInfoDTO::getFirstName).containsExactly("John", "Jane");
+        assertThat(result.get(1).getMedications()).isEmpty();
+        assertThat(personInfoService.getPersonInfoByLastName("Nobody")).isEmpty();
+    }
 }
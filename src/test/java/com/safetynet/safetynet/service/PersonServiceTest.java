@@ -109,4 +109,14 @@ public class PersonServiceTest {
         assertThat(persons.get(0).getFirstName()).isEqualTo("John");
         verify(personRepository, times(1)).getAllPersons();
     }
+
+    @Test
+    void testFindByAddress() {
+        when(personRepository.findByAddress("123 Main St")).thenReturn(List.of(johnDoe));
+
+        List<Person> persons = personService.findByAddress("123 Main St");
+
+        assertThat(persons).containsExactly(johnDoe);
+        verify(personRepository, times(1)).findByAddress("123 Main St");
+    }
 }
@@ -3,6 +3,8 @@ package com.safetynet.safetynet.service;
 import com.safetynet.safetynet.dto.PhoneAlertDTO;
 import com.safetynet.safetynet.model.FireStation;
 import com.safetynet.safetynet.model.Person;
+import com.safetynet.safetynet.repository.DataSnapshot;
+import com.safetynet.safetynet.repository.DataSnapshotRepository;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.mockito.InjectMocks;
@@ -10,6 +12,7 @@ import org.mockito.Mock;
 import org.mockito.MockitoAnnotations;
 
 import java.util.List;
+import java.util.Map;
 
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.mockito.Mockito.*;
@@ -23,15 +26,13 @@ import static org.mockito.Mockito.*;
  *     <li>Single resident at a station address</li>
  *     <li>No residents at the station</li>
  *     <li>Multiple residents at the same station address</li>
+ *     <li>Residents without a phone number, or sharing one</li>
  * </ul>
  */
 class PhoneAlertServiceTest {
 
     @Mock
-    private FireStationService fireStationService;
-
-    @Mock
-    private PersonService personService;
+    private DataSnapshotRepository dataSnapshotRepository;
 
     @InjectMocks
     private PhoneAlertService phoneAlertService;
@@ -59,14 +60,13 @@ class PhoneAlertServiceTest {
      */
     @Test
     void testGetPhonesByFireStation_WithResidents() {
-        when(fireStationService.getAllFireStations()).thenReturn(List.of(station1));
-        when(personService.getAllPersons()).thenReturn(List.of(johnDoe, janeDoe));
+        when(dataSnapshotRepository.current())
+                .thenReturn(DataSnapshot.of(List.of(johnDoe, janeDoe), List.of(station1), List.of()));
 
         PhoneAlertDTO result = phoneAlertService.getPhonesByFireStation("1");
 
         assertThat(result.getPhoneNumbers()).containsExactly("123-456-7890");
-        verify(fireStationService).getAllFireStations();
-        verify(personService).getAllPersons();
+        verify(dataSnapshotRepository, times(1)).current();
     }
 
     /**
@@ -74,8 +74,8 @@ class PhoneAlertServiceTest {
      */
     @Test
     void testGetPhonesByFireStation_NoResidents() {
-        when(fireStationService.getAllFireStations()).thenReturn(List.of());
-        when(personService.getAllPersons()).thenReturn(List.of(johnDoe, janeDoe));
+        when(dataSnapshotRepository.current())
+                .thenReturn(DataSnapshot.of(List.of(johnDoe), List.of(), List.of()));
 
         PhoneAlertDTO result = phoneAlertService.getPhonesByFireStation("1");
 
@@ -88,12 +88,62 @@ class PhoneAlertServiceTest {
     @Test
     void testGetPhonesByFireStation_MultipleResidentsSameAddress() {
         Person janeAtSameAddress = new Person("Jane", "Doe", "123 Main St", "City", "11111", "987-654-3210", "jane@doe.com");
-        when(fireStationService.getAllFireStations()).thenReturn(List.of(station1));
-        when(personService.getAllPersons()).thenReturn(List.of(johnDoe, janeAtSameAddress));
+        when(dataSnapshotRepository.current())
+                .thenReturn(DataSnapshot.of(List.of(johnDoe, janeAtSameAddress), List.of(station1), List.of()));
 
         PhoneAlertDTO result = phoneAlertService.getPhonesByFireStation("1");
 
         assertThat(result.getPhoneNumbers())
                 .containsExactlyInAnyOrder("123-456-7890", "987-654-3210");
     }
+
+    /**
+     * Tests that a resident without a phone number adds no entry, null included.
+     */
+    @Test
+    void testGetPhonesByFireStation_ResidentWithoutPhone() {
+        Person noPhone = new Person("Jim", "Doe", "123 Main St", "City", "11111", null, "jim@doe.com");
+        when(dataSnapshotRepository.current())
+                .thenReturn(DataSnapshot.of(List.of(noPhone, johnDoe), List.of(station1), List.of()));
+
+        PhoneAlertDTO result = phoneAlertService.getPhonesByFireStation("1");
+
+        assertThat(result.getPhoneNumbers()).containsExactly("123-456-7890");
+    }
+
+    /**
+     * Tests that the phone numbers of a station are distinct, in the order their
+     * first holder was indexed, without {@code null}, across its addresses.
+     */
+    @Test
+    void testGetPhonesByFireStation_DistinctInFirstSeenOrder() {
+        Person noPhone = new Person("Jim", "Doe", "123 Main St", "City", "11111", null, "jim@doe.com");
+        Person sharesJohnsPhone = new Person("Joe", "Doe", "456 Elm St", "City", "11111", "123-456-7890", "joe@doe.com");
+        Person secondNoPhone = new Person("Ann", "Doe", "456 Elm St", "City", "11111", null, "ann@doe.com");
+        when(dataSnapshotRepository.current())
+                .thenReturn(DataSnapshot.of(List.of(noPhone, johnDoe, sharesJohnsPhone, janeDoe, secondNoPhone),
+                        List.of(station1, new FireStation("456 Elm St", "1")), List.of()));
+
+        PhoneAlertDTO result = phoneAlertService.getPhonesByFireStation("1");
+
+        assertThat(result.getPhoneNumbers()).containsExactly("123-456-7890", "987-654-3210");
+    }
+
+    /**
+     * Tests retrieving phone numbers for several fire stations in one call.
+     */
+    @Test
+    void testGetPhonesByFireStations() {
+        FireStation station2 = new FireStation("456 Elm St", "2");
+        when(dataSnapshotRepository.current())
+                .thenReturn(DataSnapshot.of(List.of(johnDoe, janeDoe), List.of(station1, station2), List.of()));
+
+        Map<String, PhoneAlertDTO> result = phoneAlertService.getPhonesByFireStations(List.of("2", "1", "3"));
+
+        assertThat(result.keySet()).containsExactly("2", "1", "3");
+        assertThat(result.get("1").getPhoneNumbers()).containsExactly("123-456-7890");
+        assertThat(result.get("2").getPhoneNumbers()).containsExactly("987-654-3210");
+        assertThat(result.get("3").getPhoneNumbers()).isEmpty();
+        verify(dataSnapshotRepository, times(1)).current();
+    }
 }